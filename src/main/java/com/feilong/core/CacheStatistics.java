@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core;
+
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 单个元数据缓存的统计信息.
+ * 
+ * <h3>关于 {@link #getEstimatedBytes()}:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * 是按照 64 位 jvm 的对象布局粗略估算的,只计算缓存自己持有的对象(map entry,key,计划/访问器对象,字符串等),不包括 {@link java.lang.reflect.Method}/
+ * {@link java.beans.PropertyDescriptor} 这些 jdk 以及 commons-beanutils 本身也会缓存的对象;用来比较各个缓存的大小以及观察趋势,不能代替 heap dump.
+ * </p>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see com.feilong.core.bean.MetadataCacheUtil#getCacheStatisticsList()
+ * @since 2.1.0
+ */
+public final class CacheStatistics{
+
+    /** 估算时每个 map entry(包括 hash table 的槽位)的字节数 <code>{@value}</code>. */
+    public static final int MAP_ENTRY_BYTES = 48;
+
+    //---------------------------------------------------------------
+
+    /** 缓存名称. */
+    private final String    name;
+
+    /** 缓存的条目数. */
+    private final int       size;
+
+    /** 估算的内存字节数. */
+    private final long      estimatedBytes;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new cache statistics.
+     *
+     * @param name
+     *            缓存名称
+     * @param size
+     *            缓存的条目数
+     * @param estimatedBytes
+     *            估算的内存字节数
+     * @throws NullPointerException
+     *             如果 <code>name</code> 是null
+     * @throws IllegalArgumentException
+     *             如果 <code>name</code> 是blank
+     */
+    public CacheStatistics(String name, int size, long estimatedBytes){
+        Validate.notBlank(name, "name can't be blank!");
+        this.name = name;
+        this.size = size;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 估算一个对象的字节数(对象头 + 每个字段一个引用).
+     *
+     * @param fieldCount
+     *            字段数量
+     * @return the long
+     */
+    public static long estimateObjectBytes(int fieldCount){
+        return 16 + 8L * fieldCount;
+    }
+
+    /**
+     * 估算一个对象数组的字节数.
+     *
+     * @param length
+     *            数组长度
+     * @return the long
+     */
+    public static long estimateArrayBytes(int length){
+        return 16 + 8L * length;
+    }
+
+    /**
+     * 估算一个字符串的字节数.
+     *
+     * @param value
+     *            the value
+     * @return 如果 <code>value</code> 是null,返回0
+     */
+    public static long estimateStringBytes(String value){
+        return null == value ? 0 : 40 + 2L * value.length();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 缓存名称.
+     *
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * 获得 缓存的条目数.
+     *
+     * @return the size
+     */
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * 获得 估算的内存字节数.
+     *
+     * @return the estimatedBytes
+     */
+    public long getEstimatedBytes(){
+        return estimatedBytes;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString(){
+        return Slf4jUtil.format("{}:[size:{},estimatedBytes:{}]", name, size, estimatedBytes);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.util.Map;
+
+/**
+ * 某个 bean class 的类型化属性访问器,直接调用 getter/setter,不使用反射.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>一般由 {@link BeanAccessorProcessor} 在编译期为标识了 {@link GenerateBeanAccessor} 的 bean 生成,也可以手写之后通过
+ * {@link BeanAccessorRegistry#register(BeanAccessor)} 注册</li>
+ * <li>属性的规则和 {@link java.beans.Introspector} 一致:public 的 {@code getXxx()}/{@code isXxx()} 是可读属性,public 的 {@code setXxx(value)}
+ * 是可写属性,包含 {@code class}</li>
+ * <li>只处理简单属性名称,不支持 nested/indexed/mapped 表达式,也不做类型转换</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <T>
+ *            bean 类型
+ * @see BeanAccessorRegistry
+ * @since 2.1.0
+ */
+public interface BeanAccessor<T> {
+
+    /**
+     * 获得 bean class.
+     *
+     * @return the bean class
+     */
+    Class<T> getBeanClass();
+
+    /**
+     * 获得所有可读的属性名称.
+     *
+     * @return 新的数组
+     */
+    String[] getPropertyNames();
+
+    /**
+     * 属性是否可读.
+     *
+     * @param propertyName
+     *            属性名称
+     * @return 如果存在 getter,返回true
+     */
+    boolean isReadable(String propertyName);
+
+    /**
+     * 属性是否可写.
+     *
+     * @param propertyName
+     *            属性名称
+     * @return 如果存在 setter,返回true
+     */
+    boolean isWriteable(String propertyName);
+
+    /**
+     * 获得属性值.
+     *
+     * @param bean
+     *            the bean
+     * @param propertyName
+     *            属性名称
+     * @return 属性值
+     * @throws IllegalArgumentException
+     *             如果属性不可读
+     */
+    Object getProperty(T bean,String propertyName);
+
+    /**
+     * 设置属性值,不做类型转换.
+     *
+     * @param bean
+     *            the bean
+     * @param propertyName
+     *            属性名称
+     * @param value
+     *            属性值
+     * @throws IllegalArgumentException
+     *             如果属性不可写
+     * @throws ClassCastException
+     *             如果 <code>value</code> 的类型和属性类型不一致
+     */
+    void setProperty(T bean,String propertyName,Object value);
+
+    /**
+     * 将 <code>fromBean</code> 所有可读并且可写的属性复制到 <code>toBean</code>,复制的是引用,和
+     * {@link org.apache.commons.beanutils.PropertyUtils#copyProperties(Object, Object)} 一致.
+     * 
+     * <p>
+     * {@link PropertyUtil#copyProperties(Object, Object, String...)} 在两个对象类型相同并且没有指定 includePropertyNames 的时候调用本方法;<br>
+     * {@link BeanUtil#copyProperties(Object, Object, String...)} 不调用本方法,因为它的每个属性值都要经过 converter(比如数组会复制一份,自定义的 converter
+     * 会修改值),直接复制引用和它的语义不一致.
+     * </p>
+     *
+     * @param toBean
+     *            目标 bean
+     * @param fromBean
+     *            原始 bean
+     */
+    void copyProperties(T toBean,T fromBean);
+
+    /**
+     * 将所有可读的属性放到新的 map 中,和 {@link org.apache.commons.beanutils.PropertyUtils#describe(Object)} 一致.
+     *
+     * @param bean
+     *            the bean
+     * @return 新的 map
+     */
+    Map<String, Object> describe(T bean);
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * 为标识了 {@link GenerateBeanAccessor} 的 bean 在编译期生成 {@link BeanAccessor} 实现.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>可选的,需要在编译的时候通过 {@code -processor com.feilong.core.bean.BeanAccessorProcessor} 或者 maven-compiler-plugin 的
+ * {@code annotationProcessors} 开启,参见 {@link GenerateBeanAccessor}</li>
+ * <li>生成的类和 bean 在同一个package 下,名字参见 {@link BeanAccessorRegistry#getGeneratedClassName(Class)},运行时由 {@link BeanAccessorRegistry}
+ * 自动发现</li>
+ * <li>属性的规则和 {@link java.beans.Introspector} 一致,只处理 public 非 static 的 getter/setter(包括继承的);如果 getter 和 setter 类型不一致,该属性只读</li>
+ * <li>生成的代码只使用 java 7 语法</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see GenerateBeanAccessor
+ * @see BeanAccessorRegistry
+ * @since 2.1.0
+ */
+@SupportedAnnotationTypes("com.feilong.core.bean.GenerateBeanAccessor")
+public class BeanAccessorProcessor extends AbstractProcessor{
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion(){
+        return SourceVersion.latestSupported();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,RoundEnvironment roundEnv){
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateBeanAccessor.class)){
+            if (element.getKind() != ElementKind.CLASS){
+                error(element, "@GenerateBeanAccessor can only be used on class");
+                continue;
+            }
+            if (element.getModifiers().contains(Modifier.PRIVATE)){
+                error(element, "@GenerateBeanAccessor can't be used on private class");
+                continue;
+            }
+            generate((TypeElement) element);
+        }
+        return true;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 生成 <code>typeElement</code> 的 {@link BeanAccessor}.
+     *
+     * @param typeElement
+     *            the type element
+     */
+    private void generate(TypeElement typeElement){
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+
+        PackageElement packageElement = elements.getPackageOf(typeElement);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String generatedClassName = BeanAccessorRegistry
+                        .getGeneratedClassName(packageName, elements.getBinaryName(typeElement).toString());
+        String generatedSimpleName = packageName.isEmpty() ? generatedClassName : generatedClassName.substring(packageName.length() + 1);
+        String beanType = types.erasure(typeElement.asType()).toString();
+
+        //---------------------------------------------------------------
+        Map<String, Property> propertyMap = resolveProperties(typeElement, types);
+
+        List<Property> readableList = new ArrayList<>();
+        List<Property> writeableList = new ArrayList<>();
+        for (Property property : propertyMap.values()){
+            if (null != property.getter){
+                readableList.add(property);
+            }
+            if (null != property.setter){
+                writeableList.add(property);
+            }
+        }
+
+        //---------------------------------------------------------------
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()){
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by {@link com.feilong.core.bean.BeanAccessorProcessor}, don't modify.\n */\n");
+        sb.append("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+        sb.append("public final class ").append(generatedSimpleName);
+        sb.append(" implements com.feilong.core.bean.BeanAccessor<").append(beanType).append(">{\n\n");
+
+        sb.append("    private static final String[] PROPERTY_NAMES = { ");
+        for (int i = 0; i < readableList.size(); ++i){
+            sb.append(i == 0 ? "" : ", ").append('"').append(readableList.get(i).name).append('"');
+        }
+        sb.append(" };\n\n");
+
+        sb.append("    @Override\n    public Class<").append(beanType).append("> getBeanClass(){\n");
+        sb.append("        return ").append(beanType).append(".class;\n    }\n\n");
+
+        sb.append("    @Override\n    public String[] getPropertyNames(){\n        return PROPERTY_NAMES.clone();\n    }\n\n");
+
+        appendIs(sb, "isReadable", readableList);
+        appendIs(sb, "isWriteable", writeableList);
+
+        //getProperty
+        sb.append("    @Override\n    public Object getProperty(").append(beanType).append(" bean,String propertyName){\n");
+        sb.append("        switch (propertyName) {\n");
+        for (Property property : readableList){
+            sb.append("            case \"").append(property.name).append("\":\n");
+            sb.append("                return bean.").append(property.getter).append("();\n");
+        }
+        sb.append("            default:\n");
+        sb.append("                throw new IllegalArgumentException(\"property:[\" + propertyName + \"] is not readable in ")
+                        .append(beanType).append("\");\n");
+        sb.append("        }\n    }\n\n");
+
+        //setProperty
+        sb.append("    @Override\n    public void setProperty(").append(beanType).append(" bean,String propertyName,Object value){\n");
+        sb.append("        switch (propertyName) {\n");
+        for (Property property : writeableList){
+            sb.append("            case \"").append(property.name).append("\":\n");
+            sb.append("                bean.").append(property.setter).append("((").append(property.castType).append(") value);\n");
+            sb.append("                return;\n");
+        }
+        sb.append("            default:\n");
+        sb.append("                throw new IllegalArgumentException(\"property:[\" + propertyName + \"] is not writeable in ")
+                        .append(beanType).append("\");\n");
+        sb.append("        }\n    }\n\n");
+
+        //copyProperties
+        sb.append("    @Override\n    public void copyProperties(").append(beanType).append(" toBean,").append(beanType).append(" fromBean){\n");
+        for (Property property : readableList){
+            if (null != property.setter){
+                sb.append("        toBean.").append(property.setter).append("(fromBean.").append(property.getter).append("());\n");
+            }
+        }
+        sb.append("    }\n\n");
+
+        //describe
+        sb.append("    @Override\n    public java.util.Map<String, Object> describe(").append(beanType).append(" bean){\n");
+        sb.append("        java.util.Map<String, Object> map = new java.util.HashMap<>(")
+                        .append(Math.max(16, readableList.size() * 2))
+                        .append(");\n");
+        for (Property property : readableList){
+            sb.append("        map.put(\"").append(property.name).append("\", bean.").append(property.getter).append("());\n");
+        }
+        sb.append("        return map;\n    }\n}\n");
+
+        //---------------------------------------------------------------
+        try (Writer writer = processingEnv.getFiler().createSourceFile(generatedClassName, typeElement).openWriter()){
+            writer.write(sb.toString());
+        }catch (IOException e){
+            error(typeElement, "can't generate " + generatedClassName + ":" + e.getMessage());
+        }
+    }
+
+    /**
+     * 生成 isReadable/isWriteable 方法.
+     *
+     * @param sb
+     *            the sb
+     * @param methodName
+     *            the method name
+     * @param propertyList
+     *            the property list
+     */
+    private static void appendIs(StringBuilder sb,String methodName,List<Property> propertyList){
+        sb.append("    @Override\n    public boolean ").append(methodName).append("(String propertyName){\n");
+        if (propertyList.isEmpty()){
+            sb.append("        return false;\n    }\n\n");
+            return;
+        }
+        sb.append("        switch (propertyName) {\n");
+        for (Property property : propertyList){
+            sb.append("            case \"").append(property.name).append("\":\n");
+        }
+        sb.append("                return true;\n");
+        sb.append("            default:\n                return false;\n        }\n    }\n\n");
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 解析属性,按照属性名称排序.
+     *
+     * @param typeElement
+     *            the type element
+     * @param types
+     *            the types
+     * @return the map
+     */
+    private Map<String, Property> resolveProperties(TypeElement typeElement,Types types){
+        Map<String, ExecutableElement> getterMap = new TreeMap<>();
+        Map<String, List<ExecutableElement>> setterMap = new TreeMap<>();
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(typeElement));
+        for (ExecutableElement method : methods){
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)){
+                continue;
+            }
+
+            //---------------------------------------------------------------
+            String methodName = method.getSimpleName().toString();
+            TypeMirror returnType = method.getReturnType();
+            int parameterCount = method.getParameters().size();
+
+            if (parameterCount == 0 && returnType.getKind() != TypeKind.VOID){
+                if (methodName.startsWith("get") && methodName.length() > 3){
+                    String propertyName = Introspector.decapitalize(methodName.substring(3));
+                    //boolean 属性同时有 isXxx 和 getXxx 的时候,使用 isXxx
+                    if (!getterMap.containsKey(propertyName)){
+                        getterMap.put(propertyName, method);
+                    }
+                }else if (methodName.startsWith("is") && methodName.length() > 2 && returnType.getKind() == TypeKind.BOOLEAN){
+                    getterMap.put(Introspector.decapitalize(methodName.substring(2)), method);
+                }
+            }else if (parameterCount == 1 && returnType.getKind() == TypeKind.VOID && methodName.startsWith("set") && methodName.length() > 3){
+                String propertyName = Introspector.decapitalize(methodName.substring(3));
+                List<ExecutableElement> setterList = setterMap.get(propertyName);
+                if (null == setterList){
+                    setterList = new ArrayList<>();
+                    setterMap.put(propertyName, setterList);
+                }
+                setterList.add(method);
+            }
+        }
+
+        //---------------------------------------------------------------
+        Map<String, Property> propertyMap = new TreeMap<>();
+        for (Map.Entry<String, ExecutableElement> entry : getterMap.entrySet()){
+            String propertyName = entry.getKey();
+            ExecutableElement getter = entry.getValue();
+            ExecutableElement setter = findSetter(setterMap.get(propertyName), getter.getReturnType(), types);
+            propertyMap.put(propertyName, new Property(propertyName, getter, setter, types));
+        }
+        for (Map.Entry<String, List<ExecutableElement>> entry : setterMap.entrySet()){
+            String propertyName = entry.getKey();
+            List<ExecutableElement> setterList = entry.getValue();
+            if (!propertyMap.containsKey(propertyName) && setterList.size() == 1){
+                propertyMap.put(propertyName, new Property(propertyName, null, setterList.get(0), types));
+            }
+        }
+        return propertyMap;
+    }
+
+    /**
+     * 找到参数类型和 getter 返回类型一致的 setter.
+     *
+     * @param setterList
+     *            the setter list
+     * @param type
+     *            the type
+     * @param types
+     *            the types
+     * @return 没有找到返回null
+     */
+    private static ExecutableElement findSetter(List<ExecutableElement> setterList,TypeMirror type,Types types){
+        for (ExecutableElement setter : null == setterList ? Collections.<ExecutableElement> emptyList() : setterList){
+            if (types.isSameType(types.erasure(setter.getParameters().get(0).asType()), types.erasure(type))){
+                return setter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Error.
+     *
+     * @param element
+     *            the element
+     * @param message
+     *            the message
+     */
+    private void error(Element element,String message){
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 属性.
+     */
+    private static final class Property{
+
+        /** 属性名称. */
+        private final String name;
+
+        /** getter 方法名,没有是null. */
+        private final String getter;
+
+        /** setter 方法名,没有是null. */
+        private final String setter;
+
+        /** setter 参数强转的类型,primitive 使用包装类型. */
+        private final String castType;
+
+        /**
+         * Instantiates a new property.
+         *
+         * @param name
+         *            the name
+         * @param getter
+         *            the getter
+         * @param setter
+         *            the setter
+         * @param types
+         *            the types
+         */
+        private Property(String name, ExecutableElement getter, ExecutableElement setter, Types types){
+            this.name = name;
+            this.getter = null == getter ? null : getter.getSimpleName().toString();
+            this.setter = null == setter ? null : setter.getSimpleName().toString();
+
+            TypeMirror type = null == setter ? null : setter.getParameters().get(0).asType();
+            if (null == type){
+                this.castType = null;
+            }else if (type.getKind().isPrimitive()){
+                this.castType = types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+            }else{
+                this.castType = types.erasure(type).toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * {@link BeanAccessor} 注册表.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>查找顺序:先找通过 {@link #register(BeanAccessor)} 注册的,再找 {@link BeanAccessorProcessor} 生成的类(名字参见 {@link #getGeneratedClassName(Class)}),
+ * 结果(包括没有找到)按照 class 缓存</li>
+ * <li>{@link PropertyAccessor} 以及 {@link PropertyUtil#describe(Object, String...)},{@link PropertyUtil#setProperty(Object, String, Object)}
+ * 在找到的时候直接调用 getter/setter,没有找到的时候使用反射;所以 {@link PropertyUtil},{@link BeanUtil},{@link PropertyValueObtainer} 以及
+ * {@link com.feilong.core.util.CollectionsUtil CollectionsUtil} 中基于属性名称的方法都会自动使用</li>
+ * <li>手动注册需要在第一次访问该 class 的属性之前进行,之前已经缓存的反射访问器不会被替换</li>
+ * <li>只匹配 bean 本身的 class,子类不会使用父类的 {@link BeanAccessor}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see BeanAccessor
+ * @see GenerateBeanAccessor
+ * @since 2.1.0
+ */
+public final class BeanAccessorRegistry{
+
+    /** The Constant LOGGER. */
+    private static final Logger                     LOGGER                      = LoggerFactory.getLogger(BeanAccessorRegistry.class);
+
+    /** 生成的类名后缀. */
+    public static final String                      GENERATED_CLASS_NAME_SUFFIX = "_BeanAccessor";
+
+    /** 没有 {@link BeanAccessor} 的标识. */
+    private static final Object                     NONE                        = new Object();
+
+    /** class 和 {@link BeanAccessor}(或者 {@link #NONE}),{@link #register(BeanAccessor)} 注册的不能重建,所以不淘汰. */
+    private static final ClassMetadataCache<Object> CLASS_AND_BEAN_ACCESSOR_MAP = new ClassMetadataCache<>(Integer.MAX_VALUE);
+
+    //---------------------------------------------------------------
+
+    /** Don't let anyone instantiate this class. */
+    private BeanAccessorRegistry(){
+        //AssertionError不是必须的. 但它可以避免不小心在类的内部调用构造器. 保证该类在任何情况下都不会被实例化.
+        //see 《Effective Java》 2nd
+        throw new AssertionError("No " + getClass().getName() + " instances for you!");
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 注册 <code>beanAccessor</code>,覆盖 {@link BeanAccessor#getBeanClass()} 已有的注册.
+     *
+     * @param <T>
+     *            the generic type
+     * @param beanAccessor
+     *            the bean accessor
+     * @throws NullPointerException
+     *             如果 <code>beanAccessor</code> 是null,或者 {@link BeanAccessor#getBeanClass()} 是null
+     */
+    public static <T> void register(BeanAccessor<T> beanAccessor){
+        Validate.notNull(beanAccessor, "beanAccessor can't be null!");
+        Class<T> beanClass = beanAccessor.getBeanClass();
+        Validate.notNull(beanClass, "beanAccessor.getBeanClass() can't be null!");
+
+        CLASS_AND_BEAN_ACCESSOR_MAP.put(beanClass, beanAccessor);
+    }
+
+    /**
+     * 获得 <code>beanClass</code> 的 {@link BeanAccessor}.
+     *
+     * @param <T>
+     *            the generic type
+     * @param beanClass
+     *            the bean class
+     * @return 如果没有注册也没有生成的类,返回null
+     * @throws NullPointerException
+     *             如果 <code>beanClass</code> 是null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanAccessor<T> getBeanAccessor(Class<T> beanClass){
+        Validate.notNull(beanClass, "beanClass can't be null!");
+
+        Object beanAccessor = CLASS_AND_BEAN_ACCESSOR_MAP.get(beanClass);
+        if (null == beanAccessor){
+            beanAccessor = loadGenerated(beanClass);
+            Object existed = CLASS_AND_BEAN_ACCESSOR_MAP.putIfAbsent(beanClass, beanAccessor);
+            beanAccessor = null == existed ? beanAccessor : existed;
+        }
+        return beanAccessor == NONE ? null : (BeanAccessor<T>) beanAccessor;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 {@link BeanAccessorProcessor} 为 <code>beanClass</code> 生成的类名.
+     * 
+     * <p>
+     * 和 <code>beanClass</code> 在同一个package 下,简单类名是 <code>beanClass</code> 去掉package之后的类名,把内部类的 <code>$</code> 换成 <code>_</code>,再加上
+     * {@link #GENERATED_CLASS_NAME_SUFFIX}.
+     * </p>
+     * 
+     * <pre class="code">
+     * com.feilong.store.member.User        → com.feilong.store.member.User_BeanAccessor
+     * com.feilong.store.member.Outer$Inner → com.feilong.store.member.Outer_Inner_BeanAccessor
+     * </pre>
+     *
+     * @param beanClass
+     *            the bean class
+     * @return the generated class name
+     * @throws NullPointerException
+     *             如果 <code>beanClass</code> 是null
+     */
+    public static String getGeneratedClassName(Class<?> beanClass){
+        Validate.notNull(beanClass, "beanClass can't be null!");
+        return getGeneratedClassName(ClassUtils.getPackageName(beanClass), beanClass.getName());
+    }
+
+    /**
+     * 获得生成的类名.
+     *
+     * @param packageName
+     *            package 名字,默认package 是 ""
+     * @param binaryName
+     *            bean 的 binary name
+     * @return the generated class name
+     */
+    static String getGeneratedClassName(String packageName,String binaryName){
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String generatedSimpleName = simpleName.replace('$', '_') + GENERATED_CLASS_NAME_SUFFIX;
+        return packageName.isEmpty() ? generatedSimpleName : packageName + "." + generatedSimpleName;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 加载生成的类.
+     *
+     * @param beanClass
+     *            the bean class
+     * @return 如果没有生成的类,或者加载失败,返回 {@link #NONE}
+     */
+    private static Object loadGenerated(Class<?> beanClass){
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (null == classLoader || beanClass.isArray() || beanClass.isPrimitive()){
+            return NONE;
+        }
+
+        //---------------------------------------------------------------
+        String generatedClassName = getGeneratedClassName(beanClass);
+        try{
+            Class<?> generatedClass = Class.forName(generatedClassName, true, classLoader);
+            if (!BeanAccessor.class.isAssignableFrom(generatedClass)){
+                LOGGER.warn("class:[{}] is not a BeanAccessor,use reflection for:[{}]", generatedClassName, beanClass.getName());
+                return NONE;
+            }
+            return generatedClass.newInstance();
+        }catch (ClassNotFoundException e){
+            return NONE;
+        }catch (Exception | LinkageError e){
+            LOGGER.warn(Slf4jUtil.format("can't load [{}],use reflection for:[{}]", generatedClassName, beanClass.getName()), e);
+            return NONE;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = CLASS_AND_BEAN_ACCESSOR_MAP.size();
+        return new CacheStatistics(
+                        "BeanAccessorRegistry.CLASS_AND_BEAN_ACCESSOR_MAP",
+                        size,
+                        size * (CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(0)));
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import static com.feilong.core.lang.ClassUtil.isInstanceAnyClass;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MappedPropertyDescriptor;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 预先编译好的 clone 计划,每个 bean class 只解析一次.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>创建的时候把 class 的无参构造函数,以及所有可读并且可写的属性的 getter/setter 解析好,之后每次 clone 直接调用,不再 introspect</li>
+ * <li>属性值原样复制,<b>不做任何类型转换</b>,和 {@link BeanUtils#cloneBean(Object)} 内部使用的
+ * {@link org.apache.commons.beanutils.PropertyUtilsBean#copyProperties(Object, Object)} 一致</li>
+ * <li>{@link #cloneBean(Object)} 是浅 clone,属性复制的是引用;{@link #deepCloneBean(Object, Class...)} 递归 clone 属性值</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see BeanUtil#cloneBean(Object)
+ * @see BeanUtil#deepCloneBean(Object, Class...)
+ * @since 2.1.0
+ */
+final class BeanClonePlan{
+
+    /** class 和对应的计划. */
+    private static final ClassMetadataCache<BeanClonePlan> CLASS_AND_PLAN_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    /** 不可变的类型,深度 clone 的时候直接复制引用. */
+    private static final Set<Class<?>>                     IMMUTABLE_CLASS_SET;
+
+    static{
+        Set<Class<?>> immutableClassSet = new HashSet<>();
+        Collections.addAll(
+                        immutableClassSet,
+                        String.class,
+                        BigDecimal.class,
+                        BigInteger.class,
+                        Class.class,
+                        Locale.class,
+                        Currency.class,
+                        UUID.class);
+        IMMUTABLE_CLASS_SET = Collections.unmodifiableSet(immutableClassSet);
+    }
+
+    //---------------------------------------------------------------
+
+    /** The klass. */
+    private final Class<?>                                 klass;
+
+    /** 无参构造函数,如果没有可访问的无参构造函数是null. */
+    private final Constructor<?>                           constructor;
+
+    /** 可读并且可写的属性. */
+    private final List<PropertyAccessor>                   propertyAccessorList;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new bean clone plan.
+     *
+     * @param klass
+     *            the klass
+     */
+    private BeanClonePlan(Class<?> klass){
+        this.klass = klass;
+        this.constructor = ConstructorUtils.getAccessibleConstructor(klass);
+        this.propertyAccessorList = compile(klass);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 <code>klass</code> 的 clone 计划.
+     *
+     * @param klass
+     *            the klass
+     * @return the bean clone plan
+     */
+    static BeanClonePlan getInstance(Class<?> klass){
+        BeanClonePlan beanClonePlan = CLASS_AND_PLAN_MAP.get(klass);
+        if (null != beanClonePlan){
+            return beanClonePlan;
+        }
+
+        //---------------------------------------------------------------
+        beanClonePlan = new BeanClonePlan(klass);
+        BeanClonePlan existed = CLASS_AND_PLAN_MAP.putIfAbsent(klass, beanClonePlan);
+        return null == existed ? beanClonePlan : existed;
+    }
+
+    /**
+     * 解析所有可读并且可写的属性.
+     *
+     * @param klass
+     *            the klass
+     * @return the list
+     */
+    private static List<PropertyAccessor> compile(Class<?> klass){
+        PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(klass);
+
+        List<PropertyAccessor> propertyAccessorList = new ArrayList<>(propertyDescriptors.length);
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors){
+            if (propertyDescriptor instanceof MappedPropertyDescriptor){
+                continue;
+            }
+            PropertyAccessor propertyAccessor = new PropertyAccessor(klass, propertyDescriptor.getName(), propertyDescriptor);
+            if (propertyAccessor.isReadable() && propertyAccessor.isWriteable()){
+                propertyAccessorList.add(propertyAccessor);
+            }
+        }
+        return Collections.unmodifiableList(propertyAccessorList);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 浅 clone,使用无参构造函数创建新的对象,然后复制所有可读并且可写的属性的引用.
+     *
+     * @param bean
+     *            the bean
+     * @return the object
+     * @throws BeanOperationException
+     *             如果没有可访问的无参构造函数,或者读写属性有异常
+     */
+    Object cloneBean(Object bean){
+        Object newBean = newInstance();
+        for (PropertyAccessor propertyAccessor : propertyAccessorList){
+            propertyAccessor.setValue(newBean, propertyAccessor.getValue(bean));
+        }
+        return newBean;
+    }
+
+    /**
+     * 深度 clone.
+     * 
+     * <h3>说明:</h3>
+     * 
+     * <blockquote>
+     * <ol>
+     * <li>基本类型包装类,{@link String},枚举,{@link BigDecimal},{@link BigInteger} 等不可变类型,以及 <code>referenceTypes</code> 类型(含子类)的值,直接复制引用</li>
+     * <li>{@link Date}(含子类) 调用 {@link Date#clone()}</li>
+     * <li>数组创建新的数组,元素递归 clone</li>
+     * <li>{@link Collection}/{@link Map} 创建同类型的新实例(没有无参构造函数的实现,比如 {@link Collections#unmodifiableList(List)},使用
+     * {@link ArrayList}/{@link LinkedHashSet}/{@link LinkedHashMap} 代替;{@link SortedSet}/{@link SortedMap} 依次尝试同类型的 {@link Comparator} 构造函数,无参构造函数,最后使用
+     * {@link TreeSet}/{@link TreeMap},保留 comparator),元素以及 value 递归 clone,map 的
+     * key 复制引用</li>
+     * <li>{@link DynaBean} 使用 {@link BeanUtils#cloneBean(Object)} 浅 clone</li>
+     * <li>其他对象作为 bean,使用它自己的 clone 计划创建新实例,属性递归 clone</li>
+     * <li>同一个对象被多次引用(包括循环引用),clone 之后仍然是同一个对象</li>
+     * </ol>
+     * </blockquote>
+     *
+     * @param bean
+     *            the bean
+     * @param referenceTypes
+     *            直接复制引用的类型
+     * @return the object
+     * @throws BeanOperationException
+     *             如果需要 clone 的 bean 没有可访问的无参构造函数,或者读写属性有异常
+     */
+    static Object deepCloneBean(Object bean,Class<?>...referenceTypes){
+        return new DeepCloner(referenceTypes).clone(bean);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用无参构造函数创建新的对象.
+     *
+     * @return the object
+     * @throws BeanOperationException
+     *             如果没有可访问的无参构造函数,或者创建失败
+     */
+    private Object newInstance(){
+        if (null == constructor){
+            String message = Slf4jUtil.format("class:[{}] has no accessible no-arg constructor", klass.getName());
+            throw new BeanOperationException(message, new NoSuchMethodException(klass.getName() + ".<init>()"));
+        }
+        try{
+            return constructor.newInstance();
+        }catch (Exception e){
+            throw new BeanOperationException(Slf4jUtil.format("can't instantiate class:[{}]", klass.getName()), e);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 一次深度 clone 的上下文.
+     */
+    private static final class DeepCloner{
+
+        /** 直接复制引用的类型. */
+        private final Class<?>[]          referenceTypes;
+
+        /** 已经 clone 过的对象和 clone 结果,处理重复引用以及循环引用. */
+        private final Map<Object, Object> clonedMap = new IdentityHashMap<>();
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new deep cloner.
+         *
+         * @param referenceTypes
+         *            the reference types
+         */
+        private DeepCloner(Class<?>[] referenceTypes){
+            this.referenceTypes = referenceTypes;
+        }
+
+        //---------------------------------------------------------------
+
+        /**
+         * Clone.
+         *
+         * @param value
+         *            the value
+         * @return the object
+         */
+        private Object clone(Object value){
+            if (null == value || isReference(value)){
+                return value;
+            }
+            Object cloned = clonedMap.get(value);
+            if (null != cloned){
+                return cloned;
+            }
+
+            //---------------------------------------------------------------
+            Class<?> klass = value.getClass();
+            if (klass.isArray()){
+                return cloneArray(value, klass.getComponentType());
+            }
+            if (value instanceof Date){
+                return put(value, ((Date) value).clone());
+            }
+            if (value instanceof Collection){
+                return cloneCollection((Collection<?>) value);
+            }
+            if (value instanceof Map){
+                return cloneMap((Map<?, ?>) value);
+            }
+            if (value instanceof DynaBean){
+                try{
+                    return put(value, BeanUtils.cloneBean(value));
+                }catch (Exception e){
+                    throw new BeanOperationException(Slf4jUtil.format("cloneBean exception,bean:[{}]", value), e);
+                }
+            }
+
+            //---------------------------------------------------------------
+            BeanClonePlan beanClonePlan = getInstance(klass);
+            Object newBean = put(value, beanClonePlan.newInstance());
+            for (PropertyAccessor propertyAccessor : beanClonePlan.propertyAccessorList){
+                propertyAccessor.setValue(newBean, clone(propertyAccessor.getValue(value)));
+            }
+            return newBean;
+        }
+
+        /**
+         * 是否直接复制引用.
+         *
+         * @param value
+         *            the value
+         * @return true, if is reference
+         */
+        private boolean isReference(Object value){
+            Class<?> klass = value.getClass();
+            return ClassUtils.isPrimitiveWrapper(klass) || klass.isEnum() || value instanceof Enum || IMMUTABLE_CLASS_SET.contains(klass)
+                            || isInstanceAnyClass(value, referenceTypes);
+        }
+
+        /**
+         * Clone array.
+         *
+         * @param array
+         *            the array
+         * @param componentType
+         *            the component type
+         * @return the object
+         */
+        private Object cloneArray(Object array,Class<?> componentType){
+            int length = Array.getLength(array);
+            Object newArray = put(array, Array.newInstance(componentType, length));
+            if (componentType.isPrimitive()){
+                System.arraycopy(array, 0, newArray, 0, length);
+                return newArray;
+            }
+
+            Object[] objects = (Object[]) array;
+            Object[] newObjects = (Object[]) newArray;
+            for (int i = 0; i < length; ++i){
+                newObjects[i] = clone(objects[i]);
+            }
+            return newArray;
+        }
+
+        /**
+         * Clone collection.
+         *
+         * @param collection
+         *            the collection
+         * @return the collection
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Collection<Object> cloneCollection(Collection<?> collection){
+            Collection<Object> newCollection;
+            if (collection instanceof EnumSet){
+                //元素是枚举,不需要 clone
+                return (Collection<Object>) put(collection, ((EnumSet) collection).clone());
+            }else if (collection instanceof SortedSet){
+                Comparator<Object> comparator = ((SortedSet<Object>) collection).comparator();
+                newCollection = (Collection<Object>) newSortedInstanceOrNull(collection.getClass(), comparator);
+                if (null == newCollection || !Objects.equals(comparator, ((SortedSet<Object>) newCollection).comparator())){
+                    newCollection = new TreeSet<>(comparator);
+                }
+            }else{
+                newCollection = (Collection<Object>) newInstanceOrNull(collection.getClass());
+                if (null == newCollection){
+                    newCollection = collection instanceof Set ? new LinkedHashSet<>(collection.size()) : new ArrayList<>(collection.size());
+                }
+            }
+
+            //---------------------------------------------------------------
+            put(collection, newCollection);
+            for (Object element : collection){
+                newCollection.add(clone(element));
+            }
+            return newCollection;
+        }
+
+        /**
+         * Clone map.
+         *
+         * @param map
+         *            the map
+         * @return the map
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Map<Object, Object> cloneMap(Map<?, ?> map){
+            Map<Object, Object> newMap;
+            if (map instanceof EnumMap){
+                newMap = new EnumMap((EnumMap) map);
+                newMap.clear();
+            }else if (map instanceof SortedMap){
+                Comparator<Object> comparator = ((SortedMap<Object, Object>) map).comparator();
+                newMap = (Map<Object, Object>) newSortedInstanceOrNull(map.getClass(), comparator);
+                if (null == newMap || !Objects.equals(comparator, ((SortedMap<Object, Object>) newMap).comparator())){
+                    newMap = new TreeMap<>(comparator);
+                }
+            }else{
+                newMap = (Map<Object, Object>) newInstanceOrNull(map.getClass());
+                if (null == newMap){
+                    newMap = new LinkedHashMap<>(map.size());
+                }
+            }
+
+            //---------------------------------------------------------------
+            put(map, newMap);
+            for (Map.Entry<?, ?> entry : map.entrySet()){
+                newMap.put(entry.getKey(), clone(entry.getValue()));
+            }
+            return newMap;
+        }
+
+        /**
+         * 创建 sorted 集合/map 的新实例,先使用 <code>klass</code> 的 {@link Comparator} 构造函数,再使用无参构造函数,都没有或者创建失败返回null.
+         * 
+         * <p>
+         * 使用无参构造函数创建的实例,comparator 可能和原来的不一致,需要调用方判断.
+         * </p>
+         *
+         * @param klass
+         *            the klass
+         * @param comparator
+         *            原来的 comparator,可能是null
+         * @return the object
+         */
+        private static Object newSortedInstanceOrNull(Class<?> klass,Comparator<?> comparator){
+            Object instance = newInstanceOrNull(klass, new Class<?>[] { Comparator.class }, comparator);
+            return null != instance ? instance : newInstanceOrNull(klass);
+        }
+
+        /**
+         * 使用 <code>klass</code> 的无参构造函数创建新的对象,如果没有可访问的无参构造函数或者创建失败返回null.
+         *
+         * @param klass
+         *            the klass
+         * @return the object
+         */
+        private static Object newInstanceOrNull(Class<?> klass){
+            return newInstanceOrNull(klass, new Class<?>[0]);
+        }
+
+        /**
+         * 使用 <code>klass</code> 参数类型是 <code>parameterTypes</code> 的构造函数创建新的对象,如果没有可访问的构造函数或者创建失败返回null.
+         * 
+         * <p>
+         * 这里的 klass 都是集合/map 的实现类,直接查找构造函数,不需要为它们解析并缓存 clone 计划.
+         * </p>
+         *
+         * @param klass
+         *            the klass
+         * @param parameterTypes
+         *            the parameter types
+         * @param args
+         *            the args
+         * @return the object
+         */
+        private static Object newInstanceOrNull(Class<?> klass,Class<?>[] parameterTypes,Object...args){
+            Constructor<?> constructor = ConstructorUtils.getAccessibleConstructor(klass, parameterTypes);
+            if (null == constructor){
+                return null;
+            }
+            try{
+                return constructor.newInstance(args);
+            }catch (Exception e){
+                return null;
+            }
+        }
+
+        /**
+         * 记录 clone 结果.
+         *
+         * @param value
+         *            the value
+         * @param cloned
+         *            the cloned
+         * @return the cloned
+         */
+        private Object put(Object value,Object cloned){
+            clonedMap.put(value, cloned);
+            return cloned;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (BeanClonePlan beanClonePlan : CLASS_AND_PLAN_MAP.values()){
+            //PropertyAccessor 9 个字段
+            int propertyCount = beanClonePlan.propertyAccessorList.size();
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(3)
+                            + CacheStatistics.estimateArrayBytes(propertyCount) + propertyCount * CacheStatistics.estimateObjectBytes(9);
+            ++size;
+        }
+        return new CacheStatistics("BeanClonePlan.CLASS_AND_PLAN_MAP", size, estimatedBytes);
+    }
+}
@@ -36,6 +36,8 @@ import org.apache.commons.beanutils.converters.ArrayConverter;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.reflect.FieldUtils;
 
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
 import com.feilong.tools.slf4j.Slf4jUtil;
 
 /**
@@ -172,6 +174,15 @@ import com.feilong.tools.slf4j.Slf4jUtil;
  */
 public final class BeanUtil{
 
+    /**
+     * class 和 属性名字/{@link Alias#name()} map 的缓存,{@link #populateAliasBean(Object, Map)} 每个 class 只解析一次 {@link Alias} 注释.
+     * 
+     * @since 2.1.0
+     */
+    private static final ClassMetadataCache<Map<String, String>> CLASS_AND_PROPERTY_NAME_AND_ALIAS_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    //---------------------------------------------------------------
+
     /** Don't let anyone instantiate this class. */
     private BeanUtil(){
         //AssertionError不是必须的. 但它可以避免不小心在类的内部调用构造器. 保证该类在任何情况下都不会被实例化.
@@ -292,8 +303,16 @@ public final class BeanUtil{
 
         //---------------------------------------------------------------
 
+        //since 2.1.0 每个 (toClass, fromClass, includePropertyNames) 只解析一次
+        CopyPropertiesPlan copyPropertiesPlan = CopyPropertiesPlan.getInstance(toObj.getClass(), fromObj.getClass(), true, includePropertyNames);
+
+        //---------------------------------------------------------------
         if (isNullOrEmpty(includePropertyNames)){
             try{
+                if (null != copyPropertiesPlan){
+                    copyPropertiesPlan.execute(toObj, fromObj);
+                    return;
+                }
                 BeanUtils.copyProperties(toObj, fromObj);
                 return;
             }catch (Exception e){
@@ -303,6 +322,10 @@ public final class BeanUtil{
         }
 
         //---------------------------------------------------------------
+        if (null != copyPropertiesPlan){
+            copyPropertiesPlan.execute(toObj, fromObj);
+            return;
+        }
         for (String propertyName : includePropertyNames){
             String value = getProperty(fromObj, propertyName);
             setProperty(toObj, propertyName, value);
@@ -334,10 +357,11 @@ public final class BeanUtil{
      * @see org.apache.commons.beanutils.BeanUtilsBean#setProperty(Object, String, Object)
      * @see org.apache.commons.beanutils.PropertyUtils#setProperty(Object, String, Object)
      * @see com.feilong.core.bean.PropertyUtil#setProperty(Object, String, Object)
+     * @since 2.1.0 change access to default, used by {@link CopyPropertiesPlan}
      */
-    private static void setProperty(Object bean,String propertyName,Object value){
+    static void setProperty(Object bean,String propertyName,Object value){
         try{
-            BeanUtils.setProperty(bean, propertyName, value);
+            PopulatePlan.getInstance(bean.getClass()).setProperty(bean, propertyName, value);
         }catch (Exception e){
             String pattern = "setProperty exception,bean:[{}],propertyName:[{}],value:[{}]";
             throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyName, value), e);
@@ -372,8 +396,9 @@ public final class BeanUtil{
      * @see org.apache.commons.beanutils.PropertyUtils#getProperty(Object, String)
      * @see com.feilong.core.bean.PropertyUtil#getProperty(Object, String)
      * @since 1.9.0 change access to private
+     * @since 2.1.0 change access to default, used by {@link CopyPropertiesPlan}
      */
-    private static String getProperty(Object bean,String propertyName){
+    static String getProperty(Object bean,String propertyName){
         Validate.notNull(bean, "bean can't be null!");
         Validate.notBlank(propertyName, "propertyName can't be blank!");
 
@@ -395,6 +420,12 @@ public final class BeanUtil{
     /**
      * 调用{@link BeanUtils#cloneBean(Object)}.
      * 
+     * <p>
+     * since 2.1.0,普通 bean 的无参构造函数以及可读可写属性的 getter/setter 按照 class 预先解析并缓存,每次 clone 直接调用,不做类型转换,结果和
+     * {@link BeanUtils#cloneBean(Object)} 一致;{@link Map} 以及 {@link DynaBean} 仍然调用 {@link BeanUtils#cloneBean(Object)}.<br>
+     * 如果需要深度 clone,参见 {@link #deepCloneBean(Object, Class...)}
+     * </p>
+     * 
      * <h3>注意:</h3>
      * <blockquote>
      * 
@@ -436,6 +467,9 @@ public final class BeanUtil{
         Validate.notNull(bean, "bean can't be null!");
 
         //---------------------------------------------------------------
+        if (!(bean instanceof Map) && !(bean instanceof DynaBean)){
+            return (T) BeanClonePlan.getInstance(bean.getClass()).cloneBean(bean);
+        }
         try{
             return (T) BeanUtils.cloneBean(bean);
         }catch (Exception e){
@@ -444,6 +478,58 @@ public final class BeanUtil{
         }
     }
 
+    /**
+     * 深度 clone <code>bean</code>,属性值递归 clone,不做任何类型转换.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * 
+     * <ol>
+     * <li>和 {@link #cloneBean(Object)} 一样,每个 class 的无参构造函数以及 getter/setter 只解析一次,之后每次 clone 直接调用</li>
+     * <li>基本类型包装类,{@link String},枚举,{@link java.math.BigDecimal BigDecimal},{@link java.math.BigInteger BigInteger} 等不可变类型的值,直接复制引用</li>
+     * <li>{@link java.util.Date Date} 调用 {@link java.util.Date#clone() Date.clone()},数组,{@link java.util.Collection Collection},{@link Map}
+     * 创建新的实例,元素以及 value 递归 clone(map 的 key 复制引用)</li>
+     * <li>其他属性值当作bean 递归 clone,<b>需要存在可访问的无参构造函数</b></li>
+     * <li>同一个对象被多次引用(包括循环引用),clone 之后仍然是同一个对象</li>
+     * <li>如果某些类型你确定不会被修改(或者需要共享),可以通过 <code>referenceTypes</code> 指定,这些类型(含子类)的值直接复制引用,不再递归</li>
+     * <li>和 {@link #cloneBean(Object)} 不同, <code>bean</code> 本身是 {@link java.util.List List} 的时候,返回的是元素 clone 之后的新的 list</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * User user = new User(5L);
+     * user.setUserInfo(new UserInfo());
+     * 
+     * User cloneUser = BeanUtil.deepCloneBean(user);
+     * 
+     * // cloneUser.getUserInfo() != user.getUserInfo()
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param <T>
+     *            the generic type
+     * @param bean
+     *            Bean to be cloned
+     * @param referenceTypes
+     *            直接复制引用,不再递归 clone 的类型
+     * @return the cloned bean
+     * @throws NullPointerException
+     *             如果 <code>bean</code> 是null
+     * @throws BeanOperationException
+     *             如果需要 clone 的对象没有可访问的无参构造函数,或者读写属性有异常
+     * @see #cloneBean(Object)
+     * @since 2.1.0
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T deepCloneBean(T bean,Class<?>...referenceTypes){
+        Validate.notNull(bean, "bean can't be null!");
+        return (T) BeanClonePlan.deepCloneBean(bean, referenceTypes);
+    }
+
     // [end]
 
     //---------------------------------------------------------------
@@ -460,6 +546,9 @@ public final class BeanUtil{
      * <li>apache的javadoc中,明确指明这个方法是为解析http请求参数特别定义和使用的,<b>在正常使用中不推荐使用</b>.推荐使用 {@link #copyProperties(Object, Object, String...)}方法</li>
      * <li>底层方法原理 {@link BeanUtilsBean#populate(Object, Map)},循环map,调用 {@link BeanUtilsBean#setProperty(Object, String, Object)}方法 ,一一对应设置到
      * <code>bean</code>对象</li>
+     * <li>since 2.1.0,简单属性的 setter 以及目标类型按照 bean class 预先解析并缓存,每次填充不再 introspect,转换规则和
+     * {@link BeanUtilsBean#setProperty(Object, String, Object)} 一致;nested/indexed/mapped 属性仍然走
+     * {@link BeanUtilsBean#setProperty(Object, String, Object)}</li>
      * <li>如果properties key中有bean中不存在的属性,那么该条数据自动忽略</li>
      * <li>如果properties key中有null,那么该条数据自动忽略,see {@link BeanUtilsBean#populate(Object, Map)} line 817</li>
      * <li><code>bean</code>可以是Map类型,不过转换之后的key和value都会是Object类型,而不是声明的类型,see {@link BeanUtilsBean#setProperty(Object, String, Object)} line
@@ -696,7 +785,7 @@ public final class BeanUtil{
 
         //---------------------------------------------------------------
         try{
-            BeanUtils.populate(bean, properties);
+            PopulatePlan.getInstance(bean.getClass()).populate(bean, properties);
             return bean;
         }catch (Exception e){
             String message = Slf4jUtil.format("can't populate:[{}] to bean:{}", properties, bean);
@@ -925,6 +1014,10 @@ public final class BeanUtil{
 
     /**
      * 提取 klass {@link Alias} 注释,将 属性名字和 {@link Alias#name()} 组成map 返回.
+     * 
+     * <p>
+     * 结果按照 class 缓存.
+     * </p>
      *
      * @param klass
      *            the klass
@@ -933,11 +1026,48 @@ public final class BeanUtil{
      *             如果 <code>klass</code> 是null
      * @since 1.8.1
      */
-    private static Map<String, String> buildPropertyNameAndAliasMap(Class<?> klass){
+    static Map<String, String> buildPropertyNameAndAliasMap(Class<?> klass){
         Validate.notNull(klass, "klass can't be null!");
 
         //---------------------------------------------------------------
+        Map<String, String> propertyNameAndAliasMap = CLASS_AND_PROPERTY_NAME_AND_ALIAS_MAP.get(klass);
+        if (null == propertyNameAndAliasMap){
+            propertyNameAndAliasMap = resolvePropertyNameAndAliasMap(klass);
+            Map<String, String> existed = CLASS_AND_PROPERTY_NAME_AND_ALIAS_MAP.putIfAbsent(klass, propertyNameAndAliasMap);
+            propertyNameAndAliasMap = null == existed ? propertyNameAndAliasMap : existed;
+        }
+        return propertyNameAndAliasMap;
+    }
+
+    /**
+     * 获得 {@link Alias} 缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getAliasCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (Map<String, String> propertyNameAndAliasMap : CLASS_AND_PROPERTY_NAME_AND_ALIAS_MAP.values()){
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES;
+            for (String alias : propertyNameAndAliasMap.values()){
+                estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateStringBytes(alias);
+            }
+            ++size;
+        }
+        return new CacheStatistics("BeanUtil.CLASS_AND_PROPERTY_NAME_AND_ALIAS_MAP", size, estimatedBytes);
+    }
 
+    /**
+     * 解析 klass {@link Alias} 注释.
+     *
+     * @param klass
+     *            the klass
+     * @return 如果<code>klass</code> 没有 {@link Alias} 注释,返回 {@link Collections#emptyMap()}
+     * @since 2.1.0
+     */
+    private static Map<String, String> resolvePropertyNameAndAliasMap(Class<?> klass){
         List<Field> aliasFieldsList = FieldUtils.getFieldsListWithAnnotation(klass, Alias.class);
         if (isNullOrEmpty(aliasFieldsList)){
             return emptyMap();
@@ -950,7 +1080,7 @@ public final class BeanUtil{
             Alias alias = field.getAnnotation(Alias.class);
             propertyNameAndAliasMap.put(field.getName(), alias.name());
         }
-        return propertyNameAndAliasMap;
+        return Collections.unmodifiableMap(propertyNameAndAliasMap);
     }
 
     // [end]
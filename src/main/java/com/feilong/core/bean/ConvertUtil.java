@@ -49,7 +49,6 @@ import org.apache.commons.beanutils.converters.BigIntegerConverter;
 import org.apache.commons.beanutils.converters.BooleanConverter;
 import org.apache.commons.beanutils.converters.ByteConverter;
 import org.apache.commons.beanutils.converters.CharacterConverter;
-import org.apache.commons.beanutils.converters.DoubleConverter;
 import org.apache.commons.beanutils.converters.FloatConverter;
 import org.apache.commons.beanutils.converters.IntegerConverter;
 import org.apache.commons.beanutils.converters.LongConverter;
@@ -262,17 +261,22 @@ public final class ConvertUtil{
      * @since 1.11.2
      */
     public static void registerStandardDefaultNull(){
-        ConvertUtils.register(new BigDecimalConverter(null), BigDecimal.class);
+        ConvertUtils.register(FastConverter.TO_BIG_DECIMAL.getStandardConverter(), BigDecimal.class);
         ConvertUtils.register(new BigIntegerConverter(null), BigInteger.class);
-        ConvertUtils.register(new BooleanConverter(null), Boolean.class);
+        ConvertUtils.register(FastConverter.TO_BOOLEAN.getStandardConverter(), Boolean.class);
         ConvertUtils.register(new ByteConverter(null), Byte.class);
         ConvertUtils.register(new CharacterConverter(null), Character.class);
-        ConvertUtils.register(new DoubleConverter(null), Double.class);
+        ConvertUtils.register(FastConverter.TO_DOUBLE.getStandardConverter(), Double.class);
         ConvertUtils.register(new FloatConverter(null), Float.class);
-        ConvertUtils.register(new IntegerConverter(null), Integer.class);
-        ConvertUtils.register(new LongConverter(null), Long.class);
+        ConvertUtils.register(FastConverter.TO_INTEGER.getStandardConverter(), Integer.class);
+        ConvertUtils.register(FastConverter.TO_LONG.getStandardConverter(), Long.class);
         ConvertUtils.register(new ShortConverter(null), Short.class);
         ConvertUtils.register(new StringConverter(null), String.class);
+
+        //---------------------------------------------------------------
+        for (PrimitiveArrayConverter primitiveArrayConverter : PrimitiveArrayConverter.values()){
+            ConvertUtils.register(primitiveArrayConverter.getStandardConverter(), primitiveArrayConverter.getArrayType());
+        }
     }
 
     //---------------------------------------------------------------
@@ -345,7 +349,9 @@ public final class ConvertUtil{
      * @see java.lang.Boolean#parseBoolean(String)
      */
     public static Boolean toBoolean(Object toBeConvertedValue){
-        return new BooleanConverter(null).convert(Boolean.class, toBeConvertedValue);
+        FastConverter fastConverter = lookupFastConverter(toBeConvertedValue, Boolean.class);
+        return null != fastConverter ? (Boolean) fastConverter.convert(toBeConvertedValue)
+                        : new BooleanConverter(null).convert(Boolean.class, toBeConvertedValue);
     }
 
     //----------------------toInteger-----------------------------------------
@@ -536,7 +542,9 @@ public final class ConvertUtil{
      * @since 1.6.1
      */
     public static Integer toInteger(Object toBeConvertedValue,Integer defaultValue){
-        return new IntegerConverter(defaultValue).convert(Integer.class, toBeConvertedValue);
+        FastConverter fastConverter = lookupFastConverter(toBeConvertedValue, Integer.class);
+        return null != fastConverter ? defaultIfNull((Integer) fastConverter.convert(toBeConvertedValue), defaultValue)
+                        : new IntegerConverter(defaultValue).convert(Integer.class, toBeConvertedValue);
     }
 
     //------------------------toLong---------------------------------------
@@ -585,7 +593,9 @@ public final class ConvertUtil{
      * @see org.apache.commons.lang3.math.NumberUtils#toLong(String)
      */
     public static Long toLong(Object toBeConvertedValue){
-        return new LongConverter(null).convert(Long.class, toBeConvertedValue);
+        FastConverter fastConverter = lookupFastConverter(toBeConvertedValue, Long.class);
+        return null != fastConverter ? (Long) fastConverter.convert(toBeConvertedValue)
+                        : new LongConverter(null).convert(Long.class, toBeConvertedValue);
     }
 
     //------------------------toBigDecimal---------------------------------------
@@ -653,7 +663,161 @@ public final class ConvertUtil{
      * @see org.apache.commons.beanutils.converters.BigDecimalConverter
      */
     public static BigDecimal toBigDecimal(Object toBeConvertedValue){
-        return new BigDecimalConverter(null).convert(BigDecimal.class, toBeConvertedValue);
+        FastConverter fastConverter = lookupFastConverter(toBeConvertedValue, BigDecimal.class);
+        return null != fastConverter ? (BigDecimal) fastConverter.convert(toBeConvertedValue)
+                        : new BigDecimalConverter(null).convert(BigDecimal.class, toBeConvertedValue);
+    }
+
+    //---------------------------------------------------------------
+    //基本类型
+
+    /**
+     * 将 <code>charSequence</code> 从 <code>offset</code> 开始的 <code>length</code> 个字符解析成 <code>int</code>.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>解析规则和 {@link #toInteger(Object)} 转换字符串一致:去掉前后空白,可选的 <code>'+'</code>/<code>'-'</code> 符号,后面都是数字,不能超出 int 范围</li>
+     * <li>直接在 <code>charSequence</code> 上解析,不会截取子字符串,也不会构造 {@link Integer} 以及异常对象,适合 CSV 行,request 参数等的解析</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ConvertUtil.toPrimitiveInt("1,22,333", 2, 2, 0)     = 22
+     * ConvertUtil.toPrimitiveInt(" 8 ", 0, 3, 0)          = 8
+     * ConvertUtil.toPrimitiveInt("-5", 0, 2, 0)           = -5
+     * ConvertUtil.toPrimitiveInt("1.5", 0, 3, 0)          = 0
+     * ConvertUtil.toPrimitiveInt("2147483648", 0, 10, -1) = -1
+     * ConvertUtil.toPrimitiveInt("", 0, 0, 7)             = 7
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param charSequence
+     *            the char sequence
+     * @param offset
+     *            开始的位置
+     * @param length
+     *            字符个数
+     * @param defaultValue
+     *            解析不了时返回的默认值
+     * @return 如果 <code>charSequence</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>offset</code> 或者 <code>length</code> 是负数,或者 <code>offset + length</code> 超出 <code>charSequence</code> 的长度,抛出
+     *         {@link IllegalArgumentException}<br>
+     *         如果是空白,格式不对,或者超出 int 范围,返回 <code>defaultValue</code>
+     * @see #toInteger(Object, Integer)
+     * @since 2.1.0
+     */
+    public static int toPrimitiveInt(CharSequence charSequence,int offset,int length,int defaultValue){
+        return (int) parseLong(charSequence, offset, length, Integer.MIN_VALUE, Integer.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * 将 <code>charSequence</code> 从 <code>offset</code> 开始的 <code>length</code> 个字符解析成 <code>long</code>.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>解析规则和 {@link #toLong(Object)} 转换字符串一致:去掉前后空白,可选的 <code>'+'</code>/<code>'-'</code> 符号,后面都是数字,不能超出 long 范围</li>
+     * <li>直接在 <code>charSequence</code> 上解析,不会截取子字符串,也不会构造 {@link Long} 以及异常对象</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ConvertUtil.toPrimitiveLong("id=12345&amp;name=feilong", 3, 5, 0L)   = 12345L
+     * ConvertUtil.toPrimitiveLong("9223372036854775808", 0, 19, -1L)  = -1L
+     * ConvertUtil.toPrimitiveLong("aaaa", 0, 4, 0L)                   = 0L
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param charSequence
+     *            the char sequence
+     * @param offset
+     *            开始的位置
+     * @param length
+     *            字符个数
+     * @param defaultValue
+     *            解析不了时返回的默认值
+     * @return 如果 <code>charSequence</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>offset</code> 或者 <code>length</code> 是负数,或者 <code>offset + length</code> 超出 <code>charSequence</code> 的长度,抛出
+     *         {@link IllegalArgumentException}<br>
+     *         如果是空白,格式不对,或者超出 long 范围,返回 <code>defaultValue</code>
+     * @see #toLong(Object)
+     * @since 2.1.0
+     */
+    public static long toPrimitiveLong(CharSequence charSequence,int offset,int length,long defaultValue){
+        return parseLong(charSequence, offset, length, Long.MIN_VALUE, Long.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * 解析 <code>charSequence</code> 指定区间的整数,逻辑和 {@link Long#parseLong(String)} 一致(按负数累加,避免溢出),只是失败时返回默认值而不是抛出异常.
+     *
+     * @param charSequence
+     *            the char sequence
+     * @param offset
+     *            开始的位置
+     * @param length
+     *            字符个数
+     * @param min
+     *            允许的最小值
+     * @param max
+     *            允许的最大值
+     * @param defaultValue
+     *            解析不了时返回的默认值
+     * @return 解析不了返回 <code>defaultValue</code>
+     * @since 2.1.0
+     */
+    private static long parseLong(CharSequence charSequence,int offset,int length,long min,long max,long defaultValue){
+        Validate.notNull(charSequence, "charSequence can't be null!");
+        Validate.isTrue(offset >= 0 && length >= 0 && length <= charSequence.length() - offset, "offset and length out of range!");
+
+        //---------------------------------------------------------------
+        int begin = offset;
+        int end = offset + length;
+        while (begin < end && charSequence.charAt(begin) <= ' '){
+            ++begin;
+        }
+        while (end > begin && charSequence.charAt(end - 1) <= ' '){
+            --end;
+        }
+        if (begin == end){
+            return defaultValue;
+        }
+
+        //---------------------------------------------------------------
+        char firstChar = charSequence.charAt(begin);
+        boolean negative = firstChar == '-';
+        if (negative || firstChar == '+'){
+            if (++begin == end){
+                return defaultValue;
+            }
+        }
+
+        //---------------------------------------------------------------
+        long limit = negative ? min : -max;
+        long multmin = limit / 10;
+        long result = 0;
+        for (int i = begin; i < end; ++i){
+            int digit = Character.digit(charSequence.charAt(i), 10);
+            if (digit < 0 || result < multmin){
+                return defaultValue;
+            }
+            result *= 10;
+            if (result < limit + digit){
+                return defaultValue;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
     }
 
     //---------------------------------------------------------------
@@ -932,6 +1096,153 @@ public final class ConvertUtil{
         return convert(toBeConvertedValue, Long[].class);
     }
 
+    //---------------------------------------------------------------
+    //基本类型数组
+
+    /**
+     * 将 <code>toBeConvertedValue</code> 转成 <code>int[]</code>,支持的参数和转换规则和 {@link #toIntegers(Object)} 一致.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>和 {@link #toIntegers(Object)} 的区别在于直接解析成基本类型数组,不会为每个元素构造 {@link Integer} 对象,适合大量 id 之类的转换(比如 JDBC batch)</li>
+     * <li>逗号分隔的数字字符串,字符串数组,集合等常用的参数直接解析,其他的情况交给 {@link ConvertUtils#convert(Object, Class)}</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ConvertUtil.toPrimitiveInts("1,2,3")                              = new int[] { 1, 2, 3 }
+     * ConvertUtil.toPrimitiveInts("{ 1 ,2,3}")                          = new int[] { 1, 2, 3 }
+     * ConvertUtil.toPrimitiveInts(new String[] { "1", "2", "3" })       = new int[] { 1, 2, 3 }
+     * ConvertUtil.toPrimitiveInts(toList("1", "2", " 3"))               = new int[] { 1, 2, 3 }
+     * ConvertUtil.toPrimitiveInts(toArray(true, false, false))          = new int[] { 1, 0, 0 }
+     * ConvertUtil.toPrimitiveInts(new String[] { "1", null, "2", "3" }) = new int[] {}
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param toBeConvertedValue
+     *            需要被转换的值
+     * @return 如果 <code>toBeConvertedValue</code> 是null,返回 null<br>
+     *         如果有元素转换不了,返回 empty 数组
+     * @see #toIntegers(Object)
+     * @since 2.1.0
+     */
+    public static int[] toPrimitiveInts(Object toBeConvertedValue){
+        return (int[]) toPrimitiveArray(toBeConvertedValue, PrimitiveArrayConverter.TO_INTS);
+    }
+
+    /**
+     * 将 <code>toBeConvertedValue</code> 转成 <code>long[]</code>,支持的参数和转换规则和 {@link #toLongs(Object)} 一致.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>和 {@link #toLongs(Object)} 的区别在于直接解析成基本类型数组,不会为每个元素构造 {@link Long} 对象</li>
+     * <li>逗号分隔的数字字符串,字符串数组,集合等常用的参数直接解析,其他的情况交给 {@link ConvertUtils#convert(Object, Class)}</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ConvertUtil.toPrimitiveLongs("1,2,3")                              = new long[] { 1L, 2L, 3L }
+     * ConvertUtil.toPrimitiveLongs(new String[] { "1", "2", "3" })       = new long[] { 1L, 2L, 3L }
+     * ConvertUtil.toPrimitiveLongs(toList("1", "2", " 3"))               = new long[] { 1L, 2L, 3L }
+     * ConvertUtil.toPrimitiveLongs(new String[] { "1", null, "2", "3" }) = new long[] {}
+     * </pre>
+     * 
+     * </blockquote>
+     * 
+     * <h3>特别适合以下形式的代码:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * 
+     * protected long[] getOrderIdLongs(String orderIds){
+     *     return toPrimitiveLongs(orderIds);
+     * }
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param toBeConvertedValue
+     *            需要被转换的值
+     * @return 如果 <code>toBeConvertedValue</code> 是null,返回 null<br>
+     *         如果有元素转换不了,返回 empty 数组
+     * @see #toLongs(Object)
+     * @since 2.1.0
+     */
+    public static long[] toPrimitiveLongs(Object toBeConvertedValue){
+        return (long[]) toPrimitiveArray(toBeConvertedValue, PrimitiveArrayConverter.TO_LONGS);
+    }
+
+    /**
+     * 将 <code>toBeConvertedValue</code> 转成 <code>double[]</code>.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>支持的参数和 {@link #toLongs(Object)} 一致,每个元素按照 {@link org.apache.commons.beanutils.converters.DoubleConverter} 的规则转换</li>
+     * <li>直接解析成基本类型数组,不会为每个元素构造 {@link Double} 对象</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ConvertUtil.toPrimitiveDoubles("1.5,2,-3")                            = new double[] { 1.5, 2, -3 }
+     * ConvertUtil.toPrimitiveDoubles(toList("1.5", "2", " 3"))             = new double[] { 1.5, 2, 3 }
+     * ConvertUtil.toPrimitiveDoubles(new String[] { "1", "aa", "2", "3" }) = new double[] {}
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param toBeConvertedValue
+     *            需要被转换的值
+     * @return 如果 <code>toBeConvertedValue</code> 是null,返回 null<br>
+     *         如果有元素转换不了,返回 empty 数组
+     * @since 2.1.0
+     */
+    public static double[] toPrimitiveDoubles(Object toBeConvertedValue){
+        return (double[]) toPrimitiveArray(toBeConvertedValue, PrimitiveArrayConverter.TO_DOUBLES);
+    }
+
+    /**
+     * 将 <code>toBeConvertedValue</code> 转成基本类型数组.
+     *
+     * @param toBeConvertedValue
+     *            需要被转换的值
+     * @param primitiveArrayConverter
+     *            the primitive array converter
+     * @return 如果 <code>toBeConvertedValue</code> 是null,返回 null
+     * @since 2.1.0
+     */
+    private static Object toPrimitiveArray(Object toBeConvertedValue,PrimitiveArrayConverter primitiveArrayConverter){
+        if (null == toBeConvertedValue){
+            return null;
+        }
+
+        //---------------------------------------------------------------
+        //全局注册的转换器被替换过的话,还是交给 ConvertUtils
+        if (primitiveArrayConverter.isStandardConverterRegistered()){
+            Object array = primitiveArrayConverter.convert(toBeConvertedValue);
+            if (null != array){
+                return array;
+            }
+        }
+        return ConvertUtils.convert(toBeConvertedValue, primitiveArrayConverter.getArrayType());
+    }
+
     //---------------------------------------------------------------
 
     /**
@@ -3026,6 +3337,17 @@ public final class ConvertUtil{
      * 
      * </blockquote>
      * 
+     * <h3>关于性能:</h3>
+     * 
+     * <blockquote>
+     * <p>
+     * since 2.1.0,常用的 (源类型, 目标类型) 直接转换,省掉了 commons-beanutils 转换器本身的开销;但是为了尊重调用方重新注册的转换器,每次仍然要通过
+     * {@link ConvertUtils#lookup(Class)} 查找注册表(经过 {@link org.apache.commons.beanutils.BeanUtilsBean#getInstance()} 同步查找).<br>
+     * 热点代码中明确知道目标类型的,请使用不查找注册表的 {@link #toInteger(Object)},{@link #toLong(Object)},{@link #toBigDecimal(Object)} 以及
+     * {@link #toBoolean(Object)}.
+     * </p>
+     * </blockquote>
+     * 
      * <h3>对于 Array 转成 String:</h3>
      * 
      * <blockquote>
@@ -3103,7 +3425,31 @@ public final class ConvertUtil{
     @SuppressWarnings("unchecked")
     public static <T> T convert(Object toBeConvertedValue,Class<T> targetType){
         Validate.notNull(targetType, "targetType can't be null!");
-        return null == toBeConvertedValue ? null : (T) ConvertUtils.convert(toBeConvertedValue, targetType);
+        if (null == toBeConvertedValue){
+            return null;
+        }
+
+        //---------------------------------------------------------------
+        //全局注册的转换器被替换过的话,还是交给 ConvertUtils
+        FastConverter fastConverter = FastConverter.lookup(toBeConvertedValue.getClass(), targetType);
+        if (null != fastConverter && fastConverter.isStandardConverterRegistered()){
+            return (T) fastConverter.convert(toBeConvertedValue);
+        }
+        return (T) ConvertUtils.convert(toBeConvertedValue, targetType);
+    }
+
+    /**
+     * 查找 <code>toBeConvertedValue</code> 转成 <code>targetType</code> 的 {@link FastConverter}.
+     *
+     * @param toBeConvertedValue
+     *            the to be converted value
+     * @param targetType
+     *            the target type
+     * @return 如果 <code>toBeConvertedValue</code> 是null,或者没有注册,返回null
+     * @since 2.1.0
+     */
+    private static FastConverter lookupFastConverter(Object toBeConvertedValue,Class<?> targetType){
+        return null == toBeConvertedValue ? null : FastConverter.lookup(toBeConvertedValue.getClass(), targetType);
     }
 
     //---------------------------------------------------------------
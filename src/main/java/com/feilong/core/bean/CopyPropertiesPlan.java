@@ -0,0 +1,657 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import static com.feilong.core.Validator.isNullOrEmpty;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MappedPropertyDescriptor;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 预先编译好的属性复制计划,每个 (toClass, fromClass, 是否类型转换, includePropertyNames) 只解析一次.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>计划是一组有序的 getter→converter→setter 步骤,执行的时候直接调用缓存的 {@link PropertyAccessor},不再每次 introspect 以及解析属性表达式</li>
+ * <li>类型转换的语义和 {@link org.apache.commons.beanutils.BeanUtils#copyProperties(Object, Object)}/
+ * {@link org.apache.commons.beanutils.BeanUtils#setProperty(Object, String, Object)} 保持一致,每次执行的时候从
+ * {@link BeanUtilsBean#getInstance()} 查找 {@link Converter},所以之后注册的 converter 仍然生效</li>
+ * <li>不需要类型转换的复制和 {@link PropertyUtils#copyProperties(Object, Object)}/{@link PropertyUtil#setProperty(Object, String, Object)}
+ * 保持一致</li>
+ * <li>如果源或者目标是 {@link Map}/{@link DynaBean},或者复制全部属性时候遇到 indexed/mapped 属性,不生成计划,调用方使用原来的逻辑;<br>
+ * 指定了 includePropertyNames 的时候,nested/indexed/mapped 等不能编译的单个属性,仍然使用原来的逻辑复制</li>
+ * <li>复制全部属性的计划一直缓存;指定了 includePropertyNames 的计划(每个不同的数组,包括顺序不同,都是不同的 key),
+ * 在每个 class 的计划数量达到 {@link #MAX_INCLUDE_PLAN_SIZE_PER_CLASS} 之后每次临时编译,不放入缓存</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see BeanUtil#copyProperties(Object, Object, String...)
+ * @see PropertyUtil#copyProperties(Object, Object, String...)
+ * @since 2.1.0
+ */
+final class CopyPropertiesPlan{
+
+    /** 属性表达式中 nested/indexed/mapped 的特殊字符 <code>{@value}</code>. */
+    private static final String                                                                       NOT_SIMPLE_PROPERTY_NAME_CHARS  = ".[]()";
+
+    /** 每个 class 缓存的计划数量达到 <code>{@value}</code> 之后,指定了 includePropertyNames 的计划不再缓存. */
+    private static final int                                                                          MAX_INCLUDE_PLAN_SIZE_PER_CLASS = 64;
+
+    /** 不能编译的占位. */
+    private static final CopyPropertiesPlan                                                           NOT_COMPILABLE                  = new CopyPropertiesPlan(null);
+
+    /**
+     * key 和对应的计划.
+     * 
+     * <p>
+     * 计划同时引用了 toClass 以及 fromClass,按照 {@link ClassMetadataCache#selectOwnerClass(Class, Class)} 挂在生命周期较短的那个 class 上.
+     * </p>
+     */
+    private static final ClassMetadataCache<ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan>> KEY_AND_PLAN_MAP                = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    //---------------------------------------------------------------
+
+    /** 有序的复制步骤. */
+    private final CopyPropertyStep[]                                                                  copyPropertySteps;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new copy properties plan.
+     *
+     * @param copyPropertySteps
+     *            the copy property steps
+     */
+    private CopyPropertiesPlan(CopyPropertyStep[] copyPropertySteps){
+        this.copyPropertySteps = copyPropertySteps;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得复制计划.
+     *
+     * @param toClass
+     *            目标类型
+     * @param fromClass
+     *            源类型
+     * @param convert
+     *            是否进行类型转换,true 表示 {@link BeanUtil} 的语义,false 表示 {@link PropertyUtil} 的语义
+     * @param includePropertyNames
+     *            包含的属性名称,如果是null或者empty,表示复制全部属性
+     * @return 如果不能编译,返回null
+     */
+    static CopyPropertiesPlan getInstance(Class<?> toClass,Class<?> fromClass,boolean convert,String...includePropertyNames){
+        CopyPropertiesPlanKey copyPropertiesPlanKey = new CopyPropertiesPlanKey(toClass, fromClass, convert, includePropertyNames);
+
+        ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan> keyAndPlanMap = getKeyAndPlanMap(
+                        ClassMetadataCache.selectOwnerClass(toClass, fromClass));
+
+        CopyPropertiesPlan copyPropertiesPlan = keyAndPlanMap.get(copyPropertiesPlanKey);
+        if (null == copyPropertiesPlan){
+            copyPropertiesPlan = compile(toClass, fromClass, convert, includePropertyNames);
+
+            //调用方拼出来的 includePropertyNames 可能无穷无尽,超出数量之后不再缓存
+            if (!isNullOrEmpty(includePropertyNames) && keyAndPlanMap.size() >= MAX_INCLUDE_PLAN_SIZE_PER_CLASS){
+                return NOT_COMPILABLE == copyPropertiesPlan ? null : copyPropertiesPlan;
+            }
+
+            //includePropertyNames 是调用方的数组,放入缓存的 key 需要复制一份
+            CopyPropertiesPlanKey storeKey = new CopyPropertiesPlanKey(
+                            toClass,
+                            fromClass,
+                            convert,
+                            null == includePropertyNames ? null : includePropertyNames.clone());
+            CopyPropertiesPlan existed = keyAndPlanMap.putIfAbsent(storeKey, copyPropertiesPlan);
+            if (null != existed){
+                copyPropertiesPlan = existed;
+            }
+        }
+        return NOT_COMPILABLE == copyPropertiesPlan ? null : copyPropertiesPlan;
+    }
+
+    /**
+     * 获得挂在 <code>ownerClass</code> 上的计划.
+     *
+     * @param ownerClass
+     *            the owner class
+     * @return the key and plan map
+     */
+    private static ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan> getKeyAndPlanMap(Class<?> ownerClass){
+        ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan> keyAndPlanMap = KEY_AND_PLAN_MAP.get(ownerClass);
+        if (null != keyAndPlanMap){
+            return keyAndPlanMap;
+        }
+
+        //---------------------------------------------------------------
+        keyAndPlanMap = new ConcurrentHashMap<>();
+        ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan> existed = KEY_AND_PLAN_MAP.putIfAbsent(ownerClass, keyAndPlanMap);
+        return null == existed ? keyAndPlanMap : existed;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 执行复制.
+     *
+     * @param toObj
+     *            目标对象
+     * @param fromObj
+     *            源对象
+     * @throws BeanOperationException
+     *             如果取值/转换/设值出现异常
+     */
+    void execute(Object toObj,Object fromObj){
+        ConvertUtilsBean convertUtilsBean = BeanUtilsBean.getInstance().getConvertUtils();
+        for (CopyPropertyStep copyPropertyStep : copyPropertySteps){
+            copyPropertyStep.copy(toObj, fromObj, convertUtilsBean);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 编译.
+     *
+     * @param toClass
+     *            the to class
+     * @param fromClass
+     *            the from class
+     * @param convert
+     *            the convert
+     * @param includePropertyNames
+     *            the include property names
+     * @return 如果不能编译,返回 {@link #NOT_COMPILABLE}
+     */
+    private static CopyPropertiesPlan compile(Class<?> toClass,Class<?> fromClass,boolean convert,String...includePropertyNames){
+        if (isMapOrDynaBean(toClass) || isMapOrDynaBean(fromClass)){
+            return NOT_COMPILABLE;
+        }
+
+        //---------------------------------------------------------------
+        List<CopyPropertyStep> copyPropertyStepList = isNullOrEmpty(includePropertyNames) ? compileAll(toClass, fromClass, convert)
+                        : compileInclude(toClass, fromClass, convert, includePropertyNames);
+        return null == copyPropertyStepList ? NOT_COMPILABLE
+                        : new CopyPropertiesPlan(copyPropertyStepList.toArray(new CopyPropertyStep[copyPropertyStepList.size()]));
+    }
+
+    /**
+     * 复制全部属性,和 {@link org.apache.commons.beanutils.BeanUtilsBean#copyProperties(Object, Object)} /
+     * {@link org.apache.commons.beanutils.PropertyUtilsBean#copyProperties(Object, Object)} 一样,复制源可读并且目标可写的同名属性.
+     *
+     * @param toClass
+     *            the to class
+     * @param fromClass
+     *            the from class
+     * @param convert
+     *            the convert
+     * @return 如果有 indexed/mapped 属性,返回null
+     */
+    private static List<CopyPropertyStep> compileAll(Class<?> toClass,Class<?> fromClass,boolean convert){
+        List<CopyPropertyStep> copyPropertyStepList = new ArrayList<>();
+        for (PropertyDescriptor fromPropertyDescriptor : PropertyUtils.getPropertyDescriptors(fromClass)){
+            String propertyName = fromPropertyDescriptor.getName();
+            if ("class".equals(propertyName)){
+                continue;
+            }
+
+            PropertyDescriptor toPropertyDescriptor = findPropertyDescriptor(toClass, propertyName);
+            if (isIndexedOrMapped(fromPropertyDescriptor) || isIndexedOrMapped(toPropertyDescriptor)){
+                return null;
+            }
+
+            //---------------------------------------------------------------
+            PropertyAccessor reader = new PropertyAccessor(fromClass, propertyName, fromPropertyDescriptor);
+            PropertyAccessor writer = new PropertyAccessor(toClass, propertyName, toPropertyDescriptor);
+            if (reader.isReadable() && writer.isWriteable()){
+                copyPropertyStepList.add(convert ? new ConvertCopyPropertyStep(reader, writer) : new DirectCopyPropertyStep(reader, writer));
+            }
+        }
+        return copyPropertyStepList;
+    }
+
+    /**
+     * 复制指定属性,和 {@link BeanUtil#copyProperties(Object, Object, String...)}/{@link PropertyUtil#copyProperties(Object, Object, String...)}
+     * 原来的循环 getProperty/setProperty 一样.
+     *
+     * @param toClass
+     *            the to class
+     * @param fromClass
+     *            the from class
+     * @param convert
+     *            the convert
+     * @param includePropertyNames
+     *            the include property names
+     * @return the list
+     */
+    private static List<CopyPropertyStep> compileInclude(Class<?> toClass,Class<?> fromClass,boolean convert,String...includePropertyNames){
+        List<CopyPropertyStep> copyPropertyStepList = new ArrayList<>(includePropertyNames.length);
+        for (String propertyName : includePropertyNames){
+            copyPropertyStepList.add(compileInclude(toClass, fromClass, convert, propertyName));
+        }
+        return copyPropertyStepList;
+    }
+
+    /**
+     * 编译单个指定属性.
+     *
+     * @param toClass
+     *            the to class
+     * @param fromClass
+     *            the from class
+     * @param convert
+     *            the convert
+     * @param propertyName
+     *            the property name
+     * @return 如果不能编译,返回 {@link FallbackCopyPropertyStep}
+     */
+    private static CopyPropertyStep compileInclude(Class<?> toClass,Class<?> fromClass,boolean convert,String propertyName){
+        if (StringUtils.isBlank(propertyName) || !StringUtils.containsNone(propertyName, NOT_SIMPLE_PROPERTY_NAME_CHARS)){
+            return new FallbackCopyPropertyStep(propertyName, convert);
+        }
+
+        //---------------------------------------------------------------
+        //BeanUtil 使用 commons-beanutils 取值;PropertyUtil 使用 PropertyValueObtainer 取值
+        PropertyDescriptor fromPropertyDescriptor = findPropertyDescriptor(fromClass, propertyName);
+        PropertyAccessor reader = convert ? new PropertyAccessor(fromClass, propertyName, fromPropertyDescriptor)
+                        : PropertyDescriptorUtil.getPropertyAccessor(fromClass, propertyName);
+
+        PropertyDescriptor toPropertyDescriptor = findPropertyDescriptor(toClass, propertyName);
+        PropertyAccessor writer = new PropertyAccessor(toClass, propertyName, toPropertyDescriptor);
+
+        boolean compilable = reader.isReadable() && writer.isWriteable() //
+                        && !isIndexedOrMapped(fromPropertyDescriptor) && !isIndexedOrMapped(toPropertyDescriptor);
+        if (!compilable){
+            return new FallbackCopyPropertyStep(propertyName, convert);
+        }
+
+        //---------------------------------------------------------------
+        if (!convert){
+            return new DirectCopyPropertyStep(reader, writer);
+        }
+        //数组类型 BeanUtils.setProperty 有单独的处理逻辑
+        return toPropertyDescriptor.getPropertyType().isArray() ? new FallbackCopyPropertyStep(propertyName, convert)
+                        : new StringCopyPropertyStep(reader, writer, toPropertyDescriptor.getPropertyType());
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用 commons-beanutils 查找 PropertyDescriptor.
+     *
+     * @param klass
+     *            the klass
+     * @param propertyName
+     *            the property name
+     * @return 如果找不到,返回null
+     */
+    private static PropertyDescriptor findPropertyDescriptor(Class<?> klass,String propertyName){
+        for (PropertyDescriptor propertyDescriptor : PropertyUtils.getPropertyDescriptors(klass)){
+            if (propertyName.equals(propertyDescriptor.getName())){
+                return propertyDescriptor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if is indexed or mapped.
+     *
+     * @param propertyDescriptor
+     *            the property descriptor
+     * @return true, if is indexed or mapped
+     */
+    private static boolean isIndexedOrMapped(PropertyDescriptor propertyDescriptor){
+        return propertyDescriptor instanceof IndexedPropertyDescriptor || propertyDescriptor instanceof MappedPropertyDescriptor;
+    }
+
+    /**
+     * Checks if is map or dyna bean.
+     *
+     * @param klass
+     *            the klass
+     * @return true, if is map or dyna bean
+     */
+    private static boolean isMapOrDynaBean(Class<?> klass){
+        return Map.class.isAssignableFrom(klass) || DynaBean.class.isAssignableFrom(klass);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 单个属性的复制步骤.
+     */
+    private abstract static class CopyPropertyStep{
+
+        /**
+         * 复制.
+         *
+         * @param toObj
+         *            the to obj
+         * @param fromObj
+         *            the from obj
+         * @param convertUtilsBean
+         *            当前使用的 convert utils bean
+         */
+        abstract void copy(Object toObj,Object fromObj,ConvertUtilsBean convertUtilsBean);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 不做类型转换,直接 getter→setter,参见 {@link org.apache.commons.beanutils.PropertyUtilsBean#copyProperties(Object, Object)}.
+     */
+    private static final class DirectCopyPropertyStep extends CopyPropertyStep{
+
+        /** The reader. */
+        private final PropertyAccessor reader;
+
+        /** The writer. */
+        private final PropertyAccessor writer;
+
+        /**
+         * Instantiates a new direct copy property step.
+         *
+         * @param reader
+         *            the reader
+         * @param writer
+         *            the writer
+         */
+        private DirectCopyPropertyStep(PropertyAccessor reader, PropertyAccessor writer){
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see com.feilong.core.bean.CopyPropertiesPlan.CopyPropertyStep#copy(java.lang.Object, java.lang.Object,
+         * org.apache.commons.beanutils.ConvertUtilsBean)
+         */
+        @Override
+        void copy(Object toObj,Object fromObj,ConvertUtilsBean convertUtilsBean){
+            writer.setValue(toObj, reader.getValue(fromObj));
+        }
+    }
+
+    /**
+     * 值不是null的时候,使用目标属性类型的 converter 转换,参见 {@link BeanUtilsBean#copyProperty(Object, String, Object)}.
+     */
+    private static final class ConvertCopyPropertyStep extends CopyPropertyStep{
+
+        /** The reader. */
+        private final PropertyAccessor reader;
+
+        /** The writer. */
+        private final PropertyAccessor writer;
+
+        /**
+         * Instantiates a new convert copy property step.
+         *
+         * @param reader
+         *            the reader
+         * @param writer
+         *            the writer
+         */
+        private ConvertCopyPropertyStep(PropertyAccessor reader, PropertyAccessor writer){
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see com.feilong.core.bean.CopyPropertiesPlan.CopyPropertyStep#copy(java.lang.Object, java.lang.Object,
+         * org.apache.commons.beanutils.ConvertUtilsBean)
+         */
+        @Override
+        void copy(Object toObj,Object fromObj,ConvertUtilsBean convertUtilsBean){
+            Object value = reader.getValue(fromObj);
+            if (null != value){
+                Class<?> type = writer.getPropertyType();
+                Converter converter = convertUtilsBean.lookup(type);
+                if (null != converter){
+                    value = converter.convert(type, value);
+                }
+            }
+            writer.setValue(toObj, value);
+        }
+    }
+
+    /**
+     * 先把值转成字符串,再转成目标属性类型,参见 {@link BeanUtil#copyProperties(Object, Object, String...)} 原来的
+     * {@link org.apache.commons.beanutils.BeanUtils#getProperty(Object, String)}+{@link org.apache.commons.beanutils.BeanUtils#setProperty(Object, String, Object)}.
+     */
+    private static final class StringCopyPropertyStep extends CopyPropertyStep{
+
+        /** The reader. */
+        private final PropertyAccessor reader;
+
+        /** The writer. */
+        private final PropertyAccessor writer;
+
+        /** 目标属性类型,不是数组. */
+        private final Class<?>         type;
+
+        /**
+         * Instantiates a new string copy property step.
+         *
+         * @param reader
+         *            the reader
+         * @param writer
+         *            the writer
+         * @param type
+         *            the type
+         */
+        private StringCopyPropertyStep(PropertyAccessor reader, PropertyAccessor writer, Class<?> type){
+            this.reader = reader;
+            this.writer = writer;
+            this.type = type;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see com.feilong.core.bean.CopyPropertiesPlan.CopyPropertyStep#copy(java.lang.Object, java.lang.Object,
+         * org.apache.commons.beanutils.ConvertUtilsBean)
+         */
+        @Override
+        void copy(Object toObj,Object fromObj,ConvertUtilsBean convertUtilsBean){
+            String value = convertUtilsBean.convert(reader.getValue(fromObj));
+
+            Object newValue;
+            try{
+                if (null != value){
+                    newValue = convertUtilsBean.convert(value, type);
+                }else{
+                    Converter converter = convertUtilsBean.lookup(type);
+                    newValue = null == converter ? null : converter.convert(type, null);
+                }
+            }catch (Exception e){
+                String pattern = "setProperty exception,bean:[{}],propertyName:[{}],value:[{}]";
+                throw new BeanOperationException(Slf4jUtil.format(pattern, toObj, writer.getPropertyName(), value), e);
+            }
+            writer.setValue(toObj, newValue);
+        }
+    }
+
+    /**
+     * 不能编译的属性,使用原来的逻辑.
+     */
+    private static final class FallbackCopyPropertyStep extends CopyPropertyStep{
+
+        /** The property name. */
+        private final String  propertyName;
+
+        /** The convert. */
+        private final boolean convert;
+
+        /**
+         * Instantiates a new fallback copy property step.
+         *
+         * @param propertyName
+         *            the property name
+         * @param convert
+         *            the convert
+         */
+        private FallbackCopyPropertyStep(String propertyName, boolean convert){
+            this.propertyName = propertyName;
+            this.convert = convert;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see com.feilong.core.bean.CopyPropertiesPlan.CopyPropertyStep#copy(java.lang.Object, java.lang.Object,
+         * org.apache.commons.beanutils.ConvertUtilsBean)
+         */
+        @Override
+        void copy(Object toObj,Object fromObj,ConvertUtilsBean convertUtilsBean){
+            if (convert){
+                BeanUtil.setProperty(toObj, propertyName, BeanUtil.getProperty(fromObj, propertyName));
+                return;
+            }
+            PropertyUtil.setProperty(toObj, propertyName, PropertyUtil.getProperty(fromObj, propertyName));
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 缓存的 key.
+     */
+    private static final class CopyPropertiesPlanKey{
+
+        /** The to class. */
+        private final Class<?> toClass;
+
+        /** The from class. */
+        private final Class<?> fromClass;
+
+        /** The convert. */
+        private final boolean  convert;
+
+        /** The include property names. */
+        private final String[] includePropertyNames;
+
+        /** The hash code. */
+        private final int      hashCode;
+
+        /**
+         * Instantiates a new copy properties plan key.
+         *
+         * @param toClass
+         *            the to class
+         * @param fromClass
+         *            the from class
+         * @param convert
+         *            the convert
+         * @param includePropertyNames
+         *            the include property names
+         */
+        private CopyPropertiesPlanKey(Class<?> toClass, Class<?> fromClass, boolean convert, String[] includePropertyNames){
+            this.toClass = toClass;
+            this.fromClass = fromClass;
+            this.convert = convert;
+            this.includePropertyNames = isNullOrEmpty(includePropertyNames) ? null : includePropertyNames;
+
+            int result = toClass.hashCode();
+            result = 31 * result + fromClass.hashCode();
+            result = 31 * result + (convert ? 1 : 0);
+            this.hashCode = 31 * result + Arrays.hashCode(this.includePropertyNames);
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode(){
+            return hashCode;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj){
+            if (this == obj){
+                return true;
+            }
+            if (!(obj instanceof CopyPropertiesPlanKey)){
+                return false;
+            }
+            CopyPropertiesPlanKey other = (CopyPropertiesPlanKey) obj;
+            return toClass == other.toClass && fromClass == other.fromClass && convert == other.convert
+                            && Arrays.equals(includePropertyNames, other.includePropertyNames);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (ConcurrentMap<CopyPropertiesPlanKey, CopyPropertiesPlan> keyAndPlanMap : KEY_AND_PLAN_MAP.values()){
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES;
+            for (Map.Entry<CopyPropertiesPlanKey, CopyPropertiesPlan> entry : keyAndPlanMap.entrySet()){
+                String[] includePropertyNames = entry.getKey().includePropertyNames;
+                estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(5)
+                                + (null == includePropertyNames ? 0 : CacheStatistics.estimateArrayBytes(includePropertyNames.length));
+
+                CopyPropertyStep[] copyPropertySteps = entry.getValue().copyPropertySteps;
+                if (null != copyPropertySteps){
+                    //每个步骤最多3个字段,以及新建的 reader/writer PropertyAccessor
+                    estimatedBytes += CacheStatistics.estimateObjectBytes(1) + CacheStatistics.estimateArrayBytes(copyPropertySteps.length)
+                                    + copyPropertySteps.length * (CacheStatistics.estimateObjectBytes(3) + 2 * CacheStatistics.estimateObjectBytes(9));
+                }
+                ++size;
+            }
+        }
+        return new CacheStatistics("CopyPropertiesPlan.KEY_AND_PLAN_MAP", size, estimatedBytes);
+    }
+}
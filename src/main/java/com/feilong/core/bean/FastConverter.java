@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.converters.BigDecimalConverter;
+import org.apache.commons.beanutils.converters.BooleanConverter;
+import org.apache.commons.beanutils.converters.DoubleConverter;
+import org.apache.commons.beanutils.converters.IntegerConverter;
+import org.apache.commons.beanutils.converters.LongConverter;
+
+/**
+ * 常用 (源类型, 目标类型) 的直接转换,不经过 commons-beanutils 的 {@link org.apache.commons.beanutils.ConvertUtilsBean ConvertUtilsBean}.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>目标类型是 {@link Integer},{@link Long},{@link Double},{@link BigDecimal},{@link Boolean};源类型是 {@link String},{@link Boolean} 以及
+ * {@link Integer},{@link Long},{@link Short},{@link Byte},{@link Double},{@link Float},{@link BigDecimal},{@link BigInteger}</li>
+ * <li>转换结果和对应的 commons-beanutils 转换器(默认值是null)一致,比如字符串会先 trim,{@link Integer} 超出范围返回null;转换不了返回null,由调用方决定默认值</li>
+ * <li>其他的源类型(数组,集合,{@link java.util.Date} 等等)不在注册表中,由调用方交给 commons-beanutils 处理</li>
+ * <li>不合法的数字字符串会先校验,不会每次都创建 {@link NumberFormatException}</li>
+ * <li>{@link ConvertUtil#toInteger(Object, Integer)},{@link ConvertUtil#toLong(Object)},{@link ConvertUtil#toBigDecimal(Object)} 以及
+ * {@link ConvertUtil#toBoolean(Object)} 直接使用本转换器,不查找注册表;{@link ConvertUtil#convert(Object, Class)} 需要尊重重新注册的转换器,仍然每次调用
+ * {@link #isStandardConverterRegistered()} 查找注册表</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see ConvertUtil#toInteger(Object, Integer)
+ * @see ConvertUtil#convert(Object, Class)
+ * @since 2.1.0
+ */
+enum FastConverter{
+
+    /** 转成 {@link Integer}. */
+    TO_INTEGER(Integer.class, new IntegerConverter(null), true){
+
+        @Override
+        protected Object convertNumber(Number number){
+            long longValue = number.longValue();
+            return longValue > Integer.MAX_VALUE || longValue < Integer.MIN_VALUE ? null : Integer.valueOf(number.intValue());
+        }
+
+        @Override
+        protected Object convertString(String value){
+            return isDecimalDigits(value) ? Integer.valueOf(value) : null;
+        }
+    },
+
+    /** 转成 {@link Long}. */
+    TO_LONG(Long.class, new LongConverter(null), true){
+
+        @Override
+        protected Object convertNumber(Number number){
+            return Long.valueOf(number.longValue());
+        }
+
+        @Override
+        protected Object convertString(String value){
+            return isDecimalDigits(value) ? Long.valueOf(value) : null;
+        }
+    },
+
+    /** 转成 {@link Double}. */
+    TO_DOUBLE(Double.class, new DoubleConverter(null), true){
+
+        @Override
+        protected Object convertNumber(Number number){
+            return Double.valueOf(number.doubleValue());
+        }
+
+        @Override
+        protected Object convertString(String value){
+            return Double.valueOf(value);
+        }
+    },
+
+    /** 转成 {@link BigDecimal}. */
+    TO_BIG_DECIMAL(BigDecimal.class, new BigDecimalConverter(null), true){
+
+        @Override
+        protected Object convertNumber(Number number){
+            if (number instanceof Float || number instanceof Double || number instanceof BigDecimal){
+                return new BigDecimal(number.toString());
+            }
+            if (number instanceof BigInteger){
+                return new BigDecimal((BigInteger) number);
+            }
+            return BigDecimal.valueOf(number.longValue());
+        }
+
+        @Override
+        protected Object convertString(String value){
+            return new BigDecimal(value);
+        }
+    },
+
+    /** 转成 {@link Boolean},和 {@link BooleanConverter} 默认的 trueStrings/falseStrings 一致,字符串不会 trim. */
+    TO_BOOLEAN(Boolean.class, new BooleanConverter(null), false){
+
+        /**
+         * 和 {@link BooleanConverter} 一致,数字按照 {@link Number#toString()} 匹配,比如 1 是 true,1.0 转换不了.
+         */
+        @Override
+        protected Object convertNumber(Number number){
+            return convertString(number.toString());
+        }
+
+        @Override
+        protected Object convertString(String value){
+            String stringValue = value.toLowerCase();
+            if (TRUE_STRINGS.contains(stringValue)){
+                return Boolean.TRUE;
+            }
+            return FALSE_STRINGS.contains(stringValue) ? Boolean.FALSE : null;
+        }
+    };
+
+    //---------------------------------------------------------------
+
+    /** {@link BooleanConverter} 默认的 trueStrings. */
+    private static final List<String>                                TRUE_STRINGS  = Arrays.asList("true", "yes", "y", "on", "1");
+
+    /** {@link BooleanConverter} 默认的 falseStrings. */
+    private static final List<String>                                FALSE_STRINGS = Arrays.asList("false", "no", "n", "off", "0");
+
+    /** 目标类型 和 (源类型 和 转换器). */
+    private static final Map<Class<?>, Map<Class<?>, FastConverter>> TARGET_TYPE_AND_SOURCE_TYPE_AND_CONVERTER_MAP;
+
+    static{
+        List<Class<?>> sourceTypeList = Arrays.<Class<?>> asList(
+                        String.class,
+                        Boolean.class,
+                        Integer.class,
+                        Long.class,
+                        Short.class,
+                        Byte.class,
+                        Double.class,
+                        Float.class,
+                        BigDecimal.class,
+                        BigInteger.class);
+
+        Map<Class<?>, Map<Class<?>, FastConverter>> map = new HashMap<>();
+        for (FastConverter fastConverter : values()){
+            Map<Class<?>, FastConverter> sourceTypeAndConverterMap = new HashMap<>();
+            for (Class<?> sourceType : sourceTypeList){
+                sourceTypeAndConverterMap.put(sourceType, fastConverter);
+            }
+            map.put(fastConverter.targetType, sourceTypeAndConverterMap);
+        }
+        TARGET_TYPE_AND_SOURCE_TYPE_AND_CONVERTER_MAP = Collections.unmodifiableMap(map);
+    }
+
+    //---------------------------------------------------------------
+
+    /** 目标类型. */
+    private final Class<?>                                           targetType;
+
+    /** 默认值是null的标准转换器,{@link ConvertUtil#registerStandardDefaultNull()} 注册的就是它. */
+    private final Converter                                          standardConverter;
+
+    /** 字符串是否先 trim,{@link org.apache.commons.beanutils.converters.NumberConverter NumberConverter} 会,{@link BooleanConverter} 不会. */
+    private final boolean                                            trimString;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new fast converter.
+     *
+     * @param targetType
+     *            目标类型
+     * @param standardConverter
+     *            默认值是null的标准转换器
+     * @param trimString
+     *            字符串是否先 trim
+     */
+    private FastConverter(Class<?> targetType, Converter standardConverter, boolean trimString){
+        this.targetType = targetType;
+        this.standardConverter = standardConverter;
+        this.trimString = trimString;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 查找 (<code>sourceType</code>, <code>targetType</code>) 的转换器.
+     *
+     * @param sourceType
+     *            源类型
+     * @param targetType
+     *            目标类型
+     * @return 如果没有注册,返回null
+     */
+    static FastConverter lookup(Class<?> sourceType,Class<?> targetType){
+        Map<Class<?>, FastConverter> sourceTypeAndConverterMap = TARGET_TYPE_AND_SOURCE_TYPE_AND_CONVERTER_MAP.get(targetType);
+        return null == sourceTypeAndConverterMap ? null : sourceTypeAndConverterMap.get(sourceType);
+    }
+
+    /**
+     * 转换.
+     *
+     * @param value
+     *            the value,不能为null,并且类型是注册过的源类型
+     * @return 如果是空白字符串,或者转换不了,返回null
+     */
+    Object convert(Object value){
+        //和 AbstractConverter 一致,类型相同的直接返回
+        if (targetType == value.getClass()){
+            return value;
+        }
+        try{
+            return doConvert(value);
+        }catch (NumberFormatException e){
+            return null;
+        }
+    }
+
+    /**
+     * 全局 {@link ConvertUtils} 中 <code>targetType</code> 对应的转换器是否还是 {@link #standardConverter}(没有被重新注册).
+     * 
+     * <p>
+     * 注意:{@link ConvertUtils#lookup(Class)} 每次都要经过 {@link org.apache.commons.beanutils.BeanUtilsBean#getInstance()}(按照 context
+     * classloader 同步查找),这个开销和 {@link ConvertUtils#convert(Object, Class)} 本身的查找一样,本方法省掉的只是转换的开销.
+     * </p>
+     *
+     * @return 如果是,那么可以用本转换器代替 {@link ConvertUtils#convert(Object, Class)}
+     */
+    boolean isStandardConverterRegistered(){
+        return standardConverter == ConvertUtils.lookup(targetType);
+    }
+
+    /**
+     * 获得默认值是null的标准转换器.
+     *
+     * @return the standard converter
+     */
+    Converter getStandardConverter(){
+        return standardConverter;
+    }
+
+    /**
+     * 获得目标类型.
+     *
+     * @return the target type
+     */
+    Class<?> getTargetType(){
+        return targetType;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 转换,{@link Boolean} 按照 1/0 处理,和 {@link org.apache.commons.beanutils.converters.NumberConverter NumberConverter} 一致.
+     *
+     * @param value
+     *            the value
+     * @return the object
+     */
+    private Object doConvert(Object value){
+        if (value instanceof Boolean){
+            return convertNumber(((Boolean) value).booleanValue() ? 1 : 0);
+        }
+        if (value instanceof Number){
+            return convertNumber((Number) value);
+        }
+
+        //---------------------------------------------------------------
+        String stringValue = trimString ? value.toString().trim() : value.toString();
+        return stringValue.isEmpty() ? null : convertString(stringValue);
+    }
+
+    /**
+     * 数字转换.
+     *
+     * @param number
+     *            the number
+     * @return 转换不了返回null
+     */
+    protected abstract Object convertNumber(Number number);
+
+    /**
+     * 字符串转换.
+     *
+     * @param value
+     *            不是empty的字符串,如果 {@link #trimString} 是true,已经 trim 过
+     * @return 转换不了返回null
+     */
+    protected abstract Object convertString(String value);
+
+    //---------------------------------------------------------------
+
+    /**
+     * 是否是 {@link Integer#parseInt(String)} 可以接受的格式(可选的正负号,后面都是数字),溢出由 {@link NumberFormatException} 处理.
+     *
+     * @param value
+     *            the value
+     * @return true, if is decimal digits
+     */
+    static boolean isDecimalDigits(String value){
+        int length = value.length();
+        int index = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+        if (index == length){
+            return false;
+        }
+        for (; index < length; ++index){
+            if (Character.digit(value.charAt(index), 10) < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标识需要在编译期生成 {@link BeanAccessor} 的 bean.
+ * 
+ * <p>
+ * 编译的时候需要开启 {@link BeanAccessorProcessor},比如 maven:
+ * </p>
+ * 
+ * <pre class="code">
+{@code
+<plugin>
+    <groupId>org.apache.maven.plugins</groupId>
+    <artifactId>maven-compiler-plugin</artifactId>
+    <configuration>
+        <annotationProcessors>
+            <annotationProcessor>com.feilong.core.bean.BeanAccessorProcessor</annotationProcessor>
+        </annotationProcessors>
+    </configuration>
+</plugin>
+}
+ * </pre>
+ * 
+ * <p>
+ * 或者 javac {@code -processor com.feilong.core.bean.BeanAccessorProcessor}.<br>
+ * 生成的类和 bean 在同一个package 下,名字参见 {@link BeanAccessorRegistry#getGeneratedClassName(Class)},运行时由 {@link BeanAccessorRegistry} 自动发现.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see BeanAccessor
+ * @see BeanAccessorProcessor
+ * @see BeanAccessorRegistry
+ * @since 2.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ ElementType.TYPE })
+public @interface GenerateBeanAccessor{
+}
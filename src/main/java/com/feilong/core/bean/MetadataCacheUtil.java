@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import static com.feilong.core.Validator.isNullOrEmpty;
+
+import java.beans.PropertyDescriptor;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.UncheckedIOException;
+import com.feilong.core.util.RegexUtil;
+
+/**
+ * feilong-core 元数据缓存的预热以及统计.
+ * 
+ * <h3>为什么需要预热:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * {@link PropertyUtil},{@link BeanUtil},{@link RegexUtil} 等的元数据(commons-beanutils introspection,{@link PropertyAccessor},{@link PropertyPath},
+ * copy/populate/clone 计划,{@link java.util.regex.Pattern} 等)都是第一次使用的时候才解析并缓存的,所以发布之后的第一批请求会比较慢;<br>
+ * 可以在应用启动的时候调用 {@link #warmUp(Class, String...)}/{@link #warmUpPackage(String)}/{@link #warmUpPatterns(String...)} 提前填充这些缓存.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * MetadataCacheUtil.warmUpPackage("com.feilong.store.member");
+ * MetadataCacheUtil.warmUp(User.class, "id", "userInfo.age");
+ * 
+ * for (CacheStatistics cacheStatistics : MetadataCacheUtil.getCacheStatisticsList()){
+ *     LOGGER.info("{}", cacheStatistics);
+ * }
+ * </pre>
+ * 
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see CacheStatistics
+ * @since 2.1.0
+ */
+public final class MetadataCacheUtil{
+
+    /** The Constant LOGGER. */
+    private static final Logger   LOGGER             = LoggerFactory.getLogger(MetadataCacheUtil.class);
+
+    /** class 文件后缀 <code>{@value}</code>. */
+    private static final String   CLASS_FILE_SUFFIX  = ".class";
+
+    /** 空的属性名称数组. */
+    private static final String[] EMPTY_STRING_ARRAY = {};
+
+    //---------------------------------------------------------------
+
+    /** Don't let anyone instantiate this class. */
+    private MetadataCacheUtil(){
+        //AssertionError不是必须的. 但它可以避免不小心在类的内部调用构造器. 保证该类在任何情况下都不会被实例化.
+        //see 《Effective Java》 2nd
+        throw new AssertionError("No " + getClass().getName() + " instances for you!");
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 预热 <code>klass</code> 的元数据缓存.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>commons-beanutils 的 introspection,{@link BeanAccessorRegistry} 的查找</li>
+     * <li><code>propertyNames</code> 中的每个属性的 {@link PropertyPath},以及简单属性的 {@link PropertyAccessor};如果 <code>propertyNames</code> 是null或者empty,那么是
+     * <code>klass</code> 所有的属性</li>
+     * <li>{@link BeanUtil#populate(Object, java.util.Map)},{@link BeanUtil#cloneBean(Object)},{@link PropertyUtil#describeView(Object, String...)},
+     * {@link BeanUtil#populateAliasBean(Object, java.util.Map)} 使用的计划</li>
+     * <li>同类型之间 {@link BeanUtil#copyProperties(Object, Object, String...)} 以及 {@link PropertyUtil#copyProperties(Object, Object, String...)}
+     * 复制全部属性的计划</li>
+     * </ol>
+     * </blockquote>
+     *
+     * @param klass
+     *            the klass
+     * @param propertyNames
+     *            属性名称 (can be nested/indexed/mapped/combo),参见 <a href="BeanUtil.html#propertyName">propertyName</a>
+     * @throws NullPointerException
+     *             如果 <code>klass</code> 是null,或者 <code>propertyNames</code> 中有null元素
+     * @throws IllegalArgumentException
+     *             如果 <code>propertyNames</code> 中有blank元素
+     */
+    public static void warmUp(Class<?> klass,String...propertyNames){
+        Validate.notNull(klass, "klass can't be null!");
+
+        //---------------------------------------------------------------
+        PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(klass);
+        BeanAccessorRegistry.getBeanAccessor(klass);
+
+        if (isNullOrEmpty(propertyNames)){
+            for (PropertyDescriptor propertyDescriptor : propertyDescriptors){
+                warmUpProperty(klass, propertyDescriptor.getName());
+            }
+        }else{
+            for (String propertyName : propertyNames){
+                warmUpProperty(klass, propertyName);
+            }
+        }
+
+        //---------------------------------------------------------------
+        PopulatePlan.getInstance(klass);
+        BeanClonePlan.getInstance(klass);
+        PropertyValueMapView.getReadablePropertyNames(klass);
+        BeanUtil.buildPropertyNameAndAliasMap(klass);
+
+        CopyPropertiesPlan.getInstance(klass, klass, true, EMPTY_STRING_ARRAY);
+        CopyPropertiesPlan.getInstance(klass, klass, false, EMPTY_STRING_ARRAY);
+    }
+
+    /**
+     * 预热 <code>klasses</code> 中每个 class 所有属性的元数据缓存.
+     *
+     * @param klasses
+     *            the klasses
+     * @throws NullPointerException
+     *             如果 <code>klasses</code> 是null,或者有null元素
+     * @see #warmUp(Class, String...)
+     */
+    public static void warmUp(Iterable<? extends Class<?>> klasses){
+        Validate.notNull(klasses, "klasses can't be null!");
+        for (Class<?> klass : klasses){
+            warmUp(klass);
+        }
+    }
+
+    /**
+     * 扫描 <code>packageName</code> 以及子package 下的 class(支持目录以及 jar),预热每个 class 所有属性的元数据缓存.
+     * 
+     * <p>
+     * 使用当前线程的 context ClassLoader 扫描以及加载,跳过接口,注解,枚举,匿名类,局部类以及 synthetic 类;加载失败的 class 会被忽略.
+     * </p>
+     *
+     * @param packageName
+     *            比如 com.feilong.store.member
+     * @return 预热过的 class
+     * @throws NullPointerException
+     *             如果 <code>packageName</code> 是null
+     * @throws IllegalArgumentException
+     *             如果 <code>packageName</code> 是blank
+     * @throws UncheckedIOException
+     *             如果读取 class path 出现异常
+     * @see #warmUp(Class, String...)
+     */
+    public static List<Class<?>> warmUpPackage(String packageName){
+        Validate.notBlank(packageName, "packageName can't be blank!");
+
+        //---------------------------------------------------------------
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (null == classLoader){
+            classLoader = MetadataCacheUtil.class.getClassLoader();
+        }
+
+        List<Class<?>> classList = new ArrayList<>();
+        for (String className : scanClassNames(classLoader, packageName)){
+            Class<?> klass = loadClass(classLoader, className);
+            if (null != klass && isWarmUpable(klass)){
+                warmUp(klass);
+                classList.add(klass);
+            }
+        }
+
+        LOGGER.info("warm up package:[{}],[{}] classes", packageName, classList.size());
+        return classList;
+    }
+
+    /**
+     * 预编译 <code>regexPatterns</code>,放入 {@link RegexUtil} 的 {@link java.util.regex.Pattern} 缓存.
+     *
+     * @param regexPatterns
+     *            正则表达式
+     * @throws NullPointerException
+     *             如果 <code>regexPatterns</code> 是null,或者有null元素
+     * @throws java.util.regex.PatternSyntaxException
+     *             如果表达式语法错误
+     */
+    public static void warmUpPatterns(String...regexPatterns){
+        Validate.noNullElements(regexPatterns, "regexPatterns can't be null or has null element!");
+        for (String regexPattern : regexPatterns){
+            RegexUtil.buildPattern(regexPattern, 0);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 feilong-core 所有元数据缓存的统计信息.
+     * 
+     * <p>
+     * 每次调用都会遍历缓存重新计算,适合在管理页面或者定时任务中调用,不要在热点路径中调用;内存是估算值,参见 {@link CacheStatistics}.
+     * </p>
+     *
+     * @return 每个缓存一个 {@link CacheStatistics}
+     */
+    public static List<CacheStatistics> getCacheStatisticsList(){
+        List<CacheStatistics> list = new ArrayList<>();
+        list.add(PropertyDescriptorUtil.getCacheStatistics());
+        list.add(PropertyPath.getCacheStatistics());
+        list.add(CopyPropertiesPlan.getCacheStatistics());
+        list.add(PopulatePlan.getCacheStatistics());
+        list.add(BeanClonePlan.getCacheStatistics());
+        list.add(PropertyValueMapView.getCacheStatistics());
+        list.add(BeanAccessorRegistry.getCacheStatistics());
+        list.add(BeanUtil.getAliasCacheStatistics());
+        list.add(RegexUtil.getPatternCacheStatistics());
+        return list;
+    }
+
+    /**
+     * 获得所有元数据缓存估算的内存字节数之和.
+     *
+     * @return the total estimated bytes
+     * @see #getCacheStatisticsList()
+     */
+    public static long getTotalEstimatedBytes(){
+        long totalEstimatedBytes = 0;
+        for (CacheStatistics cacheStatistics : getCacheStatisticsList()){
+            totalEstimatedBytes += cacheStatistics.getEstimatedBytes();
+        }
+        return totalEstimatedBytes;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 预热单个属性.
+     *
+     * @param klass
+     *            the klass
+     * @param propertyName
+     *            the property name
+     */
+    private static void warmUpProperty(Class<?> klass,String propertyName){
+        PropertyPath propertyPath = PropertyPath.compile(propertyName);
+        if (propertyPath.isSimple()){
+            PropertyDescriptorUtil.getPropertyAccessor(klass, propertyName);
+        }
+    }
+
+    /**
+     * 是否需要预热.
+     *
+     * @param klass
+     *            the klass
+     * @return true, if is warm upable
+     */
+    private static boolean isWarmUpable(Class<?> klass){
+        return !klass.isInterface() && !klass.isAnnotation() && !klass.isEnum() && !klass.isAnonymousClass() && !klass.isLocalClass()
+                        && !klass.isSynthetic() && !Modifier.isPrivate(klass.getModifiers());
+    }
+
+    /**
+     * 加载 class,不初始化.
+     *
+     * @param classLoader
+     *            the class loader
+     * @param className
+     *            the class name
+     * @return 如果加载失败返回null
+     */
+    private static Class<?> loadClass(ClassLoader classLoader,String className){
+        try{
+            return Class.forName(className, false, classLoader);
+        }catch (ClassNotFoundException | LinkageError e){
+            LOGGER.debug("can't load class:[{}],skip,cause:[{}]", className, e.toString());
+            return null;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 扫描 <code>packageName</code> 以及子package 下的 class 名称.
+     *
+     * @param classLoader
+     *            the class loader
+     * @param packageName
+     *            the package name
+     * @return the list
+     */
+    private static List<String> scanClassNames(ClassLoader classLoader,String packageName){
+        String path = packageName.replace('.', '/');
+
+        List<String> classNameList = new ArrayList<>();
+        try{
+            Enumeration<URL> urls = classLoader.getResources(path);
+            while (urls.hasMoreElements()){
+                URL url = urls.nextElement();
+                String protocol = url.getProtocol();
+                if ("file".equals(protocol)){
+                    scanDirectory(new File(URLDecoder.decode(url.getFile(), "UTF-8")), packageName, classNameList);
+                }else if ("jar".equals(protocol)){
+                    scanJar(url, path, classNameList);
+                }else{
+                    LOGGER.debug("unsupported protocol:[{}],url:[{}],skip", protocol, url);
+                }
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException("scan package:[" + packageName + "] exception", e);
+        }
+        return classNameList;
+    }
+
+    /**
+     * 递归扫描目录.
+     *
+     * @param directory
+     *            the directory
+     * @param packageName
+     *            the package name
+     * @param classNameList
+     *            the class name list
+     */
+    private static void scanDirectory(File directory,String packageName,List<String> classNameList){
+        File[] files = directory.listFiles();
+        if (null == files){
+            return;
+        }
+        for (File file : files){
+            String fileName = file.getName();
+            if (file.isDirectory()){
+                scanDirectory(file, packageName + "." + fileName, classNameList);
+            }else if (isClassFile(fileName)){
+                classNameList.add(packageName + "." + StringUtils.removeEnd(fileName, CLASS_FILE_SUFFIX));
+            }
+        }
+    }
+
+    /**
+     * 扫描 jar 中 <code>path</code> 开头的 class.
+     *
+     * @param url
+     *            the url
+     * @param path
+     *            the path
+     * @param classNameList
+     *            the class name list
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static void scanJar(URL url,String path,List<String> classNameList) throws IOException{
+        JarURLConnection jarURLConnection = (JarURLConnection) url.openConnection();
+        jarURLConnection.setUseCaches(false);
+
+        String prefix = path + "/";
+        try (JarFile jarFile = jarURLConnection.getJarFile()){
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()){
+                String entryName = entries.nextElement().getName();
+                if (entryName.startsWith(prefix) && isClassFile(entryName.substring(entryName.lastIndexOf('/') + 1))){
+                    classNameList.add(StringUtils.removeEnd(entryName, CLASS_FILE_SUFFIX).replace('/', '.'));
+                }
+            }
+        }
+    }
+
+    /**
+     * 是否是需要的 class 文件,排除 package-info 以及 module-info.
+     *
+     * @param fileName
+     *            the file name
+     * @return true, if is class file
+     */
+    private static boolean isClassFile(String fileName){
+        return fileName.endsWith(CLASS_FILE_SUFFIX) && !fileName.startsWith("package-info") && !fileName.startsWith("module-info");
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MappedPropertyDescriptor;
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+
+/**
+ * 预先编译好的 populate 计划,每个 bean class 只解析一次.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>创建的时候把 class 所有简单属性的 setter 以及目标类型解析好,之后每次设值直接调用,不再 introspect 以及解析属性表达式</li>
+ * <li>类型转换的规则和 {@link BeanUtilsBean#setProperty(Object, String, Object)} 保持一致,比如 request 参数 {@code Map<String, String[]>},
+ * 非数组属性取第一个元素转换,数组属性整个数组转换;<br>
+ * {@link Converter} 每次执行的时候从 {@link BeanUtilsBean#getInstance()} 查找,所以之后注册的 converter 仍然生效</li>
+ * <li>计划里面只有 class 本身的属性,数量是固定的,不会因为 map 中的 key(比如 request 参数名)而增长;<br>
+ * 计划中没有的属性名(nested/indexed/mapped,不存在的属性等),以及 {@link Map}/{@link DynaBean} 类型的 bean,仍然调用
+ * {@link BeanUtilsBean#setProperty(Object, String, Object)}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see BeanUtil#populate(Object, Map)
+ * @since 2.1.0
+ */
+final class PopulatePlan{
+
+    /** class 和对应的计划. */
+    private static final ClassMetadataCache<PopulatePlan> CLASS_AND_PLAN_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    //---------------------------------------------------------------
+
+    /** 属性名称和对应的步骤. */
+    private final Map<String, PopulateStep>               propertyNameAndStepMap;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new populate plan.
+     *
+     * @param propertyNameAndStepMap
+     *            the property name and step map
+     */
+    private PopulatePlan(Map<String, PopulateStep> propertyNameAndStepMap){
+        this.propertyNameAndStepMap = propertyNameAndStepMap;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 <code>klass</code> 的 populate 计划.
+     *
+     * @param klass
+     *            the klass
+     * @return the populate plan
+     */
+    static PopulatePlan getInstance(Class<?> klass){
+        PopulatePlan populatePlan = CLASS_AND_PLAN_MAP.get(klass);
+        if (null != populatePlan){
+            return populatePlan;
+        }
+
+        //---------------------------------------------------------------
+        populatePlan = new PopulatePlan(compile(klass));
+        PopulatePlan existed = CLASS_AND_PLAN_MAP.putIfAbsent(klass, populatePlan);
+        return null == existed ? populatePlan : existed;
+    }
+
+    /**
+     * 编译.
+     *
+     * @param klass
+     *            the klass
+     * @return the map
+     */
+    private static Map<String, PopulateStep> compile(Class<?> klass){
+        if (Map.class.isAssignableFrom(klass) || DynaBean.class.isAssignableFrom(klass)){
+            return Collections.emptyMap();
+        }
+
+        //---------------------------------------------------------------
+        PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(klass);
+
+        Map<String, PopulateStep> propertyNameAndStepMap = new HashMap<>(propertyDescriptors.length * 2);
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors){
+            if (propertyDescriptor instanceof IndexedPropertyDescriptor || propertyDescriptor instanceof MappedPropertyDescriptor){
+                continue;
+            }
+
+            //---------------------------------------------------------------
+            String propertyName = propertyDescriptor.getName();
+            //没有 setter,BeanUtilsBean#setProperty 直接忽略
+            if (null == propertyDescriptor.getWriteMethod()){
+                propertyNameAndStepMap.put(propertyName, PopulateStep.IGNORE);
+                continue;
+            }
+
+            PropertyAccessor propertyAccessor = new PropertyAccessor(klass, propertyName, propertyDescriptor);
+            if (propertyAccessor.isWriteable()){
+                propertyNameAndStepMap.put(propertyName, new PopulateStep(propertyAccessor.getWriteMethod(), propertyDescriptor.getPropertyType()));
+            }
+        }
+        return Collections.unmodifiableMap(propertyNameAndStepMap);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 将 <code>properties</code> 设置到 <code>bean</code> 中,和 {@link BeanUtilsBean#populate(Object, Map)} 一致,key 是null 的元素忽略.
+     *
+     * @param bean
+     *            the bean
+     * @param properties
+     *            the properties
+     * @throws Exception
+     *             设值以及类型转换过程中的异常
+     */
+    void populate(Object bean,Map<String, ?> properties) throws Exception{
+        BeanUtilsBean beanUtilsBean = BeanUtilsBean.getInstance();
+        for (Map.Entry<String, ?> entry : properties.entrySet()){
+            String propertyName = entry.getKey();
+            if (null != propertyName){
+                setProperty(beanUtilsBean, bean, propertyName, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 设置 <code>bean</code> 的属性,和 {@link BeanUtilsBean#setProperty(Object, String, Object)} 一致.
+     *
+     * @param bean
+     *            the bean
+     * @param propertyName
+     *            the property name
+     * @param value
+     *            the value
+     * @throws Exception
+     *             设值以及类型转换过程中的异常
+     */
+    void setProperty(Object bean,String propertyName,Object value) throws Exception{
+        setProperty(BeanUtilsBean.getInstance(), bean, propertyName, value);
+    }
+
+    /**
+     * Sets the property.
+     *
+     * @param beanUtilsBean
+     *            the bean utils bean
+     * @param bean
+     *            the bean
+     * @param propertyName
+     *            the property name
+     * @param value
+     *            the value
+     * @throws Exception
+     *             the exception
+     */
+    private void setProperty(BeanUtilsBean beanUtilsBean,Object bean,String propertyName,Object value) throws Exception{
+        PopulateStep populateStep = propertyNameAndStepMap.get(propertyName);
+        if (null == populateStep){
+            beanUtilsBean.setProperty(bean, propertyName, value);
+            return;
+        }
+        populateStep.setProperty(bean, value, beanUtilsBean.getConvertUtils());
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 单个简单属性的设值步骤.
+     */
+    private static final class PopulateStep{
+
+        /** 没有 setter 的属性,直接忽略. */
+        private static final PopulateStep IGNORE = new PopulateStep(null, null);
+
+        //---------------------------------------------------------------
+
+        /** 可访问的 write method. */
+        private final Method              writeMethod;
+
+        /** 目标类型. */
+        private final Class<?>            type;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new populate step.
+         *
+         * @param writeMethod
+         *            the write method
+         * @param type
+         *            the type
+         */
+        private PopulateStep(Method writeMethod, Class<?> type){
+            this.writeMethod = writeMethod;
+            this.type = type;
+        }
+
+        //---------------------------------------------------------------
+
+        /**
+         * 转换并设值.
+         *
+         * @param bean
+         *            the bean
+         * @param value
+         *            the value
+         * @param convertUtilsBean
+         *            the convert utils bean
+         * @throws Exception
+         *             the exception
+         */
+        private void setProperty(Object bean,Object value,ConvertUtilsBean convertUtilsBean) throws Exception{
+            if (null == writeMethod){
+                return;
+            }
+            Object newValue = type.isArray() ? convertArray(value, convertUtilsBean) : convertScalar(value, convertUtilsBean);
+            writeMethod.invoke(bean, newValue);
+        }
+
+        /**
+         * 目标是数组类型.
+         *
+         * @param value
+         *            the value
+         * @param convertUtilsBean
+         *            the convert utils bean
+         * @return the object
+         */
+        private Object convertArray(Object value,ConvertUtilsBean convertUtilsBean){
+            if (null == value){
+                return convertUtilsBean.convert(new String[] { null }, type);
+            }
+            if (value instanceof String){
+                return convertUtilsBean.convert(value, type);
+            }
+            if (value instanceof String[]){
+                return convertUtilsBean.convert((String[]) value, type);
+            }
+            return convert(value, convertUtilsBean);
+        }
+
+        /**
+         * 目标不是数组类型,request 参数 {@code String[]} 取第一个元素.
+         *
+         * @param value
+         *            the value
+         * @param convertUtilsBean
+         *            the convert utils bean
+         * @return the object
+         */
+        private Object convertScalar(Object value,ConvertUtilsBean convertUtilsBean){
+            if (value instanceof String){
+                return convertUtilsBean.convert((String) value, type);
+            }
+            if (value instanceof String[]){
+                return convertUtilsBean.convert(((String[]) value)[0], type);
+            }
+            return convert(value, convertUtilsBean);
+        }
+
+        /**
+         * 使用目标类型的 converter 转换,如果没有 converter 返回原值.
+         *
+         * @param value
+         *            the value
+         * @param convertUtilsBean
+         *            the convert utils bean
+         * @return the object
+         */
+        private Object convert(Object value,ConvertUtilsBean convertUtilsBean){
+            Converter converter = convertUtilsBean.lookup(type);
+            return null == converter ? value : converter.convert(type, value);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (PopulatePlan populatePlan : CLASS_AND_PLAN_MAP.values()){
+            //步骤是 2 个字段
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(1)
+                            + populatePlan.propertyNameAndStepMap.size() * (CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(2));
+            ++size;
+        }
+        return new CacheStatistics("PopulatePlan.CLASS_AND_PLAN_MAP", size, estimatedBytes);
+    }
+}
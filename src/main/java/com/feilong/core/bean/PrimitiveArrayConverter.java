@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.converters.ArrayConverter;
+import org.apache.commons.beanutils.converters.DoubleConverter;
+import org.apache.commons.beanutils.converters.IntegerConverter;
+import org.apache.commons.beanutils.converters.LongConverter;
+
+/**
+ * 直接转成基本类型数组(<code>int[]</code>,<code>long[]</code>,<code>double[]</code>),中间不构造包装类型的对象.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>转换结果和 {@link org.apache.commons.beanutils.ConvertUtilsBean#registerArrays(boolean, int)} 注册的 {@link ArrayConverter}(默认值是长度为0的数组)一致,
+ * 任何一个元素转换不了,返回长度为0的数组</li>
+ * <li>支持的源类型:
+ * <ul>
+ * <li>由数字,<code>'.'</code>,<code>'-'</code> 组成,使用逗号或者空白分隔的字符串,可以被 <code>'{'</code> 和 <code>'}'</code> 包裹</li>
+ * <li>{@link Collection} 以及对象数组,元素是 {@link FastConverter} 支持的源类型</li>
+ * </ul>
+ * </li>
+ * <li>其他情况(比如字符串中有引号,注释等 {@link java.io.StreamTokenizer} 特殊处理的字符),{@link #convert(Object)} 返回null,由调用方交给 commons-beanutils 处理</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see ConvertUtil#toPrimitiveInts(Object)
+ * @see ConvertUtil#toPrimitiveLongs(Object)
+ * @see ConvertUtil#toPrimitiveDoubles(Object)
+ * @since 2.1.0
+ */
+enum PrimitiveArrayConverter{
+
+    /** 转成 <code>int[]</code>. */
+    TO_INTS(int[].class, FastConverter.TO_INTEGER, new IntegerConverter()){
+
+        @Override
+        protected Object newArray(int length){
+            return new int[length];
+        }
+
+        @Override
+        protected boolean setString(Object array,int index,String value){
+            if (!FastConverter.isDecimalDigits(value)){
+                return false;
+            }
+            ((int[]) array)[index] = Integer.parseInt(value);
+            return true;
+        }
+
+        @Override
+        protected void setNumber(Object array,int index,Number number){
+            ((int[]) array)[index] = number.intValue();
+        }
+    },
+
+    /** 转成 <code>long[]</code>. */
+    TO_LONGS(long[].class, FastConverter.TO_LONG, new LongConverter()){
+
+        @Override
+        protected Object newArray(int length){
+            return new long[length];
+        }
+
+        @Override
+        protected boolean setString(Object array,int index,String value){
+            if (!FastConverter.isDecimalDigits(value)){
+                return false;
+            }
+            ((long[]) array)[index] = Long.parseLong(value);
+            return true;
+        }
+
+        @Override
+        protected void setNumber(Object array,int index,Number number){
+            ((long[]) array)[index] = number.longValue();
+        }
+    },
+
+    /** 转成 <code>double[]</code>. */
+    TO_DOUBLES(double[].class, FastConverter.TO_DOUBLE, new DoubleConverter()){
+
+        @Override
+        protected Object newArray(int length){
+            return new double[length];
+        }
+
+        @Override
+        protected boolean setString(Object array,int index,String value){
+            ((double[]) array)[index] = Double.parseDouble(value);
+            return true;
+        }
+
+        @Override
+        protected void setNumber(Object array,int index,Number number){
+            ((double[]) array)[index] = number.doubleValue();
+        }
+    };
+
+    //---------------------------------------------------------------
+
+    /** 数组类型. */
+    private final Class<?>      arrayType;
+
+    /** 元素的转换器. */
+    private final FastConverter elementConverter;
+
+    /** 和 commons-beanutils 默认注册的一致的数组转换器,{@link ConvertUtil#registerStandardDefaultNull()} 注册的就是它. */
+    private final Converter     standardConverter;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new primitive array converter.
+     *
+     * @param arrayType
+     *            数组类型
+     * @param elementConverter
+     *            元素的转换器
+     * @param standardElementConverter
+     *            没有默认值的元素转换器,用来构造 {@link #standardConverter}
+     */
+    private PrimitiveArrayConverter(Class<?> arrayType, FastConverter elementConverter, Converter standardElementConverter){
+        this.arrayType = arrayType;
+        this.elementConverter = elementConverter;
+        this.standardConverter = new ArrayConverter(arrayType, standardElementConverter, 0);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 转换.
+     *
+     * @param value
+     *            the value,不能为null
+     * @return 如果 <code>value</code> 是不支持的类型,或者含有不支持的元素,返回null<br>
+     *         如果有元素转换不了,返回长度为0的数组
+     */
+    Object convert(Object value){
+        //和 AbstractConverter 一致,类型相同的直接返回
+        if (arrayType == value.getClass()){
+            return value;
+        }
+        try{
+            if (value instanceof String){
+                return convertString((String) value);
+            }
+            if (value instanceof Object[]){
+                return convertElements(Arrays.asList((Object[]) value));
+            }
+            return value instanceof Collection ? convertElements((Collection<?>) value) : null;
+        }catch (NumberFormatException e){
+            return newArray(0);
+        }
+    }
+
+    /**
+     * 全局 {@link ConvertUtils} 中 <code>arrayType</code> 对应的转换器是否还是 {@link #standardConverter}(没有被重新注册).
+     *
+     * @return 如果是,那么可以用本转换器代替 {@link ConvertUtils#convert(Object, Class)}
+     */
+    boolean isStandardConverterRegistered(){
+        return standardConverter == ConvertUtils.lookup(arrayType);
+    }
+
+    /**
+     * 获得和 commons-beanutils 默认注册的一致的数组转换器.
+     *
+     * @return the standard converter
+     */
+    Converter getStandardConverter(){
+        return standardConverter;
+    }
+
+    /**
+     * 获得数组类型.
+     *
+     * @return the array type
+     */
+    Class<?> getArrayType(){
+        return arrayType;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 按照 {@link ArrayConverter} 的规则(去掉前后空白以及包裹的 <code>'{'</code> <code>'}'</code>,逗号或者空白分隔)解析字符串.
+     *
+     * @param value
+     *            the value
+     * @return 如果有 {@link java.io.StreamTokenizer} 特殊处理的字符,返回null
+     */
+    private Object convertString(String value){
+        int begin = 0;
+        int end = value.length();
+        while (begin < end && value.charAt(begin) <= ' '){
+            ++begin;
+        }
+        while (end > begin && value.charAt(end - 1) <= ' '){
+            --end;
+        }
+        if (end - begin >= 2 && value.charAt(begin) == '{' && value.charAt(end - 1) == '}'){
+            ++begin;
+            --end;
+        }
+
+        //---------------------------------------------------------------
+        //先数一下有多少个元素,顺便校验字符
+        int count = 0;
+        boolean inToken = false;
+        for (int i = begin; i < end; ++i){
+            char c = value.charAt(i);
+            if (isDelimiter(c)){
+                inToken = false;
+            }else if ((c >= '0' && c <= '9') || c == '.' || c == '-'){
+                if (!inToken){
+                    ++count;
+                    inToken = true;
+                }
+            }else{
+                return null;
+            }
+        }
+
+        //---------------------------------------------------------------
+        Object array = newArray(count);
+        int index = 0;
+        int tokenBegin = -1;
+        for (int i = begin; i <= end; ++i){
+            if (i == end || isDelimiter(value.charAt(i))){
+                if (tokenBegin >= 0){
+                    if (!setString(array, index++, value.substring(tokenBegin, i))){
+                        return newArray(0);
+                    }
+                    tokenBegin = -1;
+                }
+            }else if (tokenBegin < 0){
+                tokenBegin = i;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * 逐个转换元素.
+     *
+     * @param elements
+     *            the elements
+     * @return 如果有不支持的元素,返回null
+     */
+    private Object convertElements(Collection<?> elements){
+        Object array = newArray(elements.size());
+        int index = 0;
+        for (Object element : elements){
+            if (null == element){
+                return newArray(0);
+            }
+
+            //---------------------------------------------------------------
+            if (element instanceof String){
+                String stringValue = ((String) element).trim();
+                if (stringValue.isEmpty() || !setString(array, index, stringValue)){
+                    return newArray(0);
+                }
+            }else{
+                if (null == FastConverter.lookup(element.getClass(), elementConverter.getTargetType())){
+                    return null;
+                }
+                Number number = (Number) elementConverter.convert(element);
+                if (null == number){
+                    return newArray(0);
+                }
+                setNumber(array, index, number);
+            }
+            ++index;
+        }
+        return array;
+    }
+
+    /**
+     * 是否是分隔符(逗号或者空白).
+     *
+     * @param c
+     *            the c
+     * @return true, if is delimiter
+     */
+    private static boolean isDelimiter(char c){
+        return c == ',' || c <= ' ';
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 创建数组.
+     *
+     * @param length
+     *            the length
+     * @return the object
+     */
+    protected abstract Object newArray(int length);
+
+    /**
+     * 将字符串转换之后设置到数组.
+     *
+     * @param array
+     *            the array
+     * @param index
+     *            the index
+     * @param value
+     *            trim 之后不是空白的字符串
+     * @return 如果格式不对,返回false;溢出抛出 {@link NumberFormatException}
+     */
+    protected abstract boolean setString(Object array,int index,String value);
+
+    /**
+     * 将数字设置到数组.
+     *
+     * @param array
+     *            the array
+     * @param index
+     *            the index
+     * @param number
+     *            已经经过 {@link FastConverter} 转换的数字
+     */
+    protected abstract void setNumber(Object array,int index,Number number);
+}
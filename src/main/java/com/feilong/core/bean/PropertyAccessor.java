@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+
+import org.apache.commons.beanutils.MethodUtils;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 单个简单属性(非 nested/indexed/mapped)的访问器.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>每个 (beanClass, propertyName) 只解析一次,参见 {@link PropertyDescriptorUtil#getPropertyAccessor(Class, String)};
+ * 之后每次取值直接调用缓存的 read method,不再 introspect,也不再解析属性表达式</li>
+ * <li>缓存的是已经 {@link MethodUtils#getAccessibleMethod(Class, Method) accessible} 的方法,jvm 在调用若干次之后会生成字节码直接调用,性能接近直接调用 getter</li>
+ * <li>没有使用 {@link java.lang.invoke.MethodHandle}:jdk7/8 中只有 static final 的 MethodHandle 才会被 jit 内联,这里每个属性一个实例字段,
+ * 调用 {@link java.lang.invoke.MethodHandle#invokeWithArguments(Object...)} 需要装箱和类型适配,通常并不比 {@link Method#invoke(Object, Object...)} 快;
+ * 需要真正免反射的场景,使用生成的 {@link BeanAccessor}</li>
+ * <li>如果属性不存在,或者没有可访问的 read method,{@link #isReadable()} 返回false,调用方应该回退到
+ * {@link org.apache.commons.beanutils.PropertyUtils#getProperty(Object, String)}</li>
+ * <li>since 2.1.0,如果 {@link BeanAccessorRegistry} 中有 beanClass 的 {@link BeanAccessor},并且覆盖了该属性,那么直接调用它,不使用反射</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PropertyDescriptorUtil#getPropertyAccessor(Class, String)
+ * @since 2.1.0
+ */
+public final class PropertyAccessor{
+
+    /** The bean class. */
+    private final Class<?>             beanClass;
+
+    /** The property name. */
+    private final String               propertyName;
+
+    /**
+     * 解析出来的 PropertyDescriptor,如果属性不存在是null.
+     * 
+     * @since 2.1.0
+     */
+    private final PropertyDescriptor   propertyDescriptor;
+
+    /** 属性类型,如果属性不存在是null. */
+    private final Class<?>             propertyType;
+
+    /** 可访问的 read method,如果没有是null. */
+    private final Method               readMethod;
+
+    /**
+     * 可访问的 write method,如果没有是null.
+     * 
+     * @since 2.1.0
+     */
+    private final Method               writeMethod;
+
+    /**
+     * beanClass 的 {@link BeanAccessor},如果没有是null.
+     * 
+     * @since 2.1.0
+     */
+    private final BeanAccessor<Object> beanAccessor;
+
+    /**
+     * {@link #beanAccessor} 是否可以读取该属性.
+     * 
+     * @since 2.1.0
+     */
+    private final boolean              beanAccessorReadable;
+
+    /**
+     * {@link #beanAccessor} 是否可以设置该属性.
+     * 
+     * @since 2.1.0
+     */
+    private final boolean              beanAccessorWriteable;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new property accessor.
+     *
+     * @param beanClass
+     *            the bean class
+     * @param propertyName
+     *            the property name
+     * @param propertyDescriptor
+     *            the property descriptor,如果属性不存在是null
+     */
+    PropertyAccessor(Class<?> beanClass, String propertyName, PropertyDescriptor propertyDescriptor){
+        this.beanClass = beanClass;
+        this.propertyName = propertyName;
+        this.propertyDescriptor = propertyDescriptor;
+        this.propertyType = null == propertyDescriptor ? null : propertyDescriptor.getPropertyType();
+
+        Method method = null == propertyDescriptor ? null : propertyDescriptor.getReadMethod();
+        //https://github.com/venusdrogon/feilong-core/issues/760
+        this.readMethod = null == method ? null : MethodUtils.getAccessibleMethod(beanClass, method);
+
+        Method setMethod = null == propertyDescriptor ? null : propertyDescriptor.getWriteMethod();
+        this.writeMethod = null == setMethod ? null : MethodUtils.getAccessibleMethod(beanClass, setMethod);
+
+        //---------------------------------------------------------------
+        this.beanAccessor = getBeanAccessor(beanClass);
+        this.beanAccessorReadable = null != readMethod && null != beanAccessor && beanAccessor.isReadable(propertyName);
+        this.beanAccessorWriteable = null != writeMethod && null != beanAccessor && beanAccessor.isWriteable(propertyName);
+    }
+
+    /**
+     * 获得 beanClass 的 {@link BeanAccessor}.
+     *
+     * @param beanClass
+     *            the bean class
+     * @return the bean accessor
+     * @since 2.1.0
+     */
+    @SuppressWarnings("unchecked")
+    private static BeanAccessor<Object> getBeanAccessor(Class<?> beanClass){
+        return (BeanAccessor<Object>) BeanAccessorRegistry.getBeanAccessor(beanClass);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 从 <code>bean</code> 中取得该属性的值.
+     *
+     * @param <T>
+     *            the generic type
+     * @param bean
+     *            the bean,类型必须是 {@link #getBeanClass()} 或者其子类
+     * @return 属性值
+     * @throws IllegalStateException
+     *             如果 {@link #isReadable()} 是false
+     * @throws BeanOperationException
+     *             如果调用 read method 出现异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Object bean){
+        if (null == readMethod){
+            throw new IllegalStateException(Slf4jUtil.format("class:[{}],property:[{}] is not readable", beanClass.getName(), propertyName));
+        }
+        try{
+            return (T) (beanAccessorReadable ? beanAccessor.getProperty(bean, propertyName) : readMethod.invoke(bean));
+        }catch (Exception e){
+            String pattern = "getProperty exception,bean:[{}],propertyName:[{}]";
+            throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyName), e);
+        }
+    }
+
+    /**
+     * 将 <code>bean</code> 的该属性设置为 <code>value</code>,不做任何类型转换.
+     *
+     * @param bean
+     *            the bean,类型必须是 {@link #getBeanClass()} 或者其子类
+     * @param value
+     *            属性值
+     * @throws IllegalStateException
+     *             如果 {@link #isWriteable()} 是false
+     * @throws BeanOperationException
+     *             如果调用 write method 出现异常
+     * @since 2.1.0
+     */
+    public void setValue(Object bean,Object value){
+        if (null == writeMethod){
+            throw new IllegalStateException(Slf4jUtil.format("class:[{}],property:[{}] is not writeable", beanClass.getName(), propertyName));
+        }
+        try{
+            if (beanAccessorWriteable){
+                beanAccessor.setProperty(bean, propertyName, value);
+            }else{
+                writeMethod.invoke(bean, value);
+            }
+        }catch (Exception e){
+            String pattern = "setProperty exception,bean:[{}],propertyName:[{}],value:[{}]";
+            throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyName, value), e);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 是否可读.
+     *
+     * @return 如果有可访问的 read method,返回true
+     */
+    public boolean isReadable(){
+        return null != readMethod;
+    }
+
+    /**
+     * 是否可写.
+     *
+     * @return 如果有可访问的 write method,返回true
+     * @since 2.1.0
+     */
+    public boolean isWriteable(){
+        return null != writeMethod;
+    }
+
+    /**
+     * 获得 bean class.
+     *
+     * @return the beanClass
+     */
+    public Class<?> getBeanClass(){
+        return beanClass;
+    }
+
+    /**
+     * 获得 property name.
+     *
+     * @return the propertyName
+     */
+    public String getPropertyName(){
+        return propertyName;
+    }
+
+    /**
+     * 获得 解析出来的 PropertyDescriptor.
+     *
+     * @return 如果属性不存在,返回null
+     * @since 2.1.0
+     */
+    public PropertyDescriptor getPropertyDescriptor(){
+        return propertyDescriptor;
+    }
+
+    /**
+     * 获得 属性类型.
+     *
+     * @return 如果属性不存在,返回null
+     */
+    public Class<?> getPropertyType(){
+        return propertyType;
+    }
+
+    /**
+     * 获得 可访问的 read method.
+     *
+     * @return 如果没有,返回null
+     */
+    public Method getReadMethod(){
+        return readMethod;
+    }
+
+    /**
+     * 获得 可访问的 write method.
+     *
+     * @return 如果没有,返回null
+     * @since 2.1.0
+     */
+    public Method getWriteMethod(){
+        return writeMethod;
+    }
+}
@@ -15,13 +15,18 @@
  */
 package com.feilong.core.bean;
 
-import static com.feilong.core.bean.SpringBeanUtilsHelper.getSpringBeanUtilsClass;
-import static com.feilong.core.bean.SpringBeanUtilsHelper.hasSpringBeanUtilsClass;
-import static com.feilong.core.lang.reflect.MethodUtil.invokeStaticMethod;
-import static com.feilong.core.util.MapUtil.newConcurrentHashMap;
-
 import java.beans.PropertyDescriptor;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
 
 /**
  * The Class PropertyDescriptorUtil.
@@ -40,114 +45,140 @@ public class PropertyDescriptorUtil{
 
     //---------------------------------------------------------------
 
-    /** <code>{@value}</code>. */
-    private static final String              TYPE_SPRING            = "spring";
-
-    /** The Constant TYPE_COMMONS_BEANUTILS. */
-    private static final String              TYPE_COMMONS_BEANUTILS = "commons.beanutils";
-
-    //---------------------------------------------------------------
-
-    /** key 和对应的操作方式. */
-    private static final Map<String, String> KEY_AND_TYPE_MAP       = newConcurrentHashMap(200);
-
-    //---------------------------------------------------------------
+    /**
+     * 属性表达式中 nested/indexed/mapped 的特殊字符 <code>{@value}</code>.
+     * 
+     * @since 2.1.0
+     */
+    private static final String                                                      NOT_SIMPLE_PROPERTY_NAME_CHARS  = ".[]()";
 
     /**
-     * 是否用 spring 来操作.
-     *
-     * @param klass
-     *            the klass
-     * @param propertyName
-     *            the property name
-     * @return 如果解析出来的类型是 {@link #TYPE_SPRING}, 表示可以使用spring来解析
+     * class 以及属性名对应的访问器.
+     * 
+     * @since 2.1.0
      */
-    static boolean isUseSpringOperate(Class<?> klass,String propertyName){
-        String type = getType(klass, propertyName);
-        return TYPE_SPRING.equals(type);
-    }
+    private static final ClassMetadataCache<ConcurrentMap<String, PropertyAccessor>> CLASS_AND_PROPERTY_ACCESSOR_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
 
     //---------------------------------------------------------------
 
     /**
-     * Builds the type.
+     * 获得 <code>klass</code> 指定属性的访问器,每个 (klass, propertyName) 只解析一次.
+     * 
+     * <h3>说明:</h3>
+     * 
+     * <blockquote>
+     * <ol>
+     * <li>优先使用 spring 的 PropertyDescriptor,没有再使用 commons-beanutils 的</li>
+     * <li>如果 <code>propertyName</code> 是 nested/indexed/mapped 表达式,或者 <code>klass</code> 是 {@link Map}/{@link DynaBean}(commons-beanutils
+     * 会特殊处理),或者属性不存在,返回的访问器 {@link PropertyAccessor#isReadable()} 是false</li>
+     * </ol>
+     * </blockquote>
      *
      * @param klass
      *            the klass
      * @param propertyName
      *            the property name
-     * @return the string
+     * @return 如果 <code>klass</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>propertyName</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>propertyName</code> 是blank,抛出 {@link IllegalArgumentException}<br>
+     *         否则返回访问器,不会是null
+     * @since 2.1.0
      */
-    private static String getType(Class<?> klass,String propertyName){
-        String key = buildKey(klass, propertyName);
+    public static PropertyAccessor getPropertyAccessor(Class<?> klass,String propertyName){
+        Validate.notNull(klass, "klass can't be null!");
+        Validate.notBlank(propertyName, "propertyName can't be blank!");
 
         //---------------------------------------------------------------
-        if (KEY_AND_TYPE_MAP.containsKey(key)){
-            return KEY_AND_TYPE_MAP.get(key);
+        ConcurrentMap<String, PropertyAccessor> propertyNameAndAccessorMap = CLASS_AND_PROPERTY_ACCESSOR_MAP.get(klass);
+        if (null == propertyNameAndAccessorMap){
+            propertyNameAndAccessorMap = new ConcurrentHashMap<>();
+            ConcurrentMap<String, PropertyAccessor> existed = CLASS_AND_PROPERTY_ACCESSOR_MAP.putIfAbsent(klass, propertyNameAndAccessorMap);
+            if (null != existed){
+                propertyNameAndAccessorMap = existed;
+            }
         }
 
-        String type = buildType(klass, propertyName);
-
         //---------------------------------------------------------------
-        KEY_AND_TYPE_MAP.put(key, type);
-        return type;
-    }
+        PropertyAccessor propertyAccessor = propertyNameAndAccessorMap.get(propertyName);
+        if (null != propertyAccessor){
+            return propertyAccessor;
+        }
 
-    //---------------------------------------------------------------
+        propertyAccessor = new PropertyAccessor(klass, propertyName, resolvePropertyDescriptor(klass, propertyName));
+        PropertyAccessor existed = propertyNameAndAccessorMap.putIfAbsent(propertyName, propertyAccessor);
+        return null == existed ? propertyAccessor : existed;
+    }
 
     /**
-     * Builds the type.
+     * 解析简单属性的 PropertyDescriptor.
      *
      * @param klass
      *            the klass
      * @param propertyName
      *            the property name
-     * @return the string
-     * @see <a href="https://github.com/venusdrogon/feilong-core/issues/760">PropertyUtil.getProperty(Object, String) 排序异常 #760</a>
-     * @since 1.12.1
+     * @return 如果不是简单属性,或者找不到,返回null
+     * @since 2.1.0
      */
-    private static String buildType(Class<?> klass,String propertyName){
-        try{
-            PropertyDescriptor springPropertyDescriptor = getSpringPropertyDescriptor(klass, propertyName);
-            if (null != springPropertyDescriptor){
-                return TYPE_SPRING;
+    private static PropertyDescriptor resolvePropertyDescriptor(Class<?> klass,String propertyName){
+        if (!StringUtils.containsNone(propertyName, NOT_SIMPLE_PROPERTY_NAME_CHARS)){
+            return null;
+        }
+
+        //---------------------------------------------------------------
+        PropertyDescriptor springPropertyDescriptor = getSpringPropertyDescriptor(klass, propertyName);
+        if (null != springPropertyDescriptor){
+            return springPropertyDescriptor;
+        }
+
+        //---------------------------------------------------------------
+        //Map 以及 DynaBean, commons-beanutils 会特殊处理
+        if (Map.class.isAssignableFrom(klass) || DynaBean.class.isAssignableFrom(klass)){
+            return null;
+        }
+        for (PropertyDescriptor propertyDescriptor : PropertyUtils.getPropertyDescriptors(klass)){
+            if (propertyName.equals(propertyDescriptor.getName())){
+                return propertyDescriptor;
             }
-        }catch (Exception e){
-            // nothing to do 
         }
-        return TYPE_COMMONS_BEANUTILS;
+        return null;
     }
 
     //---------------------------------------------------------------
 
     /**
-     * Builds the key.
+     * 获得 spring 的 PropertyDescriptor.
      *
      * @param klass
      *            the klass
      * @param propertyName
      *            the property name
-     * @return the string
+     * @return the corresponding PropertyDescriptor, or {@code null} if none
      */
-    private static String buildKey(Class<? extends Object> klass,String propertyName){
-        return klass.getName() + "@@" + propertyName;
+    static PropertyDescriptor getSpringPropertyDescriptor(Class<?> klass,String propertyName){
+        return SpringBeanUtilsHelper.getPropertyDescriptor(klass, propertyName);
     }
 
     //---------------------------------------------------------------
 
     /**
-     * 获得 spring 的 PropertyDescriptor.
+     * 获得缓存的统计信息.
      *
-     * @param klass
-     *            the klass
-     * @param propertyName
-     *            the property name
-     * @return the corresponding PropertyDescriptor, or {@code null} if none
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
      */
-    static PropertyDescriptor getSpringPropertyDescriptor(Class<?> klass,String propertyName){
-        if (hasSpringBeanUtilsClass()){
-            return invokeStaticMethod(getSpringBeanUtilsClass(), "getPropertyDescriptor", klass, propertyName);
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (ConcurrentMap<String, PropertyAccessor> propertyNameAndAccessorMap : CLASS_AND_PROPERTY_ACCESSOR_MAP.values()){
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateObjectBytes(4);
+            for (String propertyName : propertyNameAndAccessorMap.keySet()){
+                //PropertyAccessor 9 个字段
+                estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateStringBytes(propertyName)
+                                + CacheStatistics.estimateObjectBytes(9);
+                ++size;
+            }
         }
-        return null;
+        return new CacheStatistics("PropertyDescriptorUtil.CLASS_AND_PROPERTY_ACCESSOR_MAP", size, estimatedBytes);
     }
 }
@@ -0,0 +1,480 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import static com.feilong.core.bean.PropertyDescriptorUtil.getPropertyAccessor;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MappedPropertyDescriptor;
+import org.apache.commons.beanutils.NestedNullException;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.beanutils.PropertyUtilsBean;
+import org.apache.commons.beanutils.expression.Resolver;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 预先解析好的属性表达式,比如 <code>"customer.address.city"</code>,<code>"userAddresseList[2].address"</code>,<code>"attrMap(key)"</code>.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>表达式只在 {@link #compile(String)} 的时候使用 commons-beanutils 的 {@link Resolver} 解析一次,拆成一组有序的节点,并且按照表达式缓存;<br>
+ * 之后每次取值直接逐个节点调用缓存的 {@link PropertyAccessor},不再每次解析表达式</li>
+ * <li>每个节点的取值规则和 {@link PropertyUtils#getProperty(Object, String)} 一致:{@link Map} 按照 key 取值,indexed 支持数组和 {@link List},mapped 支持
+ * {@link Map} 类型的属性;<br>
+ * {@link DynaBean},indexed/mapped 的 getter 方法等少见的情况交给 commons-beanutils 处理</li>
+ * <li>如果表达式只有一个简单属性,和 {@link PropertyUtil#getProperty(Object, String)} 一样优先使用 {@link PropertyDescriptorUtil#getPropertyAccessor(Class, String)}</li>
+ * <li>对象是不可变的,线程安全,可以保存在字段中重复使用</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * PropertyPath propertyPath = PropertyPath.compile("userInfo.age");
+ * 
+ * Integer age = propertyPath.getValue(user);
+ * 
+ * <span style="color:green">//user.getUserInfo() 是null的时候返回null,而不是抛出异常</span>
+ * Integer age = propertyPath.getValue(user, true);
+ * </pre>
+ * 
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PropertyUtil#getProperty(Object, String)
+ * @since 2.1.0
+ */
+public final class PropertyPath{
+
+    /** 表达式和对应的 PropertyPath. */
+    private static final ConcurrentMap<String, PropertyPath> EXPRESSION_AND_PROPERTY_PATH_MAP = new ConcurrentHashMap<>();
+
+    /** {@link #EXPRESSION_AND_PROPERTY_PATH_MAP} 的 key,按照放入的顺序. */
+    private static final Queue<String>                       EXPRESSION_QUEUE                 = new ConcurrentLinkedQueue<>();
+
+    /** {@link #EXPRESSION_AND_PROPERTY_PATH_MAP} 最大的数量 {@value},超过之后淘汰最早放入的(FIFO). */
+    static final int                                         MAX_SIZE                         = 4096;
+
+    //---------------------------------------------------------------
+
+    /** 表达式. */
+    private final String                                     expression;
+
+    /** 有序的节点. */
+    private final Segment[]                                  segments;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new property path.
+     *
+     * @param expression
+     *            the expression
+     * @param segments
+     *            the segments
+     */
+    private PropertyPath(String expression, Segment[] segments){
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 解析属性表达式,相同的表达式只解析一次.
+     *
+     * @param expression
+     *            属性表达式 (can be nested/indexed/mapped/combo),参见 <a href="BeanUtil.html#propertyName">propertyName</a>
+     * @return 如果 <code>expression</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>expression</code> 是blank,抛出 {@link IllegalArgumentException}<br>
+     */
+    public static PropertyPath compile(String expression){
+        Validate.notBlank(expression, "expression can't be blank!");
+
+        PropertyPath propertyPath = EXPRESSION_AND_PROPERTY_PATH_MAP.get(expression);
+        if (null != propertyPath){
+            return propertyPath;
+        }
+
+        //---------------------------------------------------------------
+        propertyPath = parse(expression);
+        PropertyPath existed = EXPRESSION_AND_PROPERTY_PATH_MAP.putIfAbsent(expression, propertyPath);
+        if (null != existed){
+            return existed;
+        }
+        EXPRESSION_QUEUE.offer(expression);
+        evict();
+        return propertyPath;
+    }
+
+    /**
+     * 如果 {@link #EXPRESSION_AND_PROPERTY_PATH_MAP} 超过了 {@link #MAX_SIZE},按照放入的顺序淘汰最早的.
+     */
+    private static void evict(){
+        while (EXPRESSION_AND_PROPERTY_PATH_MAP.size() > MAX_SIZE){
+            String eldestExpression = EXPRESSION_QUEUE.poll();
+            if (null == eldestExpression){
+                return;
+            }
+            EXPRESSION_AND_PROPERTY_PATH_MAP.remove(eldestExpression);
+        }
+    }
+
+    /**
+     * 使用 {@link Resolver} 解析,和 {@link PropertyUtilsBean#getNestedProperty(Object, String)} 的拆分方式一致.
+     *
+     * @param expression
+     *            the expression
+     * @return the property path
+     */
+    private static PropertyPath parse(String expression){
+        Resolver resolver = BeanUtilsBean.getInstance().getPropertyUtils().getResolver();
+
+        List<String> tokens = new ArrayList<>();
+        String name = expression;
+        while (resolver.hasNested(name)){
+            tokens.add(resolver.next(name));
+            name = resolver.remove(name);
+        }
+        tokens.add(name);
+
+        //---------------------------------------------------------------
+        Segment[] segments = new Segment[tokens.size()];
+        for (int i = 0; i < segments.length; ++i){
+            segments[i] = new Segment(resolver, tokens.get(i), 1 == segments.length);
+        }
+        return new PropertyPath(expression, segments);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 从 <code>bean</code> 中取得表达式对应的值,中间节点是null的时候抛出异常(和 {@link PropertyUtil#getProperty(Object, String)} 一致).
+     *
+     * @param <T>
+     *            the generic type
+     * @param bean
+     *            the bean
+     * @return 如果 <code>bean</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果中间节点的值是null,抛出 {@link BeanOperationException}(cause 是 {@link NestedNullException})
+     * @throws BeanOperationException
+     *             取值过程中有任何异常
+     */
+    public <T> T getValue(Object bean){
+        return getValue(bean, false);
+    }
+
+    /**
+     * 从 <code>bean</code> 中取得表达式对应的值.
+     *
+     * @param <T>
+     *            the generic type
+     * @param bean
+     *            the bean
+     * @param nullSafe
+     *            是否 null 安全,如果是true,<code>bean</code> 或者中间节点的值是null的时候返回null,而不是抛出异常
+     * @return 如果 <code>nullSafe</code> 是false,并且 <code>bean</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>nullSafe</code> 是false,并且中间节点的值是null,抛出 {@link BeanOperationException}(cause 是 {@link NestedNullException})<br>
+     *         如果 <code>nullSafe</code> 是true,并且 <code>bean</code> 或者中间节点的值是null,返回null
+     * @throws BeanOperationException
+     *             取值过程中有任何异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Object bean,boolean nullSafe){
+        if (null == bean && nullSafe){
+            return null;
+        }
+        Validate.notNull(bean, "bean can't be null!");
+
+        //---------------------------------------------------------------
+        try{
+            Object current = bean;
+            for (int i = 0; i < segments.length; ++i){
+                Object value = segments[i].getValue(current, nullSafe);
+                if (null == value && i < segments.length - 1){
+                    if (nullSafe){
+                        return null;
+                    }
+                    String pattern = "Null property value for '{}' on bean class '{}'";
+                    throw new NestedNullException(Slf4jUtil.format(pattern, segments[i].token, current.getClass()));
+                }
+                current = value;
+            }
+            return (T) current;
+        }catch (Exception e){
+            String pattern = "getProperty exception,bean:[{}],propertyName:[{}]";
+            throw new BeanOperationException(Slf4jUtil.format(pattern, bean, expression), e);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 表达式.
+     *
+     * @return the expression
+     */
+    public String getExpression(){
+        return expression;
+    }
+
+    /**
+     * 是否只有一个简单属性(非 nested/indexed/mapped).
+     *
+     * @return 如果只有一个简单属性,返回true
+     */
+    public boolean isSimple(){
+        return 1 == segments.length && !segments[0].indexed && !segments[0].mapped;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString(){
+        return expression;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 表达式中的单个节点,比如 <code>"address"</code>,<code>"userAddresseList[2]"</code>,<code>"attrMap(key)"</code>.
+     */
+    private static final class Segment{
+
+        /** 节点原始字符串. */
+        private final String  token;
+
+        /** 属性名称,indexed/mapped 的时候可能是 empty. */
+        private final String  name;
+
+        /** 是否是 indexed. */
+        private final boolean indexed;
+
+        /** indexed 的时候的索引. */
+        private final int     index;
+
+        /** 是否是 mapped. */
+        private final boolean mapped;
+
+        /** mapped 的时候的 key. */
+        private final String  key;
+
+        /** 当前对象是 {@link Map} 的时候使用的 key,如果是null 表示不支持. */
+        private final String  mapKey;
+
+        /** 是否整个交给 commons-beanutils 处理,比如索引不是数字. */
+        private final boolean delegate;
+
+        /** 是否优先使用 {@link PropertyAccessor},只有一个简单属性的时候,和 {@link PropertyValueObtainer} 保持一致. */
+        private final boolean accessorFirst;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new segment.
+         *
+         * @param resolver
+         *            the resolver
+         * @param token
+         *            the token
+         * @param onlyOne
+         *            是否是唯一的节点
+         */
+        private Segment(Resolver resolver, String token, boolean onlyOne){
+            this.token = token;
+            this.name = resolver.getProperty(token);
+            this.mapped = resolver.isMapped(token);
+            this.key = mapped ? resolver.getKey(token) : null;
+
+            //---------------------------------------------------------------
+            boolean isIndexed = resolver.isIndexed(token);
+            int parsedIndex = -1;
+            boolean isDelegate = false;
+            if (isIndexed){
+                try{
+                    parsedIndex = resolver.getIndex(token);
+                }catch (IllegalArgumentException e){
+                    isDelegate = true;
+                }
+            }
+            this.indexed = isIndexed;
+            this.index = parsedIndex;
+            this.delegate = isDelegate || (mapped && null == key);
+            this.accessorFirst = onlyOne && !indexed && !mapped;
+
+            //---------------------------------------------------------------
+            //参见 PropertyUtilsBean#getPropertyOfMapBean
+            String propertyName = token;
+            if (mapped && StringUtils.isEmpty(name)){
+                propertyName = key;
+            }
+            this.mapKey = resolver.isIndexed(propertyName) || resolver.isMapped(propertyName) ? null : propertyName;
+        }
+
+        //---------------------------------------------------------------
+
+        /**
+         * 从 <code>bean</code> 中取得节点的值.
+         *
+         * @param bean
+         *            the bean,不是null
+         * @param nullSafe
+         *            the null safe
+         * @return the value
+         * @throws Exception
+         *             the exception
+         */
+        private Object getValue(Object bean,boolean nullSafe) throws Exception{
+            if (accessorFirst){
+                PropertyAccessor propertyAccessor = getPropertyAccessor(bean.getClass(), name);
+                if (propertyAccessor.isReadable()){
+                    return propertyAccessor.getValue(bean);
+                }
+            }
+
+            //---------------------------------------------------------------
+            if (bean instanceof Map){
+                if (null == mapKey){
+                    throw new IllegalArgumentException("Indexed or mapped properties are not supported on objects of type Map: " + token);
+                }
+                return ((Map<?, ?>) bean).get(mapKey);
+            }
+            if (delegate || bean instanceof DynaBean){
+                return PropertyUtils.getProperty(bean, token);
+            }
+
+            //---------------------------------------------------------------
+            if (mapped){
+                return getMappedValue(bean);
+            }
+            if (indexed){
+                return getIndexedValue(bean, nullSafe);
+            }
+            PropertyAccessor propertyAccessor = getPropertyAccessor(bean.getClass(), name);
+            return propertyAccessor.isReadable() ? propertyAccessor.getValue(bean) : PropertyUtils.getSimpleProperty(bean, name);
+        }
+
+        /**
+         * 取得 mapped 节点的值,参见 {@link PropertyUtilsBean#getMappedProperty(Object, String, String)}.
+         *
+         * @param bean
+         *            the bean
+         * @return the mapped value
+         * @throws Exception
+         *             the exception
+         */
+        private Object getMappedValue(Object bean) throws Exception{
+            if (StringUtils.isEmpty(name)){
+                return PropertyUtils.getProperty(bean, token);
+            }
+            PropertyAccessor propertyAccessor = getPropertyAccessor(bean.getClass(), name);
+            if (!propertyAccessor.isReadable() || propertyAccessor.getPropertyDescriptor() instanceof MappedPropertyDescriptor){
+                return PropertyUtils.getMappedProperty(bean, name, key);
+            }
+
+            Object value = propertyAccessor.getValue(bean);
+            return value instanceof Map ? ((Map<?, ?>) value).get(key) : null;
+        }
+
+        /**
+         * 取得 indexed 节点的值,参见 {@link PropertyUtilsBean#getIndexedProperty(Object, String, int)}.
+         *
+         * @param bean
+         *            the bean
+         * @param nullSafe
+         *            the null safe
+         * @return the indexed value
+         * @throws Exception
+         *             the exception
+         */
+        private Object getIndexedValue(Object bean,boolean nullSafe) throws Exception{
+            if (StringUtils.isEmpty(name)){
+                if (bean.getClass().isArray()){
+                    return Array.get(bean, index);
+                }
+                if (bean instanceof List){
+                    return ((List<?>) bean).get(index);
+                }
+                return PropertyUtils.getProperty(bean, token);
+            }
+
+            //---------------------------------------------------------------
+            PropertyAccessor propertyAccessor = getPropertyAccessor(bean.getClass(), name);
+            if (!propertyAccessor.isReadable() || propertyAccessor.getPropertyDescriptor() instanceof IndexedPropertyDescriptor){
+                return PropertyUtils.getIndexedProperty(bean, name, index);
+            }
+
+            Object value = propertyAccessor.getValue(bean);
+            if (null == value && nullSafe){
+                return null;
+            }
+            if (value instanceof List){
+                return ((List<?>) value).get(index);
+            }
+            if (null != value && value.getClass().isArray() && index >= 0 && index < Array.getLength(value)){
+                return Array.get(value, index);
+            }
+            //null,不是数组/List,或者越界,交给 commons-beanutils 抛出和原来一样的异常
+            return PropertyUtils.getIndexedProperty(bean, name, index);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (PropertyPath propertyPath : EXPRESSION_AND_PROPERTY_PATH_MAP.values()){
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateStringBytes(propertyPath.expression)
+                            + CacheStatistics.estimateObjectBytes(2) + CacheStatistics.estimateArrayBytes(propertyPath.segments.length);
+            for (Segment segment : propertyPath.segments){
+                //Segment 9 个字段
+                estimatedBytes += CacheStatistics.estimateObjectBytes(9) + CacheStatistics.estimateStringBytes(segment.token);
+            }
+            ++size;
+        }
+        return new CacheStatistics("PropertyPath.EXPRESSION_AND_PROPERTY_PATH_MAP", size, estimatedBytes);
+    }
+}
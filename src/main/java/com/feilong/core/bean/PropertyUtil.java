@@ -218,8 +218,22 @@ public final class PropertyUtil{
 
         //---------------------------------------------------------------
 
+        //since 2.1.0 每个 (toClass, fromClass, includePropertyNames) 只解析一次
+        CopyPropertiesPlan copyPropertiesPlan = CopyPropertiesPlan.getInstance(toObj.getClass(), fromObj.getClass(), false, includePropertyNames);
+
+        //---------------------------------------------------------------
         if (isNullOrEmpty(includePropertyNames)){
             try{
+                //since 2.1.0 同一类型复制全部属性,有 BeanAccessor 的直接调用生成的 copyProperties
+                BeanAccessor<Object> beanAccessor = toObj.getClass() == fromObj.getClass() ? getBeanAccessor(toObj) : null;
+                if (null != beanAccessor){
+                    beanAccessor.copyProperties(toObj, fromObj);
+                    return;
+                }
+                if (null != copyPropertiesPlan){
+                    copyPropertiesPlan.execute(toObj, fromObj);
+                    return;
+                }
                 PropertyUtils.copyProperties(toObj, fromObj);
                 return;
             }catch (Exception e){
@@ -229,6 +243,10 @@ public final class PropertyUtil{
         }
 
         //---------------------------------------------------------------
+        if (null != copyPropertiesPlan){
+            copyPropertiesPlan.execute(toObj, fromObj);
+            return;
+        }
         for (String propertyName : includePropertyNames){
             Object value = getProperty(fromObj, propertyName);
             setProperty(toObj, propertyName, value);
@@ -331,7 +349,9 @@ public final class PropertyUtil{
         //---------------------------------------------------------------
         if (isNullOrEmpty(propertyNames)){
             try{
-                return PropertyUtils.describe(bean);
+                //since 2.1.0 有 BeanAccessor 的直接调用 getter
+                BeanAccessor<Object> beanAccessor = getBeanAccessor(bean);
+                return null != beanAccessor ? beanAccessor.describe(bean) : PropertyUtils.describe(bean);
             }catch (Exception e){
                 String pattern = "describe exception,bean:[{}],propertyNames:[{}]";
                 throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyNames), e);
@@ -346,6 +366,58 @@ public final class PropertyUtil{
         return map;
     }
 
+    /**
+     * 返回 <code>bean</code> 属性值的只读 map 视图,和 {@link #describe(Object, String...)} 的 key 一致,但是属性值在第一次被访问的时候才读取.
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * User user = new User();
+     * user.setId(5L);
+     * user.setDate(now());
+     * 
+     * Map{@code <String, Object>} map = PropertyUtil.describeView(user, "date", "id");
+     * 
+     * //只会读取 id 属性
+     * Object id = map.get("id");
+     * </pre>
+     * 
+     * </blockquote>
+     * 
+     * <h3>和 {@link #describe(Object, String...)} 的区别:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>{@link #describe(Object, String...)} 立即读取所有属性,放到新的map中;本方法不会读取任何属性,只有调用 {@link Map#get(Object)},或者遍历
+     * {@link Map#entrySet()}/{@link Map#values()} 的时候,才使用缓存的 {@link PropertyPath} 读取对应的属性,适合只关心部分key 的场景</li>
+     * <li>每个属性最多读取一次,之后的访问直接返回第一次读取的值,所以在视图中的值可能不是 bean 最新的值</li>
+     * <li>返回的map是只读的,并且不是线程安全的</li>
+     * <li>属性名称重复的时候,只保留第一个</li>
+     * </ol>
+     * </blockquote>
+     *
+     * @param bean
+     *            Bean whose properties are to be extracted
+     * @param propertyNames
+     *            属性名称 (can be nested/indexed/mapped/combo),参见 <a href="../BeanUtil.html#propertyName">propertyName</a>;<br>
+     *            如果是null或者empty,那么是 bean 所有可读的属性(包含 class)
+     * @return 属性名称和属性值的只读 map 视图,key 按照 <code>propertyNames</code> 的顺序
+     * @throws NullPointerException
+     *             如果 <code>bean</code> 是null,或者<code>propertyNames</code> 包含 null的元素
+     * @throws IllegalArgumentException
+     *             如果 <code>propertyNames</code> 包含 blank的元素
+     * @throws BeanOperationException
+     *             读取属性值的时候有任何异常
+     * @see #describe(Object, String...)
+     * @see PropertyPath
+     * @since 2.1.0
+     */
+    public static Map<String, Object> describeView(Object bean,String...propertyNames){
+        Validate.notNull(bean, "bean can't be null!");
+        return new PropertyValueMapView(bean, propertyNames);
+    }
+
     //---------------------------------------------------------------
 
     /**
@@ -409,6 +481,12 @@ public final class PropertyUtil{
 
         //---------------------------------------------------------------
         try{
+            //since 2.1.0 有 BeanAccessor 的简单属性直接调用 setter
+            BeanAccessor<Object> beanAccessor = getBeanAccessor(bean);
+            if (null != beanAccessor && beanAccessor.isWriteable(propertyName)){
+                beanAccessor.setProperty(bean, propertyName, value);
+                return;
+            }
             PropertyUtils.setProperty(bean, propertyName, value);
         }catch (Exception e){
             String pattern = "setProperty exception,bean:[{}],propertyName:[{}],value:[{}]";
@@ -651,4 +729,20 @@ public final class PropertyUtil{
         return ClassUtils.isPrimitiveOrWrapper(obj.getClass())//
                         || ClassUtil.isInstanceAnyClass(obj, CharSequence.class, Collection.class, Map.class);
     }
-}
\ No newline at end of file
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 <code>bean</code> class 的 {@link BeanAccessor}.
+     *
+     * @param bean
+     *            the bean
+     * @return 如果没有,返回null
+     * @see BeanAccessorRegistry#getBeanAccessor(Class)
+     * @since 2.1.0
+     */
+    @SuppressWarnings("unchecked")
+    private static BeanAccessor<Object> getBeanAccessor(Object bean){
+        return (BeanAccessor<Object>) BeanAccessorRegistry.getBeanAccessor(bean.getClass());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 一次循环提取出来的多列属性值.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>每个属性名称对应一列,每列的元素顺序是 beanIterable 的元素顺序</li>
+ * <li>{@link #getList(String)} 返回的是不可修改的视图,不会复制;{@link #getArray(String)} 以及 primitive 数组返回的是新的数组</li>
+ * <li>primitive 列要求属性值是 {@link Number},null 值转成0</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * PropertyValueColumns propertyValueColumns = CollectionsUtil.getPropertyValueColumns(userList, "id", "name", "money");
+ * 
+ * long[] ids = propertyValueColumns.getLongArray("id");
+ * List{@code <String>} names = propertyValueColumns.getList("name");
+ * double[] moneys = propertyValueColumns.getDoubleArray("money");
+ * </pre>
+ * 
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PropertyValueObtainer#getPropertyValueColumns(Iterable, String...)
+ * @since 2.1.0
+ */
+public final class PropertyValueColumns{
+
+    /** 属性名称. */
+    private final String[]             propertyNames;
+
+    /** 属性名称和列序号. */
+    private final Map<String, Integer> propertyNameAndIndexMap;
+
+    /** 列,每列的长度是 {@link #size}. */
+    private final Object[][]           columns;
+
+    /** 行数. */
+    private final int                  size;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new property value columns.
+     *
+     * @param propertyNames
+     *            属性名称
+     * @param columns
+     *            列,每列的长度是 <code>size</code>
+     * @param size
+     *            行数
+     */
+    PropertyValueColumns(String[] propertyNames, Object[][] columns, int size){
+        this.propertyNames = propertyNames;
+        this.columns = columns;
+        this.size = size;
+
+        this.propertyNameAndIndexMap = new LinkedHashMap<>(propertyNames.length * 2);
+        for (int i = 0; i < propertyNames.length; ++i){
+            if (!propertyNameAndIndexMap.containsKey(propertyNames[i])){
+                propertyNameAndIndexMap.put(propertyNames[i], i);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 行数,也就是 beanIterable 的元素个数.
+     *
+     * @return the size
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * 获得 属性名称.
+     *
+     * @return 不可修改的属性名称 list
+     */
+    public List<String> getPropertyNames(){
+        return Collections.unmodifiableList(Arrays.asList(propertyNames));
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得指定属性的列.
+     *
+     * @param <T>
+     *            the generic type
+     * @param propertyName
+     *            the property name
+     * @return 不可修改的 list 视图<br>
+     *         如果 <code>propertyName</code> 不是提取的属性,抛出 {@link IllegalArgumentException}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String propertyName){
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(getColumn(propertyName)));
+    }
+
+    /**
+     * 获得指定属性的列.
+     *
+     * @param propertyName
+     *            the property name
+     * @return 新的数组<br>
+     *         如果 <code>propertyName</code> 不是提取的属性,抛出 {@link IllegalArgumentException}
+     */
+    public Object[] getArray(String propertyName){
+        return getColumn(propertyName).clone();
+    }
+
+    /**
+     * 获得指定属性的 int 列.
+     *
+     * @param propertyName
+     *            the property name
+     * @return 新的数组,null 值转成0<br>
+     *         如果 <code>propertyName</code> 不是提取的属性,抛出 {@link IllegalArgumentException}<br>
+     *         如果属性值不是 {@link Number},抛出 {@link IllegalArgumentException}
+     */
+    public int[] getIntArray(String propertyName){
+        Object[] column = getColumn(propertyName);
+
+        int[] result = new int[size];
+        for (int i = 0; i < size; ++i){
+            Number number = toNumber(propertyName, i, column[i]);
+            result[i] = null == number ? 0 : number.intValue();
+        }
+        return result;
+    }
+
+    /**
+     * 获得指定属性的 long 列.
+     *
+     * @param propertyName
+     *            the property name
+     * @return 新的数组,null 值转成0<br>
+     *         如果 <code>propertyName</code> 不是提取的属性,抛出 {@link IllegalArgumentException}<br>
+     *         如果属性值不是 {@link Number},抛出 {@link IllegalArgumentException}
+     */
+    public long[] getLongArray(String propertyName){
+        Object[] column = getColumn(propertyName);
+
+        long[] result = new long[size];
+        for (int i = 0; i < size; ++i){
+            Number number = toNumber(propertyName, i, column[i]);
+            result[i] = null == number ? 0L : number.longValue();
+        }
+        return result;
+    }
+
+    /**
+     * 获得指定属性的 double 列.
+     *
+     * @param propertyName
+     *            the property name
+     * @return 新的数组,null 值转成0<br>
+     *         如果 <code>propertyName</code> 不是提取的属性,抛出 {@link IllegalArgumentException}<br>
+     *         如果属性值不是 {@link Number},抛出 {@link IllegalArgumentException}
+     */
+    public double[] getDoubleArray(String propertyName){
+        Object[] column = getColumn(propertyName);
+
+        double[] result = new double[size];
+        for (int i = 0; i < size; ++i){
+            Number number = toNumber(propertyName, i, column[i]);
+            result[i] = null == number ? 0d : number.doubleValue();
+        }
+        return result;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 转成以属性名称为 key,列为 value 的 map.
+     *
+     * @return {@link LinkedHashMap},顺序是属性名称的顺序,value 是不可修改的 list 视图
+     */
+    public Map<String, List<Object>> toMap(){
+        Map<String, List<Object>> map = new LinkedHashMap<>(propertyNameAndIndexMap.size() * 2);
+        for (String propertyName : propertyNameAndIndexMap.keySet()){
+            map.put(propertyName, this.<Object> getList(propertyName));
+        }
+        return map;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得列.
+     *
+     * @param propertyName
+     *            the property name
+     * @return the column
+     */
+    private Object[] getColumn(String propertyName){
+        Integer index = propertyNameAndIndexMap.get(propertyName);
+        Validate.isTrue(null != index, "propertyName:[%s] not in %s", propertyName, propertyNameAndIndexMap.keySet());
+        return columns[index];
+    }
+
+    /**
+     * To number.
+     *
+     * @param propertyName
+     *            the property name
+     * @param index
+     *            the index
+     * @param value
+     *            the value
+     * @return 如果 <code>value</code> 是null,返回null
+     */
+    private static Number toNumber(String propertyName,int index,Object value){
+        if (null == value || value instanceof Number){
+            return (Number) value;
+        }
+        String pattern = "propertyName:[{}],index:[{}],value:[{}] is not Number";
+        throw new IllegalArgumentException(Slf4jUtil.format(pattern, propertyName, index, value));
+    }
+}
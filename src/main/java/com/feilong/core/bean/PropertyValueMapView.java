@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean;
+
+import java.beans.PropertyDescriptor;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+
+/**
+ * 基于 bean 的属性值 map 视图,属性值在第一次被访问的时候才读取.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>key 是属性名称,顺序和创建时的属性名称顺序一致(重复的名称只保留第一个);没有指定属性名称的时候,key 是 bean 所有可读的属性(和
+ * {@link PropertyUtils#describe(Object)} 一致,包含 class)</li>
+ * <li>每个属性第一次被访问({@link #get(Object)},或者遍历 {@link #entrySet()}/{@link #values()})的时候,使用编译好的 {@link PropertyPath} 读取,之后缓存在视图中,不会重复读取</li>
+ * <li>{@link #containsKey(Object)},{@link #size()},{@link #keySet()} 不会读取属性值</li>
+ * <li>视图是只读的,并且不是线程安全的</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PropertyUtil#describeView(Object, String...)
+ * @since 2.1.0
+ */
+final class PropertyValueMapView extends AbstractMap<String, Object>{
+
+    /** class 和所有可读的属性名称. */
+    private static final ClassMetadataCache<String[]> CLASS_AND_READABLE_PROPERTY_NAMES_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    /** 还没有读取的标识. */
+    private static final Object                       NOT_LOADED                            = new Object();
+
+    //---------------------------------------------------------------
+
+    /** The bean. */
+    private final Object                              bean;
+
+    /** The property names. */
+    private final String[]                            propertyNames;
+
+    /** The property paths. */
+    private final PropertyPath[]                      propertyPaths;
+
+    /** 读取过的属性值,没有读取的是 {@link #NOT_LOADED}. */
+    private final Object[]                            values;
+
+    /** The entry set. */
+    private Set<Map.Entry<String, Object>>            entrySet;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new property value map view.
+     *
+     * @param bean
+     *            the bean
+     * @param propertyNames
+     *            属性名称,如果是null或者empty,那么是 bean 所有可读的属性
+     */
+    PropertyValueMapView(Object bean, String...propertyNames){
+        this.bean = bean;
+        this.propertyNames = null == propertyNames || propertyNames.length == 0 ? getReadablePropertyNames(bean.getClass())
+                        : distinct(propertyNames);
+
+        this.propertyPaths = new PropertyPath[this.propertyNames.length];
+        for (int i = 0; i < this.propertyNames.length; ++i){
+            propertyPaths[i] = PropertyPath.compile(this.propertyNames[i]);
+        }
+
+        this.values = new Object[this.propertyNames.length];
+        Arrays.fill(values, NOT_LOADED);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 <code>klass</code> 所有可读的属性名称.
+     *
+     * @param klass
+     *            the klass
+     * @return the readable property names
+     */
+    static String[] getReadablePropertyNames(Class<?> klass){
+        String[] propertyNames = CLASS_AND_READABLE_PROPERTY_NAMES_MAP.get(klass);
+        if (null != propertyNames){
+            return propertyNames;
+        }
+
+        //---------------------------------------------------------------
+        List<String> list = new ArrayList<>();
+        for (PropertyDescriptor propertyDescriptor : PropertyUtils.getPropertyDescriptors(klass)){
+            String propertyName = propertyDescriptor.getName();
+            if (PropertyDescriptorUtil.getPropertyAccessor(klass, propertyName).isReadable()){
+                list.add(propertyName);
+            }
+        }
+        propertyNames = list.toArray(new String[list.size()]);
+
+        String[] existed = CLASS_AND_READABLE_PROPERTY_NAMES_MAP.putIfAbsent(klass, propertyNames);
+        return null == existed ? propertyNames : existed;
+    }
+
+    /**
+     * 去掉重复的属性名称,保留第一个.
+     *
+     * @param propertyNames
+     *            the property names
+     * @return the string[]
+     */
+    private static String[] distinct(String[] propertyNames){
+        if (propertyNames.length == 1){
+            return propertyNames.clone();
+        }
+        Set<String> set = new LinkedHashSet<>(propertyNames.length * 2);
+        for (String propertyName : propertyNames){
+            set.add(propertyName);
+        }
+        return set.toArray(new String[set.size()]);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 属性名称的下标,没有找到返回 -1.
+     *
+     * @param key
+     *            the key
+     * @return the int
+     */
+    private int indexOf(Object key){
+        for (int i = 0; i < propertyNames.length; ++i){
+            if (propertyNames[i].equals(key)){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获得第 <code>index</code> 个属性的值,第一次访问的时候读取.
+     *
+     * @param index
+     *            the index
+     * @return the value
+     */
+    private Object getValue(int index){
+        Object value = values[index];
+        if (value == NOT_LOADED){
+            value = propertyPaths[index].getValue(bean);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public Object get(Object key){
+        int index = indexOf(key);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key){
+        return indexOf(key) >= 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size(){
+        return propertyNames.length;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet(){
+        if (null == entrySet){
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * The Class EntrySet.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>>{
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.util.AbstractCollection#iterator()
+         */
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator(){
+            return new Iterator<Map.Entry<String, Object>>(){
+
+                private int index;
+
+                @Override
+                public boolean hasNext(){
+                    return index < propertyNames.length;
+                }
+
+                @Override
+                public Map.Entry<String, Object> next(){
+                    if (!hasNext()){
+                        throw new NoSuchElementException();
+                    }
+                    final int current = index++;
+                    return new Map.Entry<String, Object>(){
+
+                        @Override
+                        public String getKey(){
+                            return propertyNames[current];
+                        }
+
+                        @Override
+                        public Object getValue(){
+                            return PropertyValueMapView.this.getValue(current);
+                        }
+
+                        @Override
+                        public Object setValue(Object value){
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public boolean equals(Object o){
+                            if (!(o instanceof Map.Entry)){
+                                return false;
+                            }
+                            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+                        }
+
+                        @Override
+                        public int hashCode(){
+                            return getKey().hashCode() ^ Objects.hashCode(getValue());
+                        }
+
+                        @Override
+                        public String toString(){
+                            return getKey() + "=" + getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public void remove(){
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.util.AbstractCollection#size()
+         */
+        @Override
+        public int size(){
+            return propertyNames.length;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得缓存的统计信息.
+     *
+     * @return the cache statistics
+     * @see MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    static CacheStatistics getCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (String[] propertyNames : CLASS_AND_READABLE_PROPERTY_NAMES_MAP.values()){
+            //属性名称和 PropertyDescriptor 共用字符串,不重复计算
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateArrayBytes(propertyNames.length);
+            ++size;
+        }
+        return new CacheStatistics("PropertyValueMapView.CLASS_AND_READABLE_PROPERTY_NAMES_MAP", size, estimatedBytes);
+    }
+}
@@ -15,21 +15,17 @@
  */
 package com.feilong.core.bean;
 
-import static com.feilong.core.bean.PropertyDescriptorUtil.getSpringPropertyDescriptor;
-import static com.feilong.core.bean.PropertyDescriptorUtil.isUseSpringOperate;
+import static com.feilong.core.bean.PropertyDescriptorUtil.getPropertyAccessor;
 
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.collections4.IterableUtils;
 import org.apache.commons.lang3.Validate;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.feilong.core.DefaultRuntimeException;
-import com.feilong.tools.slf4j.Slf4jUtil;
 
 /**
  * 属性值获取器.
@@ -39,8 +35,14 @@ import com.feilong.tools.slf4j.Slf4jUtil;
  */
 public final class PropertyValueObtainer{
 
-    /** The Constant log. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(PropertyValueObtainer.class);
+    /**
+     * 不是 {@link Collection} 的 <code>beanIterable</code>,每列初始的长度 <code>{@value}</code>.
+     * 
+     * @since 2.1.0
+     */
+    private static final int DEFAULT_COLUMN_CAPACITY = 16;
+
+    //---------------------------------------------------------------
 
     /** Don't let anyone instantiate this class. */
     private PropertyValueObtainer(){
@@ -53,6 +55,11 @@ public final class PropertyValueObtainer{
 
     /**
      * Gets the property focus.
+     * 
+     * <p>
+     * 使用缓存的 {@link PropertyPath} 取值,简单属性直接使用缓存的 {@link PropertyAccessor}(优先 spring 解析的 PropertyDescriptor),其他的(nested/indexed/mapped,Map,DynaBean等)按照
+     * commons-beanutils 的规则逐个节点取值.
+     * </p>
      *
      * @param <T>
      *            the generic type
@@ -63,58 +70,7 @@ public final class PropertyValueObtainer{
      * @return the property focus
      */
     static <T> T obtain(Object bean,String propertyName){
-        if (PropertyDescriptorUtil.isUseSpringOperate(bean.getClass(), propertyName)){
-            return getDataUseSpring(bean, propertyName);
-        }
-        return getDataUseApache(bean, propertyName);
-    }
-
-    //---------------------------------------------------------------
-
-    /**
-     * Gets the data use apache.
-     *
-     * @param <T>
-     *            the generic type
-     * @param bean
-     *            the bean
-     * @param propertyName
-     *            the property name
-     * @return the data use apache
-     */
-    @SuppressWarnings("unchecked")
-    private static <T> T getDataUseApache(Object bean,String propertyName){
-        //---------------------------------------------------------------
-        try{
-            return (T) PropertyUtils.getProperty(bean, propertyName);
-        }catch (Exception e){
-            String pattern = "getProperty exception,bean:[{}],propertyName:[{}]";
-            throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyName), e);
-        }
-    }
-
-    //---------------------------------------------------------------
-
-    /**
-     * Gets the data use spring.
-     *
-     * @param <T>
-     *            the generic type
-     * @param bean
-     *            the bean
-     * @param propertyName
-     *            the property name
-     * @return the data use spring
-     */
-    private static <T> T getDataUseSpring(Object bean,String propertyName){
-        LOGGER.trace("will use spring beanutils to execute:[{}],propertyName:[{}]", bean, propertyName);
-        try{
-            PropertyDescriptor propertyDescriptor = PropertyDescriptorUtil.getSpringPropertyDescriptor(bean.getClass(), propertyName);
-            return getValue(bean, propertyDescriptor);
-        }catch (Exception e){
-            String pattern = "getProperty exception,bean:[{}],propertyName:[{}]";
-            throw new BeanOperationException(Slf4jUtil.format(pattern, bean, propertyName), e);
-        }
+        return PropertyPath.compile(propertyName).getValue(bean);
     }
 
     //---------------------------------------------------------------
@@ -160,24 +116,117 @@ public final class PropertyValueObtainer{
         //---------------------------------------------------------------
         O o = IterableUtils.get(beanIterable, 0);
         Class<?> klass = o.getClass();
-        //spring 操作
-        if (isUseSpringOperate(klass, propertyName)){
-            PropertyDescriptor propertyDescriptor = getSpringPropertyDescriptor(klass, propertyName);
+
+        //since 2.1.0 同类型的元素直接使用访问器,不用每个元素都查找一次缓存
+        PropertyAccessor propertyAccessor = getPropertyAccessor(klass, propertyName);
+        if (propertyAccessor.isReadable()){
             for (O bean : beanIterable){
-                returnCollection.add(PropertyValueObtainer.<T, O> getValue(bean, propertyDescriptor));
+                T value = null != bean && bean.getClass() == klass ? propertyAccessor.<T> getValue(bean)
+                                : PropertyUtil.<T> getProperty(bean, propertyName);
+                returnCollection.add(value);
             }
             return returnCollection;
         }
 
         //---------------------------------------------------------------
+        //since 2.1.0 nested/indexed/mapped 表达式只解析一次
+        PropertyPath propertyPath = PropertyPath.compile(propertyName);
         for (O bean : beanIterable){
-            returnCollection.add(PropertyUtil.<T> getProperty(bean, propertyName));
+            returnCollection.add(propertyPath.<T> getValue(bean));
         }
         return returnCollection;
     }
 
     //---------------------------------------------------------------
 
+    /**
+     * 循环一次 <code>beanIterable</code>,同时提取多个属性的值,每个属性一列.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>每个属性名称只解析一次 {@link PropertyPath};如果 <code>beanIterable</code> 是 {@link Collection},每列按照它的大小预先分配,否则按需扩容,
+     * <code>beanIterable</code> 只会循环一次</li>
+     * <li>相邻的元素是同一类型的时候,简单属性直接使用上一次的 {@link PropertyAccessor},不用每个元素都查找一次缓存</li>
+     * </ol>
+     * </blockquote>
+     *
+     * @param <O>
+     *            the generic type
+     * @param beanIterable
+     *            bean Iterable,支持的类型参见 {@link #getPropertyValueCollection(Iterable, String, Collection)}
+     * @param propertyNames
+     *            泛型O对象指定的属性名称,Possibly indexed and/or nested name of the property to be modified,参见
+     *            <a href="../bean/BeanUtil.html#propertyName">propertyName</a>
+     * @return 如果 <code>beanIterable</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>propertyNames</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>propertyNames</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     *         如果 <code>propertyNames</code> 有元素是blank,抛出 {@link IllegalArgumentException}<br>
+     * @since 2.1.0
+     */
+    public static <O> PropertyValueColumns getPropertyValueColumns(Iterable<O> beanIterable,String...propertyNames){
+        Validate.notNull(beanIterable, "beanIterable can't be null!");
+        Validate.notEmpty(propertyNames, "propertyNames can't be null/empty!");
+        Validate.noNullElements(propertyNames, "propertyNames can't has null element!");
+
+        int columnCount = propertyNames.length;
+        PropertyPath[] propertyPaths = new PropertyPath[columnCount];
+        for (int i = 0; i < columnCount; ++i){
+            propertyPaths[i] = PropertyPath.compile(propertyNames[i]);
+        }
+
+        //---------------------------------------------------------------
+        //只有 Collection 可以直接知道大小,其他的 Iterable 只循环一次,按需扩容
+        int capacity = beanIterable instanceof Collection ? ((Collection<?>) beanIterable).size() : DEFAULT_COLUMN_CAPACITY;
+        Object[][] columns = new Object[columnCount][capacity];
+
+        Class<?> currentClass = null;
+        PropertyAccessor[] propertyAccessors = new PropertyAccessor[columnCount];
+
+        int row = 0;
+        for (O bean : beanIterable){
+            if (null != bean && bean.getClass() != currentClass){
+                currentClass = bean.getClass();
+                for (int i = 0; i < columnCount; ++i){
+                    PropertyAccessor propertyAccessor = propertyPaths[i].isSimple() ? getPropertyAccessor(currentClass, propertyNames[i]) : null;
+                    propertyAccessors[i] = null != propertyAccessor && propertyAccessor.isReadable() ? propertyAccessor : null;
+                }
+            }
+
+            //---------------------------------------------------------------
+            if (row == capacity){
+                capacity = Math.max(DEFAULT_COLUMN_CAPACITY, capacity + (capacity >> 1));
+                resize(columns, capacity);
+            }
+            for (int i = 0; i < columnCount; ++i){
+                PropertyAccessor propertyAccessor = null == bean ? null : propertyAccessors[i];
+                columns[i][row] = null == propertyAccessor ? propertyPaths[i].getValue(bean) : propertyAccessor.getValue(bean);
+            }
+            ++row;
+        }
+        if (row != capacity){
+            resize(columns, row);
+        }
+        return new PropertyValueColumns(propertyNames.clone(), columns, row);
+    }
+
+    /**
+     * 将每列的长度调整为 <code>length</code>.
+     *
+     * @param columns
+     *            the columns
+     * @param length
+     *            新的长度
+     * @since 2.1.0
+     */
+    private static void resize(Object[][] columns,int length){
+        for (int i = 0; i < columns.length; ++i){
+            columns[i] = Arrays.copyOf(columns[i], length);
+        }
+    }
+
+    //---------------------------------------------------------------
+
     /**
      * Gets the value.
      *
@@ -15,6 +15,9 @@
  */
 package com.feilong.core.bean;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,7 +32,7 @@ import com.feilong.core.lang.ClassUtil;
 class SpringBeanUtilsHelper{
 
     /** The Constant LOGGER. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(SpringBeanUtilsHelper.class);
+    private static final Logger LOGGER                      = LoggerFactory.getLogger(SpringBeanUtilsHelper.class);
 
     //---------------------------------------------------------------
 
@@ -43,7 +46,14 @@ class SpringBeanUtilsHelper{
     //---------------------------------------------------------------
 
     /** The spring bean utils class. */
-    private static Class<?> springBeanUtilsClass = null;
+    private static Class<?>     springBeanUtilsClass        = null;
+
+    /**
+     * spring BeanUtils 的 <code>getPropertyDescriptor(Class, String)</code> 方法,只解析一次.
+     * 
+     * @since 2.1.0
+     */
+    private static Method       getPropertyDescriptorMethod = null;
 
     //---------------------------------------------------------------
 
@@ -51,6 +61,7 @@ class SpringBeanUtilsHelper{
         String className = "org.springframework.beans.BeanUtils";
         try{
             springBeanUtilsClass = ClassUtil.getClass(className);
+            getPropertyDescriptorMethod = springBeanUtilsClass.getMethod("getPropertyDescriptor", Class.class, String.class);
             LOGGER.info("find and load:[{}]", className);
         }catch (Exception e){
             //just want to use e.toString
@@ -77,4 +88,33 @@ class SpringBeanUtilsHelper{
     static Class<?> getSpringBeanUtilsClass(){
         return springBeanUtilsClass;
     }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 调用 spring BeanUtils 的 <code>getPropertyDescriptor(Class, String)</code>.
+     * 
+     * <p>
+     * 直接调用已经解析好的 {@link Method},不再每次通过 {@link com.feilong.core.lang.reflect.MethodUtil#invokeStaticMethod(Class, String, Object...)}
+     * 查找方法.
+     * </p>
+     *
+     * @param klass
+     *            the klass
+     * @param propertyName
+     *            the property name
+     * @return 如果环境中没有 spring BeanUtils,或者找不到,或者解析出现异常,返回null
+     * @since 2.1.0
+     */
+    static PropertyDescriptor getPropertyDescriptor(Class<?> klass,String propertyName){
+        if (null == getPropertyDescriptorMethod){
+            return null;
+        }
+        try{
+            return (PropertyDescriptor) getPropertyDescriptorMethod.invoke(null, klass, propertyName);
+        }catch (Exception e){
+            LOGGER.debug("klass:[{}],propertyName:[{}],getPropertyDescriptor exception:[{}]", klass, propertyName, e.toString());
+            return null;
+        }
+    }
 }
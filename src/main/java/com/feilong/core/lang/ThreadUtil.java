@@ -19,21 +19,32 @@ import static com.feilong.core.date.DateExtensionUtil.formatDuration;
 import static com.feilong.core.date.DateUtil.now;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.feilong.core.TimeInterval;
+import com.feilong.core.lang.thread.AdaptivePartitionEachSizeBuilder;
+import com.feilong.core.lang.thread.AsyncPartitionThreadExecutor;
 import com.feilong.core.lang.thread.DefaultPartitionRunnableBuilder;
 import com.feilong.core.lang.thread.DefaultPartitionThreadExecutor;
 import com.feilong.core.lang.thread.PartitionEachSizeThreadConfigBuilder;
+import com.feilong.core.lang.thread.PartitionFuture;
 import com.feilong.core.lang.thread.PartitionPerHandler;
+import com.feilong.core.lang.thread.PartitionResultHandler;
+import com.feilong.core.lang.thread.PartitionResultReducer;
+import com.feilong.core.lang.thread.PartitionResultRunnableBuilder;
 import com.feilong.core.lang.thread.PartitionRunnableBuilder;
 import com.feilong.core.lang.thread.PartitionThreadConfig;
+import com.feilong.core.lang.thread.PartitionThreadExecutor;
+import com.feilong.core.lang.thread.StreamingPartitionThreadExecutor;
 
 /**
  * 线程相关工具类.
@@ -735,7 +746,7 @@ public final class ThreadUtil{
      * @see com.feilong.core.lang.thread.DefaultPartitionThreadExecutor#INSTANCE
      */
     public static <T> void execute(List<T> list,int eachSize,Map<String, ?> paramsMap,PartitionRunnableBuilder<T> partitionRunnableBuilder){
-        DefaultPartitionThreadExecutor.INSTANCE.execute(list, eachSize, paramsMap, partitionRunnableBuilder);
+        execute(DefaultPartitionThreadExecutor.INSTANCE, list, eachSize, paramsMap, partitionRunnableBuilder);
     }
 
     /**
@@ -858,8 +869,7 @@ public final class ThreadUtil{
      * @since 2.0.0
      */
     public static <T> void execute(List<T> list,int eachSize,Map<String, ?> paramsMap,PartitionPerHandler<T> partitionPerHandler){
-        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
-        execute(list, eachSize, paramsMap, new DefaultPartitionRunnableBuilder<T>(partitionPerHandler));
+        execute(DefaultPartitionThreadExecutor.INSTANCE, list, eachSize, paramsMap, partitionPerHandler);
     }
 
     //---------------------------------------------------------------
@@ -1096,12 +1106,733 @@ public final class ThreadUtil{
                     PartitionThreadConfig partitionThreadConfig,
                     Map<String, ?> paramsMap,
                     PartitionPerHandler<T> partitionPerHandler){
+        execute(DefaultPartitionThreadExecutor.INSTANCE, list, partitionThreadConfig, paramsMap, partitionPerHandler);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,给定一个待解析的 <code>list</code>,设定每个线程执行多少条 <code>eachSize</code>,传入一些额外的参数
+     * <code>paramsMap</code>,使用自定义的 <code>partitionRunnableBuilder</code>,自动分区并运行.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <p>
+     * {@link #execute(List, int, Map, PartitionRunnableBuilder)} 固定使用 {@link DefaultPartitionThreadExecutor#INSTANCE},每次调用都会新建线程;<br>
+     * 如果调用很频繁,可以传入 {@link com.feilong.core.lang.thread.PooledPartitionThreadExecutor} 复用线程池中的线程.
+     * </p>
+     * 
+     * <pre class="code">
+     * ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, list, 100, null, partitionRunnableBuilder);
+     * </pre>
+     * 
+     * </blockquote>
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionRunnableBuilder
+     *            每个线程做的事情,不能为null
+     * @see com.feilong.core.lang.thread.DefaultPartitionThreadExecutor
+     * @see com.feilong.core.lang.thread.PooledPartitionThreadExecutor
+     * @since 2.1.0
+     */
+    public static <T> void execute(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        Validate.notNull(partitionThreadExecutor, "partitionThreadExecutor can't be null!");
+        partitionThreadExecutor.execute(list, eachSize, paramsMap, partitionRunnableBuilder);
+    }
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,给定一个待解析的 <code>list</code>,设定每个线程执行多少条 <code>eachSize</code>,传入一些额外的参数
+     * <code>paramsMap</code>,使用自定义的 <code>partitionPerHandler</code>,自动分区并运行.
+     * 
+     * <p>
+     * 主要是用来简化 {@link #execute(PartitionThreadExecutor, List, int, Map, PartitionRunnableBuilder)} 调用
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @since 2.1.0
+     */
+    public static <T> void execute(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
+        execute(partitionThreadExecutor, list, eachSize, paramsMap, new DefaultPartitionRunnableBuilder<T>(partitionPerHandler));
+    }
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,根据 <code>partitionThreadConfig</code> 自动计算每个线程执行多少条,使用自定义的
+     * <code>partitionPerHandler</code>,自动分区并运行.
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionThreadConfig</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param partitionThreadConfig
+     *            the partition config
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see #execute(List, PartitionThreadConfig, Map, PartitionPerHandler)
+     * @since 2.1.0
+     */
+    public static <T> void execute(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    PartitionThreadConfig partitionThreadConfig,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
         Validate.notEmpty(list, "list can't be null/empty!");
         Validate.notNull(partitionThreadConfig, "partitionConfig can't be null!");
         Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
         //---------------------------------------------------------------
         int eachSize = new PartitionEachSizeThreadConfigBuilder(partitionThreadConfig).build(list.size());
-        execute(list, eachSize, paramsMap, new DefaultPartitionRunnableBuilder<T>(partitionPerHandler));
+        execute(partitionThreadExecutor, list, eachSize, paramsMap, partitionPerHandler);
+    }
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,根据 <code>adaptivePartitionEachSizeBuilder</code> 记录的历史耗时自动计算每个线程执行多少条,使用自定义的
+     * <code>partitionPerHandler</code>,自动分区并运行.
+     * 
+     * <p>
+     * 每个分区执行成功之后,会把耗时记录到 {@link AdaptivePartitionEachSizeBuilder#getKey()} 下,用于下次计算.
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>adaptivePartitionEachSizeBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param adaptivePartitionEachSizeBuilder
+     *            自适应计算每个线程执行多少条,不能为null
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see AdaptivePartitionEachSizeBuilder
+     * @since 2.1.0
+     */
+    public static <T> void execute(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    AdaptivePartitionEachSizeBuilder adaptivePartitionEachSizeBuilder,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notEmpty(list, "list can't be null/empty!");
+        Validate.notNull(adaptivePartitionEachSizeBuilder, "adaptivePartitionEachSizeBuilder can't be null!");
+        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
+        //---------------------------------------------------------------
+        int eachSize = adaptivePartitionEachSizeBuilder.build(list.size());
+        execute(partitionThreadExecutor, list, eachSize, paramsMap, adaptivePartitionEachSizeBuilder.record(partitionPerHandler));
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 给定一个待解析的 <code>list</code>,设定每个线程执行多少条 <code>eachSize</code>,使用 <code>partitionResultHandler</code> 自动分区运行,并且按照分区顺序返回每个分区的执行结果.
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * List{@code <Integer>} sizeList = ThreadUtil.executeAndGet(orderList, 100, null, new PartitionResultHandler{@code <Order, Integer>}(){
+     * 
+     *     public Integer handle(List{@code <Order>} perBatchList,PartitionThreadEntity partitionThreadEntity,Map{@code <String, ?>} paramsMap){
+     *         return orderService.sync(perBatchList);
+     *     }
+     * });
+     * </pre>
+     * 
+     * <p>
+     * 返回的 list 第 i 个元素就是第 i 个分区({@link com.feilong.core.lang.thread.PartitionThreadEntity#getBatchNumber()} 是 i)的执行结果,不需要自己再构造
+     * ConcurrentHashMap 或者 synchronized list 收集.
+     * </p>
+     * 
+     * </blockquote>
+     * 
+     * <p>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @return 按照分区顺序排列的每个分区的执行结果;如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}
+     * @see com.feilong.core.lang.thread.PartitionResultRunnableBuilder
+     * @since 2.1.0
+     */
+    public static <T, R> List<R> executeAndGet(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionResultHandler<T, R> partitionResultHandler){
+        return executeAndGet(DefaultPartitionThreadExecutor.INSTANCE, list, eachSize, paramsMap, partitionResultHandler);
+    }
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,自动分区运行 <code>partitionResultHandler</code>,并且按照分区顺序返回每个分区的执行结果.
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @return 按照分区顺序排列的每个分区的执行结果;如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}
+     * @see #executeAndGet(List, int, Map, PartitionResultHandler)
+     * @since 2.1.0
+     */
+    public static <T, R> List<R> executeAndGet(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionResultHandler<T, R> partitionResultHandler){
+        Validate.notEmpty(list, "list can't be null/empty!");
+        Validate.isTrue(eachSize > 0, "eachSize must > 0");
+        Validate.notNull(partitionResultHandler, "partitionResultHandler can't be null!");
+
+        //---------------------------------------------------------------
+        PartitionResultRunnableBuilder<T, R> partitionResultRunnableBuilder = new PartitionResultRunnableBuilder<>(
+                        partitionResultHandler,
+                        ListUtils.partition(list, eachSize).size());
+        execute(partitionThreadExecutor, list, eachSize, paramsMap, partitionResultRunnableBuilder);
+        return partitionResultRunnableBuilder.getResults();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 自动分区运行 <code>partitionResultHandler</code>,并且使用 <code>partitionResultReducer</code> 按照分区顺序合并每个分区的执行结果.
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * Integer total = ThreadUtil.executeAndReduce(orderList, 100, null, syncPartitionResultHandler, new PartitionResultReducer{@code <Integer>}(){
+     * 
+     *     public Integer reduce(Integer result,Integer partitionResult){
+     *         return result + partitionResult;
+     *     }
+     * });
+     * </pre>
+     * 
+     * </blockquote>
+     * 
+     * <p>
+     * 合并是在所有分区执行完成之后,在调用线程中进行的,<code>partitionResultReducer</code> 不需要考虑线程安全.
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>partitionResultReducer</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @param partitionResultReducer
+     *            合并结果,不能为null
+     * @return 如果只有一个分区,直接返回该分区的结果;否则从第一个分区的结果开始,依次和后面分区的结果合并
+     * @since 2.1.0
+     */
+    public static <T, R> R executeAndReduce(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionResultHandler<T, R> partitionResultHandler,
+                    PartitionResultReducer<R> partitionResultReducer){
+        return executeAndReduce(DefaultPartitionThreadExecutor.INSTANCE, list, eachSize, paramsMap, partitionResultHandler, partitionResultReducer);
+    }
+
+    /**
+     * 使用指定的 <code>partitionThreadExecutor</code>,自动分区运行 <code>partitionResultHandler</code>,并且使用 <code>partitionResultReducer</code>
+     * 按照分区顺序合并每个分区的执行结果.
+     * 
+     * <p>
+     * 如果 <code>partitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>partitionResultReducer</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param partitionThreadExecutor
+     *            分区线程执行器,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @param partitionResultReducer
+     *            合并结果,不能为null
+     * @return 如果只有一个分区,直接返回该分区的结果;否则从第一个分区的结果开始,依次和后面分区的结果合并
+     * @see #executeAndReduce(List, int, Map, PartitionResultHandler, PartitionResultReducer)
+     * @since 2.1.0
+     */
+    public static <T, R> R executeAndReduce(
+                    PartitionThreadExecutor partitionThreadExecutor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionResultHandler<T, R> partitionResultHandler,
+                    PartitionResultReducer<R> partitionResultReducer){
+        Validate.notNull(partitionResultReducer, "partitionResultReducer can't be null!");
+
+        List<R> results = executeAndGet(partitionThreadExecutor, list, eachSize, paramsMap, partitionResultHandler);
+
+        //---------------------------------------------------------------
+        R result = results.get(0);
+        for (int i = 1, j = results.size(); i < j; ++i){
+            result = partitionResultReducer.reduce(result, results.get(i));
+        }
+        return result;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用 {@link StreamingPartitionThreadExecutor#INSTANCE},从 <code>iterator</code> 中流式读取,每 <code>eachSize</code> 个元素组成一个分区,使用自定义的
+     * <code>partitionPerHandler</code> 执行.
+     * 
+     * <h3>和 {@link #execute(List, int, Map, PartitionPerHandler)} 的区别:</h3>
+     * 
+     * <blockquote>
+     * <p>
+     * 不需要事先把所有的数据加载成 {@link List},适合从数据库游标,文件等读取海量数据的场景;<br>
+     * 当 worker 线程处理不过来的时候,会阻塞读取 <code>iterator</code>,同时在内存中的数据量只和分区队列容量以及线程数有关,和数据总量无关.
+     * </p>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * ThreadUtil.executeStreaming(cursorIterator, 1000, null, new PartitionPerHandler{@code <Order>}(){
+     * 
+     *     public void handle(List{@code <Order>} perBatchList,PartitionThreadEntity partitionThreadEntity,Map{@code <String, ?>} paramsMap){
+     *         export(perBatchList);
+     *     }
+     * });
+     * </pre>
+     * 
+     * </blockquote>
+     * 
+     * <p>
+     * 如果 <code>iterator</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param iterator
+     *            数据源,不能为null
+     * @param eachSize
+     *            每个分区多少个元素,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see StreamingPartitionThreadExecutor
+     * @since 2.1.0
+     */
+    public static <T> void executeStreaming(Iterator<T> iterator,int eachSize,Map<String, ?> paramsMap,PartitionPerHandler<T> partitionPerHandler){
+        executeStreaming(StreamingPartitionThreadExecutor.INSTANCE, iterator, eachSize, paramsMap, partitionPerHandler);
+    }
+
+    /**
+     * 使用指定的 <code>streamingPartitionThreadExecutor</code>,从 <code>iterator</code> 中流式读取,每 <code>eachSize</code> 个元素组成一个分区,使用自定义的
+     * <code>partitionPerHandler</code> 执行.
+     * 
+     * <p>
+     * 如果 <code>streamingPartitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>iterator</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param streamingPartitionThreadExecutor
+     *            流式执行器,可以指定 worker 线程数以及分区队列容量,不能为null
+     * @param iterator
+     *            数据源,不能为null
+     * @param eachSize
+     *            每个分区多少个元素,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see #executeStreaming(Iterator, int, Map, PartitionPerHandler)
+     * @since 2.1.0
+     */
+    public static <T> void executeStreaming(
+                    StreamingPartitionThreadExecutor streamingPartitionThreadExecutor,
+                    Iterator<T> iterator,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notNull(streamingPartitionThreadExecutor, "streamingPartitionThreadExecutor can't be null!");
+        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
+        streamingPartitionThreadExecutor.execute(iterator, eachSize, paramsMap, new DefaultPartitionRunnableBuilder<T>(partitionPerHandler));
+    }
+
+    /**
+     * 使用 {@link StreamingPartitionThreadExecutor#INSTANCE},从 <code>iterable</code> 中流式读取,每 <code>eachSize</code> 个元素组成一个分区,使用自定义的
+     * <code>partitionPerHandler</code> 执行.
+     * 
+     * <p>
+     * 只会调用一次 {@link Iterable#iterator()},适合数据库游标等只能遍历一次的 {@link Iterable},参见
+     * {@link #executeStreaming(Iterator, int, Map, PartitionPerHandler)}.
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>iterable</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param iterable
+     *            数据源,不能为null
+     * @param eachSize
+     *            每个分区多少个元素,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see #executeStreaming(Iterator, int, Map, PartitionPerHandler)
+     * @since 2.1.0
+     */
+    public static <T> void executeStreaming(Iterable<T> iterable,int eachSize,Map<String, ?> paramsMap,PartitionPerHandler<T> partitionPerHandler){
+        executeStreaming(StreamingPartitionThreadExecutor.INSTANCE, iterable, eachSize, paramsMap, partitionPerHandler);
+    }
+
+    /**
+     * 使用指定的 <code>streamingPartitionThreadExecutor</code>,从 <code>iterable</code> 中流式读取,每 <code>eachSize</code> 个元素组成一个分区,使用自定义的
+     * <code>partitionPerHandler</code> 执行.
+     * 
+     * <p>
+     * 只会调用一次 {@link Iterable#iterator()},参见 {@link #executeStreaming(StreamingPartitionThreadExecutor, Iterator, int, Map, PartitionPerHandler)}.
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>streamingPartitionThreadExecutor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>iterable</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,抛出 {@link com.feilong.core.lang.thread.PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param streamingPartitionThreadExecutor
+     *            流式执行器,可以指定 worker 线程数以及分区队列容量,不能为null
+     * @param iterable
+     *            数据源,不能为null
+     * @param eachSize
+     *            每个分区多少个元素,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @see #executeStreaming(Iterable, int, Map, PartitionPerHandler)
+     * @since 2.1.0
+     */
+    public static <T> void executeStreaming(
+                    StreamingPartitionThreadExecutor streamingPartitionThreadExecutor,
+                    Iterable<T> iterable,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notNull(iterable, "iterable can't be null!");
+        executeStreaming(streamingPartitionThreadExecutor, iterable.iterator(), eachSize, paramsMap, partitionPerHandler);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 在调用方提供的 <code>executor</code> 中异步自动分区运行 <code>partitionRunnableBuilder</code>,立即返回,不会阻塞调用线程.
+     * 
+     * <h3>和 {@link #execute(List, int, Map, PartitionRunnableBuilder)} 的区别:</h3>
+     * 
+     * <blockquote>
+     * <p>
+     * 同步的 execute 会阻塞调用线程直到所有分区执行完成;本方法把每个分区提交到 <code>executor</code> 之后立即返回 {@link PartitionFuture},
+     * 可以通过 {@link PartitionFuture#addListener(com.feilong.core.lang.thread.PartitionFutureListener)} 注册完成之后的回调.
+     * </p>
+     * </blockquote>
+     * 
+     * <p>
+     * 如果 <code>executor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param executor
+     *            执行分区的 executor,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionRunnableBuilder
+     *            每个线程做的事情,不能为null
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture};如果有分区执行失败,{@link PartitionFuture#get()} 抛出
+     *         {@link java.util.concurrent.ExecutionException},cause 是 {@link com.feilong.core.lang.thread.PartitionExecuteException}
+     * @see AsyncPartitionThreadExecutor#execute(List, int, Map, PartitionRunnableBuilder)
+     * @since 2.1.0
+     */
+    public static <T> PartitionFuture<Void> executeAsync(
+                    Executor executor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        return new AsyncPartitionThreadExecutor(executor).execute(list, eachSize, paramsMap, partitionRunnableBuilder);
+    }
+
+    /**
+     * 在调用方提供的 <code>executor</code> 中异步自动分区运行 <code>partitionPerHandler</code>,立即返回,不会阻塞调用线程.
+     * 
+     * <p>
+     * 主要是用来简化 {@link #executeAsync(Executor, List, int, Map, PartitionRunnableBuilder)} 调用
+     * </p>
+     * 
+     * <p>
+     * 如果 <code>executor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param executor
+     *            执行分区的 executor,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture}
+     * @since 2.1.0
+     */
+    public static <T> PartitionFuture<Void> executeAsync(
+                    Executor executor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
+        return executeAsync(executor, list, eachSize, paramsMap, new DefaultPartitionRunnableBuilder<T>(partitionPerHandler));
+    }
+
+    /**
+     * 在调用方提供的 <code>executor</code> 中,根据 <code>partitionThreadConfig</code> 自动计算每个线程执行多少条,异步自动分区运行
+     * <code>partitionPerHandler</code>,立即返回,不会阻塞调用线程.
+     * 
+     * <p>
+     * 如果 <code>executor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionThreadConfig</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>partitionPerHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param executor
+     *            执行分区的 executor,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param partitionThreadConfig
+     *            the partition config
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionPerHandler
+     *            the partition per handler
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture}
+     * @since 2.1.0
+     */
+    public static <T> PartitionFuture<Void> executeAsync(
+                    Executor executor,
+                    List<T> list,
+                    PartitionThreadConfig partitionThreadConfig,
+                    Map<String, ?> paramsMap,
+                    PartitionPerHandler<T> partitionPerHandler){
+        Validate.notEmpty(list, "list can't be null/empty!");
+        Validate.notNull(partitionThreadConfig, "partitionConfig can't be null!");
+        //---------------------------------------------------------------
+        int eachSize = new PartitionEachSizeThreadConfigBuilder(partitionThreadConfig).build(list.size());
+        return executeAsync(executor, list, eachSize, paramsMap, partitionPerHandler);
+    }
+
+    /**
+     * 在调用方提供的 <code>executor</code> 中异步自动分区运行 <code>partitionResultHandler</code>,立即返回,不会阻塞调用线程.
+     * 
+     * <p>
+     * 如果 <code>executor</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param executor
+     *            执行分区的 executor,不能为null
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture},{@link PartitionFuture#get()} 按照分区顺序返回每个分区的执行结果
+     * @see #executeAndGet(List, int, Map, PartitionResultHandler)
+     * @since 2.1.0
+     */
+    public static <T, R> PartitionFuture<R> executeAndGetAsync(
+                    Executor executor,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionResultHandler<T, R> partitionResultHandler){
+        return new AsyncPartitionThreadExecutor(executor).executeAndGet(list, eachSize, paramsMap, partitionResultHandler);
     }
 
     //---------------------------------------------------------------
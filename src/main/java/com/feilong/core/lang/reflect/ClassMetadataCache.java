@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * 以 {@link Class} 为 key 的元数据缓存,不会阻止 class(以及它的 {@link ClassLoader})被回收,并且有最大数量限制.
+ * 
+ * <p>
+ * <b>内部使用,不是公开的 API,以后可能修改或者删除.</b><br>
+ * 因为 bean,reflect,thread 等多个包都需要使用,所以是 public 的,业务代码不要直接依赖这个类.
+ * </p>
+ * 
+ * <h3>存储方式:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>如果 class 是由本类的 {@link ClassLoader} 或者它的祖先(包括 bootstrap)加载的,它的生命周期不会比本缓存短,直接放在强引用的 {@link ConcurrentMap} 中</li>
+ * <li>否则(比如 feilong-core 放在容器的共享目录,class 是 webapp 的),值存放在 {@link ClassValue} 中,也就是挂在 class 自己身上,webapp 卸载的时候随 class 一起被回收</li>
+ * </ol>
+ * 
+ * <p>
+ * 不把 jdk 的 class 放到 {@link ClassValue} 中,是为了避免 feilong-core 在 webapp 里面时,jdk 的 class 反过来持有 webapp 的对象,导致 webapp 无法卸载.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>淘汰:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * 缓存的 class 数量超过 <code>maxSize</code> 的时候,按照放入的先后顺序淘汰最早的;被淘汰的 class 下次使用的时候会重新解析.<br>
+ * 已经被回收的 class 会通过 {@link ReferenceQueue} 清理掉,不占用数量.
+ * </p>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <V>
+ *            the value type
+ * @since 2.1.0
+ */
+public final class ClassMetadataCache<V>{
+
+    /** 默认的最大 class 数量 {@value}. */
+    public static final int          DEFAULT_MAX_SIZE   = 4096;
+
+    /** 本类的 {@link ClassLoader}. */
+    private static final ClassLoader OWNER_CLASS_LOADER = ClassMetadataCache.class.getClassLoader();
+
+    //---------------------------------------------------------------
+
+    /** 最大 class 数量. */
+    private final int                            maxSize;
+
+    /** 生命周期不短于本缓存的 class. */
+    private final ConcurrentMap<Class<?>, V>     strongMap          = new ConcurrentHashMap<>();
+
+    /** 其他 class,值挂在 class 自己身上. */
+    private final ClassValue<AtomicReference<V>> classValue         = new AtomicReferenceClassValue<>();
+
+    /** 已经缓存的 class(弱引用),按照放入的先后顺序,用于淘汰以及统计. */
+    private final Map<ClassReference, Boolean>   classReferenceMap  = new LinkedHashMap<>();
+
+    /** 被回收的 class 的引用队列. */
+    private final ReferenceQueue<Class<?>>       referenceQueue     = new ReferenceQueue<>();
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new class metadata cache.
+     *
+     * @param maxSize
+     *            最大 class 数量,必须 {@code >0}
+     */
+    public ClassMetadataCache(int maxSize){
+        Validate.isTrue(maxSize > 0, "maxSize:[%s] must > 0", maxSize);
+        this.maxSize = maxSize;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 <code>klass</code> 缓存的值.
+     *
+     * @param klass
+     *            the klass
+     * @return 如果没有缓存,或者已经被淘汰,返回null
+     */
+    public V get(Class<?> klass){
+        V value = strongMap.get(klass);
+        if (null != value || isStrongReferenceSafe(klass)){
+            return value;
+        }
+        return classValue.get(klass).get();
+    }
+
+    /**
+     * 如果 <code>klass</code> 没有缓存,那么放入 <code>value</code>.
+     *
+     * @param klass
+     *            the klass
+     * @param value
+     *            the value,不能为null
+     * @return 如果已经有缓存,返回已有的值;否则返回null
+     */
+    public V putIfAbsent(Class<?> klass,V value){
+        V existed;
+        if (isStrongReferenceSafe(klass)){
+            existed = strongMap.putIfAbsent(klass, value);
+        }else{
+            AtomicReference<V> reference = classValue.get(klass);
+            existed = reference.compareAndSet(null, value) ? null : reference.get();
+        }
+
+        //---------------------------------------------------------------
+        if (null == existed){
+            track(klass);
+        }
+        return existed;
+    }
+
+    /**
+     * 放入 <code>klass</code> 的 <code>value</code>,覆盖已有的值.
+     *
+     * @param klass
+     *            the klass
+     * @param value
+     *            the value,不能为null
+     */
+    public void put(Class<?> klass,V value){
+        if (isStrongReferenceSafe(klass)){
+            strongMap.put(klass, value);
+        }else{
+            classValue.get(klass).set(value);
+        }
+        track(klass);
+    }
+
+    /**
+     * 移除 <code>klass</code> 缓存的值.
+     *
+     * @param klass
+     *            the klass
+     */
+    public void remove(Class<?> klass){
+        synchronized (classReferenceMap){
+            classReferenceMap.remove(new ClassReference(klass, null));
+            removeValue(klass);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 缓存的 class 数量.
+     *
+     * @return the int
+     */
+    public int size(){
+        synchronized (classReferenceMap){
+            expungeStaleReferences();
+            return classReferenceMap.size();
+        }
+    }
+
+    /**
+     * 缓存的值的快照,用于统计.
+     *
+     * @return the list
+     */
+    public List<V> values(){
+        List<Class<?>> classList = new ArrayList<>();
+        synchronized (classReferenceMap){
+            expungeStaleReferences();
+            for (ClassReference classReference : classReferenceMap.keySet()){
+                Class<?> klass = classReference.get();
+                if (null != klass){
+                    classList.add(klass);
+                }
+            }
+        }
+
+        //---------------------------------------------------------------
+        List<V> valueList = new ArrayList<>(classList.size());
+        for (Class<?> klass : classList){
+            V value = get(klass);
+            if (null != value){
+                valueList.add(value);
+            }
+        }
+        return valueList;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 记录 <code>klass</code>,超过最大数量的时候淘汰最早放入的.
+     *
+     * @param klass
+     *            the klass
+     */
+    private void track(Class<?> klass){
+        synchronized (classReferenceMap){
+            expungeStaleReferences();
+            classReferenceMap.put(new ClassReference(klass, referenceQueue), Boolean.TRUE);
+
+            Iterator<ClassReference> iterator = classReferenceMap.keySet().iterator();
+            while (classReferenceMap.size() > maxSize && iterator.hasNext()){
+                Class<?> eldestClass = iterator.next().get();
+                iterator.remove();
+                if (null != eldestClass){
+                    removeValue(eldestClass);
+                }
+            }
+        }
+    }
+
+    /**
+     * 移除 <code>klass</code> 的值.
+     *
+     * @param klass
+     *            the klass
+     */
+    private void removeValue(Class<?> klass){
+        if (isStrongReferenceSafe(klass)){
+            strongMap.remove(klass);
+        }else{
+            classValue.remove(klass);
+        }
+    }
+
+    /**
+     * 清理已经被回收的 class.
+     */
+    private void expungeStaleReferences(){
+        for (Reference<? extends Class<?>> reference = referenceQueue.poll(); null != reference; reference = referenceQueue.poll()){
+            classReferenceMap.remove(reference);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * <code>klass</code> 的生命周期是否不短于本缓存,也就是 <code>klass</code> 是由本类的 {@link ClassLoader} 或者它的祖先加载的.
+     *
+     * @param klass
+     *            the klass
+     * @return 如果可以直接强引用,返回true
+     */
+    public static boolean isStrongReferenceSafe(Class<?> klass){
+        ClassLoader classLoader = klass.getClassLoader();
+        if (null == classLoader){
+            return true;
+        }
+        for (ClassLoader current = OWNER_CLASS_LOADER; null != current; current = current.getParent()){
+            if (current == classLoader){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在两个 class 中选择用来存放值的那个.
+     * 
+     * <p>
+     * 值同时引用了两个 class 的时候,如果 <code>klass</code> 可以直接强引用,那么放在 <code>otherClass</code> 上,避免长生命周期的 class 持有短生命周期的 class.
+     * </p>
+     *
+     * @param klass
+     *            the klass
+     * @param otherClass
+     *            the other class
+     * @return the class
+     */
+    public static Class<?> selectOwnerClass(Class<?> klass,Class<?> otherClass){
+        return isStrongReferenceSafe(klass) ? otherClass : klass;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * class 的弱引用,按照 class 的 identity 比较.
+     */
+    private static final class ClassReference extends WeakReference<Class<?>>{
+
+        /** The hash code. */
+        private final int hashCode;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new class reference.
+         *
+         * @param klass
+         *            the klass
+         * @param referenceQueue
+         *            the reference queue
+         */
+        private ClassReference(Class<?> klass, ReferenceQueue<Class<?>> referenceQueue){
+            super(klass, referenceQueue);
+            this.hashCode = System.identityHashCode(klass);
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode(){
+            return hashCode;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj){
+            if (this == obj){
+                return true;
+            }
+            if (!(obj instanceof ClassReference)){
+                return false;
+            }
+            Class<?> klass = get();
+            return null != klass && klass == ((ClassReference) obj).get();
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 每个 class 一个 {@link AtomicReference}.
+     *
+     * @param <V>
+     *            the value type
+     */
+    private static final class AtomicReferenceClassValue<V> extends ClassValue<AtomicReference<V>>{
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.ClassValue#computeValue(java.lang.Class)
+         */
+        @Override
+        protected AtomicReference<V> computeValue(Class<?> type){
+            return new AtomicReference<>();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.reflect;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 解析好的方法调用器,每个 (class, 方法名, 参数类型, 是否静态) 只解析一次,包括找不到方法的结果.
+ * 
+ * <h3>解析规则:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>和 {@link MethodUtils#invokeMethod(Object, String, Object[], Class[])} 一样,使用
+ * {@link MethodUtils#getMatchingAccessibleMethod(Class, String, Class...)} 查找 public 方法,并支持可变参数</li>
+ * <li>静态方法找不到 public 的时候,和之前 {@link MethodUtil#invokeStaticMethod(Class, String, Object[], Class[])} 的异常分支一样,使用
+ * {@link MethodUtils#getMatchingMethod(Class, String, Class...)} 查找 private 的方法,不再每次通过 {@link NoSuchMethodException} 进入这个分支</li>
+ * <li>找不到方法的结果也会缓存,下次直接抛出 {@link NoSuchMethodException}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see MethodUtil
+ * @since 2.1.0
+ */
+final class MethodInvoker{
+
+    /** The Constant LOGGER. */
+    private static final Logger                                                      LOGGER                = LoggerFactory.getLogger(MethodInvoker.class);
+
+    /** class 和 key 对应的调用器. */
+    private static final ClassMetadataCache<ConcurrentMap<MethodKey, MethodInvoker>> CLASS_AND_INVOKER_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    //---------------------------------------------------------------
+
+    /** 解析好的方法,如果是null表示找不到. */
+    private final Method                                                             method;
+
+    /** 是否需要处理可变参数. */
+    private final boolean                                                            varArgs;
+
+    /** 找不到方法时候的异常信息. */
+    private final String                                                             noSuchMethodMessage;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new method invoker.
+     *
+     * @param method
+     *            the method
+     * @param varArgs
+     *            是否需要处理可变参数
+     * @param noSuchMethodMessage
+     *            找不到方法时候的异常信息
+     */
+    private MethodInvoker(Method method, boolean varArgs, String noSuchMethodMessage){
+        this.method = method;
+        this.varArgs = varArgs;
+        this.noSuchMethodMessage = noSuchMethodMessage;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得调用器.
+     *
+     * @param klass
+     *            查找方法的 class
+     * @param methodName
+     *            the method name
+     * @param parameterTypes
+     *            the parameter types,null 等同于 empty
+     * @param isStatic
+     *            是否调用静态方法
+     * @return 不会是null;如果找不到方法,{@link #invoke(Object, Object[])} 抛出 {@link NoSuchMethodException}
+     */
+    static MethodInvoker getInstance(Class<?> klass,String methodName,Class<?>[] parameterTypes,boolean isStatic){
+        Class<?>[] useParameterTypes = ArrayUtils.nullToEmpty(parameterTypes);
+
+        //jdk 等长生命周期的 class,不能通过 key 里面的参数类型,反过来持有短生命周期的 class
+        if (ClassMetadataCache.isStrongReferenceSafe(klass) && !isStrongReferenceSafe(useParameterTypes)){
+            return resolve(klass, methodName, useParameterTypes, isStatic);
+        }
+
+        //---------------------------------------------------------------
+        ConcurrentMap<MethodKey, MethodInvoker> keyAndInvokerMap = getKeyAndInvokerMap(klass);
+        MethodKey methodKey = new MethodKey(methodName, useParameterTypes, isStatic);
+
+        MethodInvoker methodInvoker = keyAndInvokerMap.get(methodKey);
+        if (null != methodInvoker){
+            return methodInvoker;
+        }
+
+        //---------------------------------------------------------------
+        methodInvoker = resolve(klass, methodName, useParameterTypes, isStatic);
+
+        //parameterTypes 是调用方的数组,放入缓存的 key 需要复制一份
+        MethodKey storeKey = new MethodKey(methodName, useParameterTypes.clone(), isStatic);
+        MethodInvoker existed = keyAndInvokerMap.putIfAbsent(storeKey, methodInvoker);
+        return null == existed ? methodInvoker : existed;
+    }
+
+    /**
+     * 获得 <code>klass</code> 的调用器 map.
+     *
+     * @param klass
+     *            the klass
+     * @return the key and invoker map
+     */
+    private static ConcurrentMap<MethodKey, MethodInvoker> getKeyAndInvokerMap(Class<?> klass){
+        ConcurrentMap<MethodKey, MethodInvoker> keyAndInvokerMap = CLASS_AND_INVOKER_MAP.get(klass);
+        if (null != keyAndInvokerMap){
+            return keyAndInvokerMap;
+        }
+
+        //---------------------------------------------------------------
+        keyAndInvokerMap = new ConcurrentHashMap<>();
+        ConcurrentMap<MethodKey, MethodInvoker> existed = CLASS_AND_INVOKER_MAP.putIfAbsent(klass, keyAndInvokerMap);
+        return null == existed ? keyAndInvokerMap : existed;
+    }
+
+    /**
+     * 参数类型是否都可以被长生命周期的缓存直接引用.
+     *
+     * @param parameterTypes
+     *            the parameter types
+     * @return true, if successful
+     */
+    private static boolean isStrongReferenceSafe(Class<?>[] parameterTypes){
+        for (Class<?> parameterType : parameterTypes){
+            if (null != parameterType && !ClassMetadataCache.isStrongReferenceSafe(parameterType)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 解析方法.
+     *
+     * @param klass
+     *            the klass
+     * @param methodName
+     *            the method name
+     * @param parameterTypes
+     *            the parameter types
+     * @param isStatic
+     *            是否调用静态方法
+     * @return the method invoker
+     */
+    private static MethodInvoker resolve(Class<?> klass,String methodName,Class<?>[] parameterTypes,boolean isStatic){
+        Method accessibleMethod = MethodUtils.getMatchingAccessibleMethod(klass, methodName, parameterTypes);
+        if (null != accessibleMethod){
+            return new MethodInvoker(accessibleMethod, accessibleMethod.isVarArgs(), null);
+        }
+        if (!isStatic){
+            return new MethodInvoker(null, false, "No such accessible method: " + methodName + "() on object: " + klass.getName());
+        }
+
+        //---------------------------------------------------------------
+        LOGGER.trace(
+                        "from class:[{}],can't find [public static {}()] method,will try to find [private static] method",
+                        klass.getSimpleName(),
+                        methodName);
+
+        Method matchingMethod = MethodUtils.getMatchingMethod(klass, methodName, parameterTypes);
+        if (null == matchingMethod){
+            return new MethodInvoker(null, false, "No such method:[" + methodName + "()] on class: " + klass.getName());
+        }
+
+        //---------------------------------------------------------------
+        if (LOGGER.isDebugEnabled()){
+            LOGGER.debug("bingo,from class:[{}],find name [{}] method", klass.getSimpleName(), methodName);
+        }
+        matchingMethod.setAccessible(true);
+        return new MethodInvoker(matchingMethod, false, null);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 调用方法.
+     *
+     * @param object
+     *            the object,静态方法是null
+     * @param args
+     *            the args,null 等同于 empty
+     * @return the object
+     * @throws NoSuchMethodException
+     *             如果找不到方法
+     * @throws IllegalAccessException
+     *             the illegal access exception
+     * @throws InvocationTargetException
+     *             the invocation target exception
+     */
+    Object invoke(Object object,Object[] args) throws NoSuchMethodException,IllegalAccessException,InvocationTargetException{
+        if (null == method){
+            throw new NoSuchMethodException(noSuchMethodMessage);
+        }
+
+        Object[] useArgs = ArrayUtils.nullToEmpty(args);
+        return method.invoke(object, varArgs ? toVarArgs(useArgs, method.getParameterTypes()) : useArgs);
+    }
+
+    /**
+     * 把可变参数部分转成数组,和 commons-lang3 <code>MethodUtils.getVarArgs</code> 的处理一致.
+     *
+     * @param args
+     *            the args
+     * @param methodParameterTypes
+     *            the method parameter types
+     * @return the object[]
+     */
+    private static Object[] toVarArgs(Object[] args,Class<?>[] methodParameterTypes){
+        int length = methodParameterTypes.length;
+        if (args.length == length && args[length - 1].getClass().equals(methodParameterTypes[length - 1])){
+            return args;
+        }
+
+        //---------------------------------------------------------------
+        Object[] newArgs = new Object[length];
+        System.arraycopy(args, 0, newArgs, 0, length - 1);
+
+        Class<?> varArgComponentType = methodParameterTypes[length - 1].getComponentType();
+        int varArgLength = args.length - length + 1;
+        Object varArgsArray = Array.newInstance(ClassUtils.primitiveToWrapper(varArgComponentType), varArgLength);
+        System.arraycopy(args, length - 1, varArgsArray, 0, varArgLength);
+        if (varArgComponentType.isPrimitive()){
+            varArgsArray = ArrayUtils.toPrimitive(varArgsArray);
+        }
+        newArgs[length - 1] = varArgsArray;
+        return newArgs;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 调用器的 key.
+     */
+    private static final class MethodKey{
+
+        /** The method name. */
+        private final String     methodName;
+
+        /** The parameter types. */
+        private final Class<?>[] parameterTypes;
+
+        /** 是否调用静态方法. */
+        private final boolean    isStatic;
+
+        /** The hash code. */
+        private final int        hashCode;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new method key.
+         *
+         * @param methodName
+         *            the method name
+         * @param parameterTypes
+         *            the parameter types
+         * @param isStatic
+         *            是否调用静态方法
+         */
+        private MethodKey(String methodName, Class<?>[] parameterTypes, boolean isStatic){
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.isStatic = isStatic;
+
+            int result = methodName.hashCode();
+            result = 31 * result + Arrays.hashCode(parameterTypes);
+            this.hashCode = 31 * result + (isStatic ? 1 : 0);
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode(){
+            return hashCode;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj){
+            if (this == obj){
+                return true;
+            }
+            if (!(obj instanceof MethodKey)){
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return isStatic == other.isStatic && methodName.equals(other.methodName) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+    }
+}
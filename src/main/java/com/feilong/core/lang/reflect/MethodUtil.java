@@ -15,12 +15,8 @@
  */
 package com.feilong.core.lang.reflect;
 
-import java.lang.reflect.Method;
-
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.reflect.MethodUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.feilong.core.lang.ClassUtil;
 import com.feilong.tools.slf4j.Slf4jUtil;
@@ -144,6 +140,14 @@ import com.feilong.tools.slf4j.Slf4jUtil;
  * </table>
  * </blockquote>
  * 
+ * <h3>关于缓存:</h3>
+ * <blockquote>
+ * <p>
+ * 每个 (class, 方法名, 参数类型) 匹配到的方法只解析一次(包括找不到方法的结果),重复调用不再扫描 {@link Class#getMethods()};<br>
+ * 静态方法找不到 public 方法时查找 private 方法的结果也会缓存,不再每次通过 {@link NoSuchMethodException} 进入这个分支.
+ * </p>
+ * </blockquote>
+ * 
  * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
  * @see org.apache.commons.lang3.reflect.MethodUtils
  * @see org.apache.commons.lang3.ClassUtils#getPublicMethod(Class, String, Class...)
@@ -152,11 +156,6 @@ import com.feilong.tools.slf4j.Slf4jUtil;
  */
 public final class MethodUtil{
 
-    /** The Constant log. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(MethodUtil.class);
-
-    //---------------------------------------------------------------
-
     /** Don't let anyone instantiate this class. */
     private MethodUtil(){
         //AssertionError不是必须的. 但它可以避免不小心在类的内部调用构造器. 保证该类在任何情况下都不会被实例化.
@@ -350,7 +349,7 @@ public final class MethodUtil{
 
         //---------------------------------------------------------------
         try{
-            return (T) MethodUtils.invokeMethod(object, methodName, args, parameterTypes);
+            return (T) MethodInvoker.getInstance(object.getClass(), methodName, parameterTypes, false).invoke(object, args);
         }catch (Exception e){
             String pattern = "invokeMethod Exception,object:[{}],methodName:[{}],args:[{}],parameterTypes:[{}]";
             String message = Slf4jUtil.format(pattern, object, methodName, args, parameterTypes);
@@ -553,57 +552,7 @@ public final class MethodUtil{
         Validate.notBlank(staticMethodName, "staticMethodName can't be blank!");
         //---------------------------------------------------------------
         try{
-            return (T) MethodUtils.invokeStaticMethod(klass, staticMethodName, args, parameterTypes);
-        }catch (NoSuchMethodException e){
-            LOGGER.trace(
-                            "from class:[{}],can't find [public static {}()] method,cause exception: [{}],will try to find [private static] method",
-                            klass.getSimpleName(),
-                            staticMethodName,
-                            e);
-            //---------------------------------------------------------------
-            return doWithNoSuchMethodException(klass, staticMethodName, args, parameterTypes);
-        }catch (Exception e){
-            throw new ReflectException(buildMessage(klass, staticMethodName, args, parameterTypes), e);
-        }
-    }
-
-    //---------------------------------------------------------------
-
-    /**
-     * Do with no such method exception.
-     *
-     * @param <T>
-     *            the generic type
-     * @param klass
-     *            the klass
-     * @param staticMethodName
-     *            the static method name
-     * @param args
-     *            the args
-     * @param parameterTypes
-     *            the parameter types
-     * @return the t
-     * @throws ReflectException
-     *             the reflect exception
-     * @since 1.11.5
-     */
-    @SuppressWarnings("unchecked")
-    private static <T> T doWithNoSuchMethodException(Class<?> klass,String staticMethodName,Object[] args,Class<?>[] parameterTypes){
-        try{
-            Method matchingMethod = MethodUtils.getMatchingMethod(klass, staticMethodName, parameterTypes);
-            if (null == matchingMethod){
-                throw new NoSuchMethodException("No such method:[" + staticMethodName + "()] on class: " + klass.getName());
-            }
-
-            //---------------------------------------------------------------
-
-            if (LOGGER.isDebugEnabled()){
-                LOGGER.debug("bingo,from class:[{}],find name [{}] method", klass.getSimpleName(), staticMethodName);
-            }
-
-            //---------------------------------------------------------------
-            matchingMethod.setAccessible(true);
-            return (T) matchingMethod.invoke(null, args);
+            return (T) MethodInvoker.getInstance(klass, staticMethodName, parameterTypes, true).invoke(null, args);
         }catch (Exception e){
             throw new ReflectException(buildMessage(klass, staticMethodName, args, parameterTypes), e);
         }
@@ -23,12 +23,14 @@ import static org.apache.commons.lang3.ClassUtils.getSimpleName;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.feilong.core.lang.thread.PartitionThreadExecutor;
+import com.feilong.tools.slf4j.Slf4jUtil;
 
 /**
  * 抽象实现.
@@ -43,7 +45,47 @@ import com.feilong.core.lang.thread.PartitionThreadExecutor;
 public abstract class AbstractPartitionThreadExecutor implements PartitionThreadExecutor{
 
     /** The Constant log. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractPartitionThreadExecutor.class);
+    private static final Logger                  LOGGER                       = LoggerFactory.getLogger(AbstractPartitionThreadExecutor.class);
+
+    //---------------------------------------------------------------
+
+    /**
+     * 分区执行的配置(快速失败,超时,并发许可).
+     * 
+     * @since 2.1.0
+     */
+    private final PartitionExecuteConfig         partitionExecuteConfig;
+
+    /**
+     * 分区执行的监听器.
+     * 
+     * @since 2.1.0
+     */
+    private final List<PartitionExecuteListener> partitionExecuteListenerList = new CopyOnWriteArrayList<>();
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用默认配置 {@link PartitionExecuteConfig#INSTANCE} 构造.
+     * 
+     * @since 2.1.0
+     */
+    protected AbstractPartitionThreadExecutor(){
+        this(PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * 使用指定的配置构造,执行器创建之后配置不能修改.
+     *
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    protected AbstractPartitionThreadExecutor(PartitionExecuteConfig partitionExecuteConfig){
+        super();
+        Validate.notNull(partitionExecuteConfig, "partitionExecuteConfig can't be null!");
+        this.partitionExecuteConfig = partitionExecuteConfig;
+    }
 
     //---------------------------------------------------------------
     /**
@@ -95,14 +137,43 @@ public abstract class AbstractPartitionThreadExecutor implements PartitionThread
         //---------------------------------------------------------------
         Date beginDate = now();
 
-        actualExecute(list, eachSize, paramsMap, partitionRunnableBuilder);
+        PartitionExecuteContext partitionExecuteContext = newPartitionExecuteContext();
+        partitionExecuteContext.fireExecuteStart(partitionRunnableBuilderName, list.size(), eachSize);
 
-        //---------------------------------------------------------------
-        if (LOGGER.isInfoEnabled()){
-            LOGGER.info("end [{}],use time:[{}]", partitionRunnableBuilderName, formatDuration(beginDate));
+        Throwable throwable = null;
+        try{
+            actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+
+            //---------------------------------------------------------------
+            if (LOGGER.isInfoEnabled()){
+                LOGGER.info("end [{}],use time:[{}]", partitionRunnableBuilderName, formatDuration(beginDate));
+            }
+
+            //有分区失败,或者超时/取消,抛出 PartitionExecuteException
+            partitionExecuteContext.check();
+        }catch (RuntimeException | Error e){
+            throwable = e;
+            throw e;
+        }finally{
+            partitionExecuteContext.fireExecuteEnd(partitionRunnableBuilderName, list.size(), eachSize, throwable);
         }
     }
 
+    /**
+     * 使用当前的 fail-fast,超时,监听器以及并发许可配置,创建本次执行的上下文.
+     *
+     * @return the partition execute context
+     * @since 2.1.0
+     */
+    protected PartitionExecuteContext newPartitionExecuteContext(){
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = partitionExecuteConfig.getPartitionConcurrencyLimiter();
+        return new PartitionExecuteContext(
+                        partitionExecuteConfig.isFailFast(),
+                        partitionExecuteConfig.getTimeoutMillis(),
+                        partitionExecuteListenerList,
+                        null == partitionConcurrencyLimiter ? PartitionConcurrencyLimiter.getGlobal() : partitionConcurrencyLimiter);
+    }
+
     //---------------------------------------------------------------
 
     /**
@@ -135,6 +206,39 @@ public abstract class AbstractPartitionThreadExecutor implements PartitionThread
                     Map<String, ?> paramsMap,
                     PartitionRunnableBuilder<T> partitionRunnableBuilder);
 
+    /**
+     * 让实现类 focus 实现具体代码流程, 已经校验完参数, 并且 <code>partitionRunnableBuilder</code> 已经使用 <code>partitionExecuteContext</code> 包装.
+     * 
+     * <p>
+     * 默认直接调用 {@link #actualExecute(List, int, Map, PartitionRunnableBuilder)},分区异常收集以及快速失败已经由包装之后的
+     * <code>partitionRunnableBuilder</code> 完成;<br>
+     * 如果实现类需要支持超时,那么重写此方法,在等待分区执行完成的时候最多等待 {@link PartitionExecuteContext#getRemainingNanos()},超时之后调用
+     * {@link PartitionExecuteContext#timeout()}.
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            执行解析的list
+     * @param eachSize
+     *            每个线程执行多少个对象
+     * @param paramsMap
+     *            自定义的相关参数,可能为null
+     * @param partitionRunnableBuilder
+     *            每个线程做的事情
+     * @param partitionExecuteContext
+     *            本次执行的上下文
+     * @since 2.1.0
+     */
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        actualExecute(list, eachSize, paramsMap, partitionRunnableBuilder);
+    }
+
     //---------------------------------------------------------------
 
     /**
@@ -147,6 +251,162 @@ public abstract class AbstractPartitionThreadExecutor implements PartitionThread
      * @return the name
      */
     protected static <T> String getName(PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        if (partitionRunnableBuilder instanceof PartitionExecuteContext.PartitionExecuteRunnableBuilder){
+            return getName(((PartitionExecuteContext.PartitionExecuteRunnableBuilder<T>) partitionRunnableBuilder).getPartitionRunnableBuilder());
+        }
         return defaultIfNullOrEmpty(getSimpleName(partitionRunnableBuilder.getClass()), partitionRunnableBuilder.getClass().getName());
     }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 分区执行的配置.
+     *
+     * @return the partitionExecuteConfig
+     * @since 2.1.0
+     */
+    public PartitionExecuteConfig getPartitionExecuteConfig(){
+        return partitionExecuteConfig;
+    }
+
+    /**
+     * 添加分区执行的监听器.
+     * 
+     * <p>
+     * 注意:各个实现类的 <code>INSTANCE</code> 是共享的,往 <code>INSTANCE</code> 添加的监听器对所有使用 <code>INSTANCE</code> 的调用都生效,
+     * 如果只需要监听自己的调用,请 new 一个执行器.
+     * </p>
+     *
+     * @param partitionExecuteListener
+     *            the partition execute listener,不能为null
+     * @since 2.1.0
+     */
+    public void addPartitionExecuteListener(PartitionExecuteListener partitionExecuteListener){
+        Validate.notNull(partitionExecuteListener, "partitionExecuteListener can't be null!");
+        partitionExecuteListenerList.add(partitionExecuteListener);
+    }
+
+    /**
+     * 移除分区执行的监听器.
+     *
+     * @param partitionExecuteListener
+     *            the partition execute listener
+     * @return 如果存在并且移除了,返回true
+     * @since 2.1.0
+     */
+    public boolean removePartitionExecuteListener(PartitionExecuteListener partitionExecuteListener){
+        return partitionExecuteListenerList.remove(partitionExecuteListener);
+    }
+
+    /**
+     * 获得 分区执行的监听器.
+     *
+     * @return the partitionExecuteListenerList
+     * @since 2.1.0
+     */
+    public List<PartitionExecuteListener> getPartitionExecuteListenerList(){
+        return partitionExecuteListenerList;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 构建线程名称.
+     * 
+     * <h3>格式:</h3>
+     * 
+     * <blockquote>
+     * "Thread-partitionRunnableBuilder 实现类名称-{@link com.feilong.core.lang.PartitionThreadEntity#getBatchNumber() batchNumber}"
+     * </blockquote>
+     * 
+     * <h3>作用:</h3>
+     * 
+     * <blockquote>
+     * 
+     * <ul>
+     * <li>一来便于管理, 可以使用相关代码来获得线程;</li>
+     * <li>二来常用于日志显示, 比如, 如果是 log4j 的配置文件,如果 ConversionPattern
+     * 
+     * <pre>
+     * {@code 
+     * <param name="ConversionPattern" value="%d}{HH:mm:ss} {@code %t %-5p (%F:%L) %m%n" />
+     * }
+     * </pre>
+     * 
+     * 其中 %t 表示 线程名称
+     * 
+     * 正常情况的日志,会显示(示例)
+     * 
+     * <pre>
+     * 13:54:43 <span style=
+     * "color:red">Thread-NovelpartitionRunnableBuilder-13</span> INFO (NovelpartitionRunnableBuilder.java:91) 第914章 好手段 3406 [6/20] 14 30%
+     * 13:54:43 <span style=
+     * "color:red">Thread-NovelpartitionRunnableBuilder-5</span> INFO (NovelpartitionRunnableBuilder.java:91) 第761章 不得其时 3573 [7/20] 6 35%
+     * 13:54:43 <span style=
+     * "color:red">Thread-NovelpartitionRunnableBuilder-3</span> INFO (NovelpartitionRunnableBuilder.java:91) 第718章 各打各的算盘 3411 [4/20] 4 20%
+     * </pre>
+     * 
+     * 如果代码有异常, 会显示
+     * 
+     * <pre>
+     * 13:54:52 <span style="color:red">Thread-NovelpartitionRunnableBuilder-16</span> ERROR (DefaultChapterBuilder.java:83) Exception:
+     * com.feilong.tools.jsoup.JsoupUtilException: urlString:[http://www.37zw.com/0/181/1662249.html],userAgent:[Mozilla/5.0 (X11; Linux
+     * x86_64) AppleWebKit/535.21 (KHTML, like Gecko) Chrome/19.0.1042.0 Safari/535.21]
+     * at com.feilong.tools.jsoup.JsoupUtil.getDocument(JsoupUtil.java:87)
+     * at com.feilong.tools.jsoup.JsoupUtil.getDocument(JsoupUtil.java:65)
+     * at com.feilong.project.novel.build.DefaultChapterBuilder.getContentElement(DefaultChapterBuilder.java:124)
+     * at com.feilong.project.novel.build.DefaultChapterBuilder.build(DefaultChapterBuilder.java:68)
+     * at com.feilong.project.novel.build.NovelpartitionRunnableBuilder$1.run(NovelpartitionRunnableBuilder.java:86)
+     * at java.lang.Thread.run(Thread.java:745)
+     * </pre>
+     * 
+     * </li>
+     * </ul>
+     * 
+     * </blockquote>
+     *
+     * @param <T>
+     *            the generic type
+     * @param batchNumber
+     *            the batch number
+     * @param partitionRunnableBuilder
+     *            the group runnable builder
+     * @return 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * @since 2.1.0 move from {@link DefaultPartitionThreadExecutor}
+     */
+    protected static <T> String buildThreadName(int batchNumber,PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        Validate.notNull(partitionRunnableBuilder, "partitionRunnableBuilder can't be null!");
+        return buildThreadName(batchNumber, getName(partitionRunnableBuilder));
+    }
+
+    /**
+     * 使用已经取得的 <code>partitionRunnableBuilderName</code> 构造线程名字,格式和 {@link #buildThreadName(int, PartitionRunnableBuilder)} 一致.
+     *
+     * @param batchNumber
+     *            the batch number
+     * @param partitionRunnableBuilderName
+     *            参见 {@link #getName(PartitionRunnableBuilder)}
+     * @return the string
+     * @since 2.1.0
+     */
+    static String buildThreadName(int batchNumber,String partitionRunnableBuilderName){
+        return Slf4jUtil.format("Thread-{}-{}", partitionRunnableBuilderName, batchNumber);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 计算 <code>totalSize</code> 按照 <code>eachSize</code> 分区之后的分区数量,也就是 {@link org.apache.commons.collections4.ListUtils#partition(List, int)} 的 size.
+     *
+     * @param totalSize
+     *            the total size
+     * @param eachSize
+     *            the each size
+     * @return 如果 {@code eachSize <=0},抛出 {@link IllegalArgumentException}<br>
+     * @since 2.1.0
+     */
+    static int getPartitionCount(int totalSize,int eachSize){
+        Validate.isTrue(eachSize > 0, "eachSize must > 0");
+        return (totalSize + eachSize - 1) / eachSize;
+    }
 }
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.core.lang.reflect.ClassMetadataCache;
+
+/**
+ * 根据历史执行中每个元素的平均耗时,自适应计算 each size 大小.
+ * 
+ * <h3>和 {@link PartitionEachSizeThreadConfigBuilder} 的区别:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * {@link PartitionEachSizeThreadConfigBuilder} 只根据 list 大小, maxThreadCount 以及 minPerThreadHandlerCount 计算,不关心每个元素的处理耗时;<br>
+ * 如果每个元素耗时只有几微秒,开 100 个线程得不偿失;如果每个元素耗时几百毫秒,每个线程处理 20 个又太多.
+ * </p>
+ * 
+ * <p>
+ * 本实现按照 <code>key</code>(一般是 handler 的 class)记录以往执行中每个元素的平均耗时(指数加权移动平均),计算 each size 使得每个分区的耗时接近
+ * <code>targetPartitionMillis</code>:
+ * </p>
+ * 
+ * <pre class="code">
+ * eachSize = targetPartitionMillis / 每个元素的平均耗时
+ * </pre>
+ * 
+ * <p>
+ * 分区数量不超过 {@link PartitionThreadConfig#getMaxThreadCount()};如果是 cpu 密集型(<code>cpuBound</code>),分区数量还不超过 cpu 核数.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * private static final AdaptivePartitionEachSizeBuilder BUILDER = new AdaptivePartitionEachSizeBuilder(SyncPartitionPerHandler.class, 200);
+ * 
+ * //会自动记录每个分区的耗时,用于下次计算
+ * ThreadUtil.execute(DefaultPartitionThreadExecutor.INSTANCE, list, BUILDER, null, syncPartitionPerHandler);
+ * </pre>
+ * 
+ * </blockquote>
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>还没有耗时记录的时候(比如第一次执行),使用 <code>partitionThreadConfig</code> 按照 {@link PartitionEachSizeThreadConfigBuilder} 计算</li>
+ * <li>耗时记录是 jvm 全局的,按照 <code>key</code> 区分,同一个 <code>key</code> 的多个实例共享记录</li>
+ * <li>只记录执行成功的分区</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class AdaptivePartitionEachSizeBuilder implements PartitionEachSizeBuilder{
+
+    /** The Constant LOGGER. */
+    private static final Logger                                LOGGER                         = LoggerFactory.getLogger(AdaptivePartitionEachSizeBuilder.class);
+
+    /** 指数加权移动平均的权重,越大越偏向最近的记录 <code>{@value}</code>. */
+    private static final double                                ALPHA                          = 0.3;
+
+    /** 每个 key 的耗时记录,不会阻止 key(以及它的 ClassLoader)被回收. */
+    private static final ClassMetadataCache<LatencyStatistics> KEY_AND_LATENCY_STATISTICS_MAP = new ClassMetadataCache<>(ClassMetadataCache.DEFAULT_MAX_SIZE);
+
+    //---------------------------------------------------------------
+
+    /** 耗时记录的 key,一般是 handler 的 class. */
+    private final Class<?>                                     key;
+
+    /** 每个分区的目标耗时,单位毫秒. */
+    private final long                                         targetPartitionMillis;
+
+    /** 是否是 cpu 密集型,如果是,分区数量不超过 cpu 核数. */
+    private final boolean                                      cpuBound;
+
+    /** 没有耗时记录时候的计算规则,以及最大分区数量. */
+    private final PartitionThreadConfig                        partitionThreadConfig;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 非 cpu 密集型,使用 {@link PartitionThreadConfig#INSTANCE}.
+     *
+     * @param key
+     *            耗时记录的 key,一般是 handler 的 class,不能为null
+     * @param targetPartitionMillis
+     *            每个分区的目标耗时,单位毫秒,必须 {@code >0}
+     */
+    public AdaptivePartitionEachSizeBuilder(Class<?> key, long targetPartitionMillis){
+        this(key, targetPartitionMillis, false, PartitionThreadConfig.INSTANCE);
+    }
+
+    /**
+     * Instantiates a new adaptive partition each size builder.
+     *
+     * @param key
+     *            耗时记录的 key,一般是 handler 的 class,不能为null
+     * @param targetPartitionMillis
+     *            每个分区的目标耗时,单位毫秒,必须 {@code >0}
+     * @param cpuBound
+     *            是否是 cpu 密集型,如果是,分区数量不超过 cpu 核数
+     * @param partitionThreadConfig
+     *            没有耗时记录时候的计算规则,以及最大分区数量,不能为null
+     */
+    public AdaptivePartitionEachSizeBuilder(Class<?> key, long targetPartitionMillis, boolean cpuBound,
+                    PartitionThreadConfig partitionThreadConfig){
+        super();
+        Validate.notNull(key, "key can't be null!");
+        Validate.isTrue(targetPartitionMillis > 0, "targetPartitionMillis must > 0");
+        Validate.notNull(partitionThreadConfig, "partitionThreadConfig can't be null!");
+
+        this.key = key;
+        this.targetPartitionMillis = targetPartitionMillis;
+        this.cpuBound = cpuBound;
+        this.partitionThreadConfig = partitionThreadConfig;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 构造每个分区大小.
+     *
+     * @param totalSize
+     *            the total size
+     * @return 如果 <code>totalSize<=0</code>,抛出 {@link IllegalArgumentException}<br>
+     *         如果还没有耗时记录,返回 {@link PartitionEachSizeThreadConfigBuilder#build(int)}<br>
+     *         否则返回 {@code targetPartitionMillis / 每个元素的平均耗时},最小是1,最大是 <code>totalSize</code>,并且分区数量不超过最大分区数量
+     */
+    @Override
+    public int build(int totalSize){
+        Validate.isTrue(totalSize > 0, "totalSize must >0,totalSize:%s", totalSize);
+
+        long averageItemNanos = getAverageItemNanos(key);
+        if (averageItemNanos <= 0){
+            return new PartitionEachSizeThreadConfigBuilder(partitionThreadConfig).build(totalSize);
+        }
+
+        //---------------------------------------------------------------
+        long targetPartitionNanos = TimeUnit.MILLISECONDS.toNanos(targetPartitionMillis);
+        int eachSize = (int) Math.max(1, Math.min(totalSize, targetPartitionNanos / averageItemNanos));
+
+        //分区数量不能超过最大分区数量
+        int maxPartitionCount = getMaxPartitionCount();
+        if (AbstractPartitionThreadExecutor.getPartitionCount(totalSize, eachSize) > maxPartitionCount){
+            eachSize = AbstractPartitionThreadExecutor.getPartitionCount(totalSize, maxPartitionCount);
+        }
+
+        LOGGER.debug(
+                        "key:[{}],totalSize:[{}],averageItemNanos:[{}],targetPartitionMillis:[{}],eachSize:[{}]",
+                        key.getName(),
+                        totalSize,
+                        averageItemNanos,
+                        targetPartitionMillis,
+                        eachSize);
+        return eachSize;
+    }
+
+    /**
+     * 最大分区数量.
+     *
+     * @return 如果是 cpu 密集型,返回 cpu 核数和 {@link PartitionThreadConfig#getMaxThreadCount()} 中较小的一个
+     */
+    private int getMaxPartitionCount(){
+        int maxThreadCount = Math.max(1, partitionThreadConfig.getMaxThreadCount());
+        return cpuBound ? Math.min(maxThreadCount, Runtime.getRuntime().availableProcessors()) : maxThreadCount;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 包装 <code>partitionPerHandler</code>,每个分区执行成功之后,记录耗时到本实例的 <code>key</code> 下.
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionPerHandler
+     *            the partition per handler,不能为null
+     * @return the partition per handler
+     */
+    public <T> PartitionPerHandler<T> record(final PartitionPerHandler<T> partitionPerHandler){
+        Validate.notNull(partitionPerHandler, "partitionPerHandler can't be null!");
+        return new PartitionPerHandler<T>(){
+
+            @Override
+            public void handle(List<T> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+                long beginNanos = System.nanoTime();
+                partitionPerHandler.handle(perBatchList, partitionThreadEntity, paramsMap);
+                record(key, perBatchList.size(), System.nanoTime() - beginNanos);
+            }
+        };
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 记录一次分区执行的耗时.
+     *
+     * @param key
+     *            耗时记录的 key,不能为null
+     * @param itemCount
+     *            该分区的元素数量,如果 {@code <=0} 忽略
+     * @param elapsedNanos
+     *            该分区的耗时,单位纳秒,如果 {@code <0} 忽略
+     */
+    public static void record(Class<?> key,int itemCount,long elapsedNanos){
+        Validate.notNull(key, "key can't be null!");
+        if (itemCount <= 0 || elapsedNanos < 0){
+            return;
+        }
+
+        //---------------------------------------------------------------
+        LatencyStatistics latencyStatistics = KEY_AND_LATENCY_STATISTICS_MAP.get(key);
+        if (null == latencyStatistics){
+            LatencyStatistics newLatencyStatistics = new LatencyStatistics();
+            latencyStatistics = KEY_AND_LATENCY_STATISTICS_MAP.putIfAbsent(key, newLatencyStatistics);
+            if (null == latencyStatistics){
+                latencyStatistics = newLatencyStatistics;
+            }
+        }
+        latencyStatistics.record((double) elapsedNanos / itemCount);
+    }
+
+    /**
+     * 获得 <code>key</code> 下每个元素的平均耗时.
+     *
+     * @param key
+     *            耗时记录的 key,不能为null
+     * @return 如果没有耗时记录,返回 -1;否则返回每个元素的平均耗时,单位纳秒,最小是1
+     */
+    public static long getAverageItemNanos(Class<?> key){
+        Validate.notNull(key, "key can't be null!");
+        LatencyStatistics latencyStatistics = KEY_AND_LATENCY_STATISTICS_MAP.get(key);
+        return null == latencyStatistics ? -1 : latencyStatistics.getAverageItemNanos();
+    }
+
+    /**
+     * 清除 <code>key</code> 下的耗时记录,比如 handler 的实现发生了很大的变化.
+     *
+     * @param key
+     *            耗时记录的 key,不能为null
+     */
+    public static void clear(Class<?> key){
+        Validate.notNull(key, "key can't be null!");
+        KEY_AND_LATENCY_STATISTICS_MAP.remove(key);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 耗时记录的 key.
+     *
+     * @return the key
+     */
+    public Class<?> getKey(){
+        return key;
+    }
+
+    /**
+     * 获得 每个分区的目标耗时,单位毫秒.
+     *
+     * @return the targetPartitionMillis
+     */
+    public long getTargetPartitionMillis(){
+        return targetPartitionMillis;
+    }
+
+    /**
+     * 获得 是否是 cpu 密集型.
+     *
+     * @return the cpuBound
+     */
+    public boolean isCpuBound(){
+        return cpuBound;
+    }
+
+    /**
+     * 获得 没有耗时记录时候的计算规则,以及最大分区数量.
+     *
+     * @return the partitionThreadConfig
+     */
+    public PartitionThreadConfig getPartitionThreadConfig(){
+        return partitionThreadConfig;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 每个元素耗时的指数加权移动平均.
+     */
+    private static final class LatencyStatistics{
+
+        /** 每个元素的平均耗时,单位纳秒. */
+        private double averageItemNanos = -1;
+
+        /**
+         * 记录.
+         *
+         * @param itemNanos
+         *            本次每个元素的耗时
+         */
+        private synchronized void record(double itemNanos){
+            averageItemNanos = averageItemNanos < 0 ? itemNanos : averageItemNanos + ALPHA * (itemNanos - averageItemNanos);
+        }
+
+        /**
+         * 获得 每个元素的平均耗时.
+         *
+         * @return 最小是1
+         */
+        private synchronized long getAverageItemNanos(){
+            return Math.max(1, Math.round(averageItemNanos));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 异步的分区执行,把每个分区提交到调用方提供的 {@link Executor} 之后立即返回 {@link PartitionFuture},调用线程不需要等待分区执行完成.
+ * 
+ * <h3>和 {@link PartitionThreadExecutor} 的区别:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * {@link PartitionThreadExecutor#execute(List, int, Map, PartitionRunnableBuilder)} 会阻塞调用线程直到所有的分区执行完成,在 web 请求线程中扇出子查询的时候,请求线程一直被占用;<br>
+ * 本类只负责分区以及提交,分区的执行,线程的数量以及生命周期都由 <code>executor</code> 决定.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>许可以及监听器:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>每个分区在执行线程中获取 {@link PartitionConcurrencyLimiter} 许可,执行完成之后释放;没有单独设置的时候使用名字是
+ * {@link PartitionConcurrencyLimiter#GLOBAL_NAME} 的全局许可(如果注册了的话),和同步的执行器共享同一份并发预算</li>
+ * <li>异步执行不会通知 {@link PartitionExecuteListener},也没有快速失败以及超时,参见 {@link PartitionFuture}</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * PartitionFuture{@code <List<Item>>} partitionFuture = ThreadUtil.executeAndGetAsync(executorService, skuCodeList, 50, null, queryPartitionResultHandler);
+ * partitionFuture.addListener(new PartitionFutureListener{@code <List<Item>>}(){
+ * 
+ *     public void onComplete(PartitionFuture{@code <List<Item>>} partitionFuture){
+ *         asyncContext.complete(...);
+ *     }
+ * });
+ * </pre>
+ * 
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PartitionFuture
+ * @since 2.1.0
+ */
+public class AsyncPartitionThreadExecutor{
+
+    /** The Constant LOGGER. */
+    private static final Logger               LOGGER                                 = LoggerFactory.getLogger(AsyncPartitionThreadExecutor.class);
+
+    /** {@link #executeAndGet(List, int, Map, PartitionResultHandler)} 线程名字中的 builder 名字,和同步的 executeAndGet 保持一致. */
+    private static final String               RESULT_PARTITION_RUNNABLE_BUILDER_NAME = PartitionResultRunnableBuilder.class.getSimpleName();
+
+    //---------------------------------------------------------------
+
+    /** 执行分区的 executor. */
+    private final Executor                    executor;
+
+    /** 每个分区执行之前获取的许可,如果是null,使用全局许可. */
+    private final PartitionConcurrencyLimiter partitionConcurrencyLimiter;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new async partition thread executor.
+     *
+     * @param executor
+     *            执行分区的 executor,不能为null
+     */
+    public AsyncPartitionThreadExecutor(Executor executor){
+        this(executor, null);
+    }
+
+    /**
+     * Instantiates a new async partition thread executor.
+     *
+     * @param executor
+     *            执行分区的 executor,不能为null
+     * @param partitionConcurrencyLimiter
+     *            每个分区执行之前获取的许可,如果是null,使用 {@link PartitionConcurrencyLimiter#getGlobal()}
+     */
+    public AsyncPartitionThreadExecutor(Executor executor, PartitionConcurrencyLimiter partitionConcurrencyLimiter){
+        super();
+        Validate.notNull(executor, "executor can't be null!");
+        this.executor = executor;
+        this.partitionConcurrencyLimiter = partitionConcurrencyLimiter;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 异步执行 <code>partitionRunnableBuilder</code> 构造的每个分区.
+     * 
+     * <p>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionRunnableBuilder
+     *            每个分区做的事情,不能为null
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture},每个分区的结果都是null;如果 <code>partitionRunnableBuilder</code> 返回null
+     *         runnable,那么跳过该分区
+     */
+    public <T> PartitionFuture<Void> execute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        validate(list, eachSize);
+        Validate.notNull(partitionRunnableBuilder, "partitionRunnableBuilder can't be null!");
+
+        //---------------------------------------------------------------
+        List<List<T>> groupList = ListUtils.partition(list, eachSize);
+
+        List<PartitionThreadEntity> partitionThreadEntityList = new ArrayList<>(groupList.size());
+        List<Callable<Void>> callableList = new ArrayList<>(groupList.size());
+
+        String partitionRunnableBuilderName = AbstractPartitionThreadExecutor.getName(partitionRunnableBuilder);
+
+        int i = 0;
+        for (List<T> perBatchList : groupList){
+            PartitionThreadEntity partitionThreadEntity = buildPartitionThreadEntity(list, eachSize, i, perBatchList, partitionRunnableBuilderName);
+
+            Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+            if (null != runnable){
+                partitionThreadEntityList.add(partitionThreadEntity);
+                callableList.add(Executors.<Void> callable(runnable, null));
+            }else{
+                LOGGER.debug("[{}] build null runnable,skip", partitionThreadEntity.getName());
+            }
+            i++;
+        }
+        return start(list, eachSize, partitionThreadEntityList, callableList);
+    }
+
+    /**
+     * 异步执行 <code>partitionResultHandler</code>,按照分区顺序收集每个分区的结果.
+     * 
+     * <p>
+     * 如果 <code>list</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 <code>list</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionResultHandler</code> 是null,抛出 {@link NullPointerException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            每个分区执行结果的类型
+     * @param list
+     *            执行解析的list,不能为null或者empty
+     * @param eachSize
+     *            每个线程执行多少个对象,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionResultHandler
+     *            每个分区做的事情并且返回结果,不能为null
+     * @return 所有分区执行完成之后完成的 {@link PartitionFuture}
+     */
+    public <T, R> PartitionFuture<R> executeAndGet(
+                    List<T> list,
+                    int eachSize,
+                    final Map<String, ?> paramsMap,
+                    final PartitionResultHandler<T, R> partitionResultHandler){
+        validate(list, eachSize);
+        Validate.notNull(partitionResultHandler, "partitionResultHandler can't be null!");
+
+        //---------------------------------------------------------------
+        List<List<T>> groupList = ListUtils.partition(list, eachSize);
+
+        List<PartitionThreadEntity> partitionThreadEntityList = new ArrayList<>(groupList.size());
+        List<Callable<R>> callableList = new ArrayList<>(groupList.size());
+
+        int i = 0;
+        for (final List<T> perBatchList : groupList){
+            final PartitionThreadEntity partitionThreadEntity = buildPartitionThreadEntity(
+                            list,
+                            eachSize,
+                            i,
+                            perBatchList,
+                            RESULT_PARTITION_RUNNABLE_BUILDER_NAME);
+
+            partitionThreadEntityList.add(partitionThreadEntity);
+            callableList.add(new Callable<R>(){
+
+                @Override
+                public R call(){
+                    return partitionResultHandler.handle(perBatchList, partitionThreadEntity, paramsMap);
+                }
+            });
+            i++;
+        }
+        return start(list, eachSize, partitionThreadEntityList, callableList);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Validate.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     */
+    private static <T> void validate(List<T> list,int eachSize){
+        Validate.notEmpty(list, "list can't be null/empty!");
+        Validate.isTrue(eachSize > 0, "eachSize must > 0");
+    }
+
+    /**
+     * Builds the partition thread entity.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param batchNumber
+     *            the batch number
+     * @param perBatchList
+     *            the per batch list
+     * @param partitionRunnableBuilderName
+     *            用来构造线程名字,参见 {@link AbstractPartitionThreadExecutor#getName(PartitionRunnableBuilder)}
+     * @return the partition thread entity
+     */
+    private static <T> PartitionThreadEntity buildPartitionThreadEntity(
+                    List<T> list,
+                    int eachSize,
+                    int batchNumber,
+                    List<T> perBatchList,
+                    String partitionRunnableBuilderName){
+        return new PartitionThreadEntity(
+                        AbstractPartitionThreadExecutor.buildThreadName(batchNumber, partitionRunnableBuilderName),
+                        list.size(),
+                        eachSize,
+                        batchNumber,
+                        perBatchList.size());
+    }
+
+    /**
+     * 提交所有的分区.
+     *
+     * @param <T>
+     *            the generic type
+     * @param <R>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param partitionThreadEntityList
+     *            the partition thread entity list
+     * @param callableList
+     *            the callable list
+     * @return the partition future
+     */
+    private <T, R> PartitionFuture<R> start(
+                    List<T> list,
+                    int eachSize,
+                    List<PartitionThreadEntity> partitionThreadEntityList,
+                    List<Callable<R>> callableList){
+        PartitionFuture<R> partitionFuture = new PartitionFuture<>(
+                        partitionThreadEntityList,
+                        callableList,
+                        null == partitionConcurrencyLimiter ? PartitionConcurrencyLimiter.getGlobal() : partitionConcurrencyLimiter);
+        partitionFuture.start(executor);
+
+        LOGGER.info("total list size:[{}],submit [{}] partitions,perSize:[{}]", list.size(), callableList.size(), eachSize);
+        return partitionFuture;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 执行分区的 executor.
+     *
+     * @return the executor
+     */
+    public Executor getExecutor(){
+        return executor;
+    }
+
+    /**
+     * 获得 每个分区执行之前获取的许可.
+     *
+     * @return the partitionConcurrencyLimiter,如果是null,执行的时候使用全局许可
+     */
+    public PartitionConcurrencyLimiter getPartitionConcurrencyLimiter(){
+        return partitionConcurrencyLimiter;
+    }
+}
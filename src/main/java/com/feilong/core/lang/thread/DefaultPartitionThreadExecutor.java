@@ -17,6 +17,7 @@ package com.feilong.core.lang.thread;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.Validate;
@@ -45,6 +46,28 @@ public class DefaultPartitionThreadExecutor extends AbstractPartitionThreadExecu
 
     //---------------------------------------------------------------
 
+    /**
+     * 使用默认配置 {@link PartitionExecuteConfig#INSTANCE} 构造.
+     * 
+     * @since 2.1.0
+     */
+    public DefaultPartitionThreadExecutor(){
+        super();
+    }
+
+    /**
+     * 使用指定的分区执行的配置构造.
+     *
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public DefaultPartitionThreadExecutor(PartitionExecuteConfig partitionExecuteConfig){
+        super(partitionExecuteConfig);
+    }
+
+    //---------------------------------------------------------------
+
     /**
      * Actual execute.
      *
@@ -65,11 +88,108 @@ public class DefaultPartitionThreadExecutor extends AbstractPartitionThreadExecu
                     int eachSize,
                     Map<String, ?> paramsMap,
                     PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //分区异常只记录日志,不抛出
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext();
+        actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+    }
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
         //1. 自动构造需要启动的线程数组
-        Thread[] threads = buildThreadArray(list, eachSize, paramsMap, partitionRunnableBuilder);
+        Runnable[] runnables = new Runnable[getPartitionCount(list.size(), eachSize)];
+        Thread[] threads = buildThreadArray(list, eachSize, paramsMap, partitionRunnableBuilder, runnables);
 
         //2. start 并且 join
-        ThreadUtil.startAndJoin(threads);
+        startAndJoin(threads, runnables, partitionExecuteContext);
+    }
+
+    /**
+     * start 所有的线程,并且在 <code>partitionExecuteContext</code> 的截止时间之前 join.
+     * 
+     * <p>
+     * 如果没有设置超时,那么和 {@link ThreadUtil#startAndJoin(Thread[])} 一样一直等待;<br>
+     * 如果到了截止时间还有线程没有结束,调用 {@link PartitionExecuteContext#timeout()} 中断这些线程,然后返回;<br>
+     * 如果当前线程被中断,调用 {@link PartitionExecuteContext#cancel()}.
+     * </p>
+     * 
+     * <p>
+     * 如果设置了 {@link PartitionConcurrencyLimiter},每个线程 start 之前先在当前线程获取许可,所以同时存在的分区线程数量不会超过许可数量.
+     * </p>
+     *
+     * @param threads
+     *            the threads
+     * @param runnables
+     *            和 <code>threads</code> 一一对应的 runnable
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    private static void startAndJoin(Thread[] threads,Runnable[] runnables,PartitionExecuteContext partitionExecuteContext){
+        for (int i = 0; i < threads.length; ++i){
+            partitionExecuteContext.acquirePermit(runnables[i]);
+
+            Thread thread = threads[i];
+            thread.start();
+            LOGGER.debug("thread [{}] start", thread.getName());
+        }
+
+        //---------------------------------------------------------------
+        join(threads, partitionExecuteContext);
+    }
+
+    /**
+     * 在 <code>partitionExecuteContext</code> 的截止时间之前 join 所有的线程.
+     *
+     * @param threads
+     *            已经 start 的线程
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @see #startAndJoin(Thread[], Runnable[], PartitionExecuteContext)
+     * @since 2.1.0
+     */
+    static void join(Thread[] threads,PartitionExecuteContext partitionExecuteContext){
+        try{
+            for (Thread thread : threads){
+                if (!partitionExecuteContext.hasDeadline()){
+                    thread.join();
+                    continue;
+                }
+
+                //join(0) 表示一直等待,所以至少等待1毫秒
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(partitionExecuteContext.getRemainingNanos())));
+                if (thread.isAlive()){
+                    partitionExecuteContext.timeout();
+                    return;
+                }
+            }
+        }catch (InterruptedException e){
+            LOGGER.error("", e);
+            partitionExecuteContext.cancel();
+            // clean up state...
+            Thread.currentThread().interrupt();
+        }
     }
 
     //---------------------------------------------------------------
@@ -96,13 +216,16 @@ public class DefaultPartitionThreadExecutor extends AbstractPartitionThreadExecu
      *            the params map
      * @param partitionRunnableBuilder
      *            the group runnable builder
+     * @param runnables
+     *            用来保存构造出来的 runnable,和返回的线程一一对应
      * @return the thread[]
      */
     private static <T> Thread[] buildThreadArray(
                     List<T> list,
                     int eachSize,
                     Map<String, ?> paramsMap,
-                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    Runnable[] runnables){
 
         //使用group进行管理  
         ThreadGroup threadGroup = new ThreadGroup(buildThreadGroupName(list, partitionRunnableBuilder));
@@ -124,6 +247,7 @@ public class DefaultPartitionThreadExecutor extends AbstractPartitionThreadExecu
                             perBatchList.size());
 
             Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+            runnables[i] = runnable;
             threads[i] = new Thread(threadGroup, runnable, threadName);
             i++;
         }
@@ -158,72 +282,4 @@ public class DefaultPartitionThreadExecutor extends AbstractPartitionThreadExecu
         return Slf4jUtil.format("ThreadGroup-{}-{}", getName(partitionRunnableBuilder), list.size());
     }
 
-    /**
-     * 构建线程名称.
-     * 
-     * <h3>格式:</h3>
-     * 
-     * <blockquote>
-     * "Thread-partitionRunnableBuilder 实现类名称-{@link com.feilong.core.lang.PartitionThreadEntity#getBatchNumber() batchNumber}"
-     * </blockquote>
-     * 
-     * <h3>作用:</h3>
-     * 
-     * <blockquote>
-     * 
-     * <ul>
-     * <li>一来便于管理, 可以使用相关代码来获得线程;</li>
-     * <li>二来常用于日志显示, 比如, 如果是 log4j 的配置文件,如果 ConversionPattern
-     * 
-     * <pre>
-     * {@code 
-     * <param name="ConversionPattern" value="%d}{HH:mm:ss} {@code %t %-5p (%F:%L) %m%n" />
-     * }
-     * </pre>
-     * 
-     * 其中 %t 表示 线程名称
-     * 
-     * 正常情况的日志,会显示(示例)
-     * 
-     * <pre>
-     * 13:54:43 <span style=
-     * "color:red">Thread-NovelpartitionRunnableBuilder-13</span> INFO (NovelpartitionRunnableBuilder.java:91) 第914章 好手段 3406 [6/20] 14 30%
-     * 13:54:43 <span style=
-     * "color:red">Thread-NovelpartitionRunnableBuilder-5</span> INFO (NovelpartitionRunnableBuilder.java:91) 第761章 不得其时 3573 [7/20] 6 35%
-     * 13:54:43 <span style=
-     * "color:red">Thread-NovelpartitionRunnableBuilder-3</span> INFO (NovelpartitionRunnableBuilder.java:91) 第718章 各打各的算盘 3411 [4/20] 4 20%
-     * </pre>
-     * 
-     * 如果代码有异常, 会显示
-     * 
-     * <pre>
-     * 13:54:52 <span style="color:red">Thread-NovelpartitionRunnableBuilder-16</span> ERROR (DefaultChapterBuilder.java:83) Exception:
-     * com.feilong.tools.jsoup.JsoupUtilException: urlString:[http://www.37zw.com/0/181/1662249.html],userAgent:[Mozilla/5.0 (X11; Linux
-     * x86_64) AppleWebKit/535.21 (KHTML, like Gecko) Chrome/19.0.1042.0 Safari/535.21]
-     * at com.feilong.tools.jsoup.JsoupUtil.getDocument(JsoupUtil.java:87)
-     * at com.feilong.tools.jsoup.JsoupUtil.getDocument(JsoupUtil.java:65)
-     * at com.feilong.project.novel.build.DefaultChapterBuilder.getContentElement(DefaultChapterBuilder.java:124)
-     * at com.feilong.project.novel.build.DefaultChapterBuilder.build(DefaultChapterBuilder.java:68)
-     * at com.feilong.project.novel.build.NovelpartitionRunnableBuilder$1.run(NovelpartitionRunnableBuilder.java:86)
-     * at java.lang.Thread.run(Thread.java:745)
-     * </pre>
-     * 
-     * </li>
-     * </ul>
-     * 
-     * </blockquote>
-     *
-     * @param <T>
-     *            the generic type
-     * @param batchNumber
-     *            the batch number
-     * @param partitionRunnableBuilder
-     *            the group runnable builder
-     * @return 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
-     */
-    private static <T> String buildThreadName(int batchNumber,PartitionRunnableBuilder<T> partitionRunnableBuilder){
-        Validate.notNull(partitionRunnableBuilder, "partitionRunnableBuilder can't be null!");
-        return Slf4jUtil.format("Thread-{}-{}", getName(partitionRunnableBuilder), batchNumber);
-    }
-
 }
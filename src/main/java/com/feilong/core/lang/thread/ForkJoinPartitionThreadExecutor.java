@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基于 {@link ForkJoinPool} 工作窃取(work-stealing)的执行实现.
+ *
+ * <h3>和 {@link DefaultPartitionThreadExecutor} 的区别:</h3>
+ *
+ * <blockquote>
+ * <p>
+ * {@link DefaultPartitionThreadExecutor} 预先把 list 按照 eachSize 切成固定的 N 份,每份一个线程;<br>
+ * 如果每个元素的处理耗时差异很大(比如大部分订单只有 2 个订单行,少数订单有 500 个订单行),那么最慢的那个线程决定了总耗时,其他线程早早结束闲置.
+ * </p>
+ *
+ * <p>
+ * 本实现把分区区间递归二分成 {@link RecursiveAction},由固定数量(默认 cpu 核数)的 worker 线程执行,空闲的 worker 会从繁忙 worker 的队列中窃取还没有执行的分区;<br>
+ * 由于分区数量不再对应线程数量,你可以把 eachSize 设置得比较小,让负载更均衡,而不用担心创建过多线程.
+ * </p>
+ * </blockquote>
+ *
+ * <h3>说明:</h3>
+ *
+ * <blockquote>
+ * <ol>
+ * <li>叶子分区和 {@link org.apache.commons.collections4.ListUtils#partition(List, int)} 的切分结果一致,每个分区仍然会收到自己的
+ * {@link PartitionThreadEntity},{@link PartitionThreadEntity#getBatchNumber()} 从0开始连续</li>
+ * <li>由于 worker 线程数量有限,适合 cpu 密集型的分区处理;如果分区处理大部分时间阻塞在 I/O 上,请使用 {@link PooledPartitionThreadExecutor} 或者
+ * {@link VirtualThreadPartitionThreadExecutor}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ForkJoinPartitionThreadExecutor extends AbstractPartitionThreadExecutor{
+
+    /** The Constant LOGGER. */
+    private static final Logger                         LOGGER   = LoggerFactory.getLogger(ForkJoinPartitionThreadExecutor.class);
+
+    //---------------------------------------------------------------
+
+    /** Static instance,并行度是 cpu 核数. */
+    public static final ForkJoinPartitionThreadExecutor INSTANCE = new ForkJoinPartitionThreadExecutor();
+
+    //---------------------------------------------------------------
+
+    /** The fork join pool. */
+    private final ForkJoinPool                          forkJoinPool;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用并行度是 cpu 核数的 {@link ForkJoinPool} 构造.
+     */
+    public ForkJoinPartitionThreadExecutor(){
+        this(new ForkJoinPool());
+    }
+
+    /**
+     * 使用指定并行度的 {@link ForkJoinPool} 构造.
+     *
+     * @param parallelism
+     *            并行度,也就是 worker 线程数量,必须 {@code >0}
+     */
+    public ForkJoinPartitionThreadExecutor(int parallelism){
+        this(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * 使用外部的 {@link ForkJoinPool} 构造.
+     *
+     * @param forkJoinPool
+     *            the fork join pool,不能为null
+     */
+    public ForkJoinPartitionThreadExecutor(ForkJoinPool forkJoinPool){
+        this(forkJoinPool, PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * 使用外部的 {@link ForkJoinPool} 以及分区执行的配置构造.
+     *
+     * @param forkJoinPool
+     *            the fork join pool,不能为null
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public ForkJoinPartitionThreadExecutor(ForkJoinPool forkJoinPool, PartitionExecuteConfig partitionExecuteConfig){
+        super(partitionExecuteConfig);
+        Validate.notNull(forkJoinPool, "forkJoinPool can't be null!");
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //分区异常只记录日志,不抛出
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext();
+        actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+    }
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        int partitionCount = getPartitionCount(list.size(), eachSize);
+
+        LOGGER.info(
+                        "total list size:[{}],[{}] partitions,perSize:[{}],parallelism:[{}]",
+                        list.size(),
+                        partitionCount,
+                        eachSize,
+                        forkJoinPool.getParallelism());
+
+        PartitionRecursiveAction<T> partitionRecursiveAction = new PartitionRecursiveAction<>(
+                        list,
+                        eachSize,
+                        paramsMap,
+                        partitionRunnableBuilder,
+                        0,
+                        partitionCount);
+        if (!partitionExecuteContext.hasDeadline()){
+            forkJoinPool.invoke(partitionRecursiveAction);
+            return;
+        }
+
+        //---------------------------------------------------------------
+        ForkJoinTask<Void> forkJoinTask = forkJoinPool.submit(partitionRecursiveAction);
+        try{
+            forkJoinTask.get(partitionExecuteContext.getRemainingNanos(), TimeUnit.NANOSECONDS);
+        }catch (ExecutionException e){
+            LOGGER.error("", e.getCause());
+        }catch (TimeoutException e){
+            partitionExecuteContext.timeout();
+            forkJoinTask.cancel(true);
+        }catch (InterruptedException e){
+            LOGGER.error("", e);
+            partitionExecuteContext.cancel();
+            forkJoinTask.cancel(true);
+            // clean up state...
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 fork join pool.
+     *
+     * @return the forkJoinPool
+     */
+    public ForkJoinPool getForkJoinPool(){
+        return forkJoinPool;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 处理 [fromBatchNumber,toBatchNumber) 区间的分区,如果区间中不止一个分区,那么二分之后 fork.
+     *
+     * @param <T>
+     *            the generic type
+     */
+    private static final class PartitionRecursiveAction<T> extends RecursiveAction{
+
+        /** The Constant serialVersionUID. */
+        private static final long                 serialVersionUID = 1L;
+
+        /** The list. */
+        private final List<T>                     list;
+
+        /** The each size. */
+        private final int                         eachSize;
+
+        /** The params map. */
+        private final Map<String, ?>              paramsMap;
+
+        /** The partition runnable builder. */
+        private final PartitionRunnableBuilder<T> partitionRunnableBuilder;
+
+        /** 开始的分区序号,包含. */
+        private final int                         fromBatchNumber;
+
+        /** 结束的分区序号,不包含. */
+        private final int                         toBatchNumber;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new partition recursive action.
+         *
+         * @param list
+         *            the list
+         * @param eachSize
+         *            the each size
+         * @param paramsMap
+         *            the params map
+         * @param partitionRunnableBuilder
+         *            the partition runnable builder
+         * @param fromBatchNumber
+         *            开始的分区序号,包含
+         * @param toBatchNumber
+         *            结束的分区序号,不包含
+         */
+        private PartitionRecursiveAction(List<T> list, int eachSize, Map<String, ?> paramsMap,
+                        PartitionRunnableBuilder<T> partitionRunnableBuilder, int fromBatchNumber, int toBatchNumber){
+            this.list = list;
+            this.eachSize = eachSize;
+            this.paramsMap = paramsMap;
+            this.partitionRunnableBuilder = partitionRunnableBuilder;
+            this.fromBatchNumber = fromBatchNumber;
+            this.toBatchNumber = toBatchNumber;
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute(){
+            if (toBatchNumber - fromBatchNumber == 1){
+                executePartition(fromBatchNumber);
+                return;
+            }
+
+            //---------------------------------------------------------------
+            int middleBatchNumber = (fromBatchNumber + toBatchNumber) >>> 1;
+            invokeAll(
+                            new PartitionRecursiveAction<>(list, eachSize, paramsMap, partitionRunnableBuilder, fromBatchNumber, middleBatchNumber),
+                            new PartitionRecursiveAction<>(list, eachSize, paramsMap, partitionRunnableBuilder, middleBatchNumber, toBatchNumber));
+        }
+
+        /**
+         * 执行单个分区.
+         *
+         * <p>
+         * 单个分区的异常由 {@link PartitionExecuteContext} 包装的 runnable 收集,不影响其他分区.
+         * </p>
+         *
+         * @param batchNumber
+         *            the batch number
+         */
+        private void executePartition(int batchNumber){
+            int fromIndex = batchNumber * eachSize;
+            List<T> perBatchList = list.subList(fromIndex, Math.min(fromIndex + eachSize, list.size()));
+
+            String threadName = buildThreadName(batchNumber, partitionRunnableBuilder);
+            PartitionThreadEntity partitionThreadEntity = new PartitionThreadEntity(
+                            threadName,
+                            list.size(),
+                            eachSize,
+                            batchNumber,
+                            perBatchList.size());
+
+            Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+            if (null == runnable){
+                LOGGER.debug("[{}] build null runnable,skip", threadName);
+                return;
+            }
+
+            //---------------------------------------------------------------
+            new PartitionNamedRunnable(threadName, runnable).run();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * {@link PartitionConcurrencyLimiter} 没有可用许可时候的处理策略.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public enum PartitionConcurrencyLimitPolicy{
+
+    /**
+     * 排队等待许可(公平,先到先得),最多等待到本次执行的超时时间,超时之后按照超时处理.
+     */
+    WAIT,
+
+    /**
+     * 直接拒绝,该分区以 {@link java.util.concurrent.RejectedExecutionException} 失败.
+     */
+    REJECT
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 分区执行的并发许可,多个调用(多个线程同时调用 {@link com.feilong.core.lang.ThreadUtil#execute(java.util.List, int, PartitionRunnableBuilder)
+ * ThreadUtil.execute})共享同一份并发预算.
+ * 
+ * <h3>背景:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * {@link PartitionThreadConfig#getMaxThreadCount()} 只限制单次调用,如果 40 个请求线程同时各自调用一次,每次 100 个分区,那么瞬间会有 4000 个分区线程.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>每个分区执行之前获取一个许可,执行完成(成功或者失败)之后释放,基于公平的 {@link Semaphore},先到先得</li>
+ * <li>没有可用许可的时候,按照 {@link PartitionConcurrencyLimitPolicy} 等待或者拒绝</li>
+ * <li>{@link DefaultPartitionThreadExecutor} 在启动线程之前(调用线程中)获取许可,所以同时存在的分区线程数量也不会超过许可数量</li>
+ * <li>{@link AsyncPartitionThreadExecutor} 在执行分区的线程中获取许可,被拒绝的分区以 {@link RejectedExecutionException} 失败</li>
+ * <li>可以通过 {@link PartitionExecuteConfig#getPartitionConcurrencyLimiter() PartitionExecuteConfig} 在构造执行器的时候单独设置;
+ * 没有单独设置的执行器使用名字是 {@link #GLOBAL_NAME} 的全局许可(如果注册了的话)</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * //应用启动的时候,所有的分区执行共享 200 个并发
+ * PartitionConcurrencyLimiter.register(PartitionConcurrencyLimiter.GLOBAL_NAME, 200, PartitionConcurrencyLimitPolicy.WAIT);
+ * 
+ * //调用远程服务的执行器,单独使用 20 个并发,满了直接拒绝
+ * PartitionConcurrencyLimiter remoteLimiter = PartitionConcurrencyLimiter.register("remote", 20, PartitionConcurrencyLimitPolicy.REJECT);
+ * PooledPartitionThreadExecutor executor = new PooledPartitionThreadExecutor(50, 500, new PartitionExecuteConfig(false, 0, remoteLimiter));
+ * </pre>
+ * 
+ * </blockquote>
+ * 
+ * <p>
+ * 注意:如果分区中又嵌套调用了使用同一个许可的分区执行,并且策略是 {@link PartitionConcurrencyLimitPolicy#WAIT},许可耗尽的时候会互相等待,请设置超时时间或者使用不同的许可.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PartitionConcurrencyLimiter{
+
+    /** 全局许可的名字 <code>{@value}</code>. */
+    public static final String                                              GLOBAL_NAME                      = "global";
+
+    /** 注册的许可,key 是名字. */
+    private static final ConcurrentMap<String, PartitionConcurrencyLimiter> NAME_AND_CONCURRENCY_LIMITER_MAP = new ConcurrentHashMap<>();
+
+    //---------------------------------------------------------------
+
+    /** 名字. */
+    private final String                                                    name;
+
+    /** 最大许可数量. */
+    private final int                                                       maxPermits;
+
+    /** 没有可用许可时候的处理策略. */
+    private final PartitionConcurrencyLimitPolicy                           partitionConcurrencyLimitPolicy;
+
+    /** The semaphore. */
+    private final Semaphore                                                 semaphore;
+
+    /** 被拒绝的次数. */
+    private final AtomicLong                                                rejectedCount                    = new AtomicLong();
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition concurrency limiter.
+     *
+     * @param name
+     *            名字,不能为blank
+     * @param maxPermits
+     *            最大许可数量,必须 {@code >0}
+     * @param partitionConcurrencyLimitPolicy
+     *            没有可用许可时候的处理策略,不能为null
+     */
+    public PartitionConcurrencyLimiter(String name, int maxPermits, PartitionConcurrencyLimitPolicy partitionConcurrencyLimitPolicy){
+        super();
+        Validate.notBlank(name, "name can't be blank!");
+        Validate.isTrue(maxPermits > 0, "maxPermits must > 0");
+        Validate.notNull(partitionConcurrencyLimitPolicy, "partitionConcurrencyLimitPolicy can't be null!");
+
+        this.name = name;
+        this.maxPermits = maxPermits;
+        this.partitionConcurrencyLimitPolicy = partitionConcurrencyLimitPolicy;
+        this.semaphore = new Semaphore(maxPermits, true);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 注册指定名字的许可.
+     * 
+     * <p>
+     * 如果该名字已经注册过,直接返回已经注册的许可(不会修改它的许可数量以及策略).
+     * </p>
+     *
+     * @param name
+     *            名字,不能为blank
+     * @param maxPermits
+     *            最大许可数量,必须 {@code >0}
+     * @param partitionConcurrencyLimitPolicy
+     *            没有可用许可时候的处理策略,不能为null
+     * @return 该名字对应的许可
+     */
+    public static PartitionConcurrencyLimiter register(String name,int maxPermits,PartitionConcurrencyLimitPolicy partitionConcurrencyLimitPolicy){
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter(name, maxPermits, partitionConcurrencyLimitPolicy);
+        PartitionConcurrencyLimiter existed = NAME_AND_CONCURRENCY_LIMITER_MAP.putIfAbsent(name, partitionConcurrencyLimiter);
+        return null == existed ? partitionConcurrencyLimiter : existed;
+    }
+
+    /**
+     * 获得指定名字的许可.
+     *
+     * @param name
+     *            名字
+     * @return 如果没有注册,返回null
+     */
+    public static PartitionConcurrencyLimiter get(String name){
+        return null == name ? null : NAME_AND_CONCURRENCY_LIMITER_MAP.get(name);
+    }
+
+    /**
+     * 移除指定名字的许可,已经在使用该许可的执行不受影响.
+     *
+     * @param name
+     *            名字
+     * @return 如果没有注册,返回null
+     */
+    public static PartitionConcurrencyLimiter remove(String name){
+        return null == name ? null : NAME_AND_CONCURRENCY_LIMITER_MAP.remove(name);
+    }
+
+    /**
+     * 获得全局许可.
+     *
+     * @return 如果没有注册 {@link #GLOBAL_NAME},返回null
+     */
+    public static PartitionConcurrencyLimiter getGlobal(){
+        return get(GLOBAL_NAME);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获取一个许可.
+     * 
+     * <p>
+     * 如果是 {@link PartitionConcurrencyLimitPolicy#WAIT},最多等待 <code>timeoutNanos</code>;<br>
+     * 如果是 {@link PartitionConcurrencyLimitPolicy#REJECT},没有可用许可的时候抛出 {@link RejectedExecutionException}.
+     * </p>
+     *
+     * @param timeoutNanos
+     *            最长等待时间,单位纳秒,{@link Long#MAX_VALUE} 表示一直等待
+     * @return 如果获取到许可,返回true;如果等待超时,返回false
+     * @throws InterruptedException
+     *             等待的时候线程被中断
+     */
+    public boolean acquire(long timeoutNanos) throws InterruptedException{
+        if (partitionConcurrencyLimitPolicy == PartitionConcurrencyLimitPolicy.WAIT){
+            return semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        //---------------------------------------------------------------
+        //tryAcquire() 会插队,tryAcquire(0) 才遵守公平
+        if (semaphore.tryAcquire(0, TimeUnit.NANOSECONDS)){
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        throw new RejectedExecutionException(
+                        Slf4jUtil.format("partitionConcurrencyLimiter:[{}] has no available permit,maxPermits:[{}]", name, maxPermits));
+    }
+
+    /**
+     * 释放一个许可.
+     */
+    public void release(){
+        semaphore.release();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得当前正在使用的许可数量.
+     *
+     * @return the active permits
+     */
+    public int getActivePermits(){
+        return maxPermits - semaphore.availablePermits();
+    }
+
+    /**
+     * 获得当前可用的许可数量.
+     *
+     * @return the available permits
+     */
+    public int getAvailablePermits(){
+        return semaphore.availablePermits();
+    }
+
+    /**
+     * 获得正在排队等待许可的线程数量(估计值).
+     *
+     * @return the queue length
+     */
+    public int getQueueLength(){
+        return semaphore.getQueueLength();
+    }
+
+    /**
+     * 获得 被拒绝的次数.
+     *
+     * @return the rejectedCount
+     */
+    public long getRejectedCount(){
+        return rejectedCount.get();
+    }
+
+    /**
+     * 获得 名字.
+     *
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * 获得 最大许可数量.
+     *
+     * @return the maxPermits
+     */
+    public int getMaxPermits(){
+        return maxPermits;
+    }
+
+    /**
+     * 获得 没有可用许可时候的处理策略.
+     *
+     * @return the partitionConcurrencyLimitPolicy
+     */
+    public PartitionConcurrencyLimitPolicy getPartitionConcurrencyLimitPolicy(){
+        return partitionConcurrencyLimitPolicy;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString(){
+        return Slf4jUtil.format(
+                        "{}[name={},maxPermits={},activePermits={},policy={}]",
+                        getClass().getSimpleName(),
+                        name,
+                        maxPermits,
+                        getActivePermits(),
+                        partitionConcurrencyLimitPolicy);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * 分区执行的配置(快速失败,超时,并发许可),不可变.
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>通过执行器的构造函数传入,执行器创建之后不能修改;各个执行器的 <code>INSTANCE</code> 被所有调用共享,使用的都是 {@link #INSTANCE}</li>
+ * <li>需要快速失败,超时或者单独的并发许可的调用方,请使用自己的配置 new 一个执行器</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * PartitionExecuteConfig partitionExecuteConfig = new PartitionExecuteConfig(true, 5000);
+ * PooledPartitionThreadExecutor executor = new PooledPartitionThreadExecutor(50, 500, partitionExecuteConfig);
+ * </pre>
+ * 
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public final class PartitionExecuteConfig{
+
+    /** 默认配置,不快速失败,不超时,使用 {@link PartitionConcurrencyLimiter#getGlobal()}. */
+    public static final PartitionExecuteConfig INSTANCE = new PartitionExecuteConfig();
+
+    //---------------------------------------------------------------
+
+    /**
+     * 是否快速失败.
+     * 
+     * <p>
+     * 如果是true,第一个分区执行失败之后,还没有开始的分区直接跳过,正在执行的分区所在线程会被中断;默认false,所有分区都会执行完.
+     * </p>
+     */
+    private final boolean                      failFast;
+
+    /**
+     * 整体执行的超时时间,单位毫秒.
+     * 
+     * <p>
+     * {@code <=0} 表示不超时(默认);超时之后取消剩余的分区,并且抛出 {@link PartitionExecuteException}.<br>
+     * 注意:如果分区中的代码不响应线程中断,那么超时之后调用线程会返回,但是该分区会在后台继续执行完.
+     * </p>
+     */
+    private final long                         timeoutMillis;
+
+    /**
+     * 并发许可.
+     * 
+     * <p>
+     * 如果是null(默认),使用 {@link PartitionConcurrencyLimiter#getGlobal()};如果全局许可也没有注册,不限制.<br>
+     * 同一个许可可以设置给多个执行器,共享同一份并发预算.
+     * </p>
+     */
+    private final PartitionConcurrencyLimiter  partitionConcurrencyLimiter;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 默认配置,不快速失败,不超时,使用 {@link PartitionConcurrencyLimiter#getGlobal()}.
+     */
+    public PartitionExecuteConfig(){
+        this(false, 0, null);
+    }
+
+    /**
+     * Instantiates a new partition execute config.
+     *
+     * @param failFast
+     *            是否快速失败
+     * @param timeoutMillis
+     *            整体执行的超时时间,单位毫秒,{@code <=0} 表示不超时
+     */
+    public PartitionExecuteConfig(boolean failFast, long timeoutMillis){
+        this(failFast, timeoutMillis, null);
+    }
+
+    /**
+     * Instantiates a new partition execute config.
+     *
+     * @param failFast
+     *            是否快速失败
+     * @param timeoutMillis
+     *            整体执行的超时时间,单位毫秒,{@code <=0} 表示不超时
+     * @param partitionConcurrencyLimiter
+     *            并发许可,如果是null,使用 {@link PartitionConcurrencyLimiter#getGlobal()}
+     */
+    public PartitionExecuteConfig(boolean failFast, long timeoutMillis, PartitionConcurrencyLimiter partitionConcurrencyLimiter){
+        super();
+        this.failFast = failFast;
+        this.timeoutMillis = timeoutMillis;
+        this.partitionConcurrencyLimiter = partitionConcurrencyLimiter;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 是否快速失败.
+     *
+     * @return the failFast
+     */
+    public boolean isFailFast(){
+        return failFast;
+    }
+
+    /**
+     * 获得 整体执行的超时时间,单位毫秒.
+     *
+     * @return the timeoutMillis
+     */
+    public long getTimeoutMillis(){
+        return timeoutMillis;
+    }
+
+    /**
+     * 获得 并发许可.
+     *
+     * @return the partitionConcurrencyLimiter,可能是null
+     */
+    public PartitionConcurrencyLimiter getPartitionConcurrencyLimiter(){
+        return partitionConcurrencyLimiter;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString(){
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 一次分区执行的上下文,负责收集分区异常,快速失败(fail-fast)取消以及超时控制.
+ * 
+ * <h3>原理:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>{@link AbstractPartitionThreadExecutor} 每次执行都会新建一个上下文,并且使用 {@link #wrap(PartitionRunnableBuilder)} 包装
+ * {@link PartitionRunnableBuilder},所以不管使用哪种 {@link PartitionThreadExecutor} 实现,分区中抛出的异常都会被捕获记录,不会随着线程一起消失</li>
+ * <li>调用 {@link #cancel()} 之后(开启 fail-fast 时第一个分区失败,超时,或者调用线程被中断),还没有开始的分区直接跳过,正在执行的分区所在线程会被
+ * {@link Thread#interrupt()}</li>
+ * <li>所有分区结束(或者超时)之后,{@link #check()} 如果发现有失败/没有执行完成的分区,抛出汇总的 {@link PartitionExecuteException}</li>
+ * <li>分区开始,成功,失败的时候通知 {@link PartitionExecuteListener},排队等待时间从分区 {@link Runnable} 构造完成开始计算</li>
+ * <li>如果设置了 {@link PartitionConcurrencyLimiter},分区执行之前获取许可,执行结束之后释放;等待许可超时按照超时处理,被拒绝按照分区失败处理</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <p>
+ * 超时需要具体的执行器配合,在等待分区执行完成的时候使用 {@link #getRemainingNanos()} 作为最长等待时间,超时之后调用 {@link #timeout()}.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PartitionExecuteContext{
+
+    /** The Constant LOGGER. */
+    private static final Logger                                         LOGGER                                 = LoggerFactory.getLogger(PartitionExecuteContext.class);
+
+    //---------------------------------------------------------------
+
+    /** 是否快速失败,第一个分区失败之后取消剩余的分区. */
+    private final boolean                                               failFast;
+
+    /** 整体执行的超时时间,单位毫秒,{@code <=0} 表示不超时. */
+    private final long                                                  timeoutMillis;
+
+    /** 超时的时间点,基于 {@link System#nanoTime()}. */
+    private final long                                                  deadlineNanos;
+
+    /** 开始的时间点,基于 {@link System#nanoTime()}. */
+    private final long                                                  beginNanos;
+
+    /** 分区执行的监听器. */
+    private final List<PartitionExecuteListener>                        partitionExecuteListenerList;
+
+    /** 并发许可,可能为null. */
+    private final PartitionConcurrencyLimiter                           partitionConcurrencyLimiter;
+
+    //---------------------------------------------------------------
+
+    /** 是否已经取消. */
+    private volatile boolean                                            cancelled;
+
+    /** 是否已经超时. */
+    private volatile boolean                                            timeout;
+
+    /** 所有构造出来的分区,key 是 batchNumber. */
+    private final ConcurrentSkipListMap<Integer, PartitionThreadEntity> batchNumberAndPartitionThreadEntityMap = new ConcurrentSkipListMap<>();
+
+    /** 执行结束(成功或者失败)的分区,key 是 batchNumber. */
+    private final ConcurrentMap<Integer, Boolean>                       finishedBatchNumberMap                 = new ConcurrentHashMap<>();
+
+    /** 执行失败的分区的异常,key 是 batchNumber. */
+    private final ConcurrentSkipListMap<Integer, Throwable>             batchNumberAndExceptionMap             = new ConcurrentSkipListMap<>();
+
+    /** 正在执行的分区. */
+    private final ConcurrentMap<PartitionExecuteRunnable, Boolean>      runningMap                             = new ConcurrentHashMap<>();
+
+    //---------------------------------------------------------------
+
+    /**
+     * 不快速失败,不超时.
+     */
+    public PartitionExecuteContext(){
+        this(false, 0);
+    }
+
+    /**
+     * Instantiates a new partition execute context.
+     *
+     * @param failFast
+     *            是否快速失败,第一个分区失败之后取消剩余的分区
+     * @param timeoutMillis
+     *            整体执行的超时时间,单位毫秒,{@code <=0} 表示不超时
+     */
+    public PartitionExecuteContext(boolean failFast, long timeoutMillis){
+        this(failFast, timeoutMillis, Collections.<PartitionExecuteListener> emptyList(), null);
+    }
+
+    /**
+     * Instantiates a new partition execute context.
+     *
+     * @param failFast
+     *            是否快速失败,第一个分区失败之后取消剩余的分区
+     * @param timeoutMillis
+     *            整体执行的超时时间,单位毫秒,{@code <=0} 表示不超时
+     * @param partitionExecuteListenerList
+     *            分区执行的监听器,可以为null或者empty
+     * @param partitionConcurrencyLimiter
+     *            并发许可,如果是null,不限制
+     * @since 2.1.0
+     */
+    public PartitionExecuteContext(boolean failFast, long timeoutMillis, List<PartitionExecuteListener> partitionExecuteListenerList,
+                    PartitionConcurrencyLimiter partitionConcurrencyLimiter){
+        super();
+        this.failFast = failFast;
+        this.timeoutMillis = timeoutMillis;
+        this.beginNanos = System.nanoTime();
+        this.deadlineNanos = timeoutMillis > 0 ? beginNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+        this.partitionExecuteListenerList = null == partitionExecuteListenerList ? Collections.<PartitionExecuteListener> emptyList()
+                        : new ArrayList<>(partitionExecuteListenerList);
+        this.partitionConcurrencyLimiter = partitionConcurrencyLimiter;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 包装 <code>partitionRunnableBuilder</code>,使得构造出来的 {@link Runnable} 受该上下文管理.
+     *
+     * @param <T>
+     *            the generic type
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @return the partition runnable builder
+     */
+    public <T> PartitionRunnableBuilder<T> wrap(PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        return new PartitionExecuteRunnableBuilder<>(partitionRunnableBuilder);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 取消执行,还没有开始的分区直接跳过,正在执行的分区所在线程会被中断.
+     */
+    public void cancel(){
+        cancelled = true;
+        for (PartitionExecuteRunnable partitionExecuteRunnable : runningMap.keySet()){
+            partitionExecuteRunnable.interrupt();
+        }
+    }
+
+    /**
+     * 标记超时,并且 {@link #cancel()}.
+     */
+    public void timeout(){
+        LOGGER.warn("partition execute timeout,timeoutMillis:[{}],cancel remaining partitions", timeoutMillis);
+        timeout = true;
+        cancel();
+    }
+
+    /**
+     * 检查执行结果.
+     * 
+     * <p>
+     * 如果有执行失败的分区,或者已经超时,或者已经取消并且有没有执行完成的分区,抛出 {@link PartitionExecuteException}
+     * </p>
+     */
+    public void check(){
+        if (batchNumberAndExceptionMap.isEmpty() && !timeout && !cancelled){
+            return;
+        }
+
+        //---------------------------------------------------------------
+        Map<PartitionThreadEntity, Throwable> partitionThreadEntityAndExceptionMap = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Throwable> entry : batchNumberAndExceptionMap.entrySet()){
+            partitionThreadEntityAndExceptionMap.put(batchNumberAndPartitionThreadEntityMap.get(entry.getKey()), entry.getValue());
+        }
+
+        List<PartitionThreadEntity> unfinishedPartitionThreadEntityList = new ArrayList<>();
+        for (Map.Entry<Integer, PartitionThreadEntity> entry : batchNumberAndPartitionThreadEntityMap.entrySet()){
+            if (!finishedBatchNumberMap.containsKey(entry.getKey())){
+                unfinishedPartitionThreadEntityList.add(entry.getValue());
+            }
+        }
+
+        //超时的时候可能还没有分区开始执行(比如线程池繁忙),此时也要抛出异常
+        if (partitionThreadEntityAndExceptionMap.isEmpty() && unfinishedPartitionThreadEntityList.isEmpty() && !timeout){
+            return;
+        }
+
+        //---------------------------------------------------------------
+        String message = Slf4jUtil.format(
+                        "partition execute fail,failed partitions:{},unfinished partitions:{},timeout:[{}],timeoutMillis:[{}]",
+                        batchNumberAndExceptionMap.keySet(),
+                        toBatchNumberList(unfinishedPartitionThreadEntityList),
+                        timeout,
+                        timeoutMillis);
+        throw new PartitionExecuteException(message, partitionThreadEntityAndExceptionMap, unfinishedPartitionThreadEntityList, timeout);
+    }
+
+    /**
+     * To batch number list.
+     *
+     * @param partitionThreadEntityList
+     *            the partition thread entity list
+     * @return the list
+     */
+    private static List<Integer> toBatchNumberList(List<PartitionThreadEntity> partitionThreadEntityList){
+        List<Integer> list = new ArrayList<>(partitionThreadEntityList.size());
+        for (PartitionThreadEntity partitionThreadEntity : partitionThreadEntityList){
+            list.add(partitionThreadEntity.getBatchNumber());
+        }
+        return list;
+    }
+
+    /**
+     * 在调用线程中提前为 <code>runnable</code> 获取许可,用于每个分区一个线程的执行器在启动线程之前限流.
+     * 
+     * <p>
+     * 如果 <code>runnable</code> 不是本上下文构造的,或者没有设置许可,或者已经取消,什么都不做;<br>
+     * 被拒绝的时候不抛出异常,该分区执行的时候以 {@link RejectedExecutionException} 失败.
+     * </p>
+     *
+     * @param runnable
+     *            {@link #wrap(PartitionRunnableBuilder)} 构造出来的 runnable
+     */
+    void acquirePermit(Runnable runnable){
+        if (runnable instanceof PartitionExecuteRunnable){
+            ((PartitionExecuteRunnable) runnable).acquirePermit();
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 通知监听器整个执行开始.
+     *
+     * @param name
+     *            执行的名字
+     * @param totalListCount
+     *            总数,如果未知,是 {@link StreamingPartitionThreadExecutor#UNKNOWN_TOTAL_LIST_COUNT}
+     * @param eachSize
+     *            每个分区的大小
+     */
+    void fireExecuteStart(String name,int totalListCount,int eachSize){
+        for (PartitionExecuteListener partitionExecuteListener : partitionExecuteListenerList){
+            try{
+                partitionExecuteListener.onExecuteStart(name, totalListCount, eachSize);
+            }catch (Exception e){
+                LOGGER.error("partitionExecuteListener:[" + partitionExecuteListener + "] onExecuteStart exception", e);
+            }
+        }
+    }
+
+    /**
+     * 通知监听器整个执行结束,耗时从上下文创建开始计算.
+     *
+     * @param name
+     *            执行的名字
+     * @param totalListCount
+     *            总数,如果未知,是 {@link StreamingPartitionThreadExecutor#UNKNOWN_TOTAL_LIST_COUNT}
+     * @param eachSize
+     *            每个分区的大小
+     * @param throwable
+     *            如果执行成功,是null
+     */
+    void fireExecuteEnd(String name,int totalListCount,int eachSize,Throwable throwable){
+        long elapsedNanos = System.nanoTime() - beginNanos;
+        for (PartitionExecuteListener partitionExecuteListener : partitionExecuteListenerList){
+            try{
+                partitionExecuteListener.onExecuteEnd(name, totalListCount, eachSize, elapsedNanos, throwable);
+            }catch (Exception e){
+                LOGGER.error("partitionExecuteListener:[" + partitionExecuteListener + "] onExecuteEnd exception", e);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 是否设置了超时时间.
+     *
+     * @return 如果 {@code timeoutMillis >0},返回true
+     */
+    public boolean hasDeadline(){
+        return timeoutMillis > 0;
+    }
+
+    /**
+     * 距离超时还剩下的时间,单位纳秒.
+     *
+     * @return 如果没有设置超时时间,返回 {@link Long#MAX_VALUE}
+     */
+    public long getRemainingNanos(){
+        return hasDeadline() ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * 获得 是否已经取消.
+     *
+     * @return the cancelled
+     */
+    public boolean isCancelled(){
+        return cancelled;
+    }
+
+    /**
+     * 获得 是否已经超时.
+     *
+     * @return the timeout
+     */
+    public boolean isTimeout(){
+        return timeout;
+    }
+
+    /**
+     * 获得 是否快速失败.
+     *
+     * @return the failFast
+     */
+    public boolean isFailFast(){
+        return failFast;
+    }
+
+    /**
+     * 获得 整体执行的超时时间,单位毫秒.
+     *
+     * @return the timeoutMillis
+     */
+    public long getTimeoutMillis(){
+        return timeoutMillis;
+    }
+
+    /**
+     * 获得 并发许可.
+     *
+     * @return the partitionConcurrencyLimiter,可能为null
+     */
+    public PartitionConcurrencyLimiter getPartitionConcurrencyLimiter(){
+        return partitionConcurrencyLimiter;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 包装原始的 {@link PartitionRunnableBuilder},构造出来的 {@link Runnable} 受上下文管理.
+     * 
+     * <p>
+     * 线程名字仍然使用原始的 {@link PartitionRunnableBuilder} 的类名,参见 {@link AbstractPartitionThreadExecutor#getName(PartitionRunnableBuilder)}.
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     */
+    final class PartitionExecuteRunnableBuilder<T> implements PartitionRunnableBuilder<T>{
+
+        /** 原始的 partition runnable builder. */
+        private final PartitionRunnableBuilder<T> partitionRunnableBuilder;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new partition execute runnable builder.
+         *
+         * @param partitionRunnableBuilder
+         *            原始的 partition runnable builder
+         */
+        private PartitionExecuteRunnableBuilder(PartitionRunnableBuilder<T> partitionRunnableBuilder){
+            this.partitionRunnableBuilder = partitionRunnableBuilder;
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.feilong.core.lang.thread.PartitionRunnableBuilder#build(java.util.List, com.feilong.core.lang.thread.PartitionThreadEntity,
+         * java.util.Map)
+         */
+        @Override
+        public Runnable build(List<T> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+            Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+            if (null == runnable){
+                return null;
+            }
+            batchNumberAndPartitionThreadEntityMap.put(partitionThreadEntity.getBatchNumber(), partitionThreadEntity);
+            return new PartitionExecuteRunnable(partitionThreadEntity, runnable);
+        }
+
+        /**
+         * 获得 原始的 partition runnable builder.
+         *
+         * @return the partitionRunnableBuilder
+         */
+        PartitionRunnableBuilder<T> getPartitionRunnableBuilder(){
+            return partitionRunnableBuilder;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 受上下文管理的分区 {@link Runnable}.
+     */
+    private final class PartitionExecuteRunnable implements Runnable{
+
+        /** The partition thread entity. */
+        private final PartitionThreadEntity partitionThreadEntity;
+
+        /** The runnable. */
+        private final Runnable              runnable;
+
+        /** 执行该分区的线程,只在执行期间有值. */
+        private Thread                      thread;
+
+        /** 是否是上下文中断了执行线程. */
+        private boolean                     interrupted;
+
+        /** 构造完成的时间点,用来计算排队等待时间. */
+        private final long                  createNanos = System.nanoTime();
+
+        /** 是否持有许可. */
+        private boolean                     permitHeld;
+
+        /** 获取许可被拒绝的异常. */
+        private RuntimeException            rejectedException;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new partition execute runnable.
+         *
+         * @param partitionThreadEntity
+         *            the partition thread entity
+         * @param runnable
+         *            the runnable
+         */
+        private PartitionExecuteRunnable(PartitionThreadEntity partitionThreadEntity, Runnable runnable){
+            this.partitionThreadEntity = partitionThreadEntity;
+            this.runnable = runnable;
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run(){
+            begin();
+            acquirePermit();
+            if (cancelled){
+                releasePermit();
+                end();
+                LOGGER.debug("cancelled,skip partition:[{}]", partitionThreadEntity.getName());
+                return;
+            }
+
+            //---------------------------------------------------------------
+            int batchNumber = partitionThreadEntity.getBatchNumber();
+            long startNanos = System.nanoTime();
+            long queueWaitNanos = startNanos - createNanos;
+            firePartitionStart(queueWaitNanos);
+
+            Throwable throwable = null;
+            try{
+                if (null != rejectedException){
+                    throw rejectedException;
+                }
+                runnable.run();
+            }catch (Throwable e){
+                throwable = e;
+                LOGGER.error(partitionThreadEntity.getName(), e);
+                batchNumberAndExceptionMap.put(batchNumber, e);
+                if (failFast){
+                    cancel();
+                }
+            }finally{
+                //先通知监听器再标记结束,保证整个执行结束之前所有分区的指标都已经记录
+                firePartitionEnd(queueWaitNanos, System.nanoTime() - startNanos, throwable);
+                releasePermit();
+                end();
+                finishedBatchNumberMap.put(batchNumber, Boolean.TRUE);
+            }
+        }
+
+        /**
+         * 获取许可.
+         * 
+         * <p>
+         * 如果没有设置许可,已经持有许可,已经被拒绝或者已经取消,什么都不做;<br>
+         * 等待许可超时调用 {@link PartitionExecuteContext#timeout()},等待许可的时候被中断调用 {@link PartitionExecuteContext#cancel()}.
+         * </p>
+         */
+        private void acquirePermit(){
+            if (null == partitionConcurrencyLimiter || permitHeld || null != rejectedException || cancelled){
+                return;
+            }
+
+            //---------------------------------------------------------------
+            try{
+                permitHeld = partitionConcurrencyLimiter.acquire(getRemainingNanos());
+                if (!permitHeld){
+                    timeout();
+                }
+            }catch (RejectedExecutionException e){
+                rejectedException = e;
+            }catch (InterruptedException e){
+                LOGGER.debug("interrupted while waiting permit,partition:[{}]", partitionThreadEntity.getName());
+                cancel();
+                // clean up state...
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 释放许可.
+         */
+        private void releasePermit(){
+            if (permitHeld){
+                permitHeld = false;
+                partitionConcurrencyLimiter.release();
+            }
+        }
+
+        /**
+         * 通知监听器分区开始执行.
+         *
+         * @param queueWaitNanos
+         *            排队等待时间
+         */
+        private void firePartitionStart(long queueWaitNanos){
+            for (PartitionExecuteListener partitionExecuteListener : partitionExecuteListenerList){
+                try{
+                    partitionExecuteListener.onPartitionStart(partitionThreadEntity, queueWaitNanos);
+                }catch (Exception e){
+                    LOGGER.error("partitionExecuteListener:[" + partitionExecuteListener + "] onPartitionStart exception", e);
+                }
+            }
+        }
+
+        /**
+         * 通知监听器分区执行结束.
+         *
+         * @param queueWaitNanos
+         *            排队等待时间
+         * @param executeNanos
+         *            执行耗时
+         * @param throwable
+         *            如果执行成功,是null
+         */
+        private void firePartitionEnd(long queueWaitNanos,long executeNanos,Throwable throwable){
+            for (PartitionExecuteListener partitionExecuteListener : partitionExecuteListenerList){
+                try{
+                    if (null == throwable){
+                        partitionExecuteListener.onPartitionEnd(partitionThreadEntity, queueWaitNanos, executeNanos);
+                    }else{
+                        partitionExecuteListener.onPartitionFailure(partitionThreadEntity, queueWaitNanos, executeNanos, throwable);
+                    }
+                }catch (Exception e){
+                    LOGGER.error("partitionExecuteListener:[" + partitionExecuteListener + "] fire partition end exception", e);
+                }
+            }
+        }
+
+        /**
+         * 记录执行线程.
+         */
+        private synchronized void begin(){
+            thread = Thread.currentThread();
+            runningMap.put(this, Boolean.TRUE);
+        }
+
+        /**
+         * 清除执行线程,如果是上下文中断了执行线程,那么清除中断状态,避免影响线程池中该线程执行的下一个任务.
+         */
+        private synchronized void end(){
+            runningMap.remove(this);
+            if (interrupted){
+                Thread.interrupted();
+            }
+            thread = null;
+        }
+
+        /**
+         * 中断正在执行该分区的线程.
+         */
+        private synchronized void interrupt(){
+            if (null != thread){
+                interrupted = true;
+                thread.interrupt();
+            }
+        }
+    }
+}
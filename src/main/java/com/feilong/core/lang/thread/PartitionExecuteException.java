@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.feilong.core.DefaultRuntimeException;
+
+/**
+ * 分区执行异常,汇总了所有执行失败的分区以及没有执行完成的分区.
+ * 
+ * <h3>什么时候抛出:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>有分区执行抛出了异常,每个失败分区的 {@link PartitionThreadEntity} 以及异常参见 {@link #getPartitionThreadEntityAndExceptionMap()}</li>
+ * <li>开启了 {@link PartitionExecuteConfig#isFailFast() failFast},第一个分区失败之后剩余的分区被取消</li>
+ * <li>超过了 {@link PartitionExecuteConfig#getTimeoutMillis() timeoutMillis},此时 {@link #isTimeout()} 是true</li>
+ * </ol>
+ * 被取消或者超时还没有执行完成的分区参见 {@link #getUnfinishedPartitionThreadEntityList()}
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PartitionExecuteContext#check()
+ * @since 2.1.0
+ */
+public class PartitionExecuteException extends DefaultRuntimeException{
+
+    /** The Constant serialVersionUID. */
+    private static final long                           serialVersionUID = 2955381418838376458L;
+
+    /** 执行失败的分区以及对应的异常,按照 batchNumber 排序. */
+    private final Map<PartitionThreadEntity, Throwable> partitionThreadEntityAndExceptionMap;
+
+    /** 被取消或者超时还没有执行完成的分区,按照 batchNumber 排序. */
+    private final List<PartitionThreadEntity>           unfinishedPartitionThreadEntityList;
+
+    /** 是否超时. */
+    private final boolean                               timeout;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition execute exception.
+     * 
+     * <p>
+     * 第一个失败分区的异常作为 cause,其余的异常通过 {@link #addSuppressed(Throwable)} 附加,方便在日志中查看完整的堆栈.
+     * </p>
+     *
+     * @param message
+     *            the message
+     * @param partitionThreadEntityAndExceptionMap
+     *            执行失败的分区以及对应的异常,按照 batchNumber 排序
+     * @param unfinishedPartitionThreadEntityList
+     *            被取消或者超时还没有执行完成的分区,按照 batchNumber 排序
+     * @param timeout
+     *            是否超时
+     */
+    public PartitionExecuteException(String message, Map<PartitionThreadEntity, Throwable> partitionThreadEntityAndExceptionMap,
+                    List<PartitionThreadEntity> unfinishedPartitionThreadEntityList, boolean timeout){
+        super(message);
+        this.partitionThreadEntityAndExceptionMap = Collections.unmodifiableMap(partitionThreadEntityAndExceptionMap);
+        this.unfinishedPartitionThreadEntityList = Collections.unmodifiableList(unfinishedPartitionThreadEntityList);
+        this.timeout = timeout;
+
+        //---------------------------------------------------------------
+        for (Throwable throwable : partitionThreadEntityAndExceptionMap.values()){
+            if (null == getCause()){
+                initCause(throwable);
+            }else{
+                addSuppressed(throwable);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 执行失败的分区以及对应的异常,按照 batchNumber 排序.
+     *
+     * @return the partitionThreadEntityAndExceptionMap
+     */
+    public Map<PartitionThreadEntity, Throwable> getPartitionThreadEntityAndExceptionMap(){
+        return partitionThreadEntityAndExceptionMap;
+    }
+
+    /**
+     * 获得 执行失败的分区,按照 batchNumber 排序.
+     *
+     * @return the failed partition thread entity list
+     */
+    public List<PartitionThreadEntity> getFailedPartitionThreadEntityList(){
+        return new ArrayList<>(partitionThreadEntityAndExceptionMap.keySet());
+    }
+
+    /**
+     * 获得 被取消或者超时还没有执行完成的分区,按照 batchNumber 排序.
+     *
+     * @return the unfinishedPartitionThreadEntityList
+     */
+    public List<PartitionThreadEntity> getUnfinishedPartitionThreadEntityList(){
+        return unfinishedPartitionThreadEntityList;
+    }
+
+    /**
+     * 获得 是否超时.
+     *
+     * @return the timeout
+     */
+    public boolean isTimeout(){
+        return timeout;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * 分区执行的监听器,用于采集分区执行的指标(分区耗时倾斜,排队等待时间,吞吐量,失败次数等),导出到监控系统.
+ * 
+ * <h3>调用时机:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>{@link #onExecuteStart(String, int, int)} 以及 {@link #onExecuteEnd(String, int, int, long, Throwable)} 在调用线程中,每次执行各调用一次</li>
+ * <li>{@link #onPartitionStart(PartitionThreadEntity, long)},{@link #onPartitionEnd(PartitionThreadEntity, long, long)} 以及
+ * {@link #onPartitionFailure(PartitionThreadEntity, long, long, Throwable)} 在执行分区的线程中调用,需要线程安全</li>
+ * <li>被取消(快速失败,超时)而跳过的分区,不会调用分区相关的方法</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <p>
+ * 监听器中抛出的异常只会记录日志,不会影响分区的执行;监听器方法应该尽量快,不要做阻塞的操作.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see AbstractPartitionThreadExecutor#addPartitionExecuteListener(PartitionExecuteListener)
+ * @see PartitionExecuteListenerAdapter
+ * @see StatisticsPartitionExecuteListener
+ * @since 2.1.0
+ */
+public interface PartitionExecuteListener{
+
+    /**
+     * 整个执行开始.
+     *
+     * @param name
+     *            执行的名字,一般是 {@link PartitionRunnableBuilder} 的类名
+     * @param totalListCount
+     *            总数,如果未知(流式执行),是 {@link StreamingPartitionThreadExecutor#UNKNOWN_TOTAL_LIST_COUNT}
+     * @param eachSize
+     *            每个分区的大小
+     */
+    void onExecuteStart(String name,int totalListCount,int eachSize);
+
+    /**
+     * 整个执行结束.
+     *
+     * @param name
+     *            执行的名字,一般是 {@link PartitionRunnableBuilder} 的类名
+     * @param totalListCount
+     *            总数,如果未知(流式执行),是 {@link StreamingPartitionThreadExecutor#UNKNOWN_TOTAL_LIST_COUNT}
+     * @param eachSize
+     *            每个分区的大小
+     * @param elapsedNanos
+     *            整个执行的耗时,单位纳秒
+     * @param throwable
+     *            如果执行成功,是null;否则是将要抛出的异常,一般是 {@link PartitionExecuteException}
+     */
+    void onExecuteEnd(String name,int totalListCount,int eachSize,long elapsedNanos,Throwable throwable);
+
+    //---------------------------------------------------------------
+
+    /**
+     * 分区开始执行.
+     *
+     * @param partitionThreadEntity
+     *            the partition thread entity
+     * @param queueWaitNanos
+     *            从分区构造完成到开始执行的等待时间(排队,等待线程启动等),单位纳秒
+     */
+    void onPartitionStart(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos);
+
+    /**
+     * 分区执行成功.
+     *
+     * @param partitionThreadEntity
+     *            the partition thread entity
+     * @param queueWaitNanos
+     *            从分区构造完成到开始执行的等待时间,单位纳秒
+     * @param executeNanos
+     *            分区执行的耗时,单位纳秒
+     */
+    void onPartitionEnd(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos);
+
+    /**
+     * 分区执行失败.
+     *
+     * @param partitionThreadEntity
+     *            the partition thread entity
+     * @param queueWaitNanos
+     *            从分区构造完成到开始执行的等待时间,单位纳秒
+     * @param executeNanos
+     *            分区执行到抛出异常的耗时,单位纳秒
+     * @param throwable
+     *            分区抛出的异常
+     */
+    void onPartitionFailure(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos,Throwable throwable);
+}
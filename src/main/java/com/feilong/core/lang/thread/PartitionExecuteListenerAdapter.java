@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * {@link PartitionExecuteListener} 的空实现,只需要重写关心的方法.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PartitionExecuteListenerAdapter implements PartitionExecuteListener{
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onExecuteStart(java.lang.String, int, int)
+     */
+    @Override
+    public void onExecuteStart(String name,int totalListCount,int eachSize){
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onExecuteEnd(java.lang.String, int, int, long, java.lang.Throwable)
+     */
+    @Override
+    public void onExecuteEnd(String name,int totalListCount,int eachSize,long elapsedNanos,Throwable throwable){
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionStart(com.feilong.core.lang.thread.PartitionThreadEntity, long)
+     */
+    @Override
+    public void onPartitionStart(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos){
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionEnd(com.feilong.core.lang.thread.PartitionThreadEntity, long, long)
+     */
+    @Override
+    public void onPartitionEnd(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos){
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionFailure(com.feilong.core.lang.thread.PartitionThreadEntity, long, long,
+     * java.lang.Throwable)
+     */
+    @Override
+    public void onPartitionFailure(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos,Throwable throwable){
+    }
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 异步分区执行的结果,所有分区执行完成之后完成.
+ * 
+ * <h3>和 {@link Future} 的约定:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>{@link #get()} 按照分区顺序返回每个分区的结果</li>
+ * <li>如果有分区执行失败,{@link #get()} 抛出 {@link ExecutionException},cause 是汇总了所有失败分区的 {@link PartitionExecuteException}</li>
+ * <li>{@link #cancel(boolean)} 会取消所有还没有执行完成的分区</li>
+ * </ol>
+ * </blockquote>
+ * 
+ * <h3>非阻塞的使用方式:</h3>
+ * 
+ * <blockquote>
+ * <p>
+ * 通过 {@link #addListener(PartitionFutureListener)} 注册回调,在回调中通过 {@link #getResults()} 以及 {@link #getPartitionThreadEntityAndExceptionMap()}
+ * 获得每个分区的结果或者异常,调用线程不需要等待.
+ * </p>
+ * </blockquote>
+ * 
+ * <h3>许可以及监听器:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>如果设置了 {@link PartitionConcurrencyLimiter},每个分区在执行线程中获取许可(WAIT 策略一直等待,会占用 executor 的线程),执行完成之后释放;
+ * 被拒绝的分区以 {@link RejectedExecutionException} 失败</li>
+ * <li>异步执行不经过 {@link PartitionExecuteContext},不会通知 {@link PartitionExecuteListener},也没有快速失败以及超时;请使用
+ * {@link #addListener(PartitionFutureListener)} 以及 {@link #get(long, TimeUnit)}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <R>
+ *            每个分区执行结果的类型
+ * @see AsyncPartitionThreadExecutor
+ * @since 2.1.0
+ */
+public class PartitionFuture<R> implements Future<List<R>>{
+
+    /** The Constant LOGGER. */
+    private static final Logger                    LOGGER       = LoggerFactory.getLogger(PartitionFuture.class);
+
+    //---------------------------------------------------------------
+
+    /** 每个分区的任务,按照分区顺序. */
+    private final List<PartitionTask>              partitionTaskList;
+
+    /** 每个分区执行之前获取的许可,可能为null. */
+    private final PartitionConcurrencyLimiter      partitionConcurrencyLimiter;
+
+    /** 还没有完成的分区数量. */
+    private final CountDownLatch                   countDownLatch;
+
+    /** 完成之后的回调. */
+    private final List<PartitionFutureListener<R>> listenerList = new ArrayList<>();
+
+    /** 是否已经通知过回调,使用 {@link #listenerList} 作为锁. */
+    private boolean                                notified;
+
+    /** 是否已经取消. */
+    private volatile boolean                       cancelled;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition future.
+     *
+     * @param partitionThreadEntityList
+     *            每个分区的 {@link PartitionThreadEntity}
+     * @param callableList
+     *            每个分区要执行的任务,和 <code>partitionThreadEntityList</code> 一一对应
+     * @param partitionConcurrencyLimiter
+     *            每个分区执行之前获取的许可,如果是null,不限流
+     */
+    PartitionFuture(List<PartitionThreadEntity> partitionThreadEntityList, List<Callable<R>> callableList,
+                    PartitionConcurrencyLimiter partitionConcurrencyLimiter){
+        Validate.isTrue(partitionThreadEntityList.size() == callableList.size(), "partitionThreadEntityList and callableList size not match");
+
+        this.partitionConcurrencyLimiter = partitionConcurrencyLimiter;
+        this.partitionTaskList = new ArrayList<>(callableList.size());
+        for (int i = 0, j = callableList.size(); i < j; ++i){
+            partitionTaskList.add(new PartitionTask(partitionThreadEntityList.get(i), callableList.get(i)));
+        }
+        this.countDownLatch = new CountDownLatch(callableList.size());
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 把每个分区提交到 <code>executor</code>.
+     * 
+     * <p>
+     * 如果 <code>executor</code> 拒绝了某个分区,那么该分区以 {@link RejectedExecutionException} 失败.
+     * </p>
+     *
+     * @param executor
+     *            the executor
+     */
+    void start(Executor executor){
+        if (partitionTaskList.isEmpty()){
+            notifyListeners();
+            return;
+        }
+
+        //---------------------------------------------------------------
+        for (PartitionTask partitionTask : partitionTaskList){
+            try{
+                executor.execute(partitionTask);
+            }catch (RejectedExecutionException e){
+                partitionTask.reject(e);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 注册完成之后的回调.
+     * 
+     * <p>
+     * 如果已经完成,那么在当前线程中立即执行.
+     * </p>
+     *
+     * @param partitionFutureListener
+     *            the partition future listener,不能为null
+     * @return this
+     */
+    public PartitionFuture<R> addListener(PartitionFutureListener<R> partitionFutureListener){
+        Validate.notNull(partitionFutureListener, "partitionFutureListener can't be null!");
+
+        synchronized (listenerList){
+            if (!notified){
+                listenerList.add(partitionFutureListener);
+                return this;
+            }
+        }
+        fireListener(partitionFutureListener);
+        return this;
+    }
+
+    /**
+     * 最后一个分区完成之后,通知所有的回调.
+     */
+    private void notifyListeners(){
+        List<PartitionFutureListener<R>> list;
+        synchronized (listenerList){
+            notified = true;
+            list = new ArrayList<>(listenerList);
+            listenerList.clear();
+        }
+        for (PartitionFutureListener<R> partitionFutureListener : list){
+            fireListener(partitionFutureListener);
+        }
+    }
+
+    /**
+     * 执行回调,回调的异常只记录日志.
+     *
+     * @param partitionFutureListener
+     *            the partition future listener
+     */
+    private void fireListener(PartitionFutureListener<R> partitionFutureListener){
+        try{
+            partitionFutureListener.onComplete(this);
+        }catch (RuntimeException e){
+            LOGGER.error("listener:[" + partitionFutureListener + "] exception", e);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.Future#cancel(boolean)
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning){
+        if (isDone()){
+            return false;
+        }
+        cancelled = true;
+        for (PartitionTask partitionTask : partitionTaskList){
+            partitionTask.cancel(mayInterruptIfRunning);
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.Future#isCancelled()
+     */
+    @Override
+    public boolean isCancelled(){
+        return cancelled;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.Future#isDone()
+     */
+    @Override
+    public boolean isDone(){
+        return countDownLatch.getCount() == 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.Future#get()
+     */
+    @Override
+    public List<R> get() throws InterruptedException,ExecutionException{
+        countDownLatch.await();
+        return report();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public List<R> get(long timeout,TimeUnit unit) throws InterruptedException,ExecutionException,TimeoutException{
+        if (!countDownLatch.await(timeout, unit)){
+            throw new TimeoutException(Slf4jUtil.format("[{}] partitions not finished in [{}] [{}]", countDownLatch.getCount(), timeout, unit));
+        }
+        return report();
+    }
+
+    /**
+     * 完成之后,返回结果或者抛出异常.
+     *
+     * @return the list
+     * @throws ExecutionException
+     *             如果有分区执行失败
+     */
+    private List<R> report() throws ExecutionException{
+        if (cancelled){
+            throw new CancellationException();
+        }
+
+        Map<PartitionThreadEntity, Throwable> partitionThreadEntityAndExceptionMap = getPartitionThreadEntityAndExceptionMap();
+        if (partitionThreadEntityAndExceptionMap.isEmpty()){
+            return getResults();
+        }
+
+        //---------------------------------------------------------------
+        List<Integer> batchNumberList = new ArrayList<>(partitionThreadEntityAndExceptionMap.size());
+        for (PartitionThreadEntity partitionThreadEntity : partitionThreadEntityAndExceptionMap.keySet()){
+            batchNumberList.add(partitionThreadEntity.getBatchNumber());
+        }
+        String message = Slf4jUtil.format("partition execute fail,failed partitions:{}", batchNumberList);
+        throw new ExecutionException(
+                        new PartitionExecuteException(message, partitionThreadEntityAndExceptionMap, new ArrayList<PartitionThreadEntity>(), false));
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 按照分区顺序获得每个分区的执行结果.
+     * 
+     * <p>
+     * 执行失败或者被取消的分区,结果是null.
+     * </p>
+     *
+     * @return 如果还没有完成,抛出 {@link IllegalStateException}
+     */
+    public List<R> getResults(){
+        Validate.validState(isDone(), "partitionFuture not done");
+
+        List<R> results = new ArrayList<>(partitionTaskList.size());
+        for (PartitionTask partitionTask : partitionTaskList){
+            results.add(partitionTask.getResult());
+        }
+        return results;
+    }
+
+    /**
+     * 获得执行失败的分区以及对应的异常,按照分区顺序.
+     *
+     * @return 如果还没有完成,抛出 {@link IllegalStateException}<br>
+     *         如果没有失败的分区,返回 empty map
+     */
+    public Map<PartitionThreadEntity, Throwable> getPartitionThreadEntityAndExceptionMap(){
+        Validate.validState(isDone(), "partitionFuture not done");
+
+        Map<PartitionThreadEntity, Throwable> map = new LinkedHashMap<>();
+        for (PartitionTask partitionTask : partitionTaskList){
+            Throwable throwable = partitionTask.getException();
+            if (null != throwable){
+                map.put(partitionTask.partitionThreadEntity, throwable);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 获得每个分区的 {@link PartitionThreadEntity},按照分区顺序.
+     *
+     * @return the partition thread entity list
+     */
+    public List<PartitionThreadEntity> getPartitionThreadEntityList(){
+        List<PartitionThreadEntity> list = new ArrayList<>(partitionTaskList.size());
+        for (PartitionTask partitionTask : partitionTaskList){
+            list.add(partitionTask.partitionThreadEntity);
+        }
+        return list;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 单个分区的任务,完成之后(包括失败以及取消)计数减一.
+     */
+    private final class PartitionTask extends FutureTask<R>{
+
+        /** The partition thread entity. */
+        private final PartitionThreadEntity partitionThreadEntity;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new partition task.
+         *
+         * @param partitionThreadEntity
+         *            the partition thread entity
+         * @param callable
+         *            the callable
+         */
+        private PartitionTask(PartitionThreadEntity partitionThreadEntity, Callable<R> callable){
+            super(null == partitionConcurrencyLimiter ? callable : new PermitCallable<>(partitionConcurrencyLimiter, callable));
+            this.partitionThreadEntity = partitionThreadEntity;
+        }
+
+        //---------------------------------------------------------------
+
+        /**
+         * 执行的时候将当前线程临时重命名为分区线程名字,参见 {@link PartitionNamedRunnable}.
+         * 
+         * <p>
+         * 如果设置了 {@link PartitionConcurrencyLimiter},由 {@link PermitCallable} 在执行的时候获取以及释放许可,保证许可在分区完成(通知回调)之前已经释放.
+         * </p>
+         */
+        @Override
+        public void run(){
+            Thread currentThread = Thread.currentThread();
+            String originalName = currentThread.getName();
+            currentThread.setName(partitionThreadEntity.getName());
+            try{
+                super.run();
+            }finally{
+                currentThread.setName(originalName);
+            }
+        }
+
+        /**
+         * 被 executor 拒绝.
+         *
+         * @param e
+         *            the e
+         */
+        private void reject(RejectedExecutionException e){
+            setException(e);
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.FutureTask#done()
+         */
+        @Override
+        protected void done(){
+            Throwable throwable = getException();
+            if (null != throwable){
+                LOGGER.error(partitionThreadEntity.getName(), throwable);
+            }
+
+            //---------------------------------------------------------------
+            countDownLatch.countDown();
+            if (countDownLatch.getCount() == 0){
+                notifyListeners();
+            }
+        }
+
+        /**
+         * 获得结果,只在完成之后调用.
+         *
+         * @return 如果失败或者被取消,返回null
+         */
+        private R getResult(){
+            try{
+                return isCancelled() ? null : get();
+            }catch (InterruptedException | ExecutionException e){
+                return null;
+            }
+        }
+
+        /**
+         * 获得异常,只在完成之后调用.
+         *
+         * @return 如果成功或者被取消,返回null
+         */
+        private Throwable getException(){
+            if (isCancelled()){
+                return null;
+            }
+            try{
+                get();
+                return null;
+            }catch (ExecutionException e){
+                return e.getCause();
+            }catch (InterruptedException e){
+                // clean up state...
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 执行之前获取许可,执行完成(成功或者失败)之后释放.
+     *
+     * @param <V>
+     *            the value type
+     */
+    private static final class PermitCallable<V> implements Callable<V>{
+
+        /** The partition concurrency limiter. */
+        private final PartitionConcurrencyLimiter partitionConcurrencyLimiter;
+
+        /** The callable. */
+        private final Callable<V>                 callable;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new permit callable.
+         *
+         * @param partitionConcurrencyLimiter
+         *            the partition concurrency limiter
+         * @param callable
+         *            the callable
+         */
+        private PermitCallable(PartitionConcurrencyLimiter partitionConcurrencyLimiter, Callable<V> callable){
+            this.partitionConcurrencyLimiter = partitionConcurrencyLimiter;
+            this.callable = callable;
+        }
+
+        //---------------------------------------------------------------
+
+        /**
+         * WAIT 策略一直等待许可;REJECT 策略没有可用许可的时候抛出 {@link RejectedExecutionException};等待的时候被中断抛出 {@link InterruptedException}.
+         *
+         * @return the v
+         * @throws Exception
+         *             the exception
+         */
+        @Override
+        public V call() throws Exception{
+            boolean permitHeld = partitionConcurrencyLimiter.acquire(Long.MAX_VALUE);
+            try{
+                return callable.call();
+            }finally{
+                if (permitHeld){
+                    partitionConcurrencyLimiter.release();
+                }
+            }
+        }
+    }
+}
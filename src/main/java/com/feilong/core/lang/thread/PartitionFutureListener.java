@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * {@link PartitionFuture} 完成(所有分区执行完成,或者被取消)之后的回调.
+ * 
+ * <p>
+ * 回调在完成最后一个分区的线程中执行;如果注册的时候 {@link PartitionFuture} 已经完成,那么在注册的线程中立即执行.<br>
+ * 回调中可以调用 {@link PartitionFuture#getResults()} 以及 {@link PartitionFuture#getPartitionThreadEntityAndExceptionMap()} 获得每个分区的结果以及异常,不会阻塞.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <R>
+ *            每个分区执行结果的类型
+ * @see PartitionFuture#addListener(PartitionFutureListener)
+ * @since 2.1.0
+ */
+public interface PartitionFutureListener<R> {
+
+    /**
+     * 所有分区执行完成,或者被取消之后调用.
+     *
+     * @param partitionFuture
+     *            已经完成的 partition future
+     */
+    void onComplete(PartitionFuture<R> partitionFuture);
+}
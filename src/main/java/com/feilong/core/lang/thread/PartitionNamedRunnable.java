@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * 执行的时候将当前线程临时重命名为分区线程名字,执行完成之后恢复.
+ * 
+ * <p>
+ * 用于线程池中的线程执行分区,使得日志中的线程名字(比如 log4j 的 %t)和 {@link DefaultPartitionThreadExecutor} 一致.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+class PartitionNamedRunnable implements Runnable{
+
+    /** The thread name. */
+    private final String   threadName;
+
+    /** The runnable. */
+    private final Runnable runnable;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition named runnable.
+     *
+     * @param threadName
+     *            the thread name
+     * @param runnable
+     *            the runnable
+     */
+    PartitionNamedRunnable(String threadName, Runnable runnable){
+        super();
+        this.threadName = threadName;
+        this.runnable = runnable;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run(){
+        Thread currentThread = Thread.currentThread();
+        String originalName = currentThread.getName();
+        currentThread.setName(threadName);
+        try{
+            runnable.run();
+        }finally{
+            currentThread.setName(originalName);
+        }
+    }
+}
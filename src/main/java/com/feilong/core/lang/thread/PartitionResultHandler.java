@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分区中的每个线程执行,并且返回该分区的执行结果.
+ * 
+ * <p>
+ * 和 {@link PartitionPerHandler} 相比,不需要在外部自己构造 ConcurrentHashMap 或者 synchronized list 来收集结果;<br>
+ * 每个分区的结果会按照分区顺序({@link PartitionThreadEntity#getBatchNumber()})收集,参见
+ * {@link com.feilong.core.lang.ThreadUtil#executeAndGet(List, int, Map, PartitionResultHandler)} 以及
+ * {@link com.feilong.core.lang.ThreadUtil#executeAndReduce(List, int, Map, PartitionResultHandler, PartitionResultReducer)}
+ * </p>
+ * 
+ * <p>
+ * 如果需要每个元素一个结果,那么可以返回 {@code List<R>},元素顺序和 <code>perBatchList</code> 一致.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <T>
+ *            the generic type
+ * @param <R>
+ *            每个分区执行结果的类型
+ * @see PartitionResultRunnableBuilder
+ * @since 2.1.0
+ */
+public interface PartitionResultHandler<T, R> {
+
+    /**
+     * Handle.
+     *
+     * @param perBatchList
+     *            自动分组之后,每个对象list组的数据
+     * @param partitionThreadEntity
+     *            线程执行此组list 的时候,可以使用的 thread参数信息
+     * @param paramsMap
+     *            自定义的参数map
+     * @return 该分区的执行结果
+     */
+    R handle(List<T> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+/**
+ * 合并两个分区的执行结果.
+ * 
+ * <p>
+ * 合并是在所有分区执行完成之后,在调用线程中按照分区顺序依次进行的,所以实现类不需要考虑线程安全,也不需要加锁.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <R>
+ *            每个分区执行结果的类型
+ * @see com.feilong.core.lang.ThreadUtil#executeAndReduce(java.util.List, int, java.util.Map, PartitionResultHandler, PartitionResultReducer)
+ * @since 2.1.0
+ */
+public interface PartitionResultReducer<R> {
+
+    /**
+     * 合并结果.
+     *
+     * @param result
+     *            之前分区合并之后的结果
+     * @param partitionResult
+     *            下一个分区的执行结果
+     * @return 合并之后的结果
+     */
+    R reduce(R result,R partitionResult);
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * 收集每个分区执行结果的 {@link PartitionRunnableBuilder}.
+ * 
+ * <p>
+ * 每个分区把 {@link PartitionResultHandler} 的返回值写入以 {@link PartitionThreadEntity#getBatchNumber()} 为下标的槽位,各个分区写不同的槽位,没有共享锁,也没有竞争;<br>
+ * 所有分区执行完成之后,调用 {@link #getResults()} 按照分区顺序得到结果.
+ * </p>
+ * 
+ * <p>
+ * 由于结果槽位在构造的时候就已经分配好,一个实例只能用于一次执行.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @param <T>
+ *            the generic type
+ * @param <R>
+ *            每个分区执行结果的类型
+ * @since 2.1.0
+ */
+public class PartitionResultRunnableBuilder<T, R> implements PartitionRunnableBuilder<T>{
+
+    /** The partition result handler. */
+    private final PartitionResultHandler<T, R> partitionResultHandler;
+
+    /** 每个分区的执行结果,下标是 batchNumber. */
+    private final AtomicReferenceArray<R>      results;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition result runnable builder.
+     *
+     * @param partitionResultHandler
+     *            the partition result handler,不能为null
+     * @param partitionCount
+     *            分区数量,必须 {@code >0},也就是 {@link org.apache.commons.collections4.ListUtils#partition(List, int)} 的 size
+     */
+    public PartitionResultRunnableBuilder(PartitionResultHandler<T, R> partitionResultHandler, int partitionCount){
+        super();
+        Validate.notNull(partitionResultHandler, "partitionResultHandler can't be null!");
+        Validate.isTrue(partitionCount > 0, "partitionCount must > 0");
+
+        this.partitionResultHandler = partitionResultHandler;
+        this.results = new AtomicReferenceArray<>(partitionCount);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Builds the.
+     *
+     * @param perBatchList
+     *            the per batch list
+     * @param partitionThreadEntity
+     *            the partition thread entity
+     * @param paramsMap
+     *            the params map
+     * @return the runnable
+     */
+    @Override
+    public Runnable build(final List<T> perBatchList,final PartitionThreadEntity partitionThreadEntity,final Map<String, ?> paramsMap){
+        return new Runnable(){
+
+            @Override
+            public void run(){
+                results.set(partitionThreadEntity.getBatchNumber(), partitionResultHandler.handle(perBatchList, partitionThreadEntity, paramsMap));
+            }
+        };
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 按照分区顺序获得每个分区的执行结果.
+     * 
+     * <p>
+     * 如果某个分区执行出现异常(或者超时/取消之后没有执行),那么该分区的结果是null;<br>
+     * 使用 {@link AbstractPartitionThreadExecutor} 的实现执行的时候,这种情况会抛出 {@link PartitionExecuteException},不会走到这里.
+     * </p>
+     *
+     * @return the results
+     */
+    public List<R> getResults(){
+        int length = results.length();
+        List<R> list = new ArrayList<>(length);
+        for (int i = 0; i < length; ++i){
+            list.add(results.get(i));
+        }
+        return list;
+    }
+}
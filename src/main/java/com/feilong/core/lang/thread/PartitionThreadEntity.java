@@ -86,6 +86,11 @@ public class PartitionThreadEntity implements Serializable{
 
     /**
      * 获得 总数,list 的总size.
+     * 
+     * <p>
+     * 如果是 {@link StreamingPartitionThreadExecutor} 执行 {@link java.util.Iterator},总数未知,值是
+     * {@link StreamingPartitionThreadExecutor#UNKNOWN_TOTAL_LIST_COUNT}.
+     * </p>
      *
      * @return the totalListCount
      */
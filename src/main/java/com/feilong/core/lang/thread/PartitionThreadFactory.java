@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 带名字前缀的 {@link ThreadFactory}.
+ *
+ * <p>
+ * 创建的线程名字格式为 "namePrefix-序号",序号从1开始,便于在日志(比如 log4j 的 %t)以及线程 dump 中识别线程池中的线程.
+ * </p>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see java.util.concurrent.Executors#defaultThreadFactory()
+ * @since 2.1.0
+ */
+public class PartitionThreadFactory implements ThreadFactory{
+
+    /** 线程名字前缀. */
+    private final String        namePrefix;
+
+    /** 是否是守护线程. */
+    private final boolean       daemon;
+
+    /** 线程序号. */
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    //---------------------------------------------------------------
+
+    /**
+     * Instantiates a new partition thread factory.
+     *
+     * @param namePrefix
+     *            线程名字前缀
+     * @param daemon
+     *            是否是守护线程,如果是true,那么线程池中的线程不会阻止 JVM 退出
+     */
+    public PartitionThreadFactory(String namePrefix, boolean daemon){
+        super();
+        Validate.notBlank(namePrefix, "namePrefix can't be blank!");
+        this.namePrefix = namePrefix;
+        this.daemon = daemon;
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+     */
+    @Override
+    public Thread newThread(Runnable runnable){
+        Thread thread = new Thread(runnable, Slf4jUtil.format("{}-{}", namePrefix, threadNumber.getAndIncrement()));
+        thread.setDaemon(daemon);
+        if (thread.getPriority() != Thread.NORM_PRIORITY){
+            thread.setPriority(Thread.NORM_PRIORITY);
+        }
+        return thread;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 线程名字前缀.
+     *
+     * @return the namePrefix
+     */
+    public String getNamePrefix(){
+        return namePrefix;
+    }
+
+    /**
+     * 获得 是否是守护线程.
+     *
+     * @return the daemon
+     */
+    public boolean isDaemon(){
+        return daemon;
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基于可复用的 {@link ExecutorService} 线程池的执行实现.
+ *
+ * <h3>和 {@link DefaultPartitionThreadExecutor} 的区别:</h3>
+ *
+ * <blockquote>
+ * <p>
+ * {@link DefaultPartitionThreadExecutor} 每次调用都会新建一个 {@link ThreadGroup} 以及每个分区一个 {@link Thread},执行完成之后线程销毁;<br>
+ * 如果频繁调用,每次都要付出创建/销毁线程的开销,并且 list 很大而 eachSize 很小的时候,会瞬间创建大量的线程.
+ * </p>
+ *
+ * <p>
+ * 本实现会把每个分区作为任务提交到一个共享的,有界的线程池中,线程在多次调用之间复用,同时运行的线程数不会超过线程池大小;<br>
+ * 当线程池的等待队列满了之后,会由调用线程自己执行该分区(参见 {@link java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy}),起到背压的作用;<br>
+ * 线程池关闭之后再执行,抛出 {@link RejectedExecutionException},不会丢弃分区然后一直等待.
+ * </p>
+ * </blockquote>
+ *
+ * <h3>示例:</h3>
+ *
+ * <blockquote>
+ *
+ * <pre class="code">
+ *
+ * private static final PooledPartitionThreadExecutor EXECUTOR = new PooledPartitionThreadExecutor(20, 500);
+ *
+ * ThreadUtil.execute(EXECUTOR, list, 100, null, partitionPerHandler);
+ *
+ * //应用关闭的时候
+ * EXECUTOR.shutdown(30, TimeUnit.SECONDS);
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * <h3>说明:</h3>
+ * <blockquote>
+ * <ol>
+ * <li>执行分区的时候,会将线程池中的线程临时重命名为 {@link PartitionThreadEntity#getName()},分区执行完成后恢复,所以日志中的 %t 和
+ * {@link DefaultPartitionThreadExecutor} 一致</li>
+ * <li>如果你的 {@link PartitionRunnableBuilder} 中又调用同一个线程池执行分区,请确保线程池足够大,否则外层任务占满线程池,内层任务只能在队列中等待</li>
+ * <li>{@link #INSTANCE} 使用的是守护线程,并且空闲线程会超时回收,不需要手动关闭</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @see PartitionThreadFactory
+ * @since 2.1.0
+ */
+public class PooledPartitionThreadExecutor extends AbstractPartitionThreadExecutor{
+
+    /** The Constant LOGGER. */
+    private static final Logger                       LOGGER                 = LoggerFactory.getLogger(PooledPartitionThreadExecutor.class);
+
+    /** 默认线程池等待队列的容量 <code>{@value}</code>. */
+    public static final int                           DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /** 默认线程池大小,cpu 核数的2倍. */
+    public static final int                           DEFAULT_POOL_SIZE      = Runtime.getRuntime().availableProcessors() * 2;
+
+    /** 空闲线程存活时间,单位秒 <code>{@value}</code>. */
+    private static final long                         KEEP_ALIVE_SECONDS     = 60L;
+
+    /** 等待分区执行完成的时候,每隔多久(纳秒)检查一次线程池是否已经终止. */
+    private static final long                         AWAIT_CHECK_NANOS      = TimeUnit.SECONDS.toNanos(1);
+
+    //---------------------------------------------------------------
+
+    /** Static instance,使用守护线程,线程池大小 {@link #DEFAULT_POOL_SIZE},等待队列容量 {@link #DEFAULT_QUEUE_CAPACITY}. */
+    public static final PooledPartitionThreadExecutor INSTANCE               = new PooledPartitionThreadExecutor();
+
+    //---------------------------------------------------------------
+
+    /** The executor service. */
+    private final ExecutorService                     executorService;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 使用默认线程池大小 {@link #DEFAULT_POOL_SIZE} 以及等待队列容量 {@link #DEFAULT_QUEUE_CAPACITY} 构造.
+     */
+    public PooledPartitionThreadExecutor(){
+        this(DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * 使用指定的线程池大小以及等待队列容量构造,线程池中的线程是守护线程.
+     *
+     * @param poolSize
+     *            线程池大小,必须 {@code >0}
+     * @param queueCapacity
+     *            等待队列容量,必须 {@code >0}
+     */
+    public PooledPartitionThreadExecutor(int poolSize, int queueCapacity){
+        this(poolSize, queueCapacity, PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * 使用指定的线程池大小,等待队列容量以及分区执行的配置构造,线程池中的线程是守护线程.
+     *
+     * @param poolSize
+     *            线程池大小,必须 {@code >0}
+     * @param queueCapacity
+     *            等待队列容量,必须 {@code >0}
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public PooledPartitionThreadExecutor(int poolSize, int queueCapacity, PartitionExecuteConfig partitionExecuteConfig){
+        this(
+                        buildExecutorService(poolSize, queueCapacity, new PartitionThreadFactory("PooledPartitionThreadExecutor", true)),
+                        partitionExecuteConfig);
+    }
+
+    /**
+     * 使用外部的线程池构造.
+     *
+     * <p>
+     * 该线程池的生命周期由调用方管理,当然也可以调用 {@link #shutdown()} 来关闭.
+     * </p>
+     *
+     * @param executorService
+     *            线程池,不能为null
+     */
+    public PooledPartitionThreadExecutor(ExecutorService executorService){
+        this(executorService, PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * 使用外部的线程池以及分区执行的配置构造.
+     *
+     * @param executorService
+     *            线程池,不能为null
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public PooledPartitionThreadExecutor(ExecutorService executorService, PartitionExecuteConfig partitionExecuteConfig){
+        super(partitionExecuteConfig);
+        Validate.notNull(executorService, "executorService can't be null!");
+        this.executorService = executorService;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 构造有界的线程池.
+     *
+     * <p>
+     * 核心线程数和最大线程数都是 <code>poolSize</code>,允许核心线程超时回收,等待队列满了之后由调用线程执行;<br>
+     * 线程池关闭之后提交的分区抛出 {@link RejectedExecutionException}.
+     * </p>
+     *
+     * @param poolSize
+     *            线程池大小
+     * @param queueCapacity
+     *            等待队列容量
+     * @param partitionThreadFactory
+     *            线程工厂
+     * @return 如果 {@code poolSize <=0},抛出 {@link IllegalArgumentException}<br>
+     *         如果 {@code queueCapacity <=0},抛出 {@link IllegalArgumentException}<br>
+     */
+    public static ExecutorService buildExecutorService(int poolSize,int queueCapacity,PartitionThreadFactory partitionThreadFactory){
+        Validate.isTrue(poolSize > 0, "poolSize must > 0");
+        Validate.isTrue(queueCapacity > 0, "queueCapacity must > 0");
+        Validate.notNull(partitionThreadFactory, "partitionThreadFactory can't be null!");
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                        poolSize,
+                        poolSize,
+                        KEEP_ALIVE_SECONDS,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<Runnable>(queueCapacity),
+                        partitionThreadFactory,
+                        new CallerRunsUnlessShutdownPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //分区异常只记录日志,不抛出
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext();
+        actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+    }
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        //1. 分区并提交到线程池
+        List<Future<?>> futures = submit(executorService, list, eachSize, paramsMap, partitionRunnableBuilder);
+
+        //2. 等待所有分区执行完成
+        await(executorService, futures, partitionExecuteContext);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 调用 {@link ListUtils#partition(List, int)} 对list 分成N份,每份作为一个任务提交到 <code>executorService</code>.
+     *
+     * @param <T>
+     *            the generic type
+     * @param executorService
+     *            the executor service
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @return 每个分区对应的 {@link Future},顺序和分区顺序一致
+     * @throws RejectedExecutionException
+     *             如果 <code>executorService</code> 已经关闭或者拒绝了某个分区,已经提交的分区会被取消
+     */
+    static <T> List<Future<?>> submit(
+                    ExecutorService executorService,
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //已经关闭的线程池,CallerRunsPolicy 会直接丢弃分区
+        if (executorService.isShutdown()){
+            throw new RejectedExecutionException("executorService:[" + executorService + "] is shutdown");
+        }
+
+        //将 list 分成 N 份
+        List<List<T>> groupList = ListUtils.partition(list, eachSize);
+
+        List<Future<?>> futures = new ArrayList<>(groupList.size());
+        int i = 0;
+        for (List<T> perBatchList : groupList){
+            String threadName = buildThreadName(i, partitionRunnableBuilder);
+
+            PartitionThreadEntity partitionThreadEntity = new PartitionThreadEntity(
+                            threadName,
+                            list.size(),
+                            eachSize,
+                            i,
+                            perBatchList.size());
+
+            Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+            if (null != runnable){
+                try{
+                    futures.add(executorService.submit(new PartitionNamedRunnable(threadName, runnable)));
+                }catch (RejectedExecutionException e){
+                    cancel(futures);
+                    throw e;
+                }
+            }else{
+                LOGGER.debug("[{}] build null runnable,skip", threadName);
+            }
+            i++;
+        }
+
+        //---------------------------------------------------------------
+        LOGGER.info("total list size:[{}],submit [{}] partitions,perSize:[{}]", list.size(), futures.size(), eachSize);
+        return futures;
+    }
+
+    /**
+     * 在 <code>partitionExecuteContext</code> 的截止时间之前等待所有的 <code>futures</code> 执行完成.
+     *
+     * <p>
+     * 分区的异常已经由 <code>partitionExecuteContext</code> 包装的 runnable 收集,这里不再处理;<br>
+     * 如果到了截止时间还有分区没有执行完成,调用 {@link PartitionExecuteContext#timeout()} 并且取消剩余的分区;<br>
+     * 如果当前线程被中断,调用 {@link PartitionExecuteContext#cancel()} 并且取消剩余的分区;<br>
+     * 每次最多等待 {@link #AWAIT_CHECK_NANOS},如果 <code>executorService</code> 已经终止(比如被 {@link ExecutorService#shutdownNow()}
+     * 移除了还没有开始的分区)而分区还没有完成,那么它永远不会完成,取消剩余的分区并且抛出 {@link RejectedExecutionException}.
+     * </p>
+     *
+     * @param executorService
+     *            执行分区的 executor service
+     * @param futures
+     *            the futures
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    static void await(ExecutorService executorService,List<Future<?>> futures,PartitionExecuteContext partitionExecuteContext){
+        for (int i = 0, j = futures.size(); i < j;){
+            Future<?> future = futures.get(i);
+            try{
+                future.get(Math.min(partitionExecuteContext.getRemainingNanos(), AWAIT_CHECK_NANOS), TimeUnit.NANOSECONDS);
+                ++i;
+            }catch (ExecutionException e){
+                LOGGER.error("", e.getCause());
+                ++i;
+            }catch (CancellationException e){
+                LOGGER.debug("partition cancelled", e);
+                ++i;
+            }catch (TimeoutException e){
+                if (partitionExecuteContext.getRemainingNanos() <= 0){
+                    partitionExecuteContext.timeout();
+                    cancel(futures.subList(i, j));
+                    return;
+                }
+                if (executorService.isTerminated() && !future.isDone()){
+                    cancel(futures.subList(i, j));
+                    throw new RejectedExecutionException("executorService:[" + executorService + "] terminated,partitions never run");
+                }
+            }catch (InterruptedException e){
+                LOGGER.error("", e);
+                partitionExecuteContext.cancel();
+                cancel(futures.subList(i, j));
+                // clean up state...
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 取消还没有完成的 <code>futures</code>.
+     *
+     * @param futures
+     *            the futures
+     */
+    private static void cancel(List<Future<?>> futures){
+        for (Future<?> future : futures){
+            future.cancel(true);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 平滑关闭线程池,不再接受新的分区,已经提交的分区会继续执行完成.
+     *
+     * @see ExecutorService#shutdown()
+     */
+    public void shutdown(){
+        executorService.shutdown();
+    }
+
+    /**
+     * 平滑关闭线程池,并且最多等待 <code>timeout</code>,如果超时还有没有执行完成的分区,那么调用 {@link ExecutorService#shutdownNow()} 强制关闭.
+     *
+     * @param timeout
+     *            最多等待的时间
+     * @param timeUnit
+     *            时间单位
+     * @return 如果在超时之前线程池正常关闭,返回true;否则返回false
+     */
+    public boolean shutdown(long timeout,TimeUnit timeUnit){
+        Validate.notNull(timeUnit, "timeUnit can't be null!");
+
+        executorService.shutdown();
+        try{
+            if (executorService.awaitTermination(timeout, timeUnit)){
+                return true;
+            }
+            List<Runnable> runnables = executorService.shutdownNow();
+            LOGGER.warn("executorService not terminated in [{}] [{}],force shutdown,[{}] partitions never commenced", timeout, timeUnit, runnables.size());
+            return false;
+        }catch (InterruptedException e){
+            LOGGER.error("", e);
+            executorService.shutdownNow();
+            // clean up state...
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 executor service.
+     *
+     * @return the executorService
+     */
+    public ExecutorService getExecutorService(){
+        return executorService;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 等待队列满了之后由调用线程执行,和 {@link ThreadPoolExecutor.CallerRunsPolicy} 一致;但是线程池关闭之后不是丢弃,而是抛出
+     * {@link RejectedExecutionException}.
+     */
+    private static final class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler{
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.util.concurrent.RejectedExecutionHandler#rejectedExecution(java.lang.Runnable, java.util.concurrent.ThreadPoolExecutor)
+         */
+        @Override
+        public void rejectedExecution(Runnable runnable,ThreadPoolExecutor threadPoolExecutor){
+            if (threadPoolExecutor.isShutdown()){
+                throw new RejectedExecutionException("executorService:[" + threadPoolExecutor + "] is shutdown");
+            }
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * 默认的统计实现,汇总执行次数,分区数量,失败次数,以及分区耗时/排队等待时间/整体耗时的百分位数.
+ * 
+ * <h3>示例:</h3>
+ * 
+ * <blockquote>
+ * 
+ * <pre class="code">
+ * private static final StatisticsPartitionExecuteListener STATISTICS = new StatisticsPartitionExecuteListener();
+ * 
+ * PooledPartitionThreadExecutor executor = new PooledPartitionThreadExecutor(20, 500);
+ * executor.addPartitionExecuteListener(STATISTICS);
+ * 
+ * //定时导出到监控系统
+ * Map{@code <String, Number>} metrics = STATISTICS.toMap();
+ * </pre>
+ * 
+ * </blockquote>
+ * 
+ * <h3>说明:</h3>
+ * 
+ * <blockquote>
+ * <ol>
+ * <li>百分位数基于最近 <code>sampleSize</code> 次的采样(滑动窗口),计数是从创建(或者 {@link #reset()})开始的累计值</li>
+ * <li>分区倾斜可以通过 {@link #getPartitionExecuteNanosPercentile(double)} 的 p99 和 p50 对比得出</li>
+ * <li>本类是线程安全的,同一个实例可以注册到多个执行器</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class StatisticsPartitionExecuteListener implements PartitionExecuteListener{
+
+    /** 默认的采样窗口大小 <code>{@value}</code>. */
+    public static final int    DEFAULT_SAMPLE_SIZE   = 1024;
+
+    //---------------------------------------------------------------
+
+    /** 执行次数. */
+    private final AtomicLong   executeCount          = new AtomicLong();
+
+    /** 执行失败次数. */
+    private final AtomicLong   executeFailureCount   = new AtomicLong();
+
+    /** 执行的分区数量. */
+    private final AtomicLong   partitionCount        = new AtomicLong();
+
+    /** 执行失败的分区数量. */
+    private final AtomicLong   partitionFailureCount = new AtomicLong();
+
+    /** 执行成功的分区处理的元素数量. */
+    private final AtomicLong   itemCount             = new AtomicLong();
+
+    /** 执行成功的分区的总耗时,单位纳秒. */
+    private final AtomicLong   partitionExecuteNanos = new AtomicLong();
+
+    //---------------------------------------------------------------
+
+    /** 整体执行耗时的采样. */
+    private final SampleWindow executeNanosSampleWindow;
+
+    /** 分区执行耗时的采样. */
+    private final SampleWindow partitionExecuteNanosSampleWindow;
+
+    /** 分区排队等待时间的采样. */
+    private final SampleWindow queueWaitNanosSampleWindow;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 采样窗口大小是 {@link #DEFAULT_SAMPLE_SIZE}.
+     */
+    public StatisticsPartitionExecuteListener(){
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Instantiates a new statistics partition execute listener.
+     *
+     * @param sampleSize
+     *            采样窗口大小,必须 {@code >0}
+     */
+    public StatisticsPartitionExecuteListener(int sampleSize){
+        super();
+        Validate.isTrue(sampleSize > 0, "sampleSize must > 0");
+        this.executeNanosSampleWindow = new SampleWindow(sampleSize);
+        this.partitionExecuteNanosSampleWindow = new SampleWindow(sampleSize);
+        this.queueWaitNanosSampleWindow = new SampleWindow(sampleSize);
+    }
+
+    //---------------------------------------------------------------
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onExecuteStart(java.lang.String, int, int)
+     */
+    @Override
+    public void onExecuteStart(String name,int totalListCount,int eachSize){
+        executeCount.incrementAndGet();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onExecuteEnd(java.lang.String, int, int, long, java.lang.Throwable)
+     */
+    @Override
+    public void onExecuteEnd(String name,int totalListCount,int eachSize,long elapsedNanos,Throwable throwable){
+        executeNanosSampleWindow.add(elapsedNanos);
+        if (null != throwable){
+            executeFailureCount.incrementAndGet();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionStart(com.feilong.core.lang.thread.PartitionThreadEntity, long)
+     */
+    @Override
+    public void onPartitionStart(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos){
+        partitionCount.incrementAndGet();
+        queueWaitNanosSampleWindow.add(queueWaitNanos);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionEnd(com.feilong.core.lang.thread.PartitionThreadEntity, long, long)
+     */
+    @Override
+    public void onPartitionEnd(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos){
+        partitionExecuteNanosSampleWindow.add(executeNanos);
+        itemCount.addAndGet(partitionThreadEntity.getCurrentListSize());
+        partitionExecuteNanos.addAndGet(executeNanos);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.feilong.core.lang.thread.PartitionExecuteListener#onPartitionFailure(com.feilong.core.lang.thread.PartitionThreadEntity, long, long,
+     * java.lang.Throwable)
+     */
+    @Override
+    public void onPartitionFailure(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos,Throwable throwable){
+        partitionExecuteNanosSampleWindow.add(executeNanos);
+        partitionFailureCount.incrementAndGet();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得整体执行耗时的百分位数.
+     *
+     * @param percentile
+     *            百分位,取值范围 [0,100],比如 50,99
+     * @return 如果还没有采样,返回0
+     */
+    public long getExecuteNanosPercentile(double percentile){
+        return executeNanosSampleWindow.getPercentile(percentile);
+    }
+
+    /**
+     * 获得分区执行耗时的百分位数.
+     *
+     * @param percentile
+     *            百分位,取值范围 [0,100],比如 50,99
+     * @return 如果还没有采样,返回0
+     */
+    public long getPartitionExecuteNanosPercentile(double percentile){
+        return partitionExecuteNanosSampleWindow.getPercentile(percentile);
+    }
+
+    /**
+     * 获得分区排队等待时间的百分位数.
+     *
+     * @param percentile
+     *            百分位,取值范围 [0,100],比如 50,99
+     * @return 如果还没有采样,返回0
+     */
+    public long getQueueWaitNanosPercentile(double percentile){
+        return queueWaitNanosSampleWindow.getPercentile(percentile);
+    }
+
+    /**
+     * 获得单个分区平均每秒处理的元素数量.
+     *
+     * @return 如果还没有执行成功的分区,返回0
+     */
+    public double getPartitionItemThroughputPerSecond(){
+        long nanos = partitionExecuteNanos.get();
+        return nanos <= 0 ? 0 : itemCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 将所有指标转成 map,方便导出到监控系统.
+     * 
+     * <p>
+     * 耗时的单位是纳秒,key 按照固定顺序排列.
+     * </p>
+     *
+     * @return the map
+     */
+    public Map<String, Number> toMap(){
+        Map<String, Number> map = new LinkedHashMap<>();
+        map.put("execute.count", getExecuteCount());
+        map.put("execute.failure.count", getExecuteFailureCount());
+        map.put("partition.count", getPartitionCount());
+        map.put("partition.failure.count", getPartitionFailureCount());
+        map.put("partition.item.count", getItemCount());
+        map.put("partition.item.throughput", getPartitionItemThroughputPerSecond());
+
+        putPercentiles(map, "execute.nanos", executeNanosSampleWindow);
+        putPercentiles(map, "partition.execute.nanos", partitionExecuteNanosSampleWindow);
+        putPercentiles(map, "partition.queueWait.nanos", queueWaitNanosSampleWindow);
+        return map;
+    }
+
+    /**
+     * 放入 p50,p90,p99 以及 max.
+     *
+     * @param map
+     *            the map
+     * @param prefix
+     *            the prefix
+     * @param sampleWindow
+     *            the sample window
+     */
+    private static void putPercentiles(Map<String, Number> map,String prefix,SampleWindow sampleWindow){
+        long[] sortedSamples = sampleWindow.getSortedSamples();
+        map.put(prefix + ".p50", SampleWindow.getPercentile(sortedSamples, 50));
+        map.put(prefix + ".p90", SampleWindow.getPercentile(sortedSamples, 90));
+        map.put(prefix + ".p99", SampleWindow.getPercentile(sortedSamples, 99));
+        map.put(prefix + ".max", SampleWindow.getPercentile(sortedSamples, 100));
+    }
+
+    /**
+     * 清空所有的计数以及采样.
+     */
+    public void reset(){
+        executeCount.set(0);
+        executeFailureCount.set(0);
+        partitionCount.set(0);
+        partitionFailureCount.set(0);
+        itemCount.set(0);
+        partitionExecuteNanos.set(0);
+
+        executeNanosSampleWindow.clear();
+        partitionExecuteNanosSampleWindow.clear();
+        queueWaitNanosSampleWindow.clear();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 执行次数.
+     *
+     * @return the executeCount
+     */
+    public long getExecuteCount(){
+        return executeCount.get();
+    }
+
+    /**
+     * 获得 执行失败次数.
+     *
+     * @return the executeFailureCount
+     */
+    public long getExecuteFailureCount(){
+        return executeFailureCount.get();
+    }
+
+    /**
+     * 获得 执行的分区数量.
+     *
+     * @return the partitionCount
+     */
+    public long getPartitionCount(){
+        return partitionCount.get();
+    }
+
+    /**
+     * 获得 执行失败的分区数量.
+     *
+     * @return the partitionFailureCount
+     */
+    public long getPartitionFailureCount(){
+        return partitionFailureCount.get();
+    }
+
+    /**
+     * 获得 执行成功的分区处理的元素数量.
+     *
+     * @return the itemCount
+     */
+    public long getItemCount(){
+        return itemCount.get();
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 固定大小的采样滑动窗口,新的采样覆盖最老的采样.
+     */
+    private static final class SampleWindow{
+
+        /** The samples. */
+        private final long[] samples;
+
+        /** 累计的采样次数. */
+        private long         count;
+
+        /**
+         * Instantiates a new sample window.
+         *
+         * @param sampleSize
+         *            the sample size
+         */
+        private SampleWindow(int sampleSize){
+            this.samples = new long[sampleSize];
+        }
+
+        /**
+         * 添加采样.
+         *
+         * @param value
+         *            the value
+         */
+        private synchronized void add(long value){
+            samples[(int) (count % samples.length)] = value;
+            count++;
+        }
+
+        /**
+         * 清空.
+         */
+        private synchronized void clear(){
+            count = 0;
+        }
+
+        /**
+         * 获得排好序的采样.
+         *
+         * @return the sorted samples
+         */
+        private synchronized long[] getSortedSamples(){
+            long[] sortedSamples = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(sortedSamples);
+            return sortedSamples;
+        }
+
+        /**
+         * 获得百分位数.
+         *
+         * @param percentile
+         *            the percentile
+         * @return the percentile
+         */
+        private long getPercentile(double percentile){
+            return getPercentile(getSortedSamples(), percentile);
+        }
+
+        /**
+         * 使用 nearest-rank 算法获得百分位数.
+         *
+         * @param sortedSamples
+         *            排好序的采样
+         * @param percentile
+         *            百分位,取值范围 [0,100]
+         * @return 如果没有采样,返回0
+         */
+        private static long getPercentile(long[] sortedSamples,double percentile){
+            Validate.isTrue(percentile >= 0 && percentile <= 100, "percentile must in [0,100],percentile:%s", percentile);
+            if (sortedSamples.length == 0){
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sortedSamples.length);
+            return sortedSamples[Math.max(0, rank - 1)];
+        }
+    }
+}
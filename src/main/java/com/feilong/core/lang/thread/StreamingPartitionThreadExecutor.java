@@ -0,0 +1,559 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import static com.feilong.core.date.DateExtensionUtil.formatDuration;
+import static com.feilong.core.date.DateUtil.now;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feilong.tools.slf4j.Slf4jUtil;
+
+/**
+ * 流式的执行实现,支持 {@link Iterator} 数据源,适合数据量很大,不能(或者不想)一次性加载到内存的场景(比如从数据库游标中读取千万级别的数据导出).
+ *
+ * <h3>原理:</h3>
+ *
+ * <blockquote>
+ * <p>
+ * 调用线程作为生产者,从 {@link Iterator} 中依次读取 eachSize 个元素组成一个分区,放入容量是 <code>queueCapacity</code> 的有界队列;<br>
+ * 固定 <code>threadCount</code> 个 worker 线程从队列中取出分区执行;<br>
+ * 当 worker 处理不过来,队列满了之后,生产者阻塞等待,不会继续读取 {@link Iterator}(背压).
+ * </p>
+ *
+ * <p>
+ * 所以同时在内存中的元素最多是 {@code (queueCapacity + threadCount + 1) * eachSize} 个,和数据总量无关.
+ * </p>
+ * </blockquote>
+ *
+ * <h3>示例:</h3>
+ *
+ * <blockquote>
+ *
+ * <pre class="code">
+ * 
+ * StreamingPartitionThreadExecutor executor = new StreamingPartitionThreadExecutor(8, 16);
+ * ThreadUtil.executeStreaming(executor, cursorIterator, 1000, null, exportPartitionPerHandler);
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * <h3>说明:</h3>
+ *
+ * <blockquote>
+ * <ol>
+ * <li>由于不知道数据总量,执行 {@link Iterator} 的时候,{@link PartitionThreadEntity#getTotalListCount()} 是
+ * {@link #UNKNOWN_TOTAL_LIST_COUNT}</li>
+ * <li>{@link Iterator} 的 next 只会在调用线程中调用,不需要线程安全</li>
+ * <li>如果 {@link Iterator} 本身抛出异常,会等已经放入队列的分区执行完成之后,原样抛出</li>
+ * <li>也支持 {@link #execute(List, int, Map, PartitionRunnableBuilder)},此时和其他实现一样,只是同时运行的线程数固定是 <code>threadCount</code></li>
+ * <li>{@link PartitionExecuteConfig#isFailFast()} 以及 {@link PartitionExecuteConfig#getTimeoutMillis()} 同样生效,取消/超时之后不再读取 {@link Iterator}</li>
+ * </ol>
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class StreamingPartitionThreadExecutor extends AbstractPartitionThreadExecutor{
+
+    /** The Constant LOGGER. */
+    private static final Logger                          LOGGER                   = LoggerFactory.getLogger(StreamingPartitionThreadExecutor.class);
+
+    /** 执行 {@link Iterator} 的时候,数据总量未知,{@link PartitionThreadEntity#getTotalListCount()} 的值 <code>{@value}</code>. */
+    public static final int                              UNKNOWN_TOTAL_LIST_COUNT = -1;
+
+    /** 默认 worker 线程数,cpu 核数的2倍. */
+    public static final int                              DEFAULT_THREAD_COUNT     = Runtime.getRuntime().availableProcessors() * 2;
+
+    /** 通知 worker 结束的标识,worker 取到之后放回队列,让其他 worker 也能取到. */
+    private static final Runnable                        POISON                   = new Runnable(){
+
+        @Override
+        public void run(){
+        }
+    };
+
+    //---------------------------------------------------------------
+
+    /** Static instance,worker 线程数以及队列容量都是 {@link #DEFAULT_THREAD_COUNT}. */
+    public static final StreamingPartitionThreadExecutor INSTANCE                 = new StreamingPartitionThreadExecutor();
+
+    //---------------------------------------------------------------
+
+    /** worker 线程数. */
+    private final int                                    threadCount;
+
+    /** 等待执行的分区队列容量. */
+    private final int                                    queueCapacity;
+
+    //---------------------------------------------------------------
+
+    /**
+     * worker 线程数以及队列容量都是 {@link #DEFAULT_THREAD_COUNT}.
+     */
+    public StreamingPartitionThreadExecutor(){
+        this(DEFAULT_THREAD_COUNT, DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * Instantiates a new streaming partition thread executor.
+     *
+     * @param threadCount
+     *            worker 线程数,必须 {@code >0}
+     * @param queueCapacity
+     *            等待执行的分区队列容量,必须 {@code >0}
+     */
+    public StreamingPartitionThreadExecutor(int threadCount, int queueCapacity){
+        this(threadCount, queueCapacity, PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * Instantiates a new streaming partition thread executor.
+     *
+     * @param threadCount
+     *            worker 线程数,必须 {@code >0}
+     * @param queueCapacity
+     *            等待执行的分区队列容量,必须 {@code >0}
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public StreamingPartitionThreadExecutor(int threadCount, int queueCapacity, PartitionExecuteConfig partitionExecuteConfig){
+        super(partitionExecuteConfig);
+        Validate.isTrue(threadCount > 0, "threadCount must > 0");
+        Validate.isTrue(queueCapacity > 0, "queueCapacity must > 0");
+        this.threadCount = threadCount;
+        this.queueCapacity = queueCapacity;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 从 <code>iterator</code> 中流式读取,每 <code>eachSize</code> 个元素组成一个分区,交给 worker 线程执行.
+     * 
+     * <p>
+     * 如果 <code>iterator</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果 {@code eachSize <=0} ,抛出 {@link IllegalArgumentException}<br>
+     * 如果 <code>partitionRunnableBuilder</code> 是null,抛出 {@link NullPointerException}<br>
+     * 如果某个分区执行出现异常,或者超时/取消,抛出 {@link PartitionExecuteException}<br>
+     * </p>
+     *
+     * @param <T>
+     *            the generic type
+     * @param iterator
+     *            数据源,可以没有元素,不能为null
+     * @param eachSize
+     *            每个分区多少个元素,必须{@code >}0
+     * @param paramsMap
+     *            自定义的相关参数,可以为null
+     * @param partitionRunnableBuilder
+     *            每个分区做的事情,不能为null
+     */
+    public <T> void execute(Iterator<T> iterator,int eachSize,Map<String, ?> paramsMap,PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        Validate.notNull(iterator, "iterator can't be null!");
+        Validate.notNull(partitionRunnableBuilder, "partitionRunnableBuilder can't be null!");
+
+        Validate.isTrue(eachSize > 0, "eachSize must > 0");
+
+        //---------------------------------------------------------------
+        String partitionRunnableBuilderName = getName(partitionRunnableBuilder);
+        if (LOGGER.isInfoEnabled()){
+            LOGGER.info("begin [{}],iterator,eachSize:[{}]", partitionRunnableBuilderName, eachSize);
+        }
+
+        //---------------------------------------------------------------
+        Date beginDate = now();
+
+        PartitionExecuteContext partitionExecuteContext = newPartitionExecuteContext();
+        partitionExecuteContext.fireExecuteStart(partitionRunnableBuilderName, UNKNOWN_TOTAL_LIST_COUNT, eachSize);
+
+        Throwable throwable = null;
+        try{
+            stream(
+                            iterator,
+                            UNKNOWN_TOTAL_LIST_COUNT,
+                            eachSize,
+                            paramsMap,
+                            partitionExecuteContext.wrap(partitionRunnableBuilder),
+                            partitionExecuteContext);
+
+            //---------------------------------------------------------------
+            if (LOGGER.isInfoEnabled()){
+                LOGGER.info("end [{}],use time:[{}]", partitionRunnableBuilderName, formatDuration(beginDate));
+            }
+
+            //有分区失败,或者超时/取消,抛出 PartitionExecuteException
+            partitionExecuteContext.check();
+        }catch (RuntimeException | Error e){
+            throwable = e;
+            throw e;
+        }finally{
+            partitionExecuteContext.fireExecuteEnd(partitionRunnableBuilderName, UNKNOWN_TOTAL_LIST_COUNT, eachSize, throwable);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //分区异常只记录日志,不抛出
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext();
+        actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+    }
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        stream(list.iterator(), list.size(), eachSize, paramsMap, partitionRunnableBuilder, partitionExecuteContext);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 启动 worker,在当前线程中生产分区,生产完成之后通知 worker 结束,并且等待 worker 执行完成.
+     *
+     * @param <T>
+     *            the generic type
+     * @param iterator
+     *            the iterator
+     * @param totalListCount
+     *            数据总量,未知的时候是 {@link #UNKNOWN_TOTAL_LIST_COUNT}
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     */
+    private <T> void stream(
+                    Iterator<T> iterator,
+                    int totalListCount,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Thread[] workers = startWorkers(queue, partitionRunnableBuilder);
+
+        try{
+            int partitionCount = produce(iterator, totalListCount, eachSize, paramsMap, partitionRunnableBuilder, partitionExecuteContext, queue);
+            LOGGER.info("total list size:[{}],[{}] partitions,perSize:[{}],threadCount:[{}]", totalListCount, partitionCount, eachSize, threadCount);
+        }finally{
+            finish(queue, partitionExecuteContext);
+            DefaultPartitionThreadExecutor.join(workers, partitionExecuteContext);
+        }
+    }
+
+    /**
+     * 启动 <code>threadCount</code> 个 worker 线程.
+     *
+     * @param <T>
+     *            the generic type
+     * @param queue
+     *            the queue
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @return the thread[]
+     */
+    private <T> Thread[] startWorkers(BlockingQueue<Runnable> queue,PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        PartitionThreadFactory partitionThreadFactory = new PartitionThreadFactory(
+                        Slf4jUtil.format("StreamingWorker-{}", getName(partitionRunnableBuilder)),
+                        true);
+
+        Thread[] workers = new Thread[threadCount];
+        for (int i = 0; i < threadCount; ++i){
+            workers[i] = partitionThreadFactory.newThread(new PartitionWorker(queue));
+            workers[i].start();
+        }
+        return workers;
+    }
+
+    /**
+     * 从 <code>iterator</code> 中读取元素组成分区,放入 <code>queue</code>.
+     *
+     * @param <T>
+     *            the generic type
+     * @param iterator
+     *            the iterator
+     * @param totalListCount
+     *            the total list count
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @param queue
+     *            the queue
+     * @return 生产的分区数量
+     */
+    private static <T> int produce(
+                    Iterator<T> iterator,
+                    int totalListCount,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext,
+                    BlockingQueue<Runnable> queue){
+        int batchNumber = 0;
+        List<T> perBatchList = new ArrayList<>(eachSize);
+        while (!partitionExecuteContext.isCancelled() && iterator.hasNext()){
+            perBatchList.add(iterator.next());
+            if (perBatchList.size() < eachSize){
+                continue;
+            }
+
+            //---------------------------------------------------------------
+            if (!put(queue, batchNumber, perBatchList, totalListCount, eachSize, paramsMap, partitionRunnableBuilder, partitionExecuteContext)){
+                return batchNumber;
+            }
+            batchNumber++;
+            perBatchList = new ArrayList<>(eachSize);
+        }
+
+        //---------------------------------------------------------------
+        //最后一个不满 eachSize 的分区
+        if (!perBatchList.isEmpty() && !partitionExecuteContext.isCancelled()
+                        && put(queue, batchNumber, perBatchList, totalListCount, eachSize, paramsMap, partitionRunnableBuilder, partitionExecuteContext)){
+            batchNumber++;
+        }
+        return batchNumber;
+    }
+
+    /**
+     * 构造分区的 runnable 并且放入 <code>queue</code>,如果队列满了,最多等待到 <code>partitionExecuteContext</code> 的截止时间.
+     *
+     * @param <T>
+     *            the generic type
+     * @param queue
+     *            the queue
+     * @param batchNumber
+     *            the batch number
+     * @param perBatchList
+     *            the per batch list
+     * @param totalListCount
+     *            the total list count
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @return 如果超时或者当前线程被中断,返回false
+     */
+    private static <T> boolean put(
+                    BlockingQueue<Runnable> queue,
+                    int batchNumber,
+                    List<T> perBatchList,
+                    int totalListCount,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        if (partitionExecuteContext.getRemainingNanos() <= 0){
+            partitionExecuteContext.timeout();
+            return false;
+        }
+
+        //---------------------------------------------------------------
+        String threadName = buildThreadName(batchNumber, partitionRunnableBuilder);
+        PartitionThreadEntity partitionThreadEntity = new PartitionThreadEntity(
+                        threadName,
+                        totalListCount,
+                        eachSize,
+                        batchNumber,
+                        perBatchList.size());
+
+        Runnable runnable = partitionRunnableBuilder.build(perBatchList, partitionThreadEntity, paramsMap);
+        if (null == runnable){
+            LOGGER.debug("[{}] build null runnable,skip", threadName);
+            return true;
+        }
+
+        //---------------------------------------------------------------
+        try{
+            if (queue.offer(new PartitionNamedRunnable(threadName, runnable), partitionExecuteContext.getRemainingNanos(), TimeUnit.NANOSECONDS)){
+                return true;
+            }
+            partitionExecuteContext.timeout();
+            return false;
+        }catch (InterruptedException e){
+            LOGGER.error("", e);
+            partitionExecuteContext.cancel();
+            // clean up state...
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 通知 worker 结束.
+     * 
+     * <p>
+     * 正常情况下把 {@link #POISON} 放到队列最后,worker 执行完队列中的分区之后结束;<br>
+     * 如果已经取消/超时(或者等待的时候超时/被中断),那么清空队列中还没有执行的分区再放入 {@link #POISON},worker 尽快结束.
+     * </p>
+     *
+     * @param queue
+     *            the queue
+     * @param partitionExecuteContext
+     *            the partition execute context
+     */
+    private static void finish(BlockingQueue<Runnable> queue,PartitionExecuteContext partitionExecuteContext){
+        if (!partitionExecuteContext.isCancelled()){
+            try{
+                if (queue.offer(POISON, partitionExecuteContext.getRemainingNanos(), TimeUnit.NANOSECONDS)){
+                    return;
+                }
+                partitionExecuteContext.timeout();
+            }catch (InterruptedException e){
+                LOGGER.error("", e);
+                partitionExecuteContext.cancel();
+                // clean up state...
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        //---------------------------------------------------------------
+        //只有生产者往队列里面放分区,清空之后一定放得下
+        queue.clear();
+        queue.offer(POISON);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 worker 线程数.
+     *
+     * @return the threadCount
+     */
+    public int getThreadCount(){
+        return threadCount;
+    }
+
+    /**
+     * 获得 等待执行的分区队列容量.
+     *
+     * @return the queueCapacity
+     */
+    public int getQueueCapacity(){
+        return queueCapacity;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 从队列中取出分区执行,直到取到 {@link StreamingPartitionThreadExecutor#POISON}.
+     */
+    private static final class PartitionWorker implements Runnable{
+
+        /** The queue. */
+        private final BlockingQueue<Runnable> queue;
+
+        //---------------------------------------------------------------
+
+        /**
+         * Instantiates a new partition worker.
+         *
+         * @param queue
+         *            the queue
+         */
+        private PartitionWorker(BlockingQueue<Runnable> queue){
+            this.queue = queue;
+        }
+
+        //---------------------------------------------------------------
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run(){
+            try{
+                while (true){
+                    Runnable runnable = queue.take();
+                    if (POISON == runnable){
+                        //刚取出一个,一定放得下
+                        queue.offer(POISON);
+                        return;
+                    }
+                    runnable.run();
+                }
+            }catch (InterruptedException e){
+                LOGGER.error("", e);
+                // clean up state...
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
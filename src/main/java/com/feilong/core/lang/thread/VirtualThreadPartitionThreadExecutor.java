@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.thread;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基于虚拟线程(virtual thread)的执行实现,适合 I/O 密集型的分区处理(比如调用远程服务,查询数据库).
+ *
+ * <h3>说明:</h3>
+ *
+ * <blockquote>
+ * <ol>
+ * <li>如果运行时支持虚拟线程(jdk21+),每次执行会通过 {@code Executors.newVirtualThreadPerTaskExecutor()} 为每个分区创建一个虚拟线程,执行完成之后关闭该
+ * executor;<br>
+ * 虚拟线程在阻塞的时候不占用平台线程,所以可以放心的把分区数设置得远大于 {@link PartitionThreadConfig#getMaxThreadCount()} 的默认值 100,
+ * 甚至 <code>eachSize=1</code> 让每个元素都在自己的虚拟线程里面执行</li>
+ * <li>如果运行时不支持虚拟线程,会使用 <code>fallbackPartitionThreadExecutor</code>(默认 {@link PooledPartitionThreadExecutor#INSTANCE})执行</li>
+ * <li>是否支持在类加载的时候通过反射探测一次,参见 {@link #isVirtualThreadSupported()},本类本身仍然可以在 jdk1.7 下编译运行</li>
+ * </ol>
+ * </blockquote>
+ *
+ * <h3>示例:</h3>
+ *
+ * <blockquote>
+ *
+ * <pre class="code">
+ * ThreadUtil.execute(VirtualThreadPartitionThreadExecutor.INSTANCE, orderList, 1, null, remoteCallPartitionPerHandler);
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class VirtualThreadPartitionThreadExecutor extends AbstractPartitionThreadExecutor{
+
+    /** The Constant LOGGER. */
+    private static final Logger                              LOGGER                                  = LoggerFactory.getLogger(VirtualThreadPartitionThreadExecutor.class);
+
+    /** 创建虚拟线程 executor 的方法名 <code>{@value}</code>. */
+    private static final String                              METHOD_NAME_NEW_VIRTUAL_THREAD_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    /** {@link Executors} 中创建虚拟线程 executor 的方法,如果运行时不支持虚拟线程,那么是null. */
+    private static final Method                              NEW_VIRTUAL_THREAD_EXECUTOR_METHOD      = resolveNewVirtualThreadExecutorMethod();
+
+    //---------------------------------------------------------------
+
+    /** Static instance. */
+    public static final VirtualThreadPartitionThreadExecutor INSTANCE                                = new VirtualThreadPartitionThreadExecutor();
+
+    //---------------------------------------------------------------
+
+    /** 不支持虚拟线程时候使用的执行器. */
+    private final PooledPartitionThreadExecutor              fallbackPartitionThreadExecutor;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 不支持虚拟线程的时候,使用 {@link PooledPartitionThreadExecutor#INSTANCE}.
+     */
+    public VirtualThreadPartitionThreadExecutor(){
+        this(PooledPartitionThreadExecutor.INSTANCE);
+    }
+
+    /**
+     * Instantiates a new virtual thread partition thread executor.
+     *
+     * @param fallbackPartitionThreadExecutor
+     *            不支持虚拟线程时候使用的执行器,不能为null
+     */
+    public VirtualThreadPartitionThreadExecutor(PooledPartitionThreadExecutor fallbackPartitionThreadExecutor){
+        this(fallbackPartitionThreadExecutor, PartitionExecuteConfig.INSTANCE);
+    }
+
+    /**
+     * Instantiates a new virtual thread partition thread executor.
+     * 
+     * <p>
+     * 使用 <code>fallbackPartitionThreadExecutor</code> 执行的时候,快速失败/超时/并发许可使用的也是本执行器的 <code>partitionExecuteConfig</code>.
+     * </p>
+     *
+     * @param fallbackPartitionThreadExecutor
+     *            不支持虚拟线程时候使用的执行器,不能为null
+     * @param partitionExecuteConfig
+     *            分区执行的配置,不能为null
+     * @since 2.1.0
+     */
+    public VirtualThreadPartitionThreadExecutor(
+                    PooledPartitionThreadExecutor fallbackPartitionThreadExecutor,
+                    PartitionExecuteConfig partitionExecuteConfig){
+        super(partitionExecuteConfig);
+        Validate.notNull(fallbackPartitionThreadExecutor, "fallbackPartitionThreadExecutor can't be null!");
+        this.fallbackPartitionThreadExecutor = fallbackPartitionThreadExecutor;
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder){
+        //分区异常只记录日志,不抛出
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext();
+        actualExecute(list, eachSize, paramsMap, partitionExecuteContext.wrap(partitionRunnableBuilder), partitionExecuteContext);
+    }
+
+    /**
+     * Actual execute.
+     *
+     * @param <T>
+     *            the generic type
+     * @param list
+     *            the list
+     * @param eachSize
+     *            the each size
+     * @param paramsMap
+     *            the params map
+     * @param partitionRunnableBuilder
+     *            the partition runnable builder
+     * @param partitionExecuteContext
+     *            the partition execute context
+     * @since 2.1.0
+     */
+    @Override
+    protected <T> void actualExecute(
+                    List<T> list,
+                    int eachSize,
+                    Map<String, ?> paramsMap,
+                    PartitionRunnableBuilder<T> partitionRunnableBuilder,
+                    PartitionExecuteContext partitionExecuteContext){
+        ExecutorService executorService = newVirtualThreadExecutor();
+        if (null == executorService){
+            LOGGER.debug("virtual thread not supported,use fallback:[{}]", fallbackPartitionThreadExecutor);
+            fallbackPartitionThreadExecutor.actualExecute(list, eachSize, paramsMap, partitionRunnableBuilder, partitionExecuteContext);
+            return;
+        }
+
+        //---------------------------------------------------------------
+        try{
+            List<Future<?>> futures = PooledPartitionThreadExecutor.submit(executorService, list, eachSize, paramsMap, partitionRunnableBuilder);
+            PooledPartitionThreadExecutor.await(executorService, futures, partitionExecuteContext);
+        }finally{
+            //所有的分区都已经执行完成(或者超时/取消之后已经中断),关闭虚拟线程 executor 不会有等待
+            executorService.shutdown();
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 判断当前运行时是否支持虚拟线程.
+     *
+     * @return 如果支持虚拟线程,返回true
+     */
+    public static boolean isVirtualThreadSupported(){
+        return null != NEW_VIRTUAL_THREAD_EXECUTOR_METHOD;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的 {@link ExecutorService}.
+     *
+     * @return 如果运行时不支持虚拟线程,返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor(){
+        return null == NEW_VIRTUAL_THREAD_EXECUTOR_METHOD ? null : invoke(NEW_VIRTUAL_THREAD_EXECUTOR_METHOD);
+    }
+
+    /**
+     * 探测 {@link Executors} 中是否有 <code>newVirtualThreadPerTaskExecutor</code> 方法,并且可以正常调用(jdk19/20 没有开启 preview 的时候会抛出异常).
+     *
+     * @return 如果不支持,返回null
+     */
+    private static Method resolveNewVirtualThreadExecutorMethod(){
+        Method method;
+        try{
+            method = Executors.class.getMethod(METHOD_NAME_NEW_VIRTUAL_THREAD_EXECUTOR);
+        }catch (NoSuchMethodException e){
+            LOGGER.debug("no method [{}],virtual thread not supported", METHOD_NAME_NEW_VIRTUAL_THREAD_EXECUTOR);
+            return null;
+        }
+
+        //---------------------------------------------------------------
+        ExecutorService executorService = invoke(method);
+        if (null == executorService){
+            return null;
+        }
+        executorService.shutdown();
+        return method;
+    }
+
+    /**
+     * 调用创建虚拟线程 executor 的方法.
+     *
+     * @param method
+     *            the method
+     * @return 如果调用出现异常,返回null
+     */
+    private static ExecutorService invoke(Method method){
+        try{
+            return (ExecutorService) method.invoke(null);
+        }catch (Exception e){
+            LOGGER.warn("invoke [" + method.getName() + "] exception,virtual thread not supported", e);
+            return null;
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 不支持虚拟线程时候使用的执行器.
+     *
+     * @return the fallbackPartitionThreadExecutor
+     */
+    public PooledPartitionThreadExecutor getFallbackPartitionThreadExecutor(){
+        return fallbackPartitionThreadExecutor;
+    }
+}
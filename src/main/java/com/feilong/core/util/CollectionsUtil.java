@@ -48,7 +48,9 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.feilong.core.bean.PropertyPath;
 import com.feilong.core.bean.PropertyUtil;
+import com.feilong.core.bean.PropertyValueColumns;
 import com.feilong.core.bean.PropertyValueObtainer;
 import com.feilong.core.util.closure.BeanPropertyValueChangeClosure;
 import com.feilong.core.util.predicate.BeanPredicateUtil;
@@ -888,7 +890,7 @@ public final class CollectionsUtil{
         //用来存放返回list
         List<O> returnList = new ArrayList<>(IterableUtils.size(objectCollection));
         for (O o : objectCollection){
-            Map<String, Object> propertyNameAndValueMap = PropertyUtil.describe(o, propertyNames);
+            Map<String, Object> propertyNameAndValueMap = PropertyUtil.describeView(o, propertyNames);
             boolean isNotExist = !isExist(mapList, propertyNameAndValueMap, propertyNames);
             if (isNotExist){
                 returnList.add(o);
@@ -1193,6 +1195,63 @@ public final class CollectionsUtil{
                         .getPropertyValueCollection(beanIterable, propertyName, new LinkedHashSet<T>(IterableUtils.size(beanIterable)));
     }
 
+    /**
+     * 循环一次 <code>beanIterable</code>,同时提取多个属性 <code>propertyNames</code> 的值,每个属性一列.
+     * 
+     * <h3>说明:</h3>
+     * <blockquote>
+     * <ol>
+     * <li>相比较每个属性调用一次 {@link #getPropertyValueList(Iterable, String)},只循环一次,每个属性名称只解析一次</li>
+     * <li>数值属性可以直接取 primitive 数组,比如 {@link PropertyValueColumns#getLongArray(String)}</li>
+     * </ol>
+     * </blockquote>
+     * 
+     * <h3>示例:</h3>
+     * <blockquote>
+     * 
+     * <pre class="code">
+     * List{@code <User>} list = toList(new User(2L), new User(5L));
+     * 
+     * PropertyValueColumns propertyValueColumns = CollectionsUtil.getPropertyValueColumns(list, "id", "name");
+     * long[] ids = propertyValueColumns.getLongArray("id");
+     * List{@code <String>} names = propertyValueColumns.getList("name");
+     * </pre>
+     * 
+     * <b>返回:</b>
+     * 
+     * <pre class="code">
+     * ids: [2,5]
+     * names: ["feilong","feilong"]
+     * </pre>
+     * 
+     * </blockquote>
+     *
+     * @param <O>
+     *            可迭代对象类型 generic type
+     * @param beanIterable
+     *            支持
+     * 
+     *            <ul>
+     *            <li>bean Iterable,比如List{@code <User>},Set{@code <User>}等</li>
+     *            <li>map Iterable,比如{@code List<Map<String, String>>}</li>
+     *            <li>list Iterable , 比如 {@code  List<List<String>>}</li>
+     *            <li>数组 Iterable ,比如 {@code  List<String[]>}</li>
+     *            </ul>
+     * @param propertyNames
+     *            泛型O对象指定的属性名称,Possibly indexed and/or nested name of the property to be modified,参见
+     *            <a href="../bean/BeanUtil.html#propertyName">propertyName</a>
+     * @return 如果参数 <code>beanIterable</code>是null或者empty,返回每列都是empty的 {@link PropertyValueColumns}<br>
+     *         如果 <code>propertyNames</code> 是null,抛出 {@link NullPointerException}<br>
+     *         如果 <code>propertyNames</code> 是empty,抛出 {@link IllegalArgumentException}<br>
+     *         如果 <code>propertyNames</code> 有元素是blank,抛出 {@link IllegalArgumentException}<br>
+     * @see PropertyValueObtainer#getPropertyValueColumns(Iterable, String...)
+     * @since 2.1.0
+     */
+    public static <O> PropertyValueColumns getPropertyValueColumns(Iterable<O> beanIterable,String...propertyNames){
+        Iterable<O> iterable = null == beanIterable ? Collections.<O> emptyList() : beanIterable;
+        return PropertyValueObtainer.getPropertyValueColumns(iterable, propertyNames);
+    }
+
     //----------------------------getPropertyValueMap-----------------------------------
 
     /**
@@ -1283,9 +1342,13 @@ public final class CollectionsUtil{
         Validate.notBlank(keyPropertyName, "keyPropertyName can't be null/empty!");
         Validate.notBlank(valuePropertyName, "valuePropertyName can't be null/empty!");
 
+        //since 2.1.0 属性表达式只解析一次
+        PropertyPath keyPropertyPath = PropertyPath.compile(keyPropertyName);
+        PropertyPath valuePropertyPath = PropertyPath.compile(valuePropertyName);
+
         Map<K, V> map = newLinkedHashMap(IterableUtils.size(beanIterable));
         for (O bean : beanIterable){
-            map.put(PropertyUtil.<K> getProperty(bean, keyPropertyName), PropertyUtil.<V> getProperty(bean, valuePropertyName));
+            map.put(keyPropertyPath.<K> getValue(bean), valuePropertyPath.<V> getValue(bean));
         }
         return map;
     }
@@ -2373,12 +2436,15 @@ public final class CollectionsUtil{
         Validate.notBlank(propertyName, "propertyName can't be null/empty!");
 
         //---------------------------------------------------------------
+        //since 2.1.0 属性表达式只解析一次
+        final PropertyPath propertyPath = PropertyPath.compile(propertyName);
+
         //org.apache.commons.beanutils.BeanToPropertyValueTransformer 但是实现的是 commons-collection3
         return group(beanIterable, includePredicate, new Transformer<O, T>(){
 
             @Override
             public T transform(O input){
-                return PropertyUtil.getProperty(input, propertyName);
+                return propertyPath.getValue(input);
             }
         });
     }
@@ -2711,9 +2777,12 @@ public final class CollectionsUtil{
         }
         Validate.notBlank(propertyName, "propertyName can't be null/empty!");
         //---------------------------------------------------------------
+        //since 2.1.0 属性表达式只解析一次
+        PropertyPath propertyPath = PropertyPath.compile(propertyName);
+
         Map<T, O> map = newLinkedHashMap(IterableUtils.size(beanIterable));
         for (O o : beanIterable){
-            T key = PropertyUtil.getProperty(o, propertyName);
+            T key = propertyPath.getValue(o);
             if (!map.containsKey(key)){
                 map.put(key, o);
             }else{
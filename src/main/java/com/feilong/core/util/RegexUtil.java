@@ -19,7 +19,10 @@ import static com.feilong.core.util.MapUtil.newLinkedHashMap;
 import static java.util.Collections.emptyMap;
 
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +30,8 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.feilong.core.CacheStatistics;
+
 /**
  * 正则表达式工具类.
  *
@@ -41,7 +46,7 @@ import org.slf4j.LoggerFactory;
 public final class RegexUtil{
 
     /** The Constant LOGGER. */
-    private static final Logger               LOGGER        = LoggerFactory.getLogger(RegexUtil.class);
+    private static final Logger                         LOGGER                 = LoggerFactory.getLogger(RegexUtil.class);
 
     /**
      * Pattern cache提高速度.
@@ -49,7 +54,21 @@ public final class RegexUtil{
      * @see <a href="https://github.com/venusdrogon/feilong-core/issues/665">RegexUtil 加上缓存</a>
      * @since 1.10.6
      */
-    private static final Map<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Pattern> PATTERN_CACHE          = new ConcurrentHashMap<>();
+
+    /**
+     * {@link #PATTERN_CACHE} 的 key,按照放入的顺序.
+     * 
+     * @since 2.1.0
+     */
+    private static final Queue<String>                  PATTERN_KEY_QUEUE      = new ConcurrentLinkedQueue<>();
+
+    /**
+     * {@link #PATTERN_CACHE} 最大的数量 {@value},超过之后淘汰最早放入的(FIFO),避免动态拼接的正则表达式让缓存无限增长.
+     * 
+     * @since 2.1.0
+     */
+    static final int                                    PATTERN_CACHE_MAX_SIZE = 1024;
 
     //---------------------------------------------------------------
 
@@ -273,8 +292,53 @@ public final class RegexUtil{
 
         if (null == pattern){
             pattern = Pattern.compile(regexPattern, flags);
-            PATTERN_CACHE.put(key, pattern);
+
+            Pattern existed = PATTERN_CACHE.putIfAbsent(key, pattern);
+            if (null != existed){
+                return existed;
+            }
+            PATTERN_KEY_QUEUE.offer(key);
+            evict();
         }
         return pattern;
     }
-}
\ No newline at end of file
+
+    /**
+     * 如果 {@link #PATTERN_CACHE} 超过了 {@link #PATTERN_CACHE_MAX_SIZE},按照放入的顺序淘汰最早的.
+     * 
+     * @since 2.1.0
+     */
+    private static void evict(){
+        while (PATTERN_CACHE.size() > PATTERN_CACHE_MAX_SIZE){
+            String eldestKey = PATTERN_KEY_QUEUE.poll();
+            if (null == eldestKey){
+                return;
+            }
+            PATTERN_CACHE.remove(eldestKey);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 {@link Pattern} 缓存的统计信息.
+     * 
+     * <p>
+     * {@link Pattern} 编译之后的节点树的大小和正则表达式的长度大致成正比,这里按照每个字符 64 字节估算.
+     * </p>
+     *
+     * @return the cache statistics
+     * @see com.feilong.core.bean.MetadataCacheUtil#getCacheStatisticsList()
+     * @since 2.1.0
+     */
+    public static CacheStatistics getPatternCacheStatistics(){
+        int size = 0;
+        long estimatedBytes = 0;
+        for (Map.Entry<String, Pattern> entry : PATTERN_CACHE.entrySet()){
+            estimatedBytes += CacheStatistics.MAP_ENTRY_BYTES + CacheStatistics.estimateStringBytes(entry.getKey())
+                            + CacheStatistics.estimateObjectBytes(20) + 64L * entry.getValue().pattern().length();
+            ++size;
+        }
+        return new CacheStatistics("RegexUtil.PATTERN_CACHE", size, estimatedBytes);
+    }
+}
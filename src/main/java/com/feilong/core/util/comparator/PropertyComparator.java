@@ -29,7 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.feilong.core.bean.ConvertUtil;
-import com.feilong.core.bean.PropertyUtil;
+import com.feilong.core.bean.PropertyPath;
 
 /**
  * 属性比较器,自动获取 <code>T</code>中的属性名字是 {@link #propertyName}的值,进行比较,不用每个需要排序的字段创建 {@link Comparator}类.
@@ -97,6 +97,13 @@ public class PropertyComparator<T> implements Comparator<T>,Serializable{
     @SuppressWarnings("rawtypes")
     private Class<? extends Comparable> propertyValueConvertToClass;
 
+    /**
+     * <code>propertyName</code> 解析之后的表达式,第一次比较的时候初始化,不参与序列化.
+     * 
+     * @since 2.1.0
+     */
+    private transient PropertyPath      propertyPath;
+
     //----------------------------------------------------------------------------------------------------------
 
     /**
@@ -426,8 +433,9 @@ public class PropertyComparator<T> implements Comparator<T>,Serializable{
         }
 
         //---------------------------------------------------------------------
-        Comparable propertyValue1 = PropertyUtil.getProperty(t1, propertyName);
-        Comparable propertyValue2 = PropertyUtil.getProperty(t2, propertyName);
+        PropertyPath currentPropertyPath = getPropertyPath();
+        Comparable propertyValue1 = currentPropertyPath.getValue(t1);
+        Comparable propertyValue2 = currentPropertyPath.getValue(t2);
 
         //如果值需要类型转换
         if (null != propertyValueConvertToClass){
@@ -437,6 +445,23 @@ public class PropertyComparator<T> implements Comparator<T>,Serializable{
         return null == comparator ? compare(t1, t2, propertyValue1, propertyValue2) : comparator.compare(propertyValue1, propertyValue2);
     }
 
+    /**
+     * 获得 <code>propertyName</code> 解析之后的表达式.
+     * 
+     * <p>
+     * 排序的时候每次比较都要取值,表达式只解析一次;并发初始化的时候 {@link PropertyPath#compile(String)} 返回的是同一个缓存的对象.
+     * </p>
+     *
+     * @return the property path
+     * @since 2.1.0
+     */
+    private PropertyPath getPropertyPath(){
+        if (null == propertyPath){
+            propertyPath = PropertyPath.compile(propertyName);
+        }
+        return propertyPath;
+    }
+
     //---------------------------------------------------------------
 
     /**
@@ -18,10 +18,10 @@ package com.feilong.core.util.predicate;
 import org.apache.commons.collections4.Predicate;
 import org.apache.commons.lang3.Validate;
 
-import com.feilong.core.bean.PropertyUtil;
+import com.feilong.core.bean.PropertyPath;
 
 /**
- * 调用 {@link PropertyUtil#getProperty(Object, String)} 匹配属性值.
+ * 调用 {@link PropertyPath#getValue(Object)} 匹配属性值,<code>propertyName</code> 只在构造的时候解析一次.
  *
  * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
  * @param <T>
@@ -34,15 +34,16 @@ import com.feilong.core.bean.PropertyUtil;
 //XXX 如果{@link org.apache.commons.beanutils.BeanPredicate}支持泛型且支持 commons-collections4之后,那么这么类将会废弃
 public class BeanPredicate<T> implements Predicate<T>{
 
-    /**
-     * 泛型T对象指定的属性名称,Possibly indexed and/or nested name of the property to be modified,参见
-     * <a href="../../bean/BeanUtil.html#propertyName">propertyName</a>.
-     */
-    private final String    propertyName;
-
     /** The value predicate. */
     @SuppressWarnings("rawtypes")
-    private final Predicate valuePredicate;
+    private final Predicate    valuePredicate;
+
+    /**
+     * <code>propertyName</code> 解析之后的表达式,原始的 propertyName 参见 {@link PropertyPath#getExpression()}.
+     * 
+     * @since 2.1.0
+     */
+    private final PropertyPath propertyPath;
 
     //---------------------------------------------------------------
 
@@ -65,8 +66,8 @@ public class BeanPredicate<T> implements Predicate<T>{
         Validate.notBlank(propertyName, "propertyName can't be blank!");
         Validate.notNull(valuePredicate, "predicate can't be null!");
 
-        this.propertyName = propertyName;
         this.valuePredicate = valuePredicate;
+        this.propertyPath = PropertyPath.compile(propertyName);
     }
 
     //---------------------------------------------------------------
@@ -79,7 +80,7 @@ public class BeanPredicate<T> implements Predicate<T>{
     @SuppressWarnings("unchecked")
     @Override
     public boolean evaluate(T object){
-        Object currentPropertyValue = PropertyUtil.getProperty(object, propertyName);
+        Object currentPropertyValue = propertyPath.getValue(object);
         return valuePredicate.evaluate(currentPropertyValue);
     }
 }
\ No newline at end of file
@@ -19,8 +19,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.feilong.core.bean.beanaccessortest.FeiLongBeanAccessorSuiteTests;
 import com.feilong.core.bean.beanutiltest.FeiLongBeanUtilSuiteTests;
 import com.feilong.core.bean.convertutiltest.FeiLongConvertUtilSuiteTests;
+import com.feilong.core.bean.metadatacacheutiltest.FeiLongMetadataCacheUtilSuiteTests;
 import com.feilong.core.bean.propertyValueobtainer.FeiLongPropertyValueObtainerSuiteTests;
 import com.feilong.core.bean.propertyutiltest.FeiLongPropertyUtilSuiteTests;
 
@@ -32,8 +34,10 @@ import com.feilong.core.bean.propertyutiltest.FeiLongPropertyUtilSuiteTests;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ //
+                FeiLongBeanAccessorSuiteTests.class,
                 FeiLongBeanUtilSuiteTests.class,
                 FeiLongConvertUtilSuiteTests.class,
+                FeiLongMetadataCacheUtilSuiteTests.class,
                 FeiLongPropertyUtilSuiteTests.class,
                 FeiLongPropertyValueObtainerSuiteTests.class,
         //
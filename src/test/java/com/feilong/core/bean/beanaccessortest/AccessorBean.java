@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanaccessortest;
+
+/**
+ * 有 {@link AccessorBean_BeanAccessor} 的 bean.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class AccessorBean{
+
+    /** The name. */
+    private String name;
+
+    /** The count. */
+    private int    count;
+
+    //---------------------------------------------------------------
+
+    /**
+     * Gets the name.
+     *
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Sets the name.
+     *
+     * @param name
+     *            the name to set
+     */
+    public void setName(String name){
+        this.name = name;
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return the count
+     */
+    public int getCount(){
+        return count;
+    }
+
+    /**
+     * Sets the count.
+     *
+     * @param count
+     *            the count to set
+     */
+    public void setCount(int count){
+        this.count = count;
+    }
+}
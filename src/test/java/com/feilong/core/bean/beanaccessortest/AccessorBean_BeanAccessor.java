@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanaccessortest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.feilong.core.bean.BeanAccessor;
+
+/**
+ * 和 {@link com.feilong.core.bean.BeanAccessorProcessor} 生成的结构一致的 {@link AccessorBean} 访问器,记录调用次数.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public final class AccessorBean_BeanAccessor implements BeanAccessor<AccessorBean>{
+
+    /** 调用次数. */
+    static int invokeCount;
+
+    //---------------------------------------------------------------
+
+    @Override
+    public Class<AccessorBean> getBeanClass(){
+        return AccessorBean.class;
+    }
+
+    @Override
+    public String[] getPropertyNames(){
+        return new String[] { "class", "count", "name" };
+    }
+
+    @Override
+    public boolean isReadable(String propertyName){
+        return "class".equals(propertyName) || isWriteable(propertyName);
+    }
+
+    @Override
+    public boolean isWriteable(String propertyName){
+        return "count".equals(propertyName) || "name".equals(propertyName);
+    }
+
+    @Override
+    public Object getProperty(AccessorBean bean,String propertyName){
+        invokeCount++;
+        switch (propertyName) {
+            case "class":
+                return bean.getClass();
+            case "count":
+                return bean.getCount();
+            case "name":
+                return bean.getName();
+            default:
+                throw new IllegalArgumentException(propertyName);
+        }
+    }
+
+    @Override
+    public void setProperty(AccessorBean bean,String propertyName,Object value){
+        invokeCount++;
+        switch (propertyName) {
+            case "count":
+                bean.setCount((Integer) value);
+                return;
+            case "name":
+                bean.setName((String) value);
+                return;
+            default:
+                throw new IllegalArgumentException(propertyName);
+        }
+    }
+
+    @Override
+    public void copyProperties(AccessorBean toBean,AccessorBean fromBean){
+        invokeCount++;
+        toBean.setCount(fromBean.getCount());
+        toBean.setName(fromBean.getName());
+    }
+
+    @Override
+    public Map<String, Object> describe(AccessorBean bean){
+        invokeCount++;
+        Map<String, Object> map = new HashMap<>();
+        map.put("class", bean.getClass());
+        map.put("count", bean.getCount());
+        map.put("name", bean.getName());
+        return map;
+    }
+}
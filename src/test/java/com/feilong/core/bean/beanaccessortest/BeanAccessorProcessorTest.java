@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanaccessortest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feilong.core.bean.BeanAccessor;
+import com.feilong.core.bean.BeanAccessorProcessor;
+import com.feilong.core.bean.BeanAccessorRegistry;
+import com.feilong.core.bean.PropertyUtil;
+
+/**
+ * The Class BeanAccessorProcessorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class BeanAccessorProcessorTest{
+
+    /** The Constant SOURCE. */
+    private static final String SOURCE          = "package generated;\n" //
+                    + "@com.feilong.core.bean.GenerateBeanAccessor\n" //
+                    + "public class Order{\n" //
+                    + "    private int count;\n" //
+                    + "    private boolean paid;\n" //
+                    + "    private java.util.List<String> codes;\n" //
+                    + "    public int getCount(){ return count; }\n" //
+                    + "    public void setCount(int count){ this.count = count; }\n" //
+                    + "    public boolean isPaid(){ return paid; }\n" //
+                    + "    public void setPaid(boolean paid){ this.paid = paid; }\n" //
+                    + "    public java.util.List<String> getCodes(){ return codes; }\n" //
+                    + "    public void setCodes(java.util.List<String> codes){ this.codes = codes; }\n" //
+                    + "    public String getReadOnly(){ return \"readOnly\"; }\n" //
+                    + "}\n";
+
+    /** 编译生成的源码以及 class 文件,测试结束之后删除. */
+    @Rule
+    public TemporaryFolder      temporaryFolder = new TemporaryFolder();
+
+    //---------------------------------------------------------------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGenerate() throws Exception{
+        JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(javaCompiler);
+
+        File dir = temporaryFolder.newFolder("bean-accessor");
+        File sourceFile = write(new File(dir, "generated/Order.java"), SOURCE);
+
+        int result = javaCompiler.run(
+                        null,
+                        null,
+                        null,
+                        "-classpath",
+                        System.getProperty("java.class.path"),
+                        "-processor",
+                        BeanAccessorProcessor.class.getName(),
+                        "-d",
+                        dir.getAbsolutePath(),
+                        "-s",
+                        dir.getAbsolutePath(),
+                        sourceFile.getAbsolutePath());
+        assertEquals(0, result);
+        assertTrue(new File(dir, "generated/Order_BeanAccessor.java").exists());
+
+        //---------------------------------------------------------------
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader())){
+            Class<Object> orderClass = (Class<Object>) classLoader.loadClass("generated.Order");
+            BeanAccessor<Object> beanAccessor = BeanAccessorRegistry.getBeanAccessor(orderClass);
+            assertNotNull(beanAccessor);
+
+            assertArrayEquals(new String[] { "class", "codes", "count", "paid", "readOnly" }, beanAccessor.getPropertyNames());
+            assertTrue(beanAccessor.isWriteable("count"));
+            assertFalse(beanAccessor.isWriteable("readOnly"));
+
+            Object order = orderClass.newInstance();
+            beanAccessor.setProperty(order, "count", 5);
+            beanAccessor.setProperty(order, "paid", true);
+            beanAccessor.setProperty(order, "codes", Arrays.asList("a", "b"));
+
+            assertEquals(5, beanAccessor.getProperty(order, "count"));
+            assertEquals(true, PropertyUtil.getProperty(order, "paid"));
+
+            Map<String, Object> describe = beanAccessor.describe(order);
+            assertEquals(PropertyUtils.describe(order), describe);
+            assertEquals("readOnly", describe.get("readOnly"));
+
+            Object newOrder = orderClass.newInstance();
+            beanAccessor.copyProperties(newOrder, order);
+            assertEquals(Arrays.asList("a", "b"), beanAccessor.getProperty(newOrder, "codes"));
+
+            Object copyOrder = orderClass.newInstance();
+            PropertyUtil.copyProperties(copyOrder, order);
+            assertEquals(5, beanAccessor.getProperty(copyOrder, "count"));
+            assertEquals(true, beanAccessor.getProperty(copyOrder, "paid"));
+        }
+    }
+
+    /**
+     * Write.
+     *
+     * @param file
+     *            the file
+     * @param content
+     *            the content
+     * @return the file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static File write(File file,String content) throws IOException{
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
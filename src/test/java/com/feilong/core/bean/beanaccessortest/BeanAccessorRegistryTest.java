@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanaccessortest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.feilong.core.bean.BeanAccessorRegistry;
+import com.feilong.core.bean.BeanOperationException;
+import com.feilong.core.bean.PropertyUtil;
+import com.feilong.store.member.User;
+
+/**
+ * The Class BeanAccessorRegistryTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class BeanAccessorRegistryTest{
+
+    @Test
+    public void testGetBeanAccessor(){
+        assertEquals(AccessorBean_BeanAccessor.class, BeanAccessorRegistry.getBeanAccessor(AccessorBean.class).getClass());
+        assertNull(BeanAccessorRegistry.getBeanAccessor(User.class));
+        assertNull(BeanAccessorRegistry.getBeanAccessor(String.class));
+    }
+
+    @Test
+    public void testGetGeneratedClassName(){
+        assertEquals(
+                        "com.feilong.core.bean.beanaccessortest.AccessorBean_BeanAccessor",
+                        BeanAccessorRegistry.getGeneratedClassName(AccessorBean.class));
+        assertEquals(
+                        "com.feilong.core.bean.beanaccessortest.BeanAccessorRegistryTest_Inner_BeanAccessor",
+                        BeanAccessorRegistry.getGeneratedClassName(Inner.class));
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testPropertyUtilUseBeanAccessor(){
+        AccessorBean accessorBean = new AccessorBean();
+
+        int invokeCount = AccessorBean_BeanAccessor.invokeCount;
+        PropertyUtil.setProperty(accessorBean, "name", "feilong");
+        PropertyUtil.setProperty(accessorBean, "count", 8);
+
+        assertEquals("feilong", PropertyUtil.getProperty(accessorBean, "name"));
+        assertEquals(8, PropertyUtil.<Integer> getProperty(accessorBean, "count").intValue());
+        assertEquals(AccessorBean.class, PropertyUtil.describe(accessorBean).get("class"));
+        assertTrue(AccessorBean_BeanAccessor.invokeCount >= invokeCount + 5);
+
+        //同一类型复制全部属性,只调用一次 BeanAccessor#copyProperties
+        invokeCount = AccessorBean_BeanAccessor.invokeCount;
+        AccessorBean newAccessorBean = new AccessorBean();
+        PropertyUtil.copyProperties(newAccessorBean, accessorBean);
+        assertEquals(invokeCount + 1, AccessorBean_BeanAccessor.invokeCount);
+        assertEquals("feilong", newAccessorBean.getName());
+        assertEquals(8, newAccessorBean.getCount());
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testSetPropertyTypeMismatch(){
+        PropertyUtil.setProperty(new AccessorBean(), "count", "8");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetBeanAccessorNullClass(){
+        BeanAccessorRegistry.getBeanAccessor(null);
+    }
+
+    /**
+     * 内部类.
+     */
+    public static class Inner{
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanutiltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.bean.BeanOperationException;
+import com.feilong.core.bean.BeanUtil;
+import com.feilong.core.bean.MetadataCacheUtil;
+import com.feilong.core.bean.PropertyUtil;
+import com.feilong.store.member.User;
+
+/**
+ * The Class CopyPropertiesPlanTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class CopyPropertiesPlanTest{
+
+    @Test
+    public void testCopyPropertiesConvert(){
+        User user = new User(5L);
+        user.setMoney(new BigDecimal("12.5"));
+
+        //多次执行,第二次开始使用缓存的计划
+        for (int i = 0; i < 3; ++i){
+            UserDto userDto = new UserDto();
+            BeanUtil.copyProperties(userDto, user);
+
+            assertEquals("5", userDto.getId());
+            assertEquals("12.5", userDto.getMoney());
+            assertEquals("feilong", userDto.getName());
+        }
+    }
+
+    @Test
+    public void testCopyPropertiesConvertInclude(){
+        UserDto userDto = new UserDto();
+        userDto.setId("8");
+        userDto.setMoney("1.25");
+
+        for (int i = 0; i < 3; ++i){
+            User user = new User();
+            BeanUtil.copyProperties(user, userDto, "id", "money");
+
+            assertEquals(8L, user.getId().longValue());
+            assertEquals(new BigDecimal("1.25"), user.getMoney());
+        }
+    }
+
+    @Test
+    public void testCopyPropertiesConvertIncludeNull(){
+        UserDto userDto = new UserDto();
+        User user = new User(5L);
+        BeanUtil.copyProperties(user, userDto, "id");
+
+        assertNull(user.getId());
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testCopyPropertiesFluentSetterNotCopied(){
+        UserDto userDto = new UserDto();
+        userDto.setName("jinxin");
+
+        FluentUser fluentUser = new FluentUser();
+        BeanUtil.copyProperties(fluentUser, userDto);
+        assertNull(fluentUser.getName());
+
+        PropertyUtil.copyProperties(fluentUser, userDto);
+        assertNull(fluentUser.getName());
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testPropertyUtilCopyPropertiesInclude(){
+        User user = new User(5L);
+
+        for (int i = 0; i < 3; ++i){
+            User newUser = new User();
+            PropertyUtil.copyProperties(newUser, user, "id", "name");
+            assertEquals(user.getId(), newUser.getId());
+            assertEquals("feilong", newUser.getName());
+        }
+    }
+
+    @Test
+    public void testCopyPropertiesIncludeCacheBounded(){
+        User user = new User(5L);
+        int sizeBefore = getPlanCacheSize();
+
+        //每次都是不同的 includePropertyNames
+        for (int i = 1; i <= 200; ++i){
+            String[] includePropertyNames = new String[i];
+            Arrays.fill(includePropertyNames, "id");
+
+            UserDto userDto = new UserDto();
+            BeanUtil.copyProperties(userDto, user, includePropertyNames);
+            assertEquals("5", userDto.getId());
+        }
+        assertTrue(getPlanCacheSize() - sizeBefore <= 64);
+    }
+
+    private static int getPlanCacheSize(){
+        for (CacheStatistics cacheStatistics : MetadataCacheUtil.getCacheStatisticsList()){
+            if ("CopyPropertiesPlan.KEY_AND_PLAN_MAP".equals(cacheStatistics.getName())){
+                return cacheStatistics.getSize();
+            }
+        }
+        throw new AssertionError("CopyPropertiesPlan.KEY_AND_PLAN_MAP not found");
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testPropertyUtilCopyPropertiesIncludeTypeMismatch(){
+        PropertyUtil.copyProperties(new UserDto(), new User(5L), "id");
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testBeanUtilCopyPropertiesIncludeNotExist(){
+        BeanUtil.copyProperties(new User(), new UserDto(), "name11");
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 属性都是字符串.
+     */
+    public static class UserDto{
+
+        private String id;
+
+        private String name;
+
+        private String money;
+
+        public String getId(){
+            return id;
+        }
+
+        public void setId(String id){
+            this.id = id;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public void setName(String name){
+            this.name = name;
+        }
+
+        public String getMoney(){
+            return money;
+        }
+
+        public void setMoney(String money){
+            this.money = money;
+        }
+    }
+
+    /**
+     * setter 返回 this.
+     */
+    public static class FluentUser{
+
+        private String name;
+
+        public String getName(){
+            return name;
+        }
+
+        public FluentUser setName(String name){
+            this.name = name;
+            return this;
+        }
+    }
+}
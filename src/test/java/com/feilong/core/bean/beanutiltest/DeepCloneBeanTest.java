@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toArray;
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.junit.Test;
+
+import com.feilong.core.bean.BeanOperationException;
+import com.feilong.core.bean.BeanUtil;
+import com.feilong.store.member.User;
+import com.feilong.store.member.UserAddress;
+import com.feilong.store.member.UserInfo;
+
+/**
+ * The Class DeepCloneBeanTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class DeepCloneBeanTest{
+
+    @Test
+    public void testCloneBeanShallow(){
+        User user = new User(5L);
+        user.setUserInfo(new UserInfo(18));
+
+        User cloneUser = BeanUtil.cloneBean(user);
+        assertEquals(5L, cloneUser.getId().longValue());
+        assertSame(user.getUserInfo(), cloneUser.getUserInfo());
+    }
+
+    @Test
+    public void testDeepCloneBean(){
+        UserAddress userAddress = new UserAddress();
+        userAddress.setAddress("shanghai");
+
+        User user = new User(5L);
+        user.setUserInfo(new UserInfo(18));
+        user.setDate(new Date());
+        user.setNickNames(toArray("feilong", "venusdrogon"));
+        user.setUserAddresses(toArray(userAddress));
+        user.setUserAddresseList(toList(userAddress));
+
+        //多次执行,第二次开始使用缓存的计划
+        for (int i = 0; i < 3; ++i){
+            User cloneUser = BeanUtil.deepCloneBean(user);
+
+            assertEquals(5L, cloneUser.getId().longValue());
+            assertEquals("feilong", cloneUser.getName());
+
+            assertNotSame(user.getUserInfo(), cloneUser.getUserInfo());
+            assertEquals(18, cloneUser.getUserInfo().getAge().intValue());
+
+            assertNotSame(user.getDate(), cloneUser.getDate());
+            assertEquals(user.getDate(), cloneUser.getDate());
+
+            assertNotSame(user.getNickNames(), cloneUser.getNickNames());
+            assertArrayEquals(user.getNickNames(), cloneUser.getNickNames());
+
+            UserAddress cloneUserAddress = cloneUser.getUserAddresses()[0];
+            assertNotSame(userAddress, cloneUserAddress);
+            assertEquals("shanghai", cloneUserAddress.getAddress());
+
+            //同一个对象被多次引用, clone 之后仍然是同一个对象
+            assertSame(cloneUserAddress, cloneUser.getUserAddresseList().get(0));
+        }
+    }
+
+    @Test
+    public void testDeepCloneBeanReferenceTypes(){
+        User user = new User(5L);
+        user.setUserInfo(new UserInfo(18));
+
+        User cloneUser = BeanUtil.deepCloneBean(user, UserInfo.class);
+        assertSame(user.getUserInfo(), cloneUser.getUserInfo());
+    }
+
+    @Test
+    public void testDeepCloneBeanList(){
+        List<UserInfo> list = toList(new UserInfo(18));
+
+        List<UserInfo> cloneList = BeanUtil.deepCloneBean(list);
+        assertEquals(1, cloneList.size());
+        assertNotSame(list.get(0), cloneList.get(0));
+        assertEquals(18, cloneList.get(0).getAge().intValue());
+    }
+
+    @Test
+    public void testDeepCloneBeanConcurrentSkipListSet(){
+        ConcurrentSkipListSet<Integer> set = new ConcurrentSkipListSet<>(Collections.<Integer> reverseOrder());
+        set.addAll(toList(1, 3, 2));
+
+        ConcurrentSkipListSet<Integer> cloneSet = BeanUtil.deepCloneBean(set);
+        assertNotSame(set, cloneSet);
+        assertSame(set.comparator(), cloneSet.comparator());
+        assertEquals(toList(3, 2, 1), toList(cloneSet));
+    }
+
+    @Test
+    public void testDeepCloneBeanConcurrentSkipListMap(){
+        ConcurrentSkipListMap<String, UserInfo> map = new ConcurrentSkipListMap<>(Collections.<String> reverseOrder());
+        map.put("a", new UserInfo(18));
+        map.put("b", new UserInfo(20));
+
+        ConcurrentSkipListMap<String, UserInfo> cloneMap = BeanUtil.deepCloneBean(map);
+        assertSame(map.comparator(), cloneMap.comparator());
+        assertEquals("b", cloneMap.firstKey());
+        assertNotSame(map.get("a"), cloneMap.get("a"));
+        assertEquals(18, cloneMap.get("a").getAge().intValue());
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testDeepCloneBeanNullBean(){
+        BeanUtil.deepCloneBean(null);
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testDeepCloneBeanNoDefaultConstructorBean(){
+        BeanUtil.deepCloneBean(new NoDefaultConstructorBean("feilong"));
+    }
+
+    /**
+     * 没有默认构造函数的bean.
+     */
+    public static class NoDefaultConstructorBean{
+
+        /**
+         * Instantiates a new no default constructor bean.
+         *
+         * @param name
+         *            the name
+         */
+        public NoDefaultConstructorBean(String name){
+        }
+    }
+}
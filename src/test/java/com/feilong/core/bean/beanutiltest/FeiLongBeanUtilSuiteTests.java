@@ -28,14 +28,17 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ //
                 CloneBeanTest.class,
+                DeepCloneBeanTest.class,
                 CopyPropertiesTest.class,
                 CopyPropertiesExceptionTest.class,
+                CopyPropertiesPlanTest.class,
 
                 //GetPropertyExceptionTest.class,
 
                 NewDynaBeanTest.class,
                 PopulateAliasBeanTest.class,
                 PopulateTest.class,
+                PopulatePlanTest.class,
                 PopulateBigDecimalTest.class,
         //
 })
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.beanutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toArray;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.junit.Test;
+
+import com.feilong.core.bean.BeanUtil;
+import com.feilong.store.member.User;
+
+/**
+ * The Class PopulatePlanTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PopulatePlanTest{
+
+    @Test
+    public void testPopulateRequestMap() throws Exception{
+        Map<String, String[]> requestMap = new HashMap<>();
+        requestMap.put("id", toArray("8"));
+        requestMap.put("name", toArray("jinxin", "feilong"));
+        requestMap.put("money", toArray("1.25"));
+        requestMap.put("nickNames", toArray("a", "b"));
+        requestMap.put("userInfo.age", toArray("18"));
+        requestMap.put("notExist", toArray("1"));
+
+        //多次执行,第二次开始使用缓存的计划
+        for (int i = 0; i < 3; ++i){
+            User user = BeanUtil.populate(new User(), requestMap);
+
+            User expected = new User();
+            BeanUtils.populate(expected, requestMap);
+
+            assertEquals(8L, user.getId().longValue());
+            assertEquals("jinxin", user.getName());
+            assertEquals(new BigDecimal("1.25"), user.getMoney());
+            assertArrayEquals(toArray("a", "b"), user.getNickNames());
+            assertEquals(18, user.getUserInfo().getAge().intValue());
+
+            assertEquals(expected.getId(), user.getId());
+            assertEquals(expected.getName(), user.getName());
+            assertEquals(expected.getMoney(), user.getMoney());
+            assertArrayEquals(expected.getNickNames(), user.getNickNames());
+        }
+    }
+
+    @Test
+    public void testPopulateObjectValue(){
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 5);
+        map.put("nickNames", "a");
+        map.put(null, "b");
+
+        User user = BeanUtil.populate(new User(), map);
+        assertEquals(5L, user.getId().longValue());
+        assertArrayEquals(toArray("a"), user.getNickNames());
+    }
+
+    @Test
+    public void testPopulateNullValue(){
+        User user = new User(5L);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", null);
+        map.put("name", null);
+
+        BeanUtil.populate(user, map);
+        assertNull(user.getId());
+        assertNull(user.getName());
+    }
+}
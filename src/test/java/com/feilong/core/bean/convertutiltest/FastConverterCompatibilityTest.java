@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.convertutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.convert;
+import static com.feilong.core.bean.ConvertUtil.toBigDecimal;
+import static com.feilong.core.bean.ConvertUtil.toBoolean;
+import static com.feilong.core.bean.ConvertUtil.toInteger;
+import static com.feilong.core.bean.ConvertUtil.toLong;
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.converters.BigDecimalConverter;
+import org.apache.commons.beanutils.converters.BooleanConverter;
+import org.apache.commons.beanutils.converters.IntegerConverter;
+import org.apache.commons.beanutils.converters.LongConverter;
+import org.junit.Test;
+
+import com.feilong.core.bean.ConvertUtil;
+
+/**
+ * 快速转换的结果要和 commons-beanutils 的转换器一致.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class FastConverterCompatibilityTest{
+
+    /** The values. */
+    private static final List<Object> VALUES = Arrays.<Object> asList(
+                    "1",
+                    " 8 ",
+                    "-5",
+                    "+5",
+                    "-",
+                    "+",
+                    "",
+                    "  ",
+                    "aaaa",
+                    "1,2,3",
+                    "1.5",
+                    "1e3",
+                    "٣",
+                    "2147483647",
+                    "2147483648",
+                    "-2147483649",
+                    "9223372036854775808",
+                    "true",
+                    "YES",
+                    "Off",
+                    "n",
+                    " true",
+                    "NaN",
+                    8,
+                    -1,
+                    0,
+                    8L,
+                    Long.MAX_VALUE,
+                    (short) 3,
+                    (byte) 4,
+                    1.9d,
+                    -1.9d,
+                    Double.NaN,
+                    Double.POSITIVE_INFINITY,
+                    1.5f,
+                    1e20d,
+                    new BigDecimal("8.30"),
+                    new BigDecimal("1E+3"),
+                    new BigInteger("99999999999999999999"),
+                    Boolean.TRUE,
+                    Boolean.FALSE);
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testToInteger(){
+        for (Object value : VALUES){
+            assertEquals(String.valueOf(value), new IntegerConverter(null).convert(Integer.class, value), toInteger(value));
+            assertEquals(String.valueOf(value), new IntegerConverter(7).convert(Integer.class, value), toInteger(value, 7));
+        }
+    }
+
+    @Test
+    public void testToLong(){
+        for (Object value : VALUES){
+            assertEquals(String.valueOf(value), new LongConverter(null).convert(Long.class, value), toLong(value));
+        }
+    }
+
+    @Test
+    public void testToBigDecimal(){
+        for (Object value : VALUES){
+            assertEquals(String.valueOf(value), new BigDecimalConverter(null).convert(BigDecimal.class, value), toBigDecimal(value));
+        }
+    }
+
+    @Test
+    public void testToBoolean(){
+        for (Object value : VALUES){
+            assertEquals(String.valueOf(value), new BooleanConverter(null).convert(Boolean.class, value), toBoolean(value));
+        }
+    }
+
+    @Test
+    public void testConvert(){
+        for (Object value : VALUES){
+            for (Class<?> targetType : Arrays.<Class<?>> asList(Integer.class, Long.class, Double.class, BigDecimal.class, Boolean.class)){
+                assertEquals(value + "->" + targetType, ConvertUtils.lookup(targetType).convert(targetType, value), convert(value, targetType));
+            }
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testConvertReregisteredConverter(){
+        try{
+            ConvertUtils.register(new IntegerConverter(0), Integer.class);
+            assertEquals(0, convert("aaaa", Integer.class).intValue());
+        }finally{
+            ConvertUtil.registerStandardDefaultNull();
+        }
+        assertEquals(null, convert("aaaa", Integer.class));
+    }
+}
@@ -71,6 +71,10 @@ import org.junit.runners.Suite.SuiteClasses;
                 ToStringsTest.class,
 
                 ToSetVarargsTest.class,
+
+                FastConverterCompatibilityTest.class,
+                ToPrimitiveArrayCompatibilityTest.class,
+                ToPrimitiveIntCharSequenceTest.class,
         //
 })
 public class FeiLongConvertUtilSuiteTests{
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.convertutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toArray;
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.bean.ConvertUtil.toPrimitiveDoubles;
+import static com.feilong.core.bean.ConvertUtil.toPrimitiveInts;
+import static com.feilong.core.bean.ConvertUtil.toPrimitiveLongs;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.converters.ArrayConverter;
+import org.apache.commons.beanutils.converters.DoubleConverter;
+import org.apache.commons.beanutils.converters.IntegerConverter;
+import org.apache.commons.beanutils.converters.LongConverter;
+import org.junit.Test;
+
+import com.feilong.core.bean.ConvertUtil;
+
+/**
+ * 基本类型数组转换的结果要和 commons-beanutils 默认注册的 {@link ArrayConverter} 一致.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ToPrimitiveArrayCompatibilityTest{
+
+    /** The values. */
+    private static final List<Object> VALUES = Arrays.<Object> asList(
+                    "1,2,3",
+                    "{1,2,3}",
+                    "{ 1 ,2,3}",
+                    "1,2, 3",
+                    "1,2 , 3",
+                    " 1 2\t3 ",
+                    "1,,3",
+                    ",",
+                    "",
+                    "  ",
+                    "{}",
+                    "{1,2",
+                    "-1,-2",
+                    "1.5,2",
+                    "1-2",
+                    "-",
+                    ".",
+                    "1,a,3",
+                    "1;2",
+                    "'1','2'",
+                    "\"1\",\"2\"",
+                    "1/2",
+                    "+1,2",
+                    "1e3,2",
+                    "2147483647,2147483648",
+                    "9223372036854775807",
+                    "9223372036854775808",
+                    new String[] { "1", "2", "3" },
+                    new String[] { "1", null, "2", "3" },
+                    new String[] { "1", "", "3" },
+                    new String[] { " 1 ", "2" },
+                    new String[] { "1.5", "2" },
+                    new String[] {},
+                    toList("1", "2", " 3"),
+                    toList("1", "2,3"),
+                    toArray(true, false, false),
+                    toArray(1, 2, 3),
+                    toArray(1L, Long.MAX_VALUE),
+                    toArray(1.5d, 2.5f),
+                    toList(new BigDecimal("8.30"), 2),
+                    toList((Object) "1", 2, 3L),
+                    toList(new Date(0L)),
+                    new int[] { 1, 2 },
+                    new long[] { 1L, 2L },
+                    new double[] { 1.5d },
+                    8,
+                    Boolean.TRUE);
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testToPrimitiveInts(){
+        Converter converter = new ArrayConverter(int[].class, new IntegerConverter(), 0);
+        for (Object value : VALUES){
+            assertArrayEquals(toString(value), converter.convert(int[].class, value), toPrimitiveInts(value));
+        }
+    }
+
+    @Test
+    public void testToPrimitiveLongs(){
+        Converter converter = new ArrayConverter(long[].class, new LongConverter(), 0);
+        for (Object value : VALUES){
+            assertArrayEquals(toString(value), converter.convert(long[].class, value), toPrimitiveLongs(value));
+        }
+    }
+
+    @Test
+    public void testToPrimitiveDoubles(){
+        Converter converter = new ArrayConverter(double[].class, new DoubleConverter(), 0);
+        for (Object value : VALUES){
+            assertArrayEquals(toString(value), converter.convert(double[].class, value), toPrimitiveDoubles(value), 0);
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testToPrimitiveIntsNull(){
+        assertNull(toPrimitiveInts(null));
+        assertNull(toPrimitiveLongs(null));
+        assertNull(toPrimitiveDoubles(null));
+    }
+
+    @Test
+    public void testToPrimitiveIntsSameType(){
+        int[] ints = { 1, 2 };
+        assertSame(ints, toPrimitiveInts(ints));
+    }
+
+    @Test
+    public void testToPrimitiveIntsReregisteredConverter(){
+        try{
+            ConvertUtils.register(new ArrayConverter(int[].class, new IntegerConverter(0), 0), int[].class);
+            assertArrayEquals(new int[] { 1, 0, 3 }, toPrimitiveInts("1,a,3"));
+        }finally{
+            ConvertUtil.registerStandardDefaultNull();
+        }
+        assertEquals(0, toPrimitiveInts("1,a,3").length);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 断言的提示信息.
+     *
+     * @param value
+     *            the value
+     * @return the string
+     */
+    private static String toString(Object value){
+        return value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.convertutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toInteger;
+import static com.feilong.core.bean.ConvertUtil.toLong;
+import static com.feilong.core.bean.ConvertUtil.toPrimitiveInt;
+import static com.feilong.core.bean.ConvertUtil.toPrimitiveLong;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * {@link com.feilong.core.bean.ConvertUtil#toPrimitiveInt(CharSequence, int, int, int)} 以及
+ * {@link com.feilong.core.bean.ConvertUtil#toPrimitiveLong(CharSequence, int, int, long)} 的结果要和 {@link com.feilong.core.bean.ConvertUtil#toInteger(Object)}
+ * 以及 {@link com.feilong.core.bean.ConvertUtil#toLong(Object)} 一致.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ToPrimitiveIntCharSequenceTest{
+
+    /** The values. */
+    private static final List<String> VALUES = Arrays.asList(
+                    "1",
+                    " 8 ",
+                    "\t9\n",
+                    "0",
+                    "-0",
+                    "-5",
+                    "+5",
+                    "-",
+                    "+",
+                    "+-1",
+                    "--1",
+                    "",
+                    "  ",
+                    "aaaa",
+                    "1a",
+                    "1,2,3",
+                    "1 2",
+                    "1.5",
+                    "1e3",
+                    "٣",
+                    "0000000000000000000000012",
+                    "2147483647",
+                    "-2147483648",
+                    "2147483648",
+                    "-2147483649",
+                    "9223372036854775807",
+                    "-9223372036854775808",
+                    "9223372036854775808",
+                    "-9223372036854775809",
+                    "99999999999999999999");
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testToPrimitiveInt(){
+        for (String value : VALUES){
+            Integer expected = toInteger(value);
+            assertEquals(value, null == expected ? -99 : expected.intValue(), toPrimitiveInt(value, 0, value.length(), -99));
+        }
+    }
+
+    @Test
+    public void testToPrimitiveLong(){
+        for (String value : VALUES){
+            Long expected = toLong(value);
+            assertEquals(value, null == expected ? -99L : expected.longValue(), toPrimitiveLong(value, 0, value.length(), -99L));
+        }
+    }
+
+    @Test
+    public void testToPrimitiveIntSlice(){
+        for (String value : VALUES){
+            StringBuilder sb = new StringBuilder("12|").append(value).append("|34");
+            Integer expected = toInteger(value);
+            assertEquals(value, null == expected ? -99 : expected.intValue(), toPrimitiveInt(sb, 3, value.length(), -99));
+        }
+        assertEquals(22, toPrimitiveInt("1,22,333", 2, 2, 0));
+        assertEquals(12345L, toPrimitiveLong("id=12345&name=feilong", 3, 5, 0L));
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testToPrimitiveIntNull(){
+        toPrimitiveInt(null, 0, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToPrimitiveIntNegativeOffset(){
+        toPrimitiveInt("123", -1, 2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToPrimitiveIntNegativeLength(){
+        toPrimitiveInt("123", 0, -1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToPrimitiveLongOutOfRange(){
+        toPrimitiveLong("123", 2, 2, 0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToPrimitiveLongOverflowOffset(){
+        toPrimitiveLong("123", Integer.MAX_VALUE, 2, 0L);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.metadatacacheutiltest;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.regex.Pattern;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.junit.Test;
+import org.springframework.beans.CachedIntrospectionResults;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ReflectionUtils;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.bean.BeanUtil;
+import com.feilong.core.bean.MetadataCacheUtil;
+import com.feilong.core.bean.PropertyPath;
+import com.feilong.core.bean.PropertyUtil;
+import com.feilong.core.lang.thread.AdaptivePartitionEachSizeBuilder;
+import com.feilong.core.util.RegexUtil;
+
+/**
+ * 元数据缓存不能阻止子 {@link ClassLoader}(比如 webapp 重新部署)被回收,并且有最大数量.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ClassLoaderReleaseTest{
+
+    @Test
+    public void testChildClassLoaderCanBeCollected() throws Exception{
+        WeakReference<ClassLoader> classLoaderReference = useInChildClassLoader();
+
+        //commons-beanutils 以及 spring 自己的缓存(spring 是 soft 引用,System.gc() 不一定回收),和 IntrospectorCleanupListener 一样清理
+        PropertyUtils.clearDescriptors();
+        CachedIntrospectionResults.clearClassLoader(ClassLoaderReleaseTest.class.getClassLoader());
+        ReflectionUtils.clearCache();
+        ResolvableType.clearCache();
+        for (int i = 0; i < 50 && null != classLoaderReference.get(); ++i){
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(classLoaderReference.get());
+    }
+
+    @Test
+    public void testPropertyPathCacheIsBounded(){
+        for (int i = 0; i < 5000; ++i){
+            PropertyPath.compile("classLoaderReleaseTest" + i + ".name");
+        }
+        assertTrue(getCacheStatistics("PropertyPath.EXPRESSION_AND_PROPERTY_PATH_MAP").getSize() <= 4096);
+    }
+
+    @Test
+    public void testPatternCacheIsBounded(){
+        for (int i = 0; i < 1500; ++i){
+            RegexUtil.matches("^classLoaderReleaseTest" + i + "$", "classLoaderReleaseTest" + i);
+        }
+        assertTrue(getCacheStatistics("RegexUtil.PATTERN_CACHE").getSize() <= 1024);
+    }
+
+    @Test
+    public void testPatternCacheEvictEldest(){
+        Pattern eldest = RegexUtil.buildPattern("^patternCacheEvictEldest$", 0);
+        Pattern latest = null;
+        for (int i = 0; i < 1100; ++i){
+            latest = RegexUtil.buildPattern("^patternCacheEvictEldest" + i + "$", 0);
+        }
+        assertSame(latest, RegexUtil.buildPattern("^patternCacheEvictEldest1099$", 0));
+        assertNotSame(eldest, RegexUtil.buildPattern("^patternCacheEvictEldest$", 0));
+    }
+
+    //---------------------------------------------------------------
+
+    private static WeakReference<ClassLoader> useInChildClassLoader() throws Exception{
+        ClassLoader classLoader = new ChildFirstClassLoader(ReloadableBean.class.getName(), ClassLoaderReleaseTest.class.getClassLoader());
+        Class<?> klass = classLoader.loadClass(ReloadableBean.class.getName());
+        assertTrue(klass != ReloadableBean.class);
+
+        MetadataCacheUtil.warmUp(klass, "name");
+
+        Object bean = klass.newInstance();
+        PropertyUtil.setProperty(bean, "name", "feilong");
+        BeanUtil.populate(bean, singletonMap("age", "18"));
+        assertEquals("feilong", PropertyUtil.getProperty(bean, "name"));
+        assertEquals(18, PropertyUtil.getProperty(bean, "age"));
+
+        Object cloned = BeanUtil.cloneBean(bean);
+        assertEquals("feilong", PropertyUtil.getProperty(BeanUtil.deepCloneBean(cloned), "name"));
+
+        ReloadableBean reloadableBean = new ReloadableBean();
+        PropertyUtil.copyProperties(reloadableBean, bean);
+        assertEquals("feilong", reloadableBean.getName());
+        PropertyUtil.copyProperties(klass.newInstance(), reloadableBean);
+        assertEquals(2, PropertyUtil.describeView(bean, "name", "age").size());
+
+        AdaptivePartitionEachSizeBuilder.record(klass, 10, 1000L);
+        assertEquals(100L, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(klass));
+        return new WeakReference<>(classLoader);
+    }
+
+    private static CacheStatistics getCacheStatistics(String name){
+        for (CacheStatistics cacheStatistics : MetadataCacheUtil.getCacheStatisticsList()){
+            if (name.equals(cacheStatistics.getName())){
+                return cacheStatistics;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 自己加载指定的类,其他的交给 parent.
+     */
+    private static final class ChildFirstClassLoader extends ClassLoader{
+
+        private final String className;
+
+        private ChildFirstClassLoader(String className, ClassLoader parent){
+            super(parent);
+            this.className = className;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name,boolean resolve) throws ClassNotFoundException{
+            if (!className.equals(name)){
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)){
+                Class<?> klass = findLoadedClass(name);
+                if (null == klass){
+                    klass = findClass(name);
+                }
+                return klass;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException{
+            try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")){
+                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                for (int length = inputStream.read(buffer); length != -1; length = inputStream.read(buffer)){
+                    byteArrayOutputStream.write(buffer, 0, length);
+                }
+                byte[] bytes = byteArrayOutputStream.toByteArray();
+                return defineClass(name, bytes, 0, bytes.length);
+            }catch (IOException e){
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.metadatacacheutiltest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.beanutils.converters.LongConverter;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Test;
+
+import com.feilong.core.CacheStatistics;
+import com.feilong.core.bean.MetadataCacheUtil;
+import com.feilong.core.bean.PropertyPath;
+import com.feilong.core.bean.beanaccessortest.AccessorBean;
+import com.feilong.store.member.User;
+
+/**
+ * The Class MetadataCacheUtilTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class MetadataCacheUtilTest{
+
+    @Test
+    public void testWarmUp() throws IllegalAccessException{
+        //其他测试可能已经缓存了常用的表达式,并且超过上限之后会淘汰,所以使用唯一的表达式
+        String expression = "metadataCacheUtilTest" + System.nanoTime() + "[0]";
+
+        MetadataCacheUtil.warmUp(User.class, "id", "userInfo.age", expression);
+
+        Map<?, ?> map = (Map<?, ?>) FieldUtils.readDeclaredStaticField(PropertyPath.class, "EXPRESSION_AND_PROPERTY_PATH_MAP", true);
+        assertTrue(map.containsKey(expression));
+        assertTrue(getCacheStatistics("PopulatePlan.CLASS_AND_PLAN_MAP").getSize() > 0);
+        assertTrue(getCacheStatistics("BeanClonePlan.CLASS_AND_PLAN_MAP").getSize() > 0);
+        assertTrue(getCacheStatistics("CopyPropertiesPlan.KEY_AND_PLAN_MAP").getSize() > 0);
+    }
+
+    @Test
+    public void testWarmUpPackageDirectory(){
+        List<Class<?>> classList = MetadataCacheUtil.warmUpPackage("com.feilong.core.bean.beanaccessortest");
+        assertThat(classList, hasItem(AccessorBean.class));
+    }
+
+    @Test
+    public void testWarmUpPackageJar(){
+        List<Class<?>> classList = MetadataCacheUtil.warmUpPackage("org.apache.commons.beanutils.converters");
+        assertThat(classList, hasItem(LongConverter.class));
+    }
+
+    @Test
+    public void testWarmUpPatterns(){
+        MetadataCacheUtil.warmUpPatterns("^metadataCacheUtilTest\\d+$");
+        assertTrue(getCacheStatistics("RegexUtil.PATTERN_CACHE").getSize() > 0);
+    }
+
+    @Test
+    public void testGetCacheStatisticsList(){
+        MetadataCacheUtil.warmUp(User.class);
+
+        List<String> nameList = new ArrayList<>();
+        for (CacheStatistics cacheStatistics : MetadataCacheUtil.getCacheStatisticsList()){
+            nameList.add(cacheStatistics.getName());
+            assertTrue(cacheStatistics.getEstimatedBytes() >= 0);
+            assertEquals(cacheStatistics.getSize() == 0, cacheStatistics.getEstimatedBytes() == 0);
+        }
+        assertEquals(9, nameList.size());
+        assertThat(nameList, hasItem("PropertyDescriptorUtil.CLASS_AND_PROPERTY_ACCESSOR_MAP"));
+        assertTrue(MetadataCacheUtil.getTotalEstimatedBytes() > 0);
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testWarmUpNullClass(){
+        MetadataCacheUtil.warmUp((Class<?>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWarmUpPackageBlank(){
+        MetadataCacheUtil.warmUpPackage(" ");
+    }
+
+    @Test
+    public void testWarmUpPackageNotExist(){
+        assertFalse(MetadataCacheUtil.warmUpPackage("com.feilong.notexist").iterator().hasNext());
+    }
+
+    //---------------------------------------------------------------
+
+    private static CacheStatistics getCacheStatistics(String name){
+        for (CacheStatistics cacheStatistics : MetadataCacheUtil.getCacheStatisticsList()){
+            if (cacheStatistics.getName().equals(name)){
+                return cacheStatistics;
+            }
+        }
+        throw new AssertionError(name);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.metadatacacheutiltest;
+
+/**
+ * 会被 {@link ClassLoaderReleaseTest} 用子 {@link ClassLoader} 重新加载的 bean.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ReloadableBean{
+
+    /** The name. */
+    private String  name;
+
+    /** The age. */
+    private Integer age;
+
+    //---------------------------------------------------------------
+
+    /**
+     * 获得 name.
+     *
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * 设置 name.
+     *
+     * @param name
+     *            the name to set
+     */
+    public void setName(String name){
+        this.name = name;
+    }
+
+    /**
+     * 获得 age.
+     *
+     * @return the age
+     */
+    public Integer getAge(){
+        return age;
+    }
+
+    /**
+     * 设置 age.
+     *
+     * @param age
+     *            the age to set
+     */
+    public void setAge(Integer age){
+        this.age = age;
+    }
+}
@@ -27,7 +27,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ //
 
-                GetValueTest.class
+                GetValueTest.class,
+                GetPropertyAccessorTest.class
         //
 })
 public class FeiLongPropertyValueObtainerSuiteTests{
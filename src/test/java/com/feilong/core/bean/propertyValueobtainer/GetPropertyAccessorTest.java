@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.propertyValueobtainer;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.feilong.core.bean.BeanOperationException;
+import com.feilong.core.bean.PropertyAccessor;
+import com.feilong.core.bean.PropertyDescriptorUtil;
+import com.feilong.core.bean.PropertyUtil;
+import com.feilong.core.bean.beanutiltest.entity.AccessExceptionProperty;
+import com.feilong.core.util.CollectionsUtil;
+import com.feilong.store.member.User;
+
+/**
+ * The Class GetPropertyAccessorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class GetPropertyAccessorTest{
+
+    @Test
+    public void testGetPropertyAccessor(){
+        PropertyAccessor propertyAccessor = PropertyDescriptorUtil.getPropertyAccessor(User.class, "id");
+
+        assertTrue(propertyAccessor.isReadable());
+        assertEquals(Long.class, propertyAccessor.getPropertyType());
+        assertThat(PropertyDescriptorUtil.getPropertyAccessor(User.class, "id"), is(sameInstance(propertyAccessor)));
+
+        assertEquals(5L, propertyAccessor.getValue(new User(5L)));
+    }
+
+    @Test
+    public void testGetPropertyAccessorNotSimple(){
+        assertFalse(PropertyDescriptorUtil.getPropertyAccessor(User.class, "userInfo.age").isReadable());
+        assertFalse(PropertyDescriptorUtil.getPropertyAccessor(User.class, "loves[1]").isReadable());
+        assertFalse(PropertyDescriptorUtil.getPropertyAccessor(User.class, "attrMap(name)").isReadable());
+        assertFalse(PropertyDescriptorUtil.getPropertyAccessor(User.class, "name11").isReadable());
+    }
+
+    @Test
+    public void testGetPropertyAccessorMap(){
+        HashMap<String, String> map = new HashMap<>();
+        map.put("name", "feilong");
+
+        assertFalse(PropertyDescriptorUtil.getPropertyAccessor(HashMap.class, "name").isReadable());
+        assertEquals("feilong", PropertyUtil.getProperty(map, "name"));
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = BeanOperationException.class)
+    public void testGetValueException(){
+        PropertyUtil.getProperty(new AccessExceptionProperty(), "name");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetValueNotReadable(){
+        PropertyDescriptorUtil.getPropertyAccessor(User.class, "name11").getValue(new User());
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testGetPropertyNotExist(){
+        PropertyUtil.getProperty(new User(), "name11");
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testGetPropertyValueListMixedClass(){
+        List<Object> list = toList((Object) new User(1L), new SubUser(2L), new User(3L));
+        assertEquals(toList(1L, 2L, 3L), CollectionsUtil.getPropertyValueList(list, "id"));
+    }
+
+    //---------------------------------------------------------------
+
+    /**
+     * 子类.
+     */
+    public static class SubUser extends User{
+
+        private static final long serialVersionUID = 1L;
+
+        public SubUser(Long id){
+            super(id);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.propertyutiltest;
+
+import static com.feilong.core.date.DateUtil.now;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.feilong.core.bean.PropertyUtil;
+import com.feilong.store.member.User;
+import com.feilong.store.member.UserInfo;
+
+/**
+ * The Class DescribeViewTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class DescribeViewTest{
+
+    @Test
+    public void testDescribeView(){
+        Date now = now();
+
+        User user = new User();
+        user.setId(5L);
+        user.setDate(now);
+        user.setUserInfo(new UserInfo(18));
+
+        Map<String, Object> map = PropertyUtil.describeView(user, "date", "id", "userInfo.age", "id");
+        assertThat(map.keySet(), contains("date", "id", "userInfo.age"));
+        assertEquals(now, map.get("date"));
+        assertEquals(5L, map.get("id"));
+        assertEquals(18, map.get("userInfo.age"));
+        assertEquals(PropertyUtil.describe(user, "date", "id", "userInfo.age"), map);
+
+        assertTrue(map.containsKey("id"));
+        assertFalse(map.containsKey("name"));
+        assertNull(map.get("name"));
+    }
+
+    @Test
+    public void testDescribeViewReadOnce(){
+        User user = new User(5L);
+
+        Map<String, Object> map = PropertyUtil.describeView(user, "id", "name");
+
+        //还没有读取,使用的是最新的值
+        user.setName("jinxin");
+        assertEquals("jinxin", map.get("name"));
+
+        //已经读取,不会再次读取
+        user.setName("feilong");
+        assertEquals("jinxin", map.get("name"));
+    }
+
+    @Test
+    public void testDescribeViewAllProperties(){
+        User user = new User(5L);
+        assertEquals(PropertyUtil.describe(user), PropertyUtil.describeView(user));
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDescribeViewPut(){
+        PropertyUtil.describeView(new User(), "id").put("id", 8L);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testDescribeViewNullBean(){
+        PropertyUtil.describeView(null, "id");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testDescribeViewNullPropertyName(){
+        PropertyUtil.describeView(new User(), "id", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDescribeViewBlankPropertyName(){
+        PropertyUtil.describeView(new User(), "id", " ");
+    }
+}
@@ -28,8 +28,10 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({ //
                 CopyPropertiesTest.class,
                 DescribeTest.class,
+                DescribeViewTest.class,
                 FindValueOfTypeTest.class,
                 GetPropertyTest.class,
+                PropertyPathTest.class,
                 SetPropertyIfValueNotNullOrEmptyTest.class,
                 SetPropertyIfValueNotNullTest.class,
                 SetPropertyTest.class
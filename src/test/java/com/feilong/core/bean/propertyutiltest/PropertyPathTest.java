@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.bean.propertyutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toArray;
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.bean.ConvertUtil.toMap;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.beanutils.NestedNullException;
+import org.junit.Test;
+
+import com.feilong.core.bean.BeanOperationException;
+import com.feilong.core.bean.PropertyPath;
+import com.feilong.store.member.User;
+import com.feilong.store.member.UserAddress;
+import com.feilong.store.member.UserInfo;
+
+/**
+ * The Class PropertyPathTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PropertyPathTest{
+
+    @Test
+    public void testCompile(){
+        PropertyPath propertyPath = PropertyPath.compile("userInfo.age");
+
+        assertThat(PropertyPath.compile("userInfo.age"), is(sameInstance(propertyPath)));
+        assertEquals("userInfo.age", propertyPath.getExpression());
+        assertFalse(propertyPath.isSimple());
+        assertTrue(PropertyPath.compile("id").isSimple());
+    }
+
+    @Test
+    public void testCompileEvictEldest(){
+        String prefix = "propertyPathTest" + System.nanoTime() + "_";
+        PropertyPath eldest = PropertyPath.compile(prefix + 0);
+        PropertyPath latest = null;
+        //超过 4096 个之后淘汰最早放入的
+        for (int i = 1; i <= 4096; ++i){
+            latest = PropertyPath.compile(prefix + i);
+        }
+
+        assertThat(PropertyPath.compile(prefix + 4096), is(sameInstance(latest)));
+        assertThat(PropertyPath.compile(prefix + 0), is(not(sameInstance(eldest))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompileBlank(){
+        PropertyPath.compile(" ");
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testGetValueNested(){
+        User user = new User();
+        UserInfo userInfo = new UserInfo();
+        userInfo.setAge(18);
+        user.setUserInfo(userInfo);
+
+        assertEquals(18, PropertyPath.compile("userInfo.age").getValue(user));
+    }
+
+    @Test
+    public void testGetValueIndexed(){
+        UserAddress userAddress1 = new UserAddress();
+        userAddress1.setAddress("上海");
+        UserAddress userAddress2 = new UserAddress();
+        userAddress2.setAddress("北京");
+
+        User user = new User();
+        user.setUserAddresses(toArray(userAddress1, userAddress2));
+        user.setUserAddresseList(toList(userAddress1, userAddress2));
+        user.setNickNames(toArray("feilong", "飞天奔月"));
+
+        assertEquals("北京", PropertyPath.compile("userAddresses[1].address").getValue(user));
+        assertEquals("上海", PropertyPath.compile("userAddresseList[0].address").getValue(user));
+        assertEquals("飞天奔月", PropertyPath.compile("nickNames[1]").getValue(user));
+    }
+
+    @Test
+    public void testGetValueListRoot(){
+        List<User> list = toList(new User(1L), new User(2L));
+        assertEquals(2L, PropertyPath.compile("[1].id").getValue(list));
+    }
+
+    @Test
+    public void testGetValueMapped(){
+        User user = new User();
+        user.setAttrMap(toMap("city", "shanghai"));
+
+        assertEquals("shanghai", PropertyPath.compile("attrMap(city)").getValue(user));
+        assertEquals("shanghai", PropertyPath.compile("attrMap.city").getValue(user));
+        assertNull(PropertyPath.compile("attrMap(name)").getValue(user));
+    }
+
+    @Test
+    public void testGetValueMapBean(){
+        Map<String, User> map = toMap("jinxin", new User(8L));
+        assertEquals(8L, PropertyPath.compile("jinxin.id").getValue(map));
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testGetValueNestedNull(){
+        User user = new User();
+        user.setUserInfo(null);
+
+        try{
+            PropertyPath.compile("userInfo.age").getValue(user);
+        }catch (BeanOperationException e){
+            assertTrue(e.getCause() instanceof NestedNullException);
+            return;
+        }
+        throw new AssertionError("expected BeanOperationException");
+    }
+
+    @Test
+    public void testGetValueNullSafe(){
+        User user = new User();
+        user.setUserInfo(null);
+
+        assertNull(PropertyPath.compile("userInfo.age").getValue(user, true));
+        assertNull(PropertyPath.compile("userAddresseList[0].address").getValue(user, true));
+        assertNull(PropertyPath.compile("userInfo.age").getValue(null, true));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetValueNullBean(){
+        PropertyPath.compile("userInfo.age").getValue(null);
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testGetValueIndexOutOfBounds(){
+        User user = new User();
+        user.setNickNames(toArray("feilong"));
+        PropertyPath.compile("nickNames[3]").getValue(user);
+    }
+
+    @Test(expected = BeanOperationException.class)
+    public void testGetValueNotExist(){
+        PropertyPath.compile("userInfo.age11").getValue(new User());
+    }
+}
@@ -32,6 +32,8 @@ import org.junit.runners.Suite.SuiteClasses;
                 InvokeStaticMethodWithParamsTest.class,
                 InvokeStaticMethodWithParamsAndClassTest.class,
                 InvokeStaticMethodWithParamsPrivateTest.class,
+
+                InvokeMethodCacheTest.class,
         //
 })
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.reflect.methodutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import com.feilong.core.lang.reflect.MethodUtil;
+import com.feilong.core.lang.reflect.ReflectException;
+
+/**
+ * 重复调用走缓存之后,结果和异常都和第一次一致.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class InvokeMethodCacheTest{
+
+    @Test
+    public void testInvokeMethodOverloadRepeat(){
+        for (int i = 0; i < 3; ++i){
+            assertEquals("age int:5", MethodUtil.invokeMethod(new OverloadMethod(), "age", toArray(5), new Class<?>[] { Integer.TYPE }));
+            assertEquals("age Integer:5", MethodUtil.invokeMethod(new OverloadMethod(), "age", toArray(5), new Class<?>[] { Integer.class }));
+        }
+    }
+
+    @Test
+    public void testInvokeMethodCallerArrayChanged(){
+        Class<?>[] parameterTypes = { Integer.TYPE };
+        assertEquals("age int:5", MethodUtil.invokeMethod(new OverloadMethod(), "age", toArray(5), parameterTypes));
+
+        //缓存的 key 不能受调用方数组的影响
+        parameterTypes[0] = Integer.class;
+        assertEquals("age Integer:5", MethodUtil.invokeMethod(new OverloadMethod(), "age", toArray(5), parameterTypes));
+    }
+
+    @Test
+    public void testInvokeMethodVarArgsRepeat(){
+        for (int i = 0; i < 3; ++i){
+            assertEquals("a-b", MethodUtil.invokeStaticMethod(StringUtils.class, "joinWith", "-", "a", "b"));
+        }
+    }
+
+    @Test
+    public void testInvokeStaticMethodPrivateRepeat(){
+        for (int i = 0; i < 3; ++i){
+            assertEquals("static age Integer:5", MethodUtil.invokeStaticMethod(OverloadStaticMethod.class, "agePrivate", 5));
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testInvokeMethodNotExistRepeat(){
+        for (int i = 0; i < 3; ++i){
+            assertNoSuchMethod("No such accessible method: name() on object: " + PrivateMethod.class.getName(), new Runnable(){
+
+                @Override
+                public void run(){
+                    MethodUtil.invokeMethod(new PrivateMethod(), "name");
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testInvokeStaticMethodNotExistRepeat(){
+        for (int i = 0; i < 3; ++i){
+            assertNoSuchMethod("No such method:[notExist()] on class: " + OverloadStaticMethod.class.getName(), new Runnable(){
+
+                @Override
+                public void run(){
+                    MethodUtil.invokeStaticMethod(OverloadStaticMethod.class, "notExist", 5);
+                }
+            });
+        }
+    }
+
+    private static void assertNoSuchMethod(String expectedMessage,Runnable runnable){
+        try{
+            runnable.run();
+            fail();
+        }catch (ReflectException e){
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+            assertEquals(expectedMessage, e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.AdaptivePartitionEachSizeBuilder;
+import com.feilong.core.lang.thread.DefaultPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionEachSizeThreadConfigBuilder;
+import com.feilong.core.lang.thread.PartitionThreadConfig;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionPerHandler;
+
+/**
+ * The Class AdaptivePartitionEachSizeBuilderTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class AdaptivePartitionEachSizeBuilderTest extends AbstractExcuteTest{
+
+    private static final Class<?> KEY = AdaptivePartitionEachSizeBuilderTest.class;
+
+    @Before
+    public void before(){
+        AdaptivePartitionEachSizeBuilder.clear(KEY);
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testBuildWithoutStatistics(){
+        PartitionThreadConfig partitionThreadConfig = new PartitionThreadConfig(4, 20);
+        AdaptivePartitionEachSizeBuilder adaptivePartitionEachSizeBuilder = new AdaptivePartitionEachSizeBuilder(
+                        KEY,
+                        50,
+                        false,
+                        partitionThreadConfig);
+
+        assertEquals(new PartitionEachSizeThreadConfigBuilder(partitionThreadConfig).build(100), adaptivePartitionEachSizeBuilder.build(100));
+    }
+
+    @Test
+    public void testClear(){
+        AdaptivePartitionEachSizeBuilder.record(KEY, 100, TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+
+        AdaptivePartitionEachSizeBuilder.clear(KEY);
+        assertEquals(-1, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+    }
+
+    @Test
+    public void testBuild(){
+        //每个元素 1 毫秒
+        AdaptivePartitionEachSizeBuilder.record(KEY, 100, TimeUnit.MILLISECONDS.toNanos(100));
+
+        //目标每个分区 50 毫秒
+        assertEquals(50, new AdaptivePartitionEachSizeBuilder(KEY, 50).build(1000));
+        //不超过 totalSize
+        assertEquals(30, new AdaptivePartitionEachSizeBuilder(KEY, 50).build(30));
+    }
+
+    @Test
+    public void testBuildMaxThreadCount(){
+        AdaptivePartitionEachSizeBuilder.record(KEY, 100, TimeUnit.MILLISECONDS.toNanos(100));
+
+        //100000/50 = 2000 个分区,超过 maxThreadCount 100
+        assertEquals(1000, new AdaptivePartitionEachSizeBuilder(KEY, 50).build(100000));
+    }
+
+    @Test
+    public void testBuildCpuBound(){
+        AdaptivePartitionEachSizeBuilder.record(KEY, 100, TimeUnit.MILLISECONDS.toNanos(100));
+
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        int totalSize = 50 * (availableProcessors + 1);
+
+        AdaptivePartitionEachSizeBuilder adaptivePartitionEachSizeBuilder = new AdaptivePartitionEachSizeBuilder(
+                        KEY,
+                        50,
+                        true,
+                        PartitionThreadConfig.INSTANCE);
+        int eachSize = adaptivePartitionEachSizeBuilder.build(totalSize);
+        assertEquals((totalSize + availableProcessors - 1) / availableProcessors, eachSize);
+    }
+
+    @Test
+    public void testBuildFastItem(){
+        //每个元素 1 纳秒
+        AdaptivePartitionEachSizeBuilder.record(KEY, 1000, 1000);
+
+        //一个分区足够
+        assertEquals(500, new AdaptivePartitionEachSizeBuilder(KEY, 50).build(500));
+    }
+
+    @Test
+    public void testRecordMovingAverage(){
+        AdaptivePartitionEachSizeBuilder.record(KEY, 1, 1000);
+        assertEquals(1000, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+
+        AdaptivePartitionEachSizeBuilder.record(KEY, 1, 2000);
+        assertEquals(1300, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+
+        //忽略
+        AdaptivePartitionEachSizeBuilder.record(KEY, 0, 2000);
+        assertEquals(1300, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+    }
+
+    @Test
+    public void testExecute(){
+        AdaptivePartitionEachSizeBuilder adaptivePartitionEachSizeBuilder = new AdaptivePartitionEachSizeBuilder(KEY, 50);
+
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        assertEquals(-1, AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY));
+        ThreadUtil.execute(
+                        DefaultPartitionThreadExecutor.INSTANCE,
+                        buildList(0, 1000),
+                        adaptivePartitionEachSizeBuilder,
+                        paramsMap,
+                        new CalculatePartitionPerHandler());
+
+        assertEquals(499500, atomicInteger.get());
+        assertTrue(AdaptivePartitionEachSizeBuilder.getAverageItemNanos(KEY) > 0);
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTotalSizeZero(){
+        new AdaptivePartitionEachSizeBuilder(KEY, 50).build(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullKey(){
+        new AdaptivePartitionEachSizeBuilder(null, 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTargetPartitionMillis(){
+        new AdaptivePartitionEachSizeBuilder(KEY, 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteNullAdaptivePartitionEachSizeBuilder(){
+        ThreadUtil.execute(
+                        DefaultPartitionThreadExecutor.INSTANCE,
+                        buildList(0, 10),
+                        (AdaptivePartitionEachSizeBuilder) null,
+                        null,
+                        EmptyPartitionPerHandler.INSTANCE);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.PartitionExecuteException;
+import com.feilong.core.lang.thread.PartitionFuture;
+import com.feilong.core.lang.thread.PartitionFutureListener;
+import com.feilong.core.lang.thread.PartitionPerHandler;
+import com.feilong.core.lang.thread.PartitionResultHandler;
+import com.feilong.core.lang.thread.PartitionThreadConfig;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionRunnableBuilder;
+import com.feilong.core.lang.threadutiltest.entity.SleepOrFailPartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.SumPartitionResultHandler;
+
+/**
+ * The Class ExecuteAsyncTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteAsyncTest extends AbstractExcuteTest{
+
+    private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public static void afterClass(){
+        EXECUTOR_SERVICE.shutdownNow();
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteAsync() throws Exception{
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        PartitionFuture<Void> partitionFuture = ThreadUtil
+                        .executeAsync(EXECUTOR_SERVICE, buildList(0, 1000), 7, paramsMap, new CalculatePartitionPerHandler());
+        List<Void> results = partitionFuture.get(5, TimeUnit.SECONDS);
+
+        assertEquals(143, results.size());
+        assertEquals(499500, atomicInteger.get());
+        assertTrue(partitionFuture.isDone());
+        assertFalse(partitionFuture.isCancelled());
+    }
+
+    @Test
+    public void testExecuteAsyncPartitionThreadConfig() throws Exception{
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.executeAsync(EXECUTOR_SERVICE, toList(2, 5, 6, 7), new PartitionThreadConfig(2, 1), paramsMap, new CalculatePartitionPerHandler())
+                        .get();
+        assertEquals(20, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecuteAsyncNullRunnable() throws Exception{
+        PartitionFuture<Void> partitionFuture = ThreadUtil
+                        .executeAsync(EXECUTOR_SERVICE, toList(2, 5, 6, 7), 2, null, EmptyPartitionRunnableBuilder.INSTANCE);
+        assertTrue(partitionFuture.get().isEmpty());
+    }
+
+    @Test
+    public void testExecuteAndGetAsync() throws Exception{
+        PartitionFuture<Integer> partitionFuture = ThreadUtil
+                        .executeAndGetAsync(EXECUTOR_SERVICE, buildList(1, 11), 3, null, new SumPartitionResultHandler());
+        assertEquals(toList(6, 15, 24, 10), partitionFuture.get());
+    }
+
+    @Test
+    public void testExecuteAndGetAsyncThreadName() throws Exception{
+        PartitionFuture<String> partitionFuture = ThreadUtil
+                        .executeAndGetAsync(EXECUTOR_SERVICE, buildList(1, 5), 2, null, new PartitionResultHandler<Integer, String>(){
+
+                            @Override
+                            public String handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+                                return partitionThreadEntity.getName();
+                            }
+                        });
+        //和同步的 executeAndGet 保持一致
+        assertEquals(toList("Thread-PartitionResultRunnableBuilder-0", "Thread-PartitionResultRunnableBuilder-1"), partitionFuture.get());
+    }
+
+    @Test
+    public void testExecuteAndGetAsyncListener() throws Exception{
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final AtomicReference<List<Integer>> resultsReference = new AtomicReference<>();
+
+        ThreadUtil.executeAndGetAsync(EXECUTOR_SERVICE, buildList(1, 11), 3, null, new SumPartitionResultHandler())
+                        .addListener(new PartitionFutureListener<Integer>(){
+
+                            @Override
+                            public void onComplete(PartitionFuture<Integer> partitionFuture){
+                                resultsReference.set(partitionFuture.getResults());
+                                countDownLatch.countDown();
+                            }
+                        });
+
+        assertTrue(countDownLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(toList(6, 15, 24, 10), resultsReference.get());
+    }
+
+    @Test
+    public void testAddListenerAfterDone() throws Exception{
+        PartitionFuture<Integer> partitionFuture = ThreadUtil
+                        .executeAndGetAsync(EXECUTOR_SERVICE, buildList(1, 11), 3, null, new SumPartitionResultHandler());
+        partitionFuture.get();
+
+        final AtomicReference<PartitionFuture<Integer>> reference = new AtomicReference<>();
+        partitionFuture.addListener(new PartitionFutureListener<Integer>(){
+
+            @Override
+            public void onComplete(PartitionFuture<Integer> partitionFuture){
+                reference.set(partitionFuture);
+            }
+        });
+        assertSame(partitionFuture, reference.get());
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteAsyncFail() throws Exception{
+        PartitionFuture<Void> partitionFuture = ThreadUtil
+                        .executeAsync(EXECUTOR_SERVICE, toList(1, -1, 2, -2), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+        try{
+            partitionFuture.get();
+            fail();
+        }catch (ExecutionException e){
+            PartitionExecuteException partitionExecuteException = (PartitionExecuteException) e.getCause();
+            assertEquals(2, partitionExecuteException.getFailedPartitionThreadEntityList().size());
+        }
+
+        //每个分区的结果以及异常
+        assertEquals(2, partitionFuture.getPartitionThreadEntityAndExceptionMap().size());
+        assertNull(partitionFuture.getResults().get(1));
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() throws Exception{
+        PartitionFuture<Void> partitionFuture = ThreadUtil
+                        .executeAsync(EXECUTOR_SERVICE, toList(5000, 5000), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+        assertTrue(partitionFuture.cancel(true));
+        assertTrue(partitionFuture.isCancelled());
+        assertTrue(partitionFuture.isDone());
+        try{
+            partitionFuture.get();
+            fail();
+        }catch (CancellationException e){
+            //expected
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testExecuteAsyncGetTimeout() throws Exception{
+        PartitionFuture<Void> partitionFuture = ThreadUtil
+                        .executeAsync(EXECUTOR_SERVICE, toList(500), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+        partitionFuture.get(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testExecuteAsyncRejected() throws Exception{
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        executorService.shutdown();
+
+        PartitionFuture<Void> partitionFuture = ThreadUtil.executeAsync(executorService, toList(1, 2), 1, null, EmptyPartitionPerHandler.INSTANCE);
+        assertTrue(partitionFuture.isDone());
+        assertEquals(2, partitionFuture.getPartitionThreadEntityAndExceptionMap().size());
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteAsyncNullExecutor(){
+        ThreadUtil.executeAsync(null, toList(2), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAsyncEmptyList(){
+        ThreadUtil.executeAsync(EXECUTOR_SERVICE, Collections.<Integer> emptyList(), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAsyncInvalidEachSize(){
+        ThreadUtil.executeAsync(EXECUTOR_SERVICE, toList(2), 0, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteAsyncNullPartitionPerHandler(){
+        ThreadUtil.executeAsync(EXECUTOR_SERVICE, toList(2), 1, null, (PartitionPerHandler<Integer>) null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetResultsNotDone(){
+        ThreadUtil.executeAsync(EXECUTOR_SERVICE, toList(500), 1, null, SleepOrFailPartitionPerHandler.INSTANCE).getResults();
+    }
+}
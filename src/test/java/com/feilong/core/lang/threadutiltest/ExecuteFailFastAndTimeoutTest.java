@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.AbstractPartitionThreadExecutor;
+import com.feilong.core.lang.thread.DefaultPartitionThreadExecutor;
+import com.feilong.core.lang.thread.ForkJoinPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionExecuteConfig;
+import com.feilong.core.lang.thread.PartitionExecuteContext;
+import com.feilong.core.lang.thread.PartitionExecuteException;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.thread.VirtualThreadPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.SleepOrFailPartitionPerHandler;
+
+/**
+ * The Class ExecuteFailFastAndTimeoutTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteFailFastAndTimeoutTest extends AbstractExcuteTest{
+
+    /** 超时时间是 100 毫秒的配置. */
+    private static final PartitionExecuteConfig TIMEOUT_100_CONFIG = new PartitionExecuteConfig(false, 100);
+
+    @Test
+    public void testExecuteFailDefault(){
+        assertFail(new DefaultPartitionThreadExecutor());
+    }
+
+    @Test
+    public void testExecuteFailPooled(){
+        assertFail(new PooledPartitionThreadExecutor(4, 10));
+    }
+
+    @Test
+    public void testExecuteFailForkJoin(){
+        assertFail(new ForkJoinPartitionThreadExecutor(2));
+    }
+
+    @Test
+    public void testExecuteFailVirtualThread(){
+        assertFail(new VirtualThreadPartitionThreadExecutor());
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteFailFast(){
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(1, 10, new PartitionExecuteConfig(true, 0));
+
+        long begin = System.currentTimeMillis();
+        try{
+            ThreadUtil.execute(pooledPartitionThreadExecutor, toList(-1, 2000, 2000, 2000), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(toList(0), toBatchNumberList(e.getFailedPartitionThreadEntityList()));
+            assertEquals(toList(1, 2, 3), toBatchNumberList(e.getUnfinishedPartitionThreadEntityList()));
+            assertFalse(e.isTimeout());
+        }
+        assertTrue(System.currentTimeMillis() - begin < 2000);
+    }
+
+    @Test
+    public void testExecuteNotFailFast(){
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(1, 10);
+        try{
+            ThreadUtil.execute(pooledPartitionThreadExecutor, toList(-1, 10, 10, -2), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(toList(0, 3), toBatchNumberList(e.getFailedPartitionThreadEntityList()));
+            assertTrue(e.getUnfinishedPartitionThreadEntityList().isEmpty());
+        }
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteTimeoutDefault(){
+        assertTimeout(new DefaultPartitionThreadExecutor(TIMEOUT_100_CONFIG));
+    }
+
+    @Test
+    public void testExecuteTimeoutPooled(){
+        assertTimeout(new PooledPartitionThreadExecutor(4, 10, TIMEOUT_100_CONFIG));
+    }
+
+    @Test
+    public void testExecuteTimeoutForkJoin(){
+        assertTimeout(new ForkJoinPartitionThreadExecutor(new ForkJoinPool(2), TIMEOUT_100_CONFIG));
+    }
+
+    @Test
+    public void testExecuteTimeoutVirtualThread(){
+        assertTimeout(new VirtualThreadPartitionThreadExecutor(PooledPartitionThreadExecutor.INSTANCE, TIMEOUT_100_CONFIG));
+    }
+
+    @Test
+    public void testExecuteNotTimeout(){
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(
+                        4,
+                        10,
+                        new PartitionExecuteConfig(false, 5000));
+        ThreadUtil.execute(pooledPartitionThreadExecutor, toList(10, 10, 10, 10), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+    }
+
+    //---------------------------------------------------------
+
+    private static void assertFail(AbstractPartitionThreadExecutor partitionThreadExecutor){
+        try{
+            ThreadUtil.execute(partitionThreadExecutor, toList(1, -1, 2, -2), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(toList(1, 3), toBatchNumberList(e.getFailedPartitionThreadEntityList()));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(1, e.getSuppressed().length);
+            assertFalse(e.isTimeout());
+        }
+    }
+
+    //---------------------------------------------------------------
+
+    @Test
+    public void testSharedInstanceUseDefaultConfig(){
+        for (Object instance : toList(
+                        DefaultPartitionThreadExecutor.INSTANCE,
+                        PooledPartitionThreadExecutor.INSTANCE,
+                        ForkJoinPartitionThreadExecutor.INSTANCE,
+                        VirtualThreadPartitionThreadExecutor.INSTANCE)){
+            assertSame(PartitionExecuteConfig.INSTANCE, ((AbstractPartitionThreadExecutor) instance).getPartitionExecuteConfig());
+        }
+        assertFalse(PartitionExecuteConfig.INSTANCE.isFailFast());
+        assertEquals(0, PartitionExecuteConfig.INSTANCE.getTimeoutMillis());
+    }
+
+    @Test
+    public void testTimeoutBeforeAnyPartitionStarted(){
+        PartitionExecuteContext partitionExecuteContext = new PartitionExecuteContext(false, 100);
+        partitionExecuteContext.timeout();
+        try{
+            partitionExecuteContext.check();
+            fail();
+        }catch (PartitionExecuteException e){
+            assertTrue(e.isTimeout());
+            assertTrue(e.getUnfinishedPartitionThreadEntityList().isEmpty());
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullConfig(){
+        new DefaultPartitionThreadExecutor(null);
+    }
+
+    //---------------------------------------------------------------
+
+    private static void assertTimeout(AbstractPartitionThreadExecutor partitionThreadExecutor){
+        long begin = System.currentTimeMillis();
+        try{
+            ThreadUtil.execute(partitionThreadExecutor, toList(1, 5000, 5000), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            //线程池繁忙的时候,超时之前可能还没有分区开始执行
+            assertTrue(e.isTimeout());
+        }
+        assertTrue(System.currentTimeMillis() - begin < 5000);
+    }
+
+    private static List<Integer> toBatchNumberList(List<PartitionThreadEntity> partitionThreadEntityList){
+        List<Integer> list = new ArrayList<>();
+        for (PartitionThreadEntity partitionThreadEntity : partitionThreadEntityList){
+            list.add(partitionThreadEntity.getBatchNumber());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.ForkJoinPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionPerHandler;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionRunnableBuilder;
+
+/**
+ * The Class ExecuteForkJoinPartitionThreadExecutorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteForkJoinPartitionThreadExecutorTest extends AbstractExcuteTest{
+
+    @Test
+    public void testExecute(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.execute(ForkJoinPartitionThreadExecutor.INSTANCE, buildList(0, 1000), 3, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecutePartitionThreadEntity(){
+        final Map<Integer, List<Integer>> batchNumberAndListMap = new ConcurrentHashMap<>();
+
+        ThreadUtil.execute(new ForkJoinPartitionThreadExecutor(3), buildList(0, 10), 3, null, new PartitionPerHandler<Integer>(){
+
+            @Override
+            public void handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+                assertEquals(perBatchList.size(), partitionThreadEntity.getCurrentListSize());
+                assertEquals(10, partitionThreadEntity.getTotalListCount());
+                batchNumberAndListMap.put(partitionThreadEntity.getBatchNumber(), perBatchList);
+            }
+        });
+
+        assertEquals(4, batchNumberAndListMap.size());
+        assertEquals(buildList(0, 3), batchNumberAndListMap.get(0));
+        assertEquals(buildList(3, 6), batchNumberAndListMap.get(1));
+        assertEquals(buildList(6, 9), batchNumberAndListMap.get(2));
+        assertEquals(buildList(9, 10), batchNumberAndListMap.get(3));
+    }
+
+    @Test
+    public void testExecuteNullRunnable(){
+        ThreadUtil.execute(ForkJoinPartitionThreadExecutor.INSTANCE, buildList(0, 10), 2, null, EmptyPartitionRunnableBuilder.INSTANCE);
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism(){
+        new ForkJoinPartitionThreadExecutor(0);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.PartitionPerHandler;
+import com.feilong.core.lang.thread.PartitionThreadConfig;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionRunnableBuilder;
+
+/**
+ * The Class ExecutePooledPartitionThreadExecutorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecutePooledPartitionThreadExecutorTest extends AbstractExcuteTest{
+
+    @Test
+    public void testExecute(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, buildList(0, 1000), 7, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecutePartitionThreadConfig(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.execute(
+                        PooledPartitionThreadExecutor.INSTANCE,
+                        toList(2, 5, 6, 7),
+                        new PartitionThreadConfig(2, 1),
+                        paramsMap,
+                        new CalculatePartitionPerHandler());
+        assertEquals(20, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecuteReuseAndShutdown(){
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(2, 1);
+
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        for (int i = 0; i < 10; ++i){
+            ThreadUtil.execute(pooledPartitionThreadExecutor, toList(2, 5, 6, 7), 1, paramsMap, new CalculatePartitionPerHandler());
+        }
+        assertEquals(200, atomicInteger.get());
+        assertTrue(pooledPartitionThreadExecutor.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = RejectedExecutionException.class,timeout = 5000)
+    public void testExecuteAfterShutdown(){
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(2, 1);
+        pooledPartitionThreadExecutor.shutdown();
+
+        ThreadUtil.execute(pooledPartitionThreadExecutor, toList(2, 5, 6, 7), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test
+    public void testExecuteNullRunnable(){
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, toList(2, 5, 6, 7), 2, null, EmptyPartitionRunnableBuilder.INSTANCE);
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteNullPartitionThreadExecutor(){
+        ThreadUtil.execute(null, toList(2), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteNullList(){
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, null, 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteEmptyList(){
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, Collections.<Integer> emptyList(), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteInvalidEachSize(){
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, toList(2), 0, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteNullPartitionPerHandler(){
+        ThreadUtil.execute(PooledPartitionThreadExecutor.INSTANCE, toList(2), 1, null, (PartitionPerHandler<Integer>) null);
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPoolSize(){
+        new PooledPartitionThreadExecutor(0, 1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullExecutorService(){
+        new PooledPartitionThreadExecutor(null);
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.PartitionExecuteConfig;
+import com.feilong.core.lang.thread.PartitionExecuteException;
+import com.feilong.core.lang.thread.PartitionPerHandler;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.thread.StreamingPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.EmptyPartitionPerHandler;
+import com.feilong.core.lang.threadutiltest.entity.SleepOrFailPartitionPerHandler;
+
+/**
+ * The Class ExecuteStreamingPartitionThreadExecutorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteStreamingPartitionThreadExecutorTest extends AbstractExcuteTest{
+
+    @Test
+    public void testExecuteStreaming(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.executeStreaming(buildList(0, 1000).iterator(), 7, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecuteStreamingIterable(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.executeStreaming(buildList(0, 1000), 7, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecuteStreamingIterableIteratorOnce(){
+        final AtomicInteger iteratorCount = new AtomicInteger(0);
+        Iterable<Integer> iterable = new Iterable<Integer>(){
+
+            @Override
+            public Iterator<Integer> iterator(){
+                iteratorCount.incrementAndGet();
+                return toList(1, 2, 3).iterator();
+            }
+        };
+
+        ThreadUtil.executeStreaming(new StreamingPartitionThreadExecutor(1, 1), iterable, 2, null, EmptyPartitionPerHandler.INSTANCE);
+        assertEquals(1, iteratorCount.get());
+    }
+
+    @Test
+    public void testExecuteStreamingEmpty(){
+        ThreadUtil.executeStreaming(Collections.<Integer> emptyIterator(), 7, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test
+    public void testExecuteList(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        ThreadUtil.execute(new StreamingPartitionThreadExecutor(2, 1), buildList(0, 1000), 7, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testExecuteStreamingPartitionThreadEntity(){
+        final List<Integer> totalListCountList = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> batchNumberList = Collections.synchronizedList(new ArrayList<Integer>());
+
+        ThreadUtil.executeStreaming(toList(1, 2, 3, 4, 5).iterator(), 2, null, new PartitionPerHandler<Integer>(){
+
+            @Override
+            public void handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+                totalListCountList.add(partitionThreadEntity.getTotalListCount());
+                batchNumberList.add(partitionThreadEntity.getBatchNumber());
+            }
+        });
+
+        Collections.sort(batchNumberList);
+        assertEquals(toList(0, 1, 2), batchNumberList);
+        assertEquals(
+                        toList(
+                                        StreamingPartitionThreadExecutor.UNKNOWN_TOTAL_LIST_COUNT,
+                                        StreamingPartitionThreadExecutor.UNKNOWN_TOTAL_LIST_COUNT,
+                                        StreamingPartitionThreadExecutor.UNKNOWN_TOTAL_LIST_COUNT),
+                        totalListCountList);
+    }
+
+    /**
+     * 同时在内存中的元素不超过 {@code (queueCapacity + threadCount + 1) * eachSize}.
+     */
+    @Test
+    public void testExecuteStreamingBackpressure(){
+        final AtomicInteger finished = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+
+        final Iterator<Integer> delegate = buildList(0, 50).iterator();
+        Iterator<Integer> iterator = new Iterator<Integer>(){
+
+            private int read;
+
+            @Override
+            public boolean hasNext(){
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Integer next(){
+                read++;
+                int inFlight = read - finished.get();
+                if (inFlight > maxInFlight.get()){
+                    maxInFlight.set(inFlight);
+                }
+                return delegate.next();
+            }
+
+            @Override
+            public void remove(){
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        ThreadUtil.executeStreaming(new StreamingPartitionThreadExecutor(1, 1), iterator, 1, null, new PartitionPerHandler<Integer>(){
+
+            @Override
+            public void handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+                try{
+                    Thread.sleep(5);
+                }catch (InterruptedException e){
+                    throw new IllegalStateException(e);
+                }
+                finished.addAndGet(perBatchList.size());
+            }
+        });
+
+        assertEquals(50, finished.get());
+        assertTrue("maxInFlight:" + maxInFlight.get(), maxInFlight.get() <= 3);
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteStreamingFail(){
+        try{
+            ThreadUtil.executeStreaming(toList(1, -1, 2, -2, 3).iterator(), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(2, e.getFailedPartitionThreadEntityList().size());
+        }
+    }
+
+    @Test
+    public void testExecuteStreamingFailFast(){
+        StreamingPartitionThreadExecutor streamingPartitionThreadExecutor = new StreamingPartitionThreadExecutor(
+                        1,
+                        1,
+                        new PartitionExecuteConfig(true, 0));
+
+        AtomicInteger read = new AtomicInteger(0);
+        try{
+            ThreadUtil.executeStreaming(
+                            streamingPartitionThreadExecutor,
+                            new CountIterator(read, toList(-1, 1, 1, 1, 1, 1, 1, 1, 1, 1).iterator()),
+                            1,
+                            null,
+                            SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(1, e.getFailedPartitionThreadEntityList().size());
+        }
+        //取消之后不再读取 iterator
+        assertTrue("read:" + read.get(), read.get() < 10);
+    }
+
+    @Test
+    public void testExecuteStreamingTimeout(){
+        StreamingPartitionThreadExecutor streamingPartitionThreadExecutor = new StreamingPartitionThreadExecutor(
+                        1,
+                        1,
+                        new PartitionExecuteConfig(false, 100));
+
+        long begin = System.currentTimeMillis();
+        try{
+            ThreadUtil.executeStreaming(
+                            streamingPartitionThreadExecutor,
+                            toList(5000, 5000, 5000, 5000).iterator(),
+                            1,
+                            null,
+                            SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertTrue(e.isTimeout());
+        }
+        assertTrue(System.currentTimeMillis() - begin < 5000);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testExecuteStreamingIteratorException(){
+        Iterator<Integer> iterator = new Iterator<Integer>(){
+
+            @Override
+            public boolean hasNext(){
+                return true;
+            }
+
+            @Override
+            public Integer next(){
+                throw new UnsupportedOperationException("cursor closed");
+            }
+
+            @Override
+            public void remove(){
+                throw new UnsupportedOperationException();
+            }
+        };
+        ThreadUtil.executeStreaming(iterator, 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteStreamingNullExecutor(){
+        ThreadUtil.executeStreaming(null, toList(2).iterator(), 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteStreamingNullIterator(){
+        ThreadUtil.executeStreaming((Iterator<Integer>) null, 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteStreamingNullIterable(){
+        ThreadUtil.executeStreaming((Iterable<Integer>) null, 1, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteStreamingInvalidEachSize(){
+        ThreadUtil.executeStreaming(toList(2).iterator(), 0, null, EmptyPartitionPerHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteStreamingNullPartitionPerHandler(){
+        ThreadUtil.executeStreaming(toList(2).iterator(), 1, null, (PartitionPerHandler<Integer>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount(){
+        new StreamingPartitionThreadExecutor(0, 1);
+    }
+
+    //---------------------------------------------------------
+
+    /**
+     * 记录读取次数的 iterator.
+     */
+    private static final class CountIterator implements Iterator<Integer>{
+
+        private final AtomicInteger     read;
+
+        private final Iterator<Integer> delegate;
+
+        private CountIterator(AtomicInteger read, Iterator<Integer> delegate){
+            this.read = read;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Integer next(){
+            read.incrementAndGet();
+            return delegate.next();
+        }
+
+        @Override
+        public void remove(){
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.util.MapUtil.newHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.thread.VirtualThreadPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.CalculatePartitionPerHandler;
+
+/**
+ * The Class ExecuteVirtualThreadPartitionThreadExecutorTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteVirtualThreadPartitionThreadExecutorTest extends AbstractExcuteTest{
+
+    @Test
+    public void testExecute(){
+        AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        Map<String, Object> paramsMap = newHashMap(1);
+        paramsMap.put("result", atomicInteger);
+
+        //不管是否支持虚拟线程,结果都一样
+        ThreadUtil.execute(VirtualThreadPartitionThreadExecutor.INSTANCE, buildList(0, 1000), 1, paramsMap, new CalculatePartitionPerHandler());
+        assertEquals(499500, atomicInteger.get());
+    }
+
+    @Test
+    public void testDefaultFallback(){
+        assertSame(PooledPartitionThreadExecutor.INSTANCE, VirtualThreadPartitionThreadExecutor.INSTANCE.getFallbackPartitionThreadExecutor());
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testNullFallback(){
+        new VirtualThreadPartitionThreadExecutor(null);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.ForkJoinPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionResultHandler;
+import com.feilong.core.lang.thread.PartitionResultReducer;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.SumPartitionResultHandler;
+
+/**
+ * The Class ExecuteWithPartitionResultHandlerTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class ExecuteWithPartitionResultHandlerTest extends AbstractExcuteTest{
+
+    /** The Constant SUM_REDUCER. */
+    private static final PartitionResultReducer<Integer> SUM_REDUCER = new PartitionResultReducer<Integer>(){
+
+        @Override
+        public Integer reduce(Integer result,Integer partitionResult){
+            return result + partitionResult;
+        }
+    };
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteAndGet(){
+        assertEquals(toList(3, 7, 11, 15, 9), ThreadUtil.executeAndGet(buildList(1, 10), 2, null, SumPartitionResultHandler.INSTANCE));
+    }
+
+    @Test
+    public void testExecuteAndGetPooled(){
+        assertEquals(
+                        toList(3, 7, 11, 15, 9),
+                        ThreadUtil.executeAndGet(PooledPartitionThreadExecutor.INSTANCE, buildList(1, 10), 2, null, SumPartitionResultHandler.INSTANCE));
+    }
+
+    @Test
+    public void testExecuteAndGetForkJoin(){
+        assertEquals(
+                        toList(3, 7, 11, 15, 9),
+                        ThreadUtil.executeAndGet(ForkJoinPartitionThreadExecutor.INSTANCE, buildList(1, 10), 2, null, SumPartitionResultHandler.INSTANCE));
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testExecuteAndReduce(){
+        assertEquals((Integer) 499500, ThreadUtil.executeAndReduce(buildList(0, 1000), 30, null, SumPartitionResultHandler.INSTANCE, SUM_REDUCER));
+    }
+
+    @Test
+    public void testExecuteAndReduceOnePartition(){
+        assertEquals((Integer) 6, ThreadUtil.executeAndReduce(toList(1, 2, 3), 30, null, SumPartitionResultHandler.INSTANCE, SUM_REDUCER));
+    }
+
+    //---------------------------------------------------------
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteAndGetNullList(){
+        ThreadUtil.executeAndGet(null, 2, null, SumPartitionResultHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAndGetEmptyList(){
+        ThreadUtil.executeAndGet(Collections.<Integer> emptyList(), 2, null, SumPartitionResultHandler.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAndGetInvalidEachSize(){
+        ThreadUtil.executeAndGet(toList(1), 0, null, SumPartitionResultHandler.INSTANCE);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteAndGetNullPartitionResultHandler(){
+        ThreadUtil.executeAndGet(toList(1), 2, null, (PartitionResultHandler<Integer, Integer>) null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecuteAndReduceNullPartitionResultReducer(){
+        ThreadUtil.executeAndReduce(toList(1), 2, null, SumPartitionResultHandler.INSTANCE, null);
+    }
+}
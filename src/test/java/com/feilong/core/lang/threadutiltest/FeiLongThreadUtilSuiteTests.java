@@ -37,7 +37,19 @@ import org.junit.runners.Suite.SuiteClasses;
                 ExecuteCountTest.class,
 
                 PartitionEachSizeBuilderParameterizedTest.class,
-                PartitionEachSizeBuilderTest.class
+                PartitionEachSizeBuilderTest.class,
+
+                ExecutePooledPartitionThreadExecutorTest.class,
+                ExecuteVirtualThreadPartitionThreadExecutorTest.class,
+                ExecuteForkJoinPartitionThreadExecutorTest.class,
+
+                ExecuteWithPartitionResultHandlerTest.class,
+                ExecuteFailFastAndTimeoutTest.class,
+                ExecuteStreamingPartitionThreadExecutorTest.class,
+                ExecuteAsyncTest.class,
+                AdaptivePartitionEachSizeBuilderTest.class,
+                PartitionExecuteListenerTest.class,
+                PartitionConcurrencyLimiterTest.class
         //
 })
 public class FeiLongThreadUtilSuiteTests{
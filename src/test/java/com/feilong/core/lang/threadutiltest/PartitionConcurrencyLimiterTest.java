@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.AbstractPartitionThreadExecutor;
+import com.feilong.core.lang.thread.AsyncPartitionThreadExecutor;
+import com.feilong.core.lang.thread.DefaultPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionConcurrencyLimitPolicy;
+import com.feilong.core.lang.thread.PartitionConcurrencyLimiter;
+import com.feilong.core.lang.thread.PartitionExecuteConfig;
+import com.feilong.core.lang.thread.PartitionExecuteException;
+import com.feilong.core.lang.thread.PartitionExecuteListenerAdapter;
+import com.feilong.core.lang.thread.PartitionFuture;
+import com.feilong.core.lang.thread.PartitionResultHandler;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.SleepOrFailPartitionPerHandler;
+
+/**
+ * The Class PartitionConcurrencyLimiterTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PartitionConcurrencyLimiterTest{
+
+    @Test
+    public void testWaitSharedByExecutors() throws InterruptedException{
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter("test", 2, PartitionConcurrencyLimitPolicy.WAIT);
+        ConcurrentCountListener concurrentCountListener = new ConcurrentCountListener();
+
+        PartitionExecuteConfig partitionExecuteConfig = new PartitionExecuteConfig(false, 0, partitionConcurrencyLimiter);
+        final DefaultPartitionThreadExecutor defaultPartitionThreadExecutor = new DefaultPartitionThreadExecutor(partitionExecuteConfig);
+        final PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(10, 10, partitionExecuteConfig);
+        for (AbstractPartitionThreadExecutor executor : toList(defaultPartitionThreadExecutor, pooledPartitionThreadExecutor)){
+            executor.addPartitionExecuteListener(concurrentCountListener);
+        }
+
+        //---------------------------------------------------------------
+        Thread thread = new Thread(new Runnable(){
+
+            @Override
+            public void run(){
+                ThreadUtil.execute(defaultPartitionThreadExecutor, toList(20, 20, 20, 20, 20), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            }
+        });
+        thread.start();
+        ThreadUtil.execute(pooledPartitionThreadExecutor, toList(20, 20, 20, 20, 20), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+        thread.join();
+
+        assertEquals(10, concurrentCountListener.getCount());
+        assertTrue(concurrentCountListener.getMaxConcurrent() <= 2);
+        assertEquals(0, partitionConcurrencyLimiter.getActivePermits());
+    }
+
+    @Test
+    public void testWaitDefaultThrottleThreadStart(){
+        DefaultPartitionThreadExecutor defaultPartitionThreadExecutor = new DefaultPartitionThreadExecutor(
+                        new PartitionExecuteConfig(false, 0, new PartitionConcurrencyLimiter("test", 2, PartitionConcurrencyLimitPolicy.WAIT)));
+
+        long begin = System.currentTimeMillis();
+        ThreadUtil.execute(defaultPartitionThreadExecutor, toList(50, 50, 50, 50, 50, 50), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+
+        //6 个分区,每次最多 2 个
+        assertTrue(System.currentTimeMillis() - begin >= 150);
+    }
+
+    @Test
+    public void testWaitTimeout() throws InterruptedException{
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter("test", 1, PartitionConcurrencyLimitPolicy.WAIT);
+        assertTrue(partitionConcurrencyLimiter.acquire(0));
+
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(
+                        2,
+                        10,
+                        new PartitionExecuteConfig(false, 100, partitionConcurrencyLimiter));
+        try{
+            ThreadUtil.execute(pooledPartitionThreadExecutor, toList(1, 1), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertTrue(e.isTimeout());
+            assertEquals(2, e.getUnfinishedPartitionThreadEntityList().size());
+        }finally{
+            partitionConcurrencyLimiter.release();
+        }
+        assertEquals(0, partitionConcurrencyLimiter.getActivePermits());
+    }
+
+    @Test
+    public void testReject(){
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter("test", 1, PartitionConcurrencyLimitPolicy.REJECT);
+
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(
+                        4,
+                        10,
+                        new PartitionExecuteConfig(false, 0, partitionConcurrencyLimiter));
+        try{
+            ThreadUtil.execute(pooledPartitionThreadExecutor, toList(200, 200, 200, 200), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            List<PartitionThreadEntity> failedPartitionThreadEntityList = e.getFailedPartitionThreadEntityList();
+            assertTrue(failedPartitionThreadEntityList.size() >= 1);
+            for (Throwable throwable : e.getPartitionThreadEntityAndExceptionMap().values()){
+                assertTrue(throwable instanceof RejectedExecutionException);
+            }
+            assertEquals(failedPartitionThreadEntityList.size(), partitionConcurrencyLimiter.getRejectedCount());
+        }
+        assertEquals(0, partitionConcurrencyLimiter.getActivePermits());
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testAsyncWait() throws Exception{
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter("test", 2, PartitionConcurrencyLimitPolicy.WAIT);
+        ExecutorService executorService = Executors.newFixedThreadPool(6);
+        try{
+            ConcurrentCountResultHandler concurrentCountResultHandler = new ConcurrentCountResultHandler(20);
+            PartitionFuture<Integer> partitionFuture = new AsyncPartitionThreadExecutor(executorService, partitionConcurrencyLimiter)
+                            .executeAndGet(toList(1, 2, 3, 4, 5, 6), 1, null, concurrentCountResultHandler);
+
+            assertEquals(toList(1, 2, 3, 4, 5, 6), partitionFuture.get());
+            assertTrue(concurrentCountResultHandler.getMaxConcurrent() <= 2);
+            assertEquals(0, partitionConcurrencyLimiter.getActivePermits());
+        }finally{
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncReject() throws Exception{
+        PartitionConcurrencyLimiter partitionConcurrencyLimiter = new PartitionConcurrencyLimiter("test", 1, PartitionConcurrencyLimitPolicy.REJECT);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try{
+            PartitionFuture<Integer> partitionFuture = new AsyncPartitionThreadExecutor(executorService, partitionConcurrencyLimiter)
+                            .executeAndGet(toList(1, 2, 3, 4), 1, null, new ConcurrentCountResultHandler(200));
+            try{
+                partitionFuture.get();
+                fail();
+            }catch (ExecutionException e){
+                Map<PartitionThreadEntity, Throwable> map = partitionFuture.getPartitionThreadEntityAndExceptionMap();
+                assertTrue(map.size() >= 1);
+                for (Throwable throwable : map.values()){
+                    assertTrue(throwable instanceof RejectedExecutionException);
+                }
+                assertEquals(map.size(), partitionConcurrencyLimiter.getRejectedCount());
+            }
+            assertEquals(0, partitionConcurrencyLimiter.getActivePermits());
+        }finally{
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncGlobal() throws Exception{
+        PartitionConcurrencyLimiter global = PartitionConcurrencyLimiter
+                        .register(PartitionConcurrencyLimiter.GLOBAL_NAME, 1, PartitionConcurrencyLimitPolicy.WAIT);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try{
+            ConcurrentCountResultHandler concurrentCountResultHandler = new ConcurrentCountResultHandler(10);
+            ThreadUtil.executeAndGetAsync(executorService, toList(1, 2, 3, 4), 1, null, concurrentCountResultHandler).get();
+
+            assertEquals(1, concurrentCountResultHandler.getMaxConcurrent());
+            assertEquals(0, global.getActivePermits());
+        }finally{
+            executorService.shutdownNow();
+            PartitionConcurrencyLimiter.remove(PartitionConcurrencyLimiter.GLOBAL_NAME);
+        }
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testGlobal(){
+        PartitionConcurrencyLimiter global = PartitionConcurrencyLimiter
+                        .register(PartitionConcurrencyLimiter.GLOBAL_NAME, 1, PartitionConcurrencyLimitPolicy.WAIT);
+        try{
+            assertSame(global, PartitionConcurrencyLimiter.register(PartitionConcurrencyLimiter.GLOBAL_NAME, 5, PartitionConcurrencyLimitPolicy.REJECT));
+            assertSame(global, PartitionConcurrencyLimiter.getGlobal());
+
+            ConcurrentCountListener concurrentCountListener = new ConcurrentCountListener();
+            DefaultPartitionThreadExecutor defaultPartitionThreadExecutor = new DefaultPartitionThreadExecutor();
+            defaultPartitionThreadExecutor.addPartitionExecuteListener(concurrentCountListener);
+
+            ThreadUtil.execute(defaultPartitionThreadExecutor, toList(10, 10, 10, 10), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            assertEquals(4, concurrentCountListener.getCount());
+            assertEquals(1, concurrentCountListener.getMaxConcurrent());
+        }finally{
+            PartitionConcurrencyLimiter.remove(PartitionConcurrencyLimiter.GLOBAL_NAME);
+        }
+    }
+
+    //---------------------------------------------------------
+
+    /**
+     * 统计同时执行的分区数量.
+     */
+    private static class ConcurrentCountListener extends PartitionExecuteListenerAdapter{
+
+        private final AtomicInteger current       = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private final List<Integer> batchNumbers  = new ArrayList<>();
+
+        @Override
+        public void onPartitionStart(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos){
+            int value = current.incrementAndGet();
+            while (true){
+                int max = maxConcurrent.get();
+                if (value <= max || maxConcurrent.compareAndSet(max, value)){
+                    break;
+                }
+            }
+            synchronized (batchNumbers){
+                batchNumbers.add(partitionThreadEntity.getBatchNumber());
+            }
+        }
+
+        @Override
+        public void onPartitionEnd(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos,long executeNanos){
+            current.decrementAndGet();
+        }
+
+        public int getMaxConcurrent(){
+            return maxConcurrent.get();
+        }
+
+        public int getCount(){
+            synchronized (batchNumbers){
+                return batchNumbers.size();
+            }
+        }
+    }
+
+    //---------------------------------------------------------
+
+    /**
+     * sleep 之后返回第一个元素,并且统计同时执行的分区数量.
+     */
+    private static class ConcurrentCountResultHandler implements PartitionResultHandler<Integer, Integer>{
+
+        private final AtomicInteger current       = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private final long          sleepMillis;
+
+        public ConcurrentCountResultHandler(long sleepMillis){
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public Integer handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+            int value = current.incrementAndGet();
+            while (true){
+                int max = maxConcurrent.get();
+                if (value <= max || maxConcurrent.compareAndSet(max, value)){
+                    break;
+                }
+            }
+            try{
+                Thread.sleep(sleepMillis);
+            }catch (InterruptedException e){
+                throw new IllegalStateException("interrupted", e);
+            }finally{
+                current.decrementAndGet();
+            }
+            return perBatchList.get(0);
+        }
+
+        public int getMaxConcurrent(){
+            return maxConcurrent.get();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.feilong.core.lang.ThreadUtil;
+import com.feilong.core.lang.thread.DefaultPartitionThreadExecutor;
+import com.feilong.core.lang.thread.ForkJoinPartitionThreadExecutor;
+import com.feilong.core.lang.thread.PartitionExecuteException;
+import com.feilong.core.lang.thread.PartitionExecuteListenerAdapter;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+import com.feilong.core.lang.thread.PooledPartitionThreadExecutor;
+import com.feilong.core.lang.thread.StatisticsPartitionExecuteListener;
+import com.feilong.core.lang.thread.StreamingPartitionThreadExecutor;
+import com.feilong.core.lang.threadutiltest.entity.SleepOrFailPartitionPerHandler;
+
+/**
+ * The Class PartitionExecuteListenerTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class PartitionExecuteListenerTest{
+
+    @Test
+    public void testStatistics(){
+        StatisticsPartitionExecuteListener statisticsPartitionExecuteListener = new StatisticsPartitionExecuteListener();
+
+        PooledPartitionThreadExecutor pooledPartitionThreadExecutor = new PooledPartitionThreadExecutor(1, 10);
+        pooledPartitionThreadExecutor.addPartitionExecuteListener(statisticsPartitionExecuteListener);
+
+        ThreadUtil.execute(pooledPartitionThreadExecutor, toList(10, 10, 10, 100, 1), 2, null, SleepOrFailPartitionPerHandler.INSTANCE);
+
+        assertEquals(1, statisticsPartitionExecuteListener.getExecuteCount());
+        assertEquals(0, statisticsPartitionExecuteListener.getExecuteFailureCount());
+        assertEquals(3, statisticsPartitionExecuteListener.getPartitionCount());
+        assertEquals(0, statisticsPartitionExecuteListener.getPartitionFailureCount());
+        assertEquals(5, statisticsPartitionExecuteListener.getItemCount());
+
+        //单线程池,后面的分区要排队等待前面的分区
+        assertTrue(statisticsPartitionExecuteListener.getQueueWaitNanosPercentile(100) >= millisToNanos(20));
+        assertTrue(statisticsPartitionExecuteListener.getPartitionExecuteNanosPercentile(100) >= millisToNanos(100));
+        assertTrue(statisticsPartitionExecuteListener.getExecuteNanosPercentile(50) >= millisToNanos(130));
+        assertTrue(statisticsPartitionExecuteListener.getPartitionItemThroughputPerSecond() > 0);
+    }
+
+    @Test
+    public void testStatisticsFailure(){
+        StatisticsPartitionExecuteListener statisticsPartitionExecuteListener = new StatisticsPartitionExecuteListener();
+
+        DefaultPartitionThreadExecutor defaultPartitionThreadExecutor = new DefaultPartitionThreadExecutor();
+        defaultPartitionThreadExecutor.addPartitionExecuteListener(statisticsPartitionExecuteListener);
+        try{
+            ThreadUtil.execute(defaultPartitionThreadExecutor, toList(1, -1, 1), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+            fail();
+        }catch (PartitionExecuteException e){
+            assertEquals(1, statisticsPartitionExecuteListener.getExecuteCount());
+            assertEquals(1, statisticsPartitionExecuteListener.getExecuteFailureCount());
+            assertEquals(3, statisticsPartitionExecuteListener.getPartitionCount());
+            assertEquals(1, statisticsPartitionExecuteListener.getPartitionFailureCount());
+            assertEquals(2, statisticsPartitionExecuteListener.getItemCount());
+        }
+    }
+
+    @Test
+    public void testStatisticsStreaming(){
+        StatisticsPartitionExecuteListener statisticsPartitionExecuteListener = new StatisticsPartitionExecuteListener();
+
+        StreamingPartitionThreadExecutor streamingPartitionThreadExecutor = new StreamingPartitionThreadExecutor(2, 2);
+        streamingPartitionThreadExecutor.addPartitionExecuteListener(statisticsPartitionExecuteListener);
+
+        Iterator<Integer> iterator = toList(1, 1, 1, 1, 1, 1, 1).iterator();
+        ThreadUtil.executeStreaming(streamingPartitionThreadExecutor, iterator, 3, null, SleepOrFailPartitionPerHandler.INSTANCE);
+
+        assertEquals(1, statisticsPartitionExecuteListener.getExecuteCount());
+        assertEquals(3, statisticsPartitionExecuteListener.getPartitionCount());
+        assertEquals(7, statisticsPartitionExecuteListener.getItemCount());
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testListenerException(){
+        ForkJoinPartitionThreadExecutor forkJoinPartitionThreadExecutor = new ForkJoinPartitionThreadExecutor(2);
+        forkJoinPartitionThreadExecutor.addPartitionExecuteListener(new PartitionExecuteListenerAdapter(){
+
+            @Override
+            public void onPartitionStart(PartitionThreadEntity partitionThreadEntity,long queueWaitNanos){
+                throw new IllegalStateException("listener exception");
+            }
+        });
+
+        StatisticsPartitionExecuteListener statisticsPartitionExecuteListener = new StatisticsPartitionExecuteListener();
+        forkJoinPartitionThreadExecutor.addPartitionExecuteListener(statisticsPartitionExecuteListener);
+
+        //监听器的异常不影响执行
+        ThreadUtil.execute(forkJoinPartitionThreadExecutor, toList(1, 1, 1, 1), 1, null, SleepOrFailPartitionPerHandler.INSTANCE);
+        assertEquals(4, statisticsPartitionExecuteListener.getItemCount());
+    }
+
+    //---------------------------------------------------------
+
+    @Test
+    public void testToMapAndReset(){
+        StatisticsPartitionExecuteListener statisticsPartitionExecuteListener = new StatisticsPartitionExecuteListener(2);
+        for (int i = 1; i <= 5; ++i){
+            PartitionThreadEntity partitionThreadEntity = new PartitionThreadEntity("test", 5, 1, i - 1, 1);
+            statisticsPartitionExecuteListener.onPartitionStart(partitionThreadEntity, i);
+            statisticsPartitionExecuteListener.onPartitionEnd(partitionThreadEntity, i, i * 100);
+        }
+
+        //采样窗口是2,只保留最近的 400,500
+        assertEquals(400, statisticsPartitionExecuteListener.getPartitionExecuteNanosPercentile(50));
+        assertEquals(500, statisticsPartitionExecuteListener.getPartitionExecuteNanosPercentile(99));
+
+        Map<String, Number> map = statisticsPartitionExecuteListener.toMap();
+        assertEquals(5L, map.get("partition.count"));
+        assertEquals(5L, map.get("partition.queueWait.nanos.max"));
+        assertEquals(0L, map.get("execute.nanos.p99"));
+
+        statisticsPartitionExecuteListener.reset();
+        assertEquals(0, statisticsPartitionExecuteListener.getPartitionCount());
+        assertEquals(0, statisticsPartitionExecuteListener.getPartitionExecuteNanosPercentile(99));
+    }
+
+    //---------------------------------------------------------
+
+    private static long millisToNanos(long millis){
+        return millis * 1000000;
+    }
+}
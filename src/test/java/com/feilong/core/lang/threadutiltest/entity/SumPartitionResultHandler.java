@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.lang.threadutiltest.entity;
+
+import java.util.List;
+import java.util.Map;
+
+import com.feilong.core.lang.thread.PartitionResultHandler;
+import com.feilong.core.lang.thread.PartitionThreadEntity;
+
+/**
+ * 返回每个分区元素之和.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class SumPartitionResultHandler implements PartitionResultHandler<Integer, Integer>{
+
+    /** Static instance. */
+    // the static instance works for all types
+    public static final SumPartitionResultHandler INSTANCE = new SumPartitionResultHandler();
+
+    //---------------------------------------------------------------
+
+    @Override
+    public Integer handle(List<Integer> perBatchList,PartitionThreadEntity partitionThreadEntity,Map<String, ?> paramsMap){
+        int sum = 0;
+        for (Integer value : perBatchList){
+            sum += value;
+        }
+        return sum;
+    }
+}
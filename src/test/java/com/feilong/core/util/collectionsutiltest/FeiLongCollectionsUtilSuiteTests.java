@@ -43,6 +43,7 @@ import org.junit.runners.Suite.SuiteClasses;
                 FindWithPredicateTest.class,
 
                 GetPropertyValueListTest.class,
+                GetPropertyValueColumnsTest.class,
                 GetPropertyValueListBeanTest.class,
                 GetPropertyValueListPropertyNameTest.class,
 
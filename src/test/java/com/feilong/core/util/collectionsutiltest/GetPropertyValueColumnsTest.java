@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2008 feilong
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.feilong.core.util.collectionsutiltest;
+
+import static com.feilong.core.bean.ConvertUtil.toList;
+import static com.feilong.core.bean.ConvertUtil.toMap;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.feilong.core.bean.PropertyValueColumns;
+import com.feilong.core.util.CollectionsUtil;
+import com.feilong.store.member.User;
+
+/**
+ * The Class GetPropertyValueColumnsTest.
+ *
+ * @author <a href="http://feitianbenyue.iteye.com/">feilong</a>
+ * @since 2.1.0
+ */
+public class GetPropertyValueColumnsTest{
+
+    @Test
+    public void testGetPropertyValueColumns(){
+        User user1 = new User(2L);
+        user1.setMoney(new BigDecimal("1.5"));
+        User user2 = new User(5L);
+        user2.setName("jinxin");
+
+        List<User> list = toList(user1, user2);
+        PropertyValueColumns propertyValueColumns = CollectionsUtil.getPropertyValueColumns(list, "id", "name", "money", "userInfo.age");
+
+        assertEquals(2, propertyValueColumns.size());
+        assertArrayEquals(new long[] { 2L, 5L }, propertyValueColumns.getLongArray("id"));
+        assertThat(propertyValueColumns.<String> getList("name"), contains("feilong", "jinxin"));
+        assertArrayEquals(new double[] { 1.5d, 0d }, propertyValueColumns.getDoubleArray("money"), 0d);
+        assertArrayEquals(new int[] { 0, 0 }, propertyValueColumns.getIntArray("userInfo.age"));
+
+        //和 getPropertyValueList 结果一致
+        assertEquals(CollectionsUtil.getPropertyValueList(list, "id"), propertyValueColumns.getList("id"));
+    }
+
+    @Test
+    public void testGetPropertyValueColumnsMap(){
+        List<Map<String, String>> list = toList(toMap("key", "value1"), toMap("key", "value2"));
+
+        PropertyValueColumns propertyValueColumns = CollectionsUtil.getPropertyValueColumns(list, "key", "(key)");
+        Map<String, List<Object>> map = propertyValueColumns.toMap();
+
+        assertThat(map.keySet(), contains("key", "(key)"));
+        assertThat(map.get("(key)"), contains((Object) "value1", "value2"));
+    }
+
+    @Test
+    public void testGetPropertyValueColumnsIterableIterateOnce(){
+        final List<User> list = new ArrayList<>();
+        for (long i = 0; i < 40; ++i){
+            list.add(new User(i));
+        }
+        final AtomicInteger iteratorCount = new AtomicInteger();
+        Iterable<User> iterable = new Iterable<User>(){
+
+            @Override
+            public Iterator<User> iterator(){
+                iteratorCount.incrementAndGet();
+                return list.iterator();
+            }
+        };
+
+        PropertyValueColumns propertyValueColumns = CollectionsUtil.getPropertyValueColumns(iterable, "id");
+        assertEquals(1, iteratorCount.get());
+        assertEquals(40, propertyValueColumns.size());
+        assertEquals(40, propertyValueColumns.getArray("id").length);
+        assertEquals(CollectionsUtil.getPropertyValueList(list, "id"), propertyValueColumns.getList("id"));
+    }
+
+    @Test
+    public void testGetPropertyValueColumnsNullOrEmpty(){
+        assertEquals(0, CollectionsUtil.getPropertyValueColumns(null, "id").size());
+        assertEquals(0, CollectionsUtil.getPropertyValueColumns(toList(), "id").getLongArray("id").length);
+    }
+
+    //---------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPropertyValueColumnsNotNumber(){
+        CollectionsUtil.getPropertyValueColumns(toList(new User(2L)), "name").getLongArray("name");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPropertyValueColumnsNotExtracted(){
+        CollectionsUtil.getPropertyValueColumns(toList(new User(2L)), "id").getList("name");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetPropertyValueColumnsNullPropertyNames(){
+        CollectionsUtil.getPropertyValueColumns(toList(new User(2L)), (String[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPropertyValueColumnsBlankPropertyName(){
+        CollectionsUtil.getPropertyValueColumns(toList(new User(2L)), "id", " ");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetPropertyValueColumnsUnmodifiable(){
+        CollectionsUtil.getPropertyValueColumns(toList(new User(2L)), "id").getList("id").add(1L);
+    }
+}